@@ -0,0 +1,206 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures forceConstraintIntegrity on synthetic constraint layers. Three kinds
+ * of layers are used :
+ *
+ *   * crossing roads, with a controlled number of intersections per edge.<br/>
+ *
+ *   * groups of collinear overlapping edges (the SHARE_EDGE_PART case).<br/>
+ *
+ *   * a network of edges sharing their extremities, without any intersection.<p></p>
+ *
+ * The mesh is filled with a new set of constraints before each invocation, as
+ * forceConstraintIntegrity modifies it. The primary result is the number of
+ * sweeps per second (use -bm avgt to get the time of a sweep). The "intersections"
+ * secondary result gives the number of intersection points created per second, the
+ * "edges" one the number of input edges processed per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx4g"})
+public class ConstraintIntegrityBenchmark {
+
+	/**
+	 * Counts the intersections and the input edges processed during an iteration.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class EventCounter {
+		private long intersections;
+		private long edges;
+
+		@Setup(Level.Iteration)
+		public final void reset(){
+			intersections = 0;
+			edges = 0;
+		}
+
+		/**
+		 * @return the number of intersection points added to the mesh.
+		 */
+		public final long intersections(){
+			return intersections;
+		}
+
+		/**
+		 * @return the number of input constraint edges.
+		 */
+		public final long edges(){
+			return edges;
+		}
+	}
+
+	/**
+	 * Common code for the states : they build a new mesh filled with their
+	 * constraints before each invocation.
+	 */
+	public abstract static class ConstrainedState {
+		private ConstrainedMesh mesh;
+		private int inputPoints;
+		private int inputEdges;
+
+		/**
+		 * @return a new set of constraint edges.
+		 * @throws DelaunayError
+		 */
+		abstract List<DEdge> generate() throws DelaunayError;
+
+		@Setup(Level.Invocation)
+		public final void fill() throws DelaunayError {
+			mesh = new ConstrainedMesh();
+			List<DEdge> constraints = generate();
+			mesh.setConstraintEdges(new ArrayList<DEdge>(constraints));
+			inputPoints = mesh.getPoints().size();
+			inputEdges = constraints.size();
+		}
+
+		/**
+		 * Process the constraints, and count the events.
+		 * @param counter
+		 * @return
+		 * @throws DelaunayError
+		 */
+		final ConstrainedMesh run(EventCounter counter) throws DelaunayError {
+			mesh.forceConstraintIntegrity();
+			counter.intersections += mesh.getPoints().size() - inputPoints;
+			counter.edges += inputEdges;
+			return mesh;
+		}
+	}
+
+	/**
+	 * Crossing roads.
+	 */
+	@State(Scope.Thread)
+	public static class Crossing extends ConstrainedState {
+		@Param({"1000", "10000", "50000"})
+		private int edges;
+
+		@Param({"0.1", "1", "10"})
+		private double density;
+
+		@Override
+		final List<DEdge> generate() throws DelaunayError {
+			return ConstraintSets.crossing(edges, density);
+		}
+	}
+
+	/**
+	 * Collinear overlapping edges.
+	 */
+	@State(Scope.Thread)
+	public static class Collinear extends ConstrainedState {
+		@Param({"1000", "10000", "50000"})
+		private int edges;
+
+		@Param({"2", "10"})
+		private int overlap;
+
+		@Override
+		final List<DEdge> generate() throws DelaunayError {
+			return ConstraintSets.collinear(edges, overlap);
+		}
+	}
+
+	/**
+	 * Edges sharing their extremities.
+	 */
+	@State(Scope.Thread)
+	public static class Shared extends ConstrainedState {
+		@Param({"1000", "10000", "50000"})
+		private int edges;
+
+		@Override
+		final List<DEdge> generate() throws DelaunayError {
+			return ConstraintSets.sharedExtremities(edges);
+		}
+	}
+
+	@Benchmark
+	public final ConstrainedMesh crossing(Crossing state, EventCounter counter) throws DelaunayError {
+		return state.run(counter);
+	}
+
+	@Benchmark
+	public final ConstrainedMesh collinear(Collinear state, EventCounter counter) throws DelaunayError {
+		return state.run(counter);
+	}
+
+	@Benchmark
+	public final ConstrainedMesh sharedExtremities(Shared state, EventCounter counter) throws DelaunayError {
+		return state.run(counter);
+	}
+}
@@ -0,0 +1,176 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+
+/**
+ * Generators for the constraint edges used in the benchmarks of
+ * forceConstraintIntegrity. As in PointSets, the generators are deterministic.
+ *
+ * forceConstraintIntegrity modifies the edges and points it processes, so a new
+ * set must be generated for each run.
+ */
+public final class ConstraintSets {
+
+	private static final long SEED = 42L;
+	private static final double SPACING = 10;
+
+	/**
+	 * Default constructor is private : this is an utility class.
+	 */
+	private ConstraintSets(){
+	}
+
+	/**
+	 * Generate a network of roads : a set of nearly horizontal polylines crossing
+	 * a set of nearly vertical ones. Each road crosses all the roads of the other
+	 * set exactly once, so the number of intersections is controlled by the number
+	 * of roads, and the number of edges by the number of segments in each road.
+	 * @param number
+	 *		The approximate number of edges.
+	 * @param density
+	 *		The wanted average number of intersections per edge.
+	 * @return
+	 *		The list of edges. Their ends are not shared between the two sets of roads.
+	 * @throws DelaunayError
+	 */
+	public static List<DEdge> crossing(int number, double density) throws DelaunayError {
+		//with m roads in each direction made of s segments, we have 2*m*s edges
+		//and m*m intersections.
+		int roads = Math.max(1, (int) Math.round(Math.sqrt(number * density)));
+		int segments = Math.max(1, number / (2 * roads));
+		double side = roads * SPACING;
+		double step = side / segments;
+		//The amplitude of the noise is small enough to keep the intersection
+		//count stable.
+		double noise = SPACING / 10;
+		Random rand = new Random(SEED);
+		List<DEdge> ret = new ArrayList<DEdge>(2 * roads * segments);
+		for(int r = 0; r < roads; r++){
+			double base = (r + 0.5) * SPACING;
+			double[] along = new double[segments + 1];
+			double[] across = new double[segments + 1];
+			for(int k = 0; k <= segments; k++){
+				along[k] = k * step;
+				across[k] = base + (rand.nextDouble() - 0.5) * noise;
+			}
+			for(int k = 0; k < segments; k++){
+				ret.add(new DEdge(along[k], across[k], r, along[k + 1], across[k + 1], r));
+			}
+			for(int k = 0; k <= segments; k++){
+				across[k] = base + (rand.nextDouble() - 0.5) * noise;
+			}
+			for(int k = 0; k < segments; k++){
+				ret.add(new DEdge(across[k], along[k], -r, across[k + 1], along[k + 1], -r));
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Generate groups of collinear edges that overlap each other, as it happens
+	 * when a layer is digitized twice. Each group is made of overlap edges lying
+	 * on the same line, each one sharing the half of its length with the previous
+	 * one. They are processed in the SHARE_EDGE_PART case of the sweep. The
+	 * coordinates are integers, so that the collinearity is exact.
+	 * @param number
+	 *		The approximate number of edges.
+	 * @param overlap
+	 *		The number of edges in each group.
+	 * @return
+	 * @throws DelaunayError
+	 */
+	public static List<DEdge> collinear(int number, int overlap) throws DelaunayError {
+		int groups = Math.max(1, number / overlap);
+		int cols = (int) Math.ceil(Math.sqrt(groups));
+		Random rand = new Random(SEED);
+		//Each group is drawn in its own cell, that is large enough to contain it.
+		double cell = 4 * (overlap + 2);
+		List<DEdge> ret = new ArrayList<DEdge>(groups * overlap);
+		for(int g = 0; g < groups; g++){
+			double x0 = (g % cols) * cell;
+			double y0 = (g / cols) * cell;
+			int dx = 1 + rand.nextInt(2);
+			int dy = rand.nextInt(3) - 1;
+			for(int k = 0; k < overlap; k++){
+				double sx = x0 + 2 * k * dx;
+				double sy = y0 + cell / 2 + 2 * k * dy;
+				ret.add(new DEdge(sx, sy, k, sx + 4 * dx, sy + 4 * dy, k));
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Generate a network of parcels : the edges link the nodes of a jittered
+	 * grid to their right and upper neighbours, and to their upper right
+	 * neighbour one time in two. There is no intersection, but all the
+	 * extremities are shared by several edges.
+	 * @param number
+	 *		The approximate number of edges.
+	 * @return
+	 * @throws DelaunayError
+	 */
+	public static List<DEdge> sharedExtremities(int number) throws DelaunayError {
+		//we have approximately 2.5 edges per node.
+		int n = Math.max(2, (int) Math.ceil(Math.sqrt(number / 2.5)));
+		Random rand = new Random(SEED);
+		double noise = SPACING / 4;
+		double[][] xs = new double[n][n];
+		double[][] ys = new double[n][n];
+		for(int i = 0; i < n; i++){
+			for(int j = 0; j < n; j++){
+				xs[i][j] = i * SPACING + (rand.nextDouble() - 0.5) * noise;
+				ys[i][j] = j * SPACING + (rand.nextDouble() - 0.5) * noise;
+			}
+		}
+		List<DEdge> ret = new ArrayList<DEdge>(3 * n * n);
+		for(int i = 0; i < n; i++){
+			for(int j = 0; j < n; j++){
+				if(i + 1 < n){
+					ret.add(new DEdge(xs[i][j], ys[i][j], 0, xs[i + 1][j], ys[i + 1][j], 0));
+				}
+				if(j + 1 < n){
+					ret.add(new DEdge(xs[i][j], ys[i][j], 0, xs[i][j + 1], ys[i][j + 1], 0));
+				}
+				if(i + 1 < n && j + 1 < n && (i + j) % 2 == 0){
+					ret.add(new DEdge(xs[i][j], ys[i][j], 0, xs[i + 1][j + 1], ys[i + 1][j + 1], 0));
+				}
+			}
+		}
+		return ret;
+	}
+}
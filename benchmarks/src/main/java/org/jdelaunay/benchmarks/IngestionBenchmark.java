@@ -0,0 +1,112 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.MeshBuilder;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the loading of points in a mesh, before any triangulation : either
+ * one by one with ConstrainedMesh.addPoint, or in bulk with MeshBuilder.
+ *
+ * The incremental loading is quadratic, the sizes above 100000 points should
+ * only be used with the BUILDER mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class IngestionBenchmark {
+
+	/**
+	 * The ways of loading the points.
+	 */
+	public enum Loading {
+		/** ConstrainedMesh.addPoint, for each point. */
+		INCREMENTAL,
+		/** MeshBuilder.addPoint for each point, then MeshBuilder.build. */
+		BUILDER
+	}
+
+	@Param({"INCREMENTAL", "BUILDER"})
+	private Loading loading;
+
+	@Param({"10000", "100000"})
+	private int size;
+
+	private double[] coordinates;
+
+	@Setup(Level.Trial)
+	public final void generate() throws DelaunayError {
+		List<DPoint> pts = PointSets.generate(PointSets.Distribution.UNIFORM, size);
+		coordinates = new double[3 * pts.size()];
+		for(int i = 0; i < pts.size(); i++){
+			coordinates[3 * i] = pts.get(i).getX();
+			coordinates[3 * i + 1] = pts.get(i).getY();
+			coordinates[3 * i + 2] = pts.get(i).getZ();
+		}
+	}
+
+	@Benchmark
+	public final ConstrainedMesh load() throws DelaunayError {
+		int n = coordinates.length / 3;
+		if(loading == Loading.INCREMENTAL){
+			ConstrainedMesh mesh = new ConstrainedMesh();
+			for(int i = 0; i < n; i++){
+				mesh.addPoint(new DPoint(coordinates[3 * i], coordinates[3 * i + 1], coordinates[3 * i + 2]));
+			}
+			return mesh;
+		}
+		MeshBuilder builder = new MeshBuilder(n);
+		for(int i = 0; i < n; i++){
+			builder.addPoint(coordinates[3 * i], coordinates[3 * i + 1], coordinates[3 * i + 2]);
+		}
+		return builder.build();
+	}
+}
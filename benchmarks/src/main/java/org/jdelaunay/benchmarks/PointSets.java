@@ -0,0 +1,230 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DPoint;
+
+/**
+ * Generators for the point sets used in the benchmarks. All the generators are
+ * deterministic : two calls with the same arguments return the same points, so
+ * that two runs of a benchmark can be compared.
+ *
+ * The points are generated in a square whose side is proportional to the square
+ * root of the number of points, so that the density of the set does not depend on
+ * its size.
+ */
+public final class PointSets {
+
+	/**
+	 * The distributions available in the benchmarks.
+	 */
+	public enum Distribution {
+		/** Points drawn uniformly in a square. */
+		UNIFORM,
+		/** Points gathered around a few gaussian cluster centers. */
+		CLUSTERED,
+		/** Points on a regular grid : a highly cocircular input. */
+		GRID,
+		/** Points sampled along the level lines of a synthetic relief. */
+		CONTOUR
+	}
+
+	private static final long SEED = 42L;
+	private static final int POINTS_PER_CLUSTER = 2000;
+
+	/**
+	 * Default constructor is private : this is an utility class.
+	 */
+	private PointSets(){
+	}
+
+	/**
+	 * Generate a set of points
+	 * @param dist
+	 *		The wanted distribution
+	 * @param number
+	 *		The approximate number of points.
+	 * @return
+	 *		A new list of points. It is not sorted.
+	 * @throws DelaunayError
+	 */
+	public static List<DPoint> generate(Distribution dist, int number) throws DelaunayError {
+		switch(dist){
+			case UNIFORM :
+				return uniform(number);
+			case CLUSTERED :
+				return clustered(number);
+			case GRID :
+				return grid(number);
+			case CONTOUR :
+				return contour(number);
+			default :
+				throw new IllegalArgumentException("Unknown distribution "+dist);
+		}
+	}
+
+	/**
+	 * Get the side of the square that will contain number points.
+	 * @param number
+	 * @return
+	 */
+	static double getSide(int number){
+		return Math.sqrt(number) * 10;
+	}
+
+	/**
+	 * Points drawn uniformly in a square.
+	 * @param number
+	 * @return
+	 * @throws DelaunayError
+	 */
+	public static List<DPoint> uniform(int number) throws DelaunayError {
+		Random rand = new Random(SEED);
+		double side = getSide(number);
+		List<DPoint> ret = new ArrayList<DPoint>(number);
+		for(int i = 0; i < number; i++){
+			double x = rand.nextDouble() * side;
+			double y = rand.nextDouble() * side;
+			ret.add(new DPoint(x, y, relief(x, y, side)));
+		}
+		return ret;
+	}
+
+	/**
+	 * Points gathered around gaussian clusters. The centers of the clusters are
+	 * drawn uniformly in the square.
+	 * @param number
+	 * @return
+	 * @throws DelaunayError
+	 */
+	public static List<DPoint> clustered(int number) throws DelaunayError {
+		Random rand = new Random(SEED);
+		double side = getSide(number);
+		int clusters = Math.max(1, number / POINTS_PER_CLUSTER);
+		double[] cx = new double[clusters];
+		double[] cy = new double[clusters];
+		for(int i = 0; i < clusters; i++){
+			cx[i] = rand.nextDouble() * side;
+			cy[i] = rand.nextDouble() * side;
+		}
+		double sigma = side / Math.sqrt(clusters) / 8;
+		List<DPoint> ret = new ArrayList<DPoint>(number);
+		for(int i = 0; i < number; i++){
+			int c = rand.nextInt(clusters);
+			double x = cx[c] + rand.nextGaussian() * sigma;
+			double y = cy[c] + rand.nextGaussian() * sigma;
+			ret.add(new DPoint(x, y, relief(x, y, side)));
+		}
+		return ret;
+	}
+
+	/**
+	 * Points on a regular grid. All the cells of the grid are made of four
+	 * cocircular points, which is the worst case for the inCircle tests.
+	 * @param number
+	 * @return
+	 * @throws DelaunayError
+	 */
+	public static List<DPoint> grid(int number) throws DelaunayError {
+		int n = (int) Math.ceil(Math.sqrt(number));
+		double side = getSide(number);
+		double step = side / n;
+		List<DPoint> ret = new ArrayList<DPoint>(n * n);
+		for(int i = 0; i < n; i++){
+			for(int j = 0; j < n; j++){
+				double x = i * step;
+				double y = j * step;
+				ret.add(new DPoint(x, y, relief(x, y, side)));
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Points sampled along the level lines of a synthetic relief made of
+	 * concentric hills. Consecutive points on a line are much closer than the
+	 * lines themselves, as it happens with digitized contour maps. Many flat
+	 * triangles are built with such data.
+	 * @param number
+	 * @return
+	 * @throws DelaunayError
+	 */
+	public static List<DPoint> contour(int number) throws DelaunayError {
+		double side = getSide(number);
+		//We use one ring for 200 points
+		int rings = Math.max(1, number / 200);
+		int hills = Math.max(1, (int) Math.sqrt(rings / 10.0));
+		int ringsPerHill = Math.max(1, rings / (hills * hills));
+		double hillSide = side / hills;
+		double maxRadius = hillSide * 0.45;
+		//we compute the total length of the rings, to distribute the points.
+		double totalLength = 0;
+		for(int r = 1; r <= ringsPerHill; r++){
+			totalLength += 2 * Math.PI * maxRadius * r / ringsPerHill;
+		}
+		totalLength *= hills * hills;
+		double spacing = totalLength / number;
+		List<DPoint> ret = new ArrayList<DPoint>(number);
+		for(int hx = 0; hx < hills; hx++){
+			for(int hy = 0; hy < hills; hy++){
+				double cx = (hx + 0.5) * hillSide;
+				double cy = (hy + 0.5) * hillSide;
+				for(int r = 1; r <= ringsPerHill; r++){
+					double radius = maxRadius * r / ringsPerHill;
+					int count = Math.max(3, (int) (2 * Math.PI * radius / spacing));
+					double z = ringsPerHill - r;
+					for(int k = 0; k < count; k++){
+						double angle = 2 * Math.PI * k / count;
+						ret.add(new DPoint(cx + radius * Math.cos(angle), cy + radius * Math.sin(angle), z));
+					}
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * A smooth synthetic relief, used to give a z to the generated points.
+	 * @param x
+	 * @param y
+	 * @param side
+	 * @return
+	 */
+	private static double relief(double x, double y, double side){
+		double u = x / side * 2 * Math.PI;
+		double v = y / side * 2 * Math.PI;
+		return 100 * Math.sin(u) * Math.cos(v) + 20 * Math.sin(5 * u + v);
+	}
+}
@@ -0,0 +1,205 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.evaluator.InsertionEvaluator;
+import org.jdelaunay.delaunay.evaluator.SkinnyEvaluator;
+import org.jdelaunay.delaunay.geometries.DPoint;
+import org.jdelaunay.delaunay.geometries.DTriangle;
+import org.jdelaunay.delaunay.monitor.MeshCounter;
+import org.jdelaunay.delaunay.monitor.MeshStatistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the Ruppert refinement of triangulations of increasing size, with
+ * several minimum angles and minimum lengths. The mean distance between the
+ * input points is about 10 (see PointSets), the minimum lengths must be read
+ * against this value.
+ *
+ * A new mesh is triangulated before each invocation, only the refinement is
+ * measured. The primary result is the number of refinements per second (use
+ * -bm avgt to get the time of a refinement). The secondary results are given
+ * per second too :
+ *
+ *   * steinerPoints : the points inserted by the refinement.<br/>
+ *
+ *   * candidates : the triangles found skinny by the evaluator, ie the
+ *     insertions that have been tried.<br/>
+ *
+ *   * revertedInsertions : the insertions that have been reverted because
+ *     they would have encroached an edge.<p></p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx4g"})
+public class RefinementBenchmark {
+
+	@Param({"UNIFORM", "CONTOUR"})
+	private PointSets.Distribution distribution;
+
+	@Param({"1000", "10000", "100000"})
+	private int size;
+
+	@Param({"15", "25"})
+	private double angle;
+
+	@Param({"1", "5"})
+	private double minLength;
+
+	private List<DPoint> input;
+	private ConstrainedMesh mesh;
+	private int inputPoints;
+	private MeshStatistics stats;
+
+	/**
+	 * Counts the Steiner points and the candidate triangles of an iteration.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class RefinementCounter {
+		private long steinerPoints;
+		private long candidates;
+		private long revertedInsertions;
+
+		@Setup(Level.Iteration)
+		public final void reset(){
+			steinerPoints = 0;
+			candidates = 0;
+			revertedInsertions = 0;
+		}
+
+		/**
+		 * @return the number of points added by the refinement.
+		 */
+		public final long steinerPoints(){
+			return steinerPoints;
+		}
+
+		/**
+		 * @return the number of triangles found skinny.
+		 */
+		public final long candidates(){
+			return candidates;
+		}
+
+		/**
+		 * @return the number of reverted insertions.
+		 */
+		public final long revertedInsertions(){
+			return revertedInsertions;
+		}
+	}
+
+	/**
+	 * An evaluator that counts the triangles it accepts.
+	 */
+	private static final class CountingEvaluator implements InsertionEvaluator {
+		private final InsertionEvaluator delegate;
+		private final RefinementCounter counter;
+
+		CountingEvaluator(InsertionEvaluator delegate, RefinementCounter counter){
+			this.delegate = delegate;
+			this.counter = counter;
+		}
+
+		@Override
+		public boolean evaluate(DTriangle dt) {
+			boolean ret = delegate.evaluate(dt);
+			if(ret){
+				counter.candidates++;
+			}
+			return ret;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public final void generate() throws DelaunayError {
+		input = PointSets.generate(distribution, size);
+	}
+
+	@Setup(Level.Invocation)
+	public final void triangulate() throws DelaunayError {
+		List<DPoint> pts = new ArrayList<DPoint>(input.size());
+		//The refinement may change the points, we use copies.
+		for(DPoint pt : input){
+			pts.add(new DPoint(pt));
+		}
+		mesh = new ConstrainedMesh();
+		mesh.setPoints(pts);
+		mesh.processDelaunay();
+		inputPoints = mesh.getPoints().size();
+		stats = new MeshStatistics();
+		mesh.setMeshListener(stats);
+	}
+
+	/**
+	 * Report the values of the refinement in the counter.
+	 * @param counter
+	 */
+	private void count(RefinementCounter counter){
+		counter.steinerPoints += mesh.getPoints().size() - inputPoints;
+		counter.revertedInsertions += stats.getCount(MeshCounter.REVERTED_INSERTIONS);
+	}
+
+	@Benchmark
+	public final ConstrainedMesh refineMesh(RefinementCounter counter) throws DelaunayError {
+		mesh.refineMesh(minLength, new CountingEvaluator(new SkinnyEvaluator(angle), counter));
+		count(counter);
+		return mesh;
+	}
+
+	@Benchmark
+	public final ConstrainedMesh refineTriangles(RefinementCounter counter) throws DelaunayError {
+		mesh.refineTriangles(minLength, new CountingEvaluator(new SkinnyEvaluator(angle), counter));
+		count(counter);
+		return mesh;
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.TriangulationEngine;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DPoint;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of the Delaunay triangulation, ie of setPoints followed
+ * by processDelaunay, on several distributions and sizes of point sets, with each
+ * of the triangulation engines.
+ *
+ * Each invocation triangulates the whole point set. The primary result is thus
+ * given in triangulations per second, while the secondary "points" result is
+ * given in points per second. The allocation rate is obtained with the gc
+ * profiler, that is enabled by default when using BenchmarkRunner.
+ *
+ * The default sizes go up to one million points, so that the whole matrix runs
+ * in about half an hour. Larger point sets are given with the -p option of JMH :
+ * java -jar target/benchmarks.jar TriangulationBenchmark -p size=10000000
+ * Ten million points fit in the 8 GB heap of the forked JVM. A larger heap is
+ * given with -jvmArgsAppend, that replaces the one of the annotation :
+ * -jvmArgsAppend "-Xms2g -Xmx16g".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class TriangulationBenchmark {
+
+	@Param({"UNIFORM", "CLUSTERED", "GRID", "CONTOUR"})
+	private PointSets.Distribution distribution;
+
+	@Param({"10000", "100000", "1000000"})
+	private int size;
+
+	@Param({"SWEEP", "INCREMENTAL", "DIVIDE_AND_CONQUER", "PARALLEL_SWEEP"})
+	private TriangulationEngine engine;
+
+	private List<DPoint> input;
+
+	/**
+	 * Counts the points that have been triangulated during an iteration.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class PointCounter {
+		private long points;
+
+		@Setup(Level.Iteration)
+		public final void reset(){
+			points = 0;
+		}
+
+		/**
+		 * @return the number of points triangulated since the beginning of
+		 * the iteration.
+		 */
+		public final long points(){
+			return points;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public final void generate() throws DelaunayError {
+		input = PointSets.generate(distribution, size);
+	}
+
+	@Benchmark
+	public final ConstrainedMesh triangulate(PointCounter counter) throws DelaunayError {
+		ConstrainedMesh mesh = new ConstrainedMesh();
+		mesh.setEngine(engine);
+		//setPoints sorts the list it receives and keeps it, we must give it a copy.
+		mesh.setPoints(new ArrayList<DPoint>(input));
+		mesh.processDelaunay();
+		counter.points += mesh.getPoints().size();
+		return mesh;
+	}
+}
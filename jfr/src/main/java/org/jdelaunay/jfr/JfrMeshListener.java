@@ -0,0 +1,206 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.jfr;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.monitor.MeshCounter;
+import org.jdelaunay.delaunay.monitor.MeshListener;
+import org.jdelaunay.delaunay.monitor.MeshPhase;
+import org.jdelaunay.delaunay.monitor.ProgressMonitor;
+
+/**
+ * Emits Java Flight Recorder events for the processing of a ConstrainedMesh : a
+ * MeshPhaseEvent for each phase, and a MeshBatchEvent for each batch of steps of
+ * the long loops. These events can be correlated with the GC pauses and the CPU
+ * samples of the same recording.
+ *
+ * Use install to attach a new instance to a mesh, as both its MeshListener and its
+ * ProgressMonitor. An instance is bound to a single mesh, and must be used in the
+ * thread that processes it. When the events are not enabled in the running
+ * recordings, they are created but never committed.
+ */
+public class JfrMeshListener implements MeshListener, ProgressMonitor {
+
+        private final ConstrainedMesh mesh;
+        //The phases that have begun and are not finished yet. They can be
+        //nested, as removeFlatTriangles calls processDelaunay.
+        private final Map<MeshPhase, MeshPhaseEvent> phases =
+                new EnumMap<MeshPhase, MeshPhaseEvent>(MeshPhase.class);
+        //The same phases, the last one begun first : the counters go to it.
+        private final Deque<MeshPhase> open = new ArrayDeque<MeshPhase>();
+        //The current batch of each running phase, and the step where it begun.
+        private final Map<MeshPhase, MeshBatchEvent> batches =
+                new EnumMap<MeshPhase, MeshBatchEvent>(MeshPhase.class);
+        private final Map<MeshPhase, Long> batchStarts =
+                new EnumMap<MeshPhase, Long>(MeshPhase.class);
+
+        /**
+         * Build a listener that will read the sizes of mesh at the end of each
+         * phase. Use install to attach it to the mesh.
+         * @param mesh
+         */
+        public JfrMeshListener(ConstrainedMesh mesh) {
+                this.mesh = mesh;
+        }
+
+        /**
+         * Create a new JfrMeshListener and set it as the MeshListener and the
+         * ProgressMonitor of mesh.
+         * @param mesh
+         * @return
+         *      The new listener.
+         */
+        public static JfrMeshListener install(ConstrainedMesh mesh) {
+                JfrMeshListener ret = new JfrMeshListener(mesh);
+                mesh.setMeshListener(ret);
+                mesh.setProgressMonitor(ret);
+                return ret;
+        }
+
+        @Override
+        public final void phaseStarted(MeshPhase phase) {
+                MeshPhaseEvent event = new MeshPhaseEvent();
+                event.phase = phase.name();
+                event.begin();
+                phases.put(phase, event);
+                open.push(phase);
+                startBatch(phase, 0);
+        }
+
+        @Override
+        public final void phaseFinished(MeshPhase phase, long nanos) {
+                batches.remove(phase);
+                batchStarts.remove(phase);
+                open.remove(phase);
+                MeshPhaseEvent event = phases.remove(phase);
+                if(event == null || !event.isEnabled()){
+                        return;
+                }
+                event.end();
+                event.phaseTime = nanos;
+                event.points = size(mesh.getPoints());
+                event.edges = size(mesh.getEdges());
+                event.triangles = size(mesh.getTriangleList());
+                event.constraints = size(mesh.getConstraintEdges());
+                event.commit();
+        }
+
+        /**
+         * Add amount to the counter of the innermost running phase only, so that
+         * each event is counted once. As FLIPS begins after SWEEP, the counters
+         * of the sweep go to the FLIPS event.
+         */
+        @Override
+        public final void count(MeshCounter counter, long amount) {
+                MeshPhase current = open.peek();
+                if(current == null){
+                        return;
+                }
+                MeshPhaseEvent event = phases.get(current);
+                switch(counter){
+                        case POINTS_CREATED :
+                                event.pointsCreated += amount;
+                                break;
+                        case EDGES_CREATED :
+                                event.edgesCreated += amount;
+                                break;
+                        case TRIANGLES_CREATED :
+                                event.trianglesCreated += amount;
+                                break;
+                        case FLIPS :
+                                event.flips += amount;
+                                break;
+                        case IN_CIRCLE_TESTS :
+                                event.inCircleTests += amount;
+                                break;
+                        case BOUNDARY_PARTS :
+                                event.boundaryParts += amount;
+                                break;
+                        case REVERTED_INSERTIONS :
+                                event.revertedInsertions += amount;
+                                break;
+                        case REVERTED_SWAPS :
+                                event.revertedSwaps += amount;
+                                break;
+                        case POINTS_MERGED :
+                                event.pointsMerged += amount;
+                                break;
+                        case POINTS_REMOVED :
+                                event.pointsRemoved += amount;
+                                break;
+                        default :
+                                break;
+                }
+        }
+
+        @Override
+        public final void progress(MeshPhase phase, long done, long total) {
+                MeshBatchEvent batch = batches.get(phase);
+                if(batch != null && done > batchStarts.get(phase)){
+                        batch.end();
+                        if(batch.shouldCommit()){
+                                batch.phase = phase.name();
+                                batch.first = batchStarts.get(phase);
+                                batch.last = done;
+                                batch.total = total;
+                                batch.commit();
+                        }
+                        startBatch(phase, done);
+                } else if(batch == null) {
+                        startBatch(phase, done);
+                }
+        }
+
+        /**
+         * Begin a new batch for phase.
+         * @param phase
+         * @param first
+         *      The number of steps done before the batch.
+         */
+        private void startBatch(MeshPhase phase, long first) {
+                MeshBatchEvent batch = new MeshBatchEvent();
+                batch.begin();
+                batches.put(phase, batch);
+                batchStarts.put(phase, first);
+        }
+
+        /**
+         * The size of a list of the mesh, which may not be built yet.
+         */
+        private static int size(List<?> list) {
+                return list == null ? 0 : list.size();
+        }
+}
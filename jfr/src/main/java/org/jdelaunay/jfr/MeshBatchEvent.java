@@ -0,0 +1,67 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JFR event that covers a batch of steps of a long loop of a ConstrainedMesh :
+ * the points inserted during the sweep, the events of the constraint processing,
+ * the triangles of the refinement... A batch ends each time the mesh reports its
+ * progress, ie every ConstrainedMesh.PROGRESS_STEP steps.
+ */
+@Name("org.jdelaunay.MeshBatch")
+@Label("Mesh Batch")
+@Category({"jDelaunay"})
+@Description("A batch of steps of a long loop of a ConstrainedMesh")
+@StackTrace(false)
+public class MeshBatchEvent extends Event {
+
+        @Label("Phase")
+        String phase;
+
+        @Label("First Step")
+        @Description("The number of steps done before this batch")
+        long first;
+
+        @Label("Last Step")
+        @Description("The number of steps done after this batch")
+        long last;
+
+        @Label("Total")
+        @Description("The total number of steps known at the end of the batch, negative if unknown")
+        long total;
+}
@@ -0,0 +1,113 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A JFR event that covers one phase of the processing of a ConstrainedMesh :
+ * processDelaunay, forceConstraintIntegrity, refineMesh or refineTriangles,
+ * removeFlatTriangles and dataQualification. The sizes of the mesh are read when
+ * the phase ends, the counters are the ones reported during the phase, nested
+ * phases excluded : each count goes to a single event.
+ *
+ * The SWEEP and FLIPS phases are interleaved : both events cover the whole
+ * triangulation, and their phaseTime field contains the time actually spent in
+ * each phase. All the counters of the triangulation go to the FLIPS event.
+ */
+@Name("org.jdelaunay.MeshPhase")
+@Label("Mesh Phase")
+@Category({"jDelaunay"})
+@Description("A phase of the processing of a ConstrainedMesh")
+@StackTrace(false)
+public class MeshPhaseEvent extends Event {
+
+        @Label("Phase")
+        String phase;
+
+        @Label("Phase Time")
+        @Description("The time spent in the phase, when it is interleaved with another one")
+        @Timespan(Timespan.NANOSECONDS)
+        long phaseTime;
+
+        @Label("Points")
+        @Description("The number of points of the mesh at the end of the phase")
+        int points;
+
+        @Label("Edges")
+        @Description("The number of edges of the mesh at the end of the phase")
+        int edges;
+
+        @Label("Triangles")
+        @Description("The number of triangles of the mesh at the end of the phase")
+        int triangles;
+
+        @Label("Constraints")
+        @Description("The number of constraint edges at the end of the phase")
+        int constraints;
+
+        @Label("Points Created")
+        long pointsCreated;
+
+        @Label("Edges Created")
+        long edgesCreated;
+
+        @Label("Triangles Created")
+        long trianglesCreated;
+
+        @Label("Flips")
+        long flips;
+
+        @Label("InCircle Tests")
+        long inCircleTests;
+
+        @Label("Boundary Parts")
+        @Description("The sum of the sizes of the sweep boundary, after each insertion")
+        long boundaryParts;
+
+        @Label("Reverted Insertions")
+        long revertedInsertions;
+
+        @Label("Reverted Swaps")
+        long revertedSwaps;
+
+        @Label("Points Merged")
+        long pointsMerged;
+
+        @Label("Points Removed")
+        long pointsRemoved;
+}
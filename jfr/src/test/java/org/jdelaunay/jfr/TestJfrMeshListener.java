@@ -0,0 +1,127 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.jfr;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.TestCase;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.evaluator.SkinnyEvaluator;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+
+/**
+ * Records the events emitted while processing a mesh, and checks them.
+ */
+public class TestJfrMeshListener extends TestCase {
+
+        /**
+         * Process a mesh while recording the jDelaunay events.
+         * @return
+         *      The recorded events.
+         */
+        private List<RecordedEvent> record() throws DelaunayError, IOException {
+                Recording recording = new Recording();
+                recording.enable(MeshPhaseEvent.class);
+                recording.enable(MeshBatchEvent.class);
+                recording.start();
+                Random rand = new Random(42);
+                List<DPoint> pts = new ArrayList<DPoint>();
+                for(int i = 0; i < 5000; i++){
+                        pts.add(new DPoint(rand.nextDouble() * 700, rand.nextDouble() * 700, rand.nextDouble() * 10));
+                }
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                JfrMeshListener.install(mesh);
+                mesh.setPoints(pts);
+                mesh.addConstraintEdge(new DEdge(1, 1, 0, 650, 600, 0));
+                mesh.addConstraintEdge(new DEdge(1, 600, 0, 650, 1, 0));
+                mesh.forceConstraintIntegrity();
+                mesh.processDelaunay();
+                mesh.refineMesh(1, new SkinnyEvaluator(25));
+                recording.stop();
+                File file = File.createTempFile("jdelaunay", ".jfr");
+                try {
+                        recording.dump(file.toPath());
+                        return RecordingFile.readAllEvents(file.toPath());
+                } finally {
+                        recording.close();
+                        file.delete();
+                }
+        }
+
+        /**
+         * Get the events of a type, for a phase.
+         */
+        private List<RecordedEvent> filter(List<RecordedEvent> events, String type, String phase) {
+                List<RecordedEvent> ret = new ArrayList<RecordedEvent>();
+                for(RecordedEvent ev : events){
+                        if(ev.getEventType().getName().equals(type) && phase.equals(ev.getString("phase"))){
+                                ret.add(ev);
+                        }
+                }
+                return ret;
+        }
+
+        public void testEvents() throws DelaunayError, IOException {
+                List<RecordedEvent> events = record();
+                List<RecordedEvent> sweep = filter(events, "org.jdelaunay.MeshPhase", "SWEEP");
+                assertEquals(1, sweep.size());
+                assertTrue(sweep.get(0).getInt("points") >= 5000);
+                assertTrue(sweep.get(0).getInt("triangles") > 0);
+                assertEquals(0, sweep.get(0).getLong("flips"));
+                List<RecordedEvent> flips = filter(events, "org.jdelaunay.MeshPhase", "FLIPS");
+                assertEquals(1, flips.size());
+                assertTrue(flips.get(0).getLong("flips") > 0);
+                assertTrue(flips.get(0).getLong("boundaryParts") > 0);
+                assertTrue(flips.get(0).getLong("trianglesCreated") > 0);
+                List<RecordedEvent> constraints = filter(events, "org.jdelaunay.MeshPhase", "CONSTRAINT_INTEGRITY");
+                assertEquals(1, constraints.size());
+                assertEquals(1, constraints.get(0).getLong("pointsCreated"));
+                List<RecordedEvent> refinement = filter(events, "org.jdelaunay.MeshPhase", "REFINEMENT");
+                assertEquals(1, refinement.size());
+                assertTrue(refinement.get(0).getLong("pointsCreated") > 0);
+                List<RecordedEvent> batches = filter(events, "org.jdelaunay.MeshBatch", "SWEEP");
+                assertTrue(batches.size() >= 4);
+                long last = 0;
+                for(RecordedEvent ev : batches){
+                        assertTrue(ev.getLong("first") < ev.getLong("last"));
+                        last = Math.max(last, ev.getLong("last"));
+                }
+                assertEquals(sweep.get(0).getInt("points"), last);
+        }
+}
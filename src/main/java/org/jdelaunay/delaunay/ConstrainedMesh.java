@@ -40,12 +40,17 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.log4j.Logger;
 import org.jdelaunay.delaunay.evaluator.InsertionEvaluator;
 import org.jdelaunay.delaunay.error.DelaunayError;
@@ -54,6 +59,16 @@ import org.jdelaunay.delaunay.geometries.DEdge;
 import org.jdelaunay.delaunay.geometries.DPoint;
 import org.jdelaunay.delaunay.geometries.DTriangle;
 import org.jdelaunay.delaunay.geometries.Element;
+import org.jdelaunay.delaunay.indexed.DivideAndConquerTriangulator;
+import org.jdelaunay.delaunay.indexed.IndexedMesh;
+import org.jdelaunay.delaunay.indexed.IndexedTriangulator;
+import org.jdelaunay.delaunay.indexed.MeshConverter;
+import org.jdelaunay.delaunay.monitor.CancellationToken;
+import org.jdelaunay.delaunay.monitor.MeshCounter;
+import org.jdelaunay.delaunay.monitor.MeshListener;
+import org.jdelaunay.delaunay.monitor.MeshPhase;
+import org.jdelaunay.delaunay.monitor.ProgressMonitor;
+import org.jdelaunay.delaunay.tools.Predicates;
 import org.jdelaunay.delaunay.tools.Tools;
 
 /**
@@ -116,6 +131,17 @@ public class ConstrainedMesh implements Serializable {
         private transient Map<Integer, DTriangle> processed = null;
         private transient Map<Integer, DTriangle> remaining = null;
         private transient Map<Integer, DTriangle> buffer = null;
+        //The listener notified of the progress of the computations. When null,
+        //nothing is measured.
+        private transient MeshListener listener = null;
+        //The monitor notified of the progress of the long operations, and the
+        //token used to cancel them.
+        private transient ProgressMonitor progressMonitor = null;
+        private transient CancellationToken cancellationToken = null;
+        //The algorithm used by processDelaunay.
+        private TriangulationEngine engine = TriangulationEngine.SWEEP;
+        //The number of threads used by the parallel engines.
+        private int parallelism = Runtime.getRuntime().availableProcessors();
 	// constants
 	public static final int MIN_POINTS_NUMBER = 3;
 	public static final int MAXITER = 5;
@@ -123,6 +149,13 @@ public class ConstrainedMesh implements Serializable {
 	public static final int REFINEMENT_MIN_ANGLE = 2;
 	public static final int REFINEMENT_SOFT_INTERPOLATE = 4;
 	public static final int REFINEMENT_OBTUSE_ANGLE = 8;
+	/**
+	 * The number of steps (points, events, triangles...) processed between
+	 * two reports of the progress of an operation.
+	 */
+	public static final int PROGRESS_STEP = 1024;
+	//The minimum number of points of a slab of the PARALLEL_SWEEP engine.
+	private static final int MIN_SLAB_SIZE = 4096;
 
 	//The two points that will be used to extend the mesh, and to reduce the number
 	//of edges in the boundary. They will be removed when the mesh will be computed,
@@ -457,6 +490,178 @@ public class ConstrainedMesh implements Serializable {
 		verbose = verb;
 	}
 
+	/**
+	 * Get the listener that is notified of the phases of the computations
+	 * and of the events that occur during them.
+	 * @return
+	 *	The listener, or null if none has been set.
+	 */
+	public final MeshListener getMeshListener() {
+		return listener;
+	}
+
+	/**
+	 * Set the listener that will be notified of the phases of the computations,
+	 * with their durations, and of the events counted during them (flips,
+	 * inCircle tests, created elements...). The listener is not serialized.
+	 * @param listener
+	 *	The new listener, or null to stop measuring the computations.
+	 */
+	public final void setMeshListener(MeshListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Get the monitor notified of the progress of the long running operations.
+	 * @return
+	 *	The monitor, or null if none has been set.
+	 */
+	public final ProgressMonitor getProgressMonitor() {
+		return progressMonitor;
+	}
+
+	/**
+	 * Set the monitor that will be notified of the progress of processDelaunay,
+	 * forceConstraintIntegrity, refineMesh, refineTriangles, removeFlatTriangles
+	 * and dataQualification.
+	 * The monitor is not serialized.
+	 * @param monitor
+	 *	The new monitor, or null.
+	 */
+	public final void setProgressMonitor(ProgressMonitor monitor) {
+		this.progressMonitor = monitor;
+	}
+
+	/**
+	 * Get the token used to cancel the long running operations.
+	 * @return
+	 *	The token, or null if none has been set.
+	 */
+	public final CancellationToken getCancellationToken() {
+		return cancellationToken;
+	}
+
+	/**
+	 * Set the token that will be checked regularly by processDelaunay,
+	 * forceConstraintIntegrity, refineMesh, refineTriangles, removeFlatTriangles
+	 * and dataQualification.
+	 * When it is cancelled, these methods throw a DelaunayError whose code is
+	 * DELAUNAY_ERROR_CANCELLED. The token is not serialized.
+	 * @param token
+	 *	The new token, or null.
+	 */
+	public final void setCancellationToken(CancellationToken token) {
+		this.cancellationToken = token;
+	}
+
+	/**
+	 * Get the algorithm used by processDelaunay.
+	 * @return
+	 *	The engine, SWEEP by default.
+	 */
+	public final TriangulationEngine getEngine() {
+		return engine;
+	}
+
+	/**
+	 * Set the algorithm used by processDelaunay.
+	 * @param engine
+	 *	The new engine. null restores the default one.
+	 */
+	public final void setEngine(TriangulationEngine engine) {
+		this.engine = engine == null ? TriangulationEngine.SWEEP : engine;
+	}
+
+	/**
+	 * Get the number of threads used by the parallel engines.
+	 * @return
+	 *	The number of available processors by default.
+	 */
+	public final int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Set the number of threads used by the parallel engines,
+	 * DIVIDE_AND_CONQUER and PARALLEL_SWEEP.
+	 * @param threads
+	 *	Must be at least 1.
+	 */
+	public final void setParallelism(int threads) {
+		if(threads < 1){
+			throw new IllegalArgumentException("At least one thread is needed");
+		}
+		parallelism = threads;
+	}
+
+	/**
+	 * Notify the monitor, if any, of the progress of the running phase, and
+	 * check the cancellation token.
+	 * @param phase
+	 * @param done
+	 * @param total
+	 *	The total amount of work, negative if unknown.
+	 * @return
+	 *	true if the operation must be cancelled.
+	 */
+	private boolean reportProgress(MeshPhase phase, long done, long total) {
+		if(progressMonitor != null){
+			progressMonitor.progress(phase, done, total);
+		}
+		return cancellationToken != null && cancellationToken.isCancelled();
+	}
+
+	/**
+	 * Notify the listener, if any, of the beginning of a phase.
+	 * @param phase
+	 * @return
+	 *	The time at which the phase begins, to be given to finishPhase.
+	 */
+	private long startPhase(MeshPhase phase) {
+		if(listener == null){
+			return 0;
+		}
+		listener.phaseStarted(phase);
+		return System.nanoTime();
+	}
+
+	/**
+	 * Notify the listener, if any, of the end of a phase.
+	 * @param phase
+	 * @param start
+	 *	The value returned by startPhase for this phase.
+	 */
+	private void finishPhase(MeshPhase phase, long start) {
+		if(listener != null){
+			listener.phaseFinished(phase, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Notify the listener, if any, of the creation of a point and of the
+	 * given numbers of edges and triangles, during the refinement.
+	 * @param edgeCount
+	 * @param triangleCount
+	 */
+	private void countCreated(int edgeCount, int triangleCount) {
+		if(listener != null){
+			listener.count(MeshCounter.POINTS_CREATED, 1);
+			listener.count(MeshCounter.EDGES_CREATED, edgeCount);
+			listener.count(MeshCounter.TRIANGLES_CREATED, triangleCount);
+		}
+	}
+
+	/**
+	 * Notify the listener, if any, of some events.
+	 * @param counter
+	 * @param amount
+	 */
+	private void countEvents(MeshCounter counter, long amount) {
+		if(listener != null){
+			listener.count(counter, amount);
+		}
+	}
+
 	/**
 	 * Set the list of points to be used during the triangulation
 	 * If using this method. All the exisiting points are removed, and replaced by
@@ -467,6 +672,7 @@ public class ConstrainedMesh implements Serializable {
 		if(pts == null){
 			points = new ArrayList<DPoint>();
 		} else {
+			long start = startPhase(MeshPhase.SORTING);
 			Collections.sort(pts);
 			extMaxY = null;
 			extMinY = null;
@@ -488,6 +694,7 @@ public class ConstrainedMesh implements Serializable {
 					}
 				}
 			}
+			finishPhase(MeshPhase.SORTING, start);
 		}
 	}
 
@@ -508,6 +715,29 @@ public class ConstrainedMesh implements Serializable {
 		}
 	}
 
+	/**
+	 * Replace the input of the triangulation with lists that are already
+	 * prepared : the points are sorted without duplicates and numbered from 1,
+	 * the constraints are locked, numbered from 1, directed from their left
+	 * point and sorted with sortLeftRight. Used by MeshBuilder.
+	 * @param pts
+	 * @param constraints
+	 * @throws DelaunayError
+	 */
+	final void setSortedInput(ArrayList<DPoint> pts, ArrayList<DEdge> constraints) throws DelaunayError {
+		points = new ArrayList<DPoint>();
+		extMaxY = null;
+		extMinY = null;
+		extMinX = null;
+		for(DPoint pt : pts){
+			updateExtensionPoints(pt);
+		}
+		points = pts;
+		pointGID = pts.size();
+		constraintEdges = constraints;
+		edgeGID = constraints.size();
+	}
+
 	/**
 	 * Get the extension points that would be added to the mesh while computing
 	 * DT or CDT with the current set of points.
@@ -647,368 +877,88 @@ public class ConstrainedMesh implements Serializable {
          * 
          * This methos is supposed to be used just before a call to processDelaunay().
          * If you use it after, you will break the unicity of edges GID.
+         *
+         * If the operation is cancelled, the constraints are partially split,
+         * but they still describe the same geometry : the method can be called
+         * again.
 	 */
 	public final void forceConstraintIntegrity() throws DelaunayError {
                 //We don't need to do anything if we don't have any constraint edge
                 if(constraintEdges.size()<1){
                         return;
                 }
+                long start = startPhase(MeshPhase.CONSTRAINT_INTEGRITY);
+                int pointsBefore = points.size();
+                try {
+                        processIntersections();
+                } finally {
+                        countEvents(MeshCounter.POINTS_CREATED, points.size() - pointsBefore);
+                        finishPhase(MeshPhase.CONSTRAINT_INTEGRITY, start);
+                }
+        }
+
+        /**
+         * The sweep line algorithm used by forceConstraintIntegrity. The constraint
+         * list must not be empty.
+         * @throws DelaunayError
+         */
+        private void processIntersections() throws DelaunayError {
                 //We will repopulate the list of constraint edges
                 edgeGID = 0;
-		//The event points are the extremities and intersections of the
-		//constraint edges. This list is created empty, and filled to stay
-		//sorted.
-		List<DPoint> eventPoints = points;
-		//we are about to perform the sweepline algorithm
-		DPoint currentEvent = null;
-		//edgeBuffer will contain the edges sorted vertically
-		VerticalList edgeBuffer = new VerticalList(0);
-		//We keep a shallow copy of constraintEdges...
-		List<DEdge> edgeMemory = constraintEdges;
-		//...and we empty it
-		constraintEdges = new ArrayList<DEdge>();
-		//The absciss where we search the intersections
-		double abs;
-		//Used in the  loop...
-		int i = 0;//The first while
-		int j = 0;//the inner while
-		DEdge e1, e2; //the edges that will be compared in the for loop
-		DEdge inter1 = null;// the edges resulting of the intersection.
-		DEdge inter2 = null;
-		DEdge inter3 = null;
-		DEdge inter4 = null;
-		DPoint newEvent = null;//the event that will be added to the eventList
-		DEdge edgeEvent = null;//used when the intersection is an edge
-		DPoint leftMost = null;
-		DPoint rightMost = null;
-		Element intersection = null;
-		DEdge currentMemEdge = null;
-		DEdge rm;
-		int memoryPos = 0;
-		int rmCount;
-		int mem;
-		while (i < eventPoints.size()) {
-			//The max weight used to compute the current intersection
-			int maxWeight = Integer.MIN_VALUE;
-			//We must remember what the z value was.
-			Double z = Double.NaN;
-			int w1;
-			int w2;
-			//We retrieve the event about to be processed.
-			currentEvent = eventPoints.get(i);
-			//We retrieve the absciss of the current event
-			abs = currentEvent.getX();
-			//We've reached a new event, we must be sure that our vertical
-			//list is still sorted.
-			edgeBuffer.setAbs(abs);
-			if (currentMemEdge == null) {
-				currentMemEdge = edgeMemory.get(0);
-			}
-			//We add the edges that can be associated to this event.
-			for (; memoryPos < edgeMemory.size(); memoryPos++) {
-				//As you can see, the first argument of this for loop is not used.
-				//We want here to go straight forward in the list, but depending on the
-				//value of eventPoints.get(i)
-				currentMemEdge = edgeMemory.get(memoryPos);
-				if (currentEvent.equals2D(currentMemEdge.getPointLeft())) {
-					edgeBuffer.addEdge(currentMemEdge);
-				} else {
-					break;
-				}
-			}
-			//we search for intersections only if we have at least two edges...
-			if (edgeBuffer.size() > 1) {
-				e2 = edgeBuffer.get(0);
-				j = 1;
-				while (j < edgeBuffer.size()) {
-					//We walk through our buffer
-					j = j < 1 ? 1 : j;
-					e1 = edgeBuffer.get(j - 1);
-					e2 = edgeBuffer.get(j);
-					intersection = e1.getIntersection(e2,weights);
-					rmCount = 0;
-					if (intersection instanceof DPoint) {
-						//We have a single intersection point.
-						//We must check it's not at an extremity.
-						newEvent = (DPoint) intersection;
-						if (!e1.isExtremity(newEvent) || !e2.isExtremity(newEvent)) {
-							//We've found an intersection between two non-colinear edges
-							//We must check that this intersection point is not
-							//the current event point. If it is, we must process the
-							if (newEvent.equals2D(currentEvent)) {
-								//intersection.
-								if(!weights.isEmpty()){
-									w1 = e1.getMaxWeight(weights);
-									w2 = e2.getMaxWeight(weights);
-									if(w1<maxWeight && w2<maxWeight){
-										if(Double.isNaN(z)){
-											throw new DelaunayError("you're not supposed to have a NaN here !");
-										}
-										newEvent.setZ(z);
-									}else{
-										maxWeight=Math.max(w1,w2);
-										z = newEvent.getZ();
-                                                                                //We want to keep the z value in the actual event,
-                                                                                //as it won't be erased by the new one.
-                                                                                currentEvent.setZ(z);
-									}
-								}
-								//We process the intersection.
-								newEvent.setX(abs);
-								List<DEdge> toBeInsert = new ArrayList<DEdge>();
-								if (!newEvent.equals2D(e2.getPointLeft()) && !newEvent.equals2D(e2.getPointRight())) {
-									//newEvent lies on e2, and is not an extremity
-									if(newEvent.equals2D(e1.getPointLeft())){
-										newEvent = e1.getPointLeft();
-									}
-									if(newEvent.equals2D(e1.getPointRight())){
-										newEvent = e1.getPointRight();
-									}
-									inter2 = new DEdge(newEvent, e2.getPointLeft() );
-									inter2.setProperty(e2.getProperty());
-									addConstraintEdge(inter2);
-									rm = edgeBuffer.remove(j);
-									if (!rm.equals(e2)) {
-										throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_REMOVING_EDGE);
-									}
-									inter4 = new DEdge(newEvent, e2.getPointRight());
-									inter4.setProperty(e2.getProperty());
-									toBeInsert.add(inter4);
-									rmCount++;
-								} else if (newEvent.equals2D(e2.getPointRight())) {
-									addConstraintEdge(e2);
-									rm = edgeBuffer.remove(j);
-									if (!rm.equals(e2)) {
-										throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_REMOVING_EDGE);
-									}
-									rmCount++;
-								}
-								if (!newEvent.equals2D(e1.getPointLeft()) && !newEvent.equals2D(e1.getPointRight())) {
-									if(newEvent.equals2D(e2.getPointLeft())){
-										newEvent = e2.getPointLeft();
-									}
-									if(newEvent.equals2D(e2.getPointRight())){
-										newEvent = e2.getPointRight();
-									}
-									inter1 = new DEdge(e1.getPointLeft(), newEvent);
-									inter1.setProperty(e1.getProperty());
-									addConstraintEdge(inter1);
-									rm = edgeBuffer.remove(j - 1);
-									if (!rm.equals(e1)) {
-										throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_REMOVING_EDGE);
-									}
-									inter3 = new DEdge(e1.getPointRight(), newEvent);
-									inter3.setProperty(e1.getProperty());
-									toBeInsert.add(inter3);
-									rmCount++;
-								} else if (newEvent.equals2D(e1.getPointRight())) {
-									addConstraintEdge(e1);
-									rm = edgeBuffer.remove(j - 1);
-									if (!rm.equals(e1)) {
-										throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_REMOVING_EDGE);
-									}
-									rmCount++;
-								}
-								for(DEdge yed : toBeInsert){
-									edgeBuffer.addEdge(yed);
-								}
-								j = (j - rmCount < 0 ? 0 : j - rmCount);
-							} else { // the intersection will be processed later.
-								ensurePointPosition(e2, newEvent);
-								ensurePointPosition(e1, newEvent);
-								addToSortedList(newEvent, eventPoints);
-							}
-						} else {
-							//in this case, we have e1.isExtremity(newEvent) && e2.isExtremity(newEvent)
-							if (e2.getPointRight().equals2D(currentEvent)) {
-								addConstraintEdge(e2);
-								rm = edgeBuffer.remove(j);
-								if (!rm.equals(e2)) {
-									throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_REMOVING_EDGE);
-								}
-								rmCount++;
-							} else if (e1.getPointRight().equals2D(currentEvent)) {
-								//We must not remove two edges in the same move.
-								addConstraintEdge(e1);
-								rm = edgeBuffer.remove(j - 1);
-								if (!rm.equals(e1)) {
-									throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_REMOVING_EDGE);
-								}
-								rmCount++;
-								j--;
-							}
-							j = (j - rmCount < 0 ? 0 : j - rmCount);
-						}
-					} else if (intersection instanceof DEdge) {
-						//The intersection is an edge. There are two possible cases :
-						//The left point of the intersection is at the extremity of e1 and e2 : we
-						//register the right point as an event
-						//The left point is the extremity of e1 OR (exclusive) of e2. It is an event,
-						//and certainly the current one.
-						edgeEvent = (DEdge) intersection;
-						newEvent = edgeEvent.getPointLeft();
-						//the intersection point is inside one of the edges.
-						//We are supposed to be on it..
-						//inter1 will be the lowest part of the intersection,
-						//inter2 the middle one and inter3 the highest.
-						if (newEvent.equals2D(currentEvent)) {
-							leftMost = (e1.getPointLeft().compareTo2D(e2.getPointLeft()) < 1
-								? e1.getPointLeft()
-								: e2.getPointLeft());
-							rightMost = (e1.getPointRight().compareTo2D(e2.getPointRight()) < 1
-								? e2.getPointRight()
-								: e1.getPointRight());
-							inter1 = null;
-							inter2 = null;
-							inter3 = null;
-							//we remove the two edges we are analyzing,
-							//new edges will be inserted if necessary.
-							rm = edgeBuffer.remove(j);
-							if (!rm.equals(e2)) {
-								throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_REMOVING_EDGE);
-							}
-							rm = edgeBuffer.remove(j - 1);
-							if (!rm.equals(e1)) {
-								throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_REMOVING_EDGE);
-							}
-							j--;
-							inter2 = edgeEvent;
-							if (leftMost.compareTo2D(newEvent) == -1) {
-								inter1 = new DEdge(leftMost, newEvent);
-								if(e1.getPointLeft().equals(leftMost)){
-									inter1.addProperty(e1.getProperty());
-								}else if(e2.getPointLeft().equals(leftMost)){
-									inter2.addProperty(e2.getProperty());
-								}
-							}
-							inter2.addProperty(e1.getProperty());
-							inter2.addProperty(e2.getProperty());
-							if (rightMost.compareTo2D(edgeEvent.getPointRight()) == 1) {
-								inter3 = new DEdge(edgeEvent.getPointRight(), rightMost);
-								if(e1.getPointRight().equals(rightMost)){
-									inter3.addProperty(e1.getProperty());
-								} else if(e2.getPointRight().equals(rightMost)){
-									inter3.addProperty(e2.getProperty());
-								}
-							}
-							if (inter1 != null) {
-								if (inter1.getPointRight().compareTo2D(currentEvent) == 1) {
-									addConstraintEdge(inter1);
-								} else {
-									mem = edgeBuffer.addEdge(inter1);
-									j = j <= mem ? j : mem;
-								}
-							}
-							if (inter2.getPointRight().compareTo2D(currentEvent) == 1) {
-								//inter2 has to be processed for further intersections
-								mem = edgeBuffer.addEdge(inter2);
-								j = j <= mem ? j : mem;
-
-							} else {
-								//inter2 can't be implied in other intersections
-								addConstraintEdge(inter2);
-							}
-							if (inter3 != null) {
-								//inter3 must be processed further.
-								addEdgeToLeftSortedList(edgeMemory, inter3);
-							}
-							j = j - 2 < 0 ? 0 : j - 2;
-						} else {
-							throw new DelaunayError("We should already be on this event point");
-						}
-
-					} else if(e1.contains(currentEvent) && !e1.isExtremity(currentEvent)){
-                                                DEdge inter = new DEdge(e1.getPointLeft(),currentEvent);
-                                                inter.setProperty(e1.getProperty());
-                                                inter.setLocked(e1.isLocked());
-                                                addConstraintEdge(inter);
-                                                if(e1.getStartPoint().equals(e1.getPointLeft()) ){
-                                                        e1.setStartPoint(currentEvent);
-                                                } else {
-                                                        e1.setEndPoint(currentEvent);
-                                                }
-                                                if(!weights.isEmpty()){
-                                                        int w = e1.getMaxWeight(weights);
-                                                        if(w>maxWeight){
-                                                                maxWeight = w;
-                                                        }
-                                                }
-                                        } else {
-						//if the current event is the right point of e1, we
-						//can remove e1 from the buffer and add it to
-						//the constraints.
-						if (e1.getPointRight().equals2D(currentEvent)) {
-							addConstraintEdge(e1);
-							rm = edgeBuffer.remove(j - 1);
-							if (!rm.equals(e1)) {
-								throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_REMOVING_EDGE);
-							}
-							j--;
-							j = j - 1 < 0 ? 0 : j - 1;
-						}
-					}
-					j++;
-					if(edgeBuffer.size()>0 && j>=edgeBuffer.size()){
-						e2 = edgeBuffer.get(edgeBuffer.size()-1);
-                                                if(e2.contains(currentEvent) && !e2.isExtremity(currentEvent)){
-                                                        DEdge temp = new DEdge(e2.getPointLeft(), currentEvent);
-                                                        temp.setLocked(e2.isLocked());
-                                                        temp.setProperty(e2.getProperty());
-                                                        addConstraintEdge(temp);
-                                                        if(e2.getStartPoint().equals(e2.getPointLeft())){
-                                                                e2.setStartPoint(currentEvent);
-                                                        } else {
-                                                                e2.setEndPoint(currentEvent);
-                                                        }
-                                                        
-                                                }
-						if(e2.getPointRight().equals(currentEvent)){
-							edgeBuffer.remove(edgeBuffer.size()-1);
-							addConstraintEdge(e2);
-						}
-					}
-				}
-                                //If we have only one constraint edge in the buffer, and the
-                                //event is its right point, then we remove it from the buffer
-                                //and add it to the list of constraints.
-			} else if (edgeBuffer.size() == 1){ 
-                                DEdge e0 = edgeBuffer.get(0);
-                                if(e0.contains(currentEvent) && !e0.isExtremity(currentEvent)){
-                                        DEdge temp = new DEdge(e0.getPointLeft(), currentEvent);
-                                        temp.setLocked(e0.isLocked());
-                                        temp.setProperty(e0.getProperty());
-                                        addConstraintEdge(temp);
-                                        if(e0.getStartPoint().equals(e0.getPointLeft())){
-                                                e0.setStartPoint(currentEvent);
-                                        } else {
-                                                e0.setEndPoint(currentEvent);
-                                        }
-                                } else if( e0.getPointRight().equals2D(currentEvent)) {
-                                        addConstraintEdge(edgeBuffer.get(0));
-                                        edgeBuffer.remove(0);
-                                }
-			}
-			i++;
-		}
-	}
+                ConstraintSweep sweep = new ConstraintSweep(points, constraintEdges, weights);
+                long done = 0;
+                while(sweep.hasNextEvent()){
+                        if(done % PROGRESS_STEP == 0 && reportProgress(MeshPhase.CONSTRAINT_INTEGRITY,
+                                        done, done + sweep.getRemainingEvents())){
+                                //We put back the constraints that have not been processed
+                                //yet, and leave.
+                                useSweepResult(sweep);
+                                throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_CANCELLED);
+                        }
+                        sweep.processNextEvent();
+                        done++;
+                }
+                useSweepResult(sweep);
+                reportProgress(MeshPhase.CONSTRAINT_INTEGRITY, done, done);
+        }
 
         /**
-         * Ensure that we don't create duplicate points during the intersection processing.
-         * If an event is found to be at a distance inferior to EPSILON from an existing
-         * point, then the existing point is moved to become exactly the said event.
-         * @param e
-         * @param p 
+         * Replace the points and the constraints of the mesh with the ones
+         * computed by sweep. The extremities of the constraints are replaced
+         * with the instances found in the points, and the constraints are
+         * sorted without duplicates.
+         * @param sweep
          */
-	private void ensurePointPosition(DEdge e, DPoint p) {
-		if(e.getStartPoint().equals2D(p)){
-			e.getStartPoint().setX(p.getX());
-			e.getStartPoint().setY(p.getY());
-		}
-		if(e.getEndPoint().equals2D(p)){
-			e.getEndPoint().setX(p.getX());
-			e.getEndPoint().setY(p.getY());
-		}
-	}
+        private void useSweepResult(ConstraintSweep sweep) {
+                points = sweep.getPoints();
+                List<DEdge> constraints = sweep.getConstraints();
+                for(DEdge ed : constraints){
+                        fixConstraintDirection(ed);
+                        int index = Collections.binarySearch(points, ed.getStartPoint());
+                        if(index >= 0){
+                                ed.setStartPoint(points.get(index));
+                        }
+                        index = Collections.binarySearch(points, ed.getEndPoint());
+                        if(index >= 0){
+                                ed.setEndPoint(points.get(index));
+                        }
+                        ed.setLocked(true);
+                }
+                Collections.sort(constraints);
+                constraintEdges = new ArrayList<DEdge>(constraints.size());
+                DEdge previous = null;
+                for(DEdge ed : constraints){
+                        if(ed.getStartPoint().equals2D(ed.getEndPoint())){
+                                continue;
+                        }
+                        if(previous != null && previous.compareTo(ed) == 0){
+                                previous.addProperty(ed.getProperty());
+                        } else {
+                                constraintEdges.add(ed);
+                                previous = ed;
+                        }
+                }
+        }
 
 	/**
 	 * This method will vertically sort the edges in edgeList, using the absciss of the
@@ -1095,9 +1045,7 @@ public class ConstrainedMesh implements Serializable {
 			return retList;
 		}
 		int size = constraintEdges.size();
-		DEdge leftSearch = new DEdge(left, left);
-		int index = Collections.binarySearch(constraintEdges, leftSearch);
-		index = index < 0 ? -index - 1 : index;
+		int index = firstConstraintIndex(left);
 		while (index < size && constraintEdges.get(index).getPointLeft().equals(left)) {
 			retList.add(constraintEdges.get(index));
 			index++;
@@ -1114,8 +1062,10 @@ public class ConstrainedMesh implements Serializable {
 	 */
 	public final List<DEdge> getConstraintFromLPVertical(DPoint left){
 		List<DEdge> retList = getConstraintsFromLeftPoint(left);
-		VerticalComparator vc = new VerticalComparator(left.getX());
-		Collections.sort(retList, vc);
+		if(retList.size() > 1){
+			VerticalComparator vc = new VerticalComparator(left.getX());
+			Collections.sort(retList, vc);
+		}
 		//Vertical constraints are managed in a way that put the potential one
 		//linked to left at the beginning of the list. It shoule be the last one.
 		if(!retList.isEmpty() && retList.get(0).isVertical()){
@@ -1125,6 +1075,47 @@ public class ConstrainedMesh implements Serializable {
 		}
 		return retList;
 	}
+
+	/**
+	 * Search the index of the first constraint edge whose left point is equal
+	 * to or greater than left. The constraint edges are sorted using their left
+	 * point first, so the constraints whose left point is left begin here.
+	 * @param left
+	 * @return
+	 *      The index, or constraintEdges.size() if all the left points are lower.
+	 */
+	private int firstConstraintIndex(DPoint left){
+		int low = 0;
+		int high = constraintEdges.size();
+		while(low < high){
+			int mid = (low + high) >>> 1;
+			if(constraintEdges.get(mid).getPointLeft().compareTo2D(left) < 0){
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Get the constraints used by the sweep when inserting left. It returns
+	 * the same edges as getConstraintFromLPVertical, but does not allocate
+	 * anything when there is no constraint whose left point is left, which
+	 * is the most frequent case. The returned list must not be modified.
+	 * @param left
+	 * @return
+	 */
+	private List<DEdge> getSweepConstraints(DPoint left){
+		if(constraintEdges.isEmpty()){
+			return Collections.emptyList();
+		}
+		int index = firstConstraintIndex(left);
+		if(index >= constraintEdges.size() || !constraintEdges.get(index).getPointLeft().equals(left)){
+			return Collections.emptyList();
+		}
+		return getConstraintFromLPVertical(left);
+	}
 	// ------------------------------------------------------------------------------------------
 
 	/**
@@ -1132,6 +1123,10 @@ public class ConstrainedMesh implements Serializable {
 	 * Mesh must have been set. Triangulation can only be done once.
 	 * Otherwise call reprocessDelaunay
 	 *
+	 * If the operation is cancelled, the partial triangulation is dropped and
+	 * the mesh is left as if it had never been computed : processDelaunay can
+	 * be called again.
+	 *
 	 * @throws DelaunayError
 	 */
 	public final void processDelaunay() throws DelaunayError {
@@ -1139,6 +1134,8 @@ public class ConstrainedMesh implements Serializable {
 			throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_GENERATED);
 		} else if (points.size() < MIN_POINTS_NUMBER) {
 			throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_ENOUGH_POINTS_FOUND);
+		} else if (engine != TriangulationEngine.SWEEP) {
+			processIndexed();
 		} else {
                         pointGID=0;
                         for(DPoint pt : points){
@@ -1156,37 +1153,68 @@ public class ConstrainedMesh implements Serializable {
 				LOG.trace("Getting points");
 			}
 			ListIterator<DPoint> iterPoint = points.listIterator();
+			//The sweep and the flips are interleaved : we sum their durations
+			//and report them at the end, if someone listens.
+			long sweepTime = 0;
+			long flipTime = 0;
+			long time = startPhase(MeshPhase.SWEEP);
+			startPhase(MeshPhase.FLIPS);
+			try {
+				DPoint p1 = iterPoint.next();
+				DPoint p2 = iterPoint.next();
+				DEdge e1 = new DEdge(p1, p2);
+				e1 = replaceByConstraint(e1);
+				List<DEdge> fromLeft = getSweepConstraints(p1);
+				//This operaton connects the two first points and their linked constraints.
+				Boundary bound = buildStartBoundary(p1, e1, fromLeft, getSweepConstraints(p2));
+				List<DEdge> added ;
+				List<DTriangle> tri;
+				while(iterPoint.hasNext()){
+					p2=iterPoint.next();
+					fromLeft = getSweepConstraints(p2);
+					//The insertion is performed here !
+					tri = bound.insertPoint(p2, fromLeft);
+					for(DTriangle t : tri){
+						triangleGID++;
+						t.setGID(triangleGID);
+					}
+					triangleList.addAll(tri);
 
-			DPoint p1 = iterPoint.next();
-			DPoint p2 = iterPoint.next();
-			DEdge e1 = new DEdge(p1, p2);
-			e1 = replaceByConstraint(e1);
-			List<DEdge> fromLeft = getConstraintFromLPVertical(p1);
-			//This operaton connects the two first points and their linked constraints.
-			Boundary bound = buildStartBoundary(p1, e1, fromLeft, getConstraintFromLPVertical(p2));
-			List<DEdge> added ;
-			List<DTriangle> tri;
-			while(iterPoint.hasNext()){
-				p2=iterPoint.next();
-				fromLeft = getConstraintFromLPVertical(p2);
-				//The insertion is performed here !
-				tri = bound.insertPoint(p2, fromLeft);
-				for(DTriangle t : tri){
-					triangleGID++;
-					t.setGID(triangleGID);
+					//We retrieve the edges that have been added to the mesh.
+					added = bound.getAddedEdges();
+					for(DEdge e : added){
+						edgeGID++;
+						e.setGID(edgeGID);
+					}
+					edges.addAll(added);
+					//We retrieve the potential bad edges, and treat them.
+					badEdgesQueueList = bound.getBadEdges();
+					if(listener != null){
+						long now = System.nanoTime();
+						sweepTime += now - time;
+						time = now;
+						countEvents(MeshCounter.TRIANGLES_CREATED, tri.size());
+						countEvents(MeshCounter.EDGES_CREATED, added.size());
+						countEvents(MeshCounter.BOUNDARY_PARTS, bound.getBoundary().size());
+					}
+					processBadEdges();
+					if(listener != null){
+						long now = System.nanoTime();
+						flipTime += now - time;
+						time = now;
+					}
+					int done = iterPoint.nextIndex();
+					if(done % PROGRESS_STEP == 0 && reportProgress(MeshPhase.SWEEP, done, points.size())){
+						clearTriangulation();
+						throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_CANCELLED);
+					}
 				}
-				triangleList.addAll(tri);
-
-				//We retrieve the edges that have been added to the mesh.
-				added = bound.getAddedEdges();
-				for(DEdge e : added){
-					edgeGID++;
-					e.setGID(edgeGID);
+				reportProgress(MeshPhase.SWEEP, points.size(), points.size());
+			} finally {
+				if(listener != null){
+					listener.phaseFinished(MeshPhase.SWEEP, sweepTime);
+					listener.phaseFinished(MeshPhase.FLIPS, flipTime);
 				}
-				edges.addAll(added);
-				//We retrieve the potential bad edges, and treat them.
-				badEdgesQueueList = bound.getBadEdges();
-				processBadEdges();
 			}
 
 			meshComputed = true;
@@ -1202,56 +1230,480 @@ public class ConstrainedMesh implements Serializable {
 		}
 	}
 
+	/**
+	 * Use a triangulation that has been computed outside of this mesh, for
+	 * instance with an IndexedTriangulator. The triangles must be built on the
+	 * given edges, and the edges on the given points. The locked edges become the
+	 * constraint edges of the mesh. The GIDs are assigned again, and the mesh is
+	 * then considered as computed.
+	 * @param pts
+	 * @param edgeList
+	 * @param triangles
+	 * @throws DelaunayError
+	 *	If the mesh has already been computed.
+	 */
+	public final void setTriangulation(List<DPoint> pts, List<DEdge> edgeList, List<DTriangle> triangles)
+			throws DelaunayError {
+		if (isMeshComputed()) {
+			throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_GENERATED);
+		}
+		setPoints(pts);
+		useTriangulation(edgeList, triangles);
+	}
+
+	/**
+	 * Number the points, the edges and the triangles, use the locked edges as
+	 * the constraint edges, and consider the mesh as computed.
+	 * @param edgeList
+	 * @param triangles
+	 */
+	private void useTriangulation(List<DEdge> edgeList, List<DTriangle> triangles) {
+		pointGID = 0;
+		for(DPoint pt : points){
+			pt.setGID(++pointGID);
+		}
+		edges = new ArrayList<DEdge>(edgeList);
+		constraintEdges = new ArrayList<DEdge>();
+		edgeGID = 0;
+		for(DEdge ed : edges){
+			ed.setGID(++edgeGID);
+			if(ed.isLocked()){
+				fixConstraintDirection(ed);
+				constraintEdges.add(ed);
+			}
+		}
+		Collections.sort(constraintEdges);
+		triangleList = new ArrayList<DTriangle>(triangles);
+		triangleGID = 0;
+		for(DTriangle tri : triangleList){
+			tri.setGID(++triangleGID);
+		}
+		setMeshComputed(true);
+	}
+
+	/**
+	 * Compute the triangulation with one of the engines that work on an
+	 * IndexedMesh : IndexedTriangulator, DivideAndConquerTriangulator, or the
+	 * slabs computed by the sweep-line and stitched by IndexedTriangulator. The
+	 * points and the constraint edges of the mesh are kept : a constraint is
+	 * only replaced by its parts when points lie on it.
+	 * If the operation is cancelled, the mesh is not changed.
+	 * @throws DelaunayError
+	 */
+	private void processIndexed() throws DelaunayError {
+		long start = startPhase(MeshPhase.INSERTION);
+		try {
+			IndexedMesh indexed = new IndexedMesh(points.size(), 2 * points.size());
+			DPoint[] pts = points.toArray(new DPoint[points.size()]);
+			for(DPoint pt : pts){
+				indexed.addPoint(pt.getX(), pt.getY(), pt.getZ());
+			}
+			for(DEdge ed : constraintEdges){
+				int s = Collections.binarySearch(points, ed.getStartPoint());
+				int e = Collections.binarySearch(points, ed.getEndPoint());
+				if(s < 0 || e < 0){
+					throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_POINT_NOT_FOUND, ed.toString());
+				}
+				indexed.addConstraint(s, e);
+			}
+			if(engine == TriangulationEngine.DIVIDE_AND_CONQUER){
+				DivideAndConquerTriangulator triangulator = new DivideAndConquerTriangulator(indexed);
+				triangulator.setProgressMonitor(progressMonitor);
+				triangulator.setCancellationToken(cancellationToken);
+				triangulator.setParallelism(parallelism);
+				triangulator.triangulate();
+			} else if(engine == TriangulationEngine.PARALLEL_SWEEP){
+				//A single slab is already the whole triangulation.
+				if(triangulateSlabs(indexed) > 1){
+					IndexedTriangulator triangulator = new IndexedTriangulator(indexed);
+					triangulator.setProgressMonitor(progressMonitor);
+					triangulator.setCancellationToken(cancellationToken);
+					triangulator.stitch();
+				}
+			} else {
+				IndexedTriangulator triangulator = new IndexedTriangulator(indexed);
+				triangulator.setProgressMonitor(progressMonitor);
+				triangulator.setCancellationToken(cancellationToken);
+				triangulator.triangulate();
+			}
+			List<DEdge> edgeList = new ArrayList<DEdge>();
+			List<DTriangle> triangles = MeshConverter.buildTriangles(indexed, pts, constraintEdges, edgeList);
+			useTriangulation(edgeList, triangles);
+			countEvents(MeshCounter.EDGES_CREATED, edges.size());
+			countEvents(MeshCounter.TRIANGLES_CREATED, triangleList.size());
+		} finally {
+			finishPhase(MeshPhase.INSERTION, start);
+		}
+	}
+
+	/**
+	 * Split the points in slabs along x, compute the constrained triangulation
+	 * of each of them with the sweep-line on its own thread, and add the
+	 * triangles to indexed, slab after slab. The constraints that join two
+	 * slabs are not used here.
+	 * @param indexed
+	 *	Contains the points of the mesh, in the same order.
+	 * @return
+	 *	The number of slabs.
+	 * @throws DelaunayError
+	 */
+	private int triangulateSlabs(IndexedMesh indexed) throws DelaunayError {
+		List<Integer> bounds = getSlabBounds();
+		int slabs = bounds.size() - 1;
+		long total = (long) points.size() + constraintEdges.size();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(slabs, parallelism));
+		try {
+			List<Future<IndexedMesh>> tasks = new ArrayList<Future<IndexedMesh>>(slabs);
+			for(int i = 0; i < slabs; i++){
+				final int start = bounds.get(i);
+				final int end = bounds.get(i + 1);
+				tasks.add(executor.submit(new Callable<IndexedMesh>() {
+					@Override
+					public IndexedMesh call() throws DelaunayError {
+						return triangulateSlab(start, end);
+					}
+				}));
+			}
+			for(int i = 0; i < slabs; i++){
+				IndexedMesh slab = Tools.join(tasks.get(i));
+				int offset = bounds.get(i);
+				int first = indexed.getTriangleCount();
+				for(int t = 0; t < slab.getTriangleCount(); t++){
+					indexed.addTriangle(slab.getVertex(t, 0) + offset, slab.getVertex(t, 1) + offset,
+						slab.getVertex(t, 2) + offset);
+				}
+				for(int t = 0; t < slab.getTriangleCount(); t++){
+					for(int k = 0; k < 3; k++){
+						int o = slab.getNeighbour(t, k);
+						indexed.setNeighbour(first + t, k, o < 0 ? -1 : first + o);
+						indexed.setConstrained(first + t, k, slab.isConstrained(t, k));
+					}
+				}
+				if(reportProgress(MeshPhase.INSERTION, bounds.get(i + 1), total)){
+					throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_CANCELLED);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return slabs;
+	}
+
+	/**
+	 * Split the points in at most parallelism slabs of at least MIN_SLAB_SIZE
+	 * points. Two slabs are separated by a gap along x, and no slab has all its
+	 * points on a line.
+	 * @return
+	 *	The index of the first point of each slab, followed by the number of
+	 *	points.
+	 */
+	private List<Integer> getSlabBounds() {
+		int n = points.size();
+		int slabs = Math.max(1, Math.min(parallelism, n / MIN_SLAB_SIZE));
+		List<Integer> bounds = new ArrayList<Integer>();
+		bounds.add(0);
+		int start = 0;
+		for(int i = 1; i < slabs; i++){
+			int b = Math.max((int) ((long) i * n / slabs), getFirstNonCollinear(start) + 1);
+			while(b < n && points.get(b).getX() - points.get(b - 1).getX() <= 2 * Tools.EPSILON){
+				b++;
+			}
+			if(b >= n){
+				break;
+			}
+			bounds.add(b);
+			start = b;
+		}
+		if(bounds.size() > 1 && getFirstNonCollinear(start) >= n){
+			bounds.remove(bounds.size() - 1);
+		}
+		bounds.add(n);
+		return bounds;
+	}
+
+	/**
+	 * Get the index of the first point that is not on the line of the points
+	 * start and start + 1.
+	 * @param start
+	 * @return
+	 *	The index, or the number of points if there is none.
+	 */
+	private int getFirstNonCollinear(int start) {
+		int n = points.size();
+		if(start + 1 >= n){
+			return n;
+		}
+		DPoint a = points.get(start);
+		DPoint b = points.get(start + 1);
+		for(int i = start + 2; i < n; i++){
+			DPoint c = points.get(i);
+			if(Predicates.orient2d(a.getX(), a.getY(), b.getX(), b.getY(), c.getX(), c.getY()) != 0){
+				return i;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Compute the constrained triangulation of the points from start to end,
+	 * with the constraints that join two of them.
+	 * @param start
+	 * @param end
+	 * @return
+	 *	The triangulation, whose point i is the point start + i of the mesh.
+	 * @throws DelaunayError
+	 */
+	private IndexedMesh triangulateSlab(int start, int end) throws DelaunayError {
+		ArrayList<DPoint> pts = new ArrayList<DPoint>(end - start);
+		for(int i = start; i < end; i++){
+			DPoint pt = points.get(i);
+			DPoint copy = new DPoint(pt.getX(), pt.getY(), pt.getZ());
+			copy.setGID(i - start + 1);
+			pts.add(copy);
+		}
+		ArrayList<DEdge> constraints = new ArrayList<DEdge>();
+		for(DEdge ed : constraintEdges){
+			int left = Collections.binarySearch(points, ed.getPointLeft());
+			int right = Collections.binarySearch(points, ed.getPointRight());
+			if(left >= start && left < end && right >= start && right < end){
+				DEdge copy = new DEdge(pts.get(left - start), pts.get(right - start));
+				copy.setLocked(true);
+				constraints.add(copy);
+			}
+		}
+		ConstrainedMesh slab = new ConstrainedMesh();
+		slab.setSortedInput(pts, constraints);
+		slab.setCancellationToken(cancellationToken);
+		slab.processDelaunay();
+		if(slab.getPoints().size() != end - start){
+			throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_INTERNAL_ERROR, "points added to a slab");
+		}
+		return MeshConverter.toIndexedMesh(slab);
+	}
+
 	/**
 	 * This operation remove the flat triangles by inserting new points in the mesh,
 	 * that come from the skeleton of the already computed mesh.
 	 * This method must be used after a previous call to processDelaunay().
 	 * This method will compute a triangulation again - the insertion is not incremental.
+	 *
+	 * If the operation is cancelled while the flat areas are analyzed, the mesh
+	 * is not changed. If it is cancelled during the new triangulation, the
+	 * skeleton points have been added and the mesh is left not computed.
 	 * @throws DelaunayError
 	 */
 	public final void removeFlatTriangles() throws DelaunayError {
+		removeFlatTriangles(false);
+	}
+
+	/**
+	 * This operation remove the flat triangles by inserting new points in the mesh,
+	 * that come from the skeleton of the already computed mesh.
+	 * This method must be used after a previous call to processDelaunay().
+	 *
+	 * If incremental is true, the skeleton points are inserted one by one in
+	 * the existing mesh, starting the point location from the flat triangle
+	 * they come from. The triangles that are not close to a flat area are kept
+	 * as is, and the mesh stays computed. If the operation is cancelled during
+	 * the insertion, the mesh is valid but only some of the points have been
+	 * inserted.
+	 * Otherwise, the behaviour is the one of removeFlatTriangles().
+	 * @param incremental
+	 * @throws DelaunayError
+	 */
+	public final void removeFlatTriangles(boolean incremental) throws DelaunayError {
 		//if the mesh has not been computed, we throw an exception.
 		if(!meshComputed){
 			throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_GENERATED);
 		}
-		if((!triangleList.isEmpty() && triangleList.get(0).isSeenForFlatRemoval())){
-			for(DTriangle tri : triangleList){
-				tri.setSeenForFlatRemoval(false);
-			}
+		long start = startPhase(MeshPhase.FLAT_REMOVAL);
+		try {
+			processFlatTriangles(incremental);
+		} finally {
+			finishPhase(MeshPhase.FLAT_REMOVAL, start);
 		}
+	}
+
+	/**
+	 * Compute the skeleton points of the flat areas and add them to the mesh,
+	 * either incrementally or with a new triangulation. Used by removeFlatTriangles.
+	 * @param incremental
+	 * @throws DelaunayError
+	 */
+	private void processFlatTriangles(boolean incremental) throws DelaunayError {
+		List<DTriangle> roots = findFlatRegions();
+		int regions = roots.size();
 		List<DPoint> newPoints = new ArrayList<DPoint>();
-		VoronoiGraph vg;
-		for(DTriangle tri : triangleList){
-			if(!tri.isSeenForFlatRemoval()){
-				if(tri.isFlatSlope()){
-					vg = new VoronoiGraph(tri);
-					vg.fillUntilNotFlatFound();
-					vg.assignZValues();
-					if(vg.isUseful()){
-						newPoints.addAll(vg.getSkeletonPoints());
-					}
-				} else {
-					tri.setSeenForFlatRemoval(true);
-				}
+		//The triangles the skeleton points have been computed from.
+		List<DTriangle> origins = new ArrayList<DTriangle>();
+		for(List<VoronoiNode> skeleton : computeSkeletons(roots)){
+			for(VoronoiNode vn : skeleton){
+				newPoints.add(vn.getLocation());
+				origins.add(vn.getParent());
 			}
 		}
+		if(incremental){
+			insertSkeletonPoints(newPoints, origins);
+			return;
+		}
 		for(DPoint pt : newPoints){
 			pt.setGID(++pointGID);
 		}
+		countEvents(MeshCounter.POINTS_CREATED, newPoints.size());
 		points.addAll(newPoints);
+		long start = startPhase(MeshPhase.SORTING);
 		Collections.sort(points);
+		finishPhase(MeshPhase.SORTING, start);
+		reportProgress(MeshPhase.FLAT_REMOVAL, regions, regions);
+		clearTriangulation();
+		processDelaunay();
+	}
+
+	/**
+	 * Find the connected flat areas of the mesh. Two flat triangles are in
+	 * the same area if they can be joined without crossing a constraint.
+	 * The areas are filled with an explicit stack.
+	 * @return
+	 *	The first triangle of triangleList in each flat area.
+	 * @throws DelaunayError
+	 */
+	private List<DTriangle> findFlatRegions() throws DelaunayError {
+		List<DTriangle> roots = new ArrayList<DTriangle>();
+		List<DTriangle> flat = new ArrayList<DTriangle>();
+		for(DTriangle tri : triangleList){
+			tri.setSeenForFlatRemoval(false);
+		}
+		Deque<DTriangle> stack = new LinkedList<DTriangle>();
+		for(DTriangle tri : triangleList){
+			if(!tri.isSeenForFlatRemoval() && tri.isFlatSlope()){
+				if(reportProgress(MeshPhase.FLAT_REMOVAL, roots.size(), -1)){
+					throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_CANCELLED);
+				}
+				roots.add(tri);
+				tri.setSeenForFlatRemoval(true);
+				stack.push(tri);
+				while(!stack.isEmpty()){
+					DTriangle cur = stack.pop();
+					flat.add(cur);
+					for(DEdge ed : cur.getEdges()){
+						DTriangle other = ed.getOtherTriangle(cur);
+						if(!ed.isLocked() && other != null && !other.isSeenForFlatRemoval()
+								&& other.isFlatSlope()){
+							other.setSeenForFlatRemoval(true);
+							stack.push(other);
+						}
+					}
+				}
+			}
+		}
+		//The VoronoiGraph instances use the flag to mark the triangles they process.
+		for(DTriangle tri : flat){
+			tri.setSeenForFlatRemoval(false);
+		}
+		return roots;
+	}
+
+	/**
+	 * Build the VoronoiGraph of each flat area, and compute its skeleton
+	 * points. The areas don't share any flat triangle, and the graphs only
+	 * read the triangles that surround them, so they are processed in
+	 * parallel.
+	 * @param roots
+	 *	A triangle of each flat area.
+	 * @return
+	 *	The nodes of the graph of each area, in the order of roots. The list is
+	 *	empty if no meaningful Z can be computed for the area.
+	 * @throws DelaunayError
+	 */
+	private List<List<VoronoiNode>> computeSkeletons(List<DTriangle> roots) throws DelaunayError {
+		List<List<VoronoiNode>> ret = new ArrayList<List<VoronoiNode>>(roots.size());
+		if(roots.isEmpty()){
+			return ret;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(roots.size(), parallelism));
+		try {
+			List<Future<List<VoronoiNode>>> tasks = new ArrayList<Future<List<VoronoiNode>>>(roots.size());
+			for(final DTriangle root : roots){
+				tasks.add(executor.submit(new Callable<List<VoronoiNode>>() {
+					@Override
+					public List<VoronoiNode> call() throws DelaunayError {
+						VoronoiGraph vg = new VoronoiGraph(root);
+						vg.fillUntilNotFlatFound();
+						vg.assignZValues();
+						return vg.isUseful() ? vg.getSortedNodes() : new ArrayList<VoronoiNode>();
+					}
+				}));
+			}
+			for(int i = 0; i < tasks.size(); i++){
+				ret.add(Tools.join(tasks.get(i)));
+				if(reportProgress(MeshPhase.FLAT_REMOVAL, i + 1, roots.size())){
+					throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_CANCELLED);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return ret;
+	}
+
+	/**
+	 * Insert the skeleton points in the computed mesh. The search of the
+	 * triangle that contains each point starts from the triangle it has been
+	 * computed from : insertions only split and flip triangles, so this
+	 * triangle is still in the mesh and the walk stays local to the flat area.
+	 * Points that are closer than the precision to an existing vertex are skipped.
+	 * Points that lie on an edge split it, and the two halves of a locked edge
+	 * are locked.
+	 * @param newPoints
+	 * @param origins
+	 * @throws DelaunayError
+	 */
+	private void insertSkeletonPoints(List<DPoint> newPoints, List<DTriangle> origins)
+			throws DelaunayError {
+		double minLength = Math.max(precision, Tools.EPSILON);
+		Element container;
+		for(int i = 0; i < newPoints.size(); i++){
+			if(reportProgress(MeshPhase.FLAT_REMOVAL, i, newPoints.size())){
+				throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_CANCELLED);
+			}
+			DPoint pt = newPoints.get(i);
+			container = origins.get(i).searchPointContainer(pt);
+			if(!(container instanceof DTriangle) || !((DTriangle) container).isInside(pt)){
+				throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_OUTSIDE_TRIANGLE);
+			}
+			DTriangle tri = (DTriangle) container;
+			if(tri.isCloser(pt, minLength)){
+				continue;
+			}
+			if(tri.isOnAnEdge(pt)){
+				insertPointOnEdge(pt, tri.getContainingEdge(pt));
+			} else {
+				insertPointInTriangle(pt, tri, minLength);
+			}
+		}
+		reportProgress(MeshPhase.FLAT_REMOVAL, newPoints.size(), newPoints.size());
+	}
+
+	/**
+	 * Drop the triangles and edges of the mesh, and mark it as not computed.
+	 * The points and the constraints are kept, so that processDelaunay can be
+	 * called again.
+	 */
+	private void clearTriangulation() {
 		setMeshComputed(false);
 		triangleList = new ArrayList<DTriangle>();
+		edges = new ArrayList<DEdge>();
+		badEdgesQueueList = new LinkedList<DEdge>();
 		for(DEdge e : constraintEdges){
 			e.setLeft(null);
 			e.setRight(null);
 			fixConstraintDirection(e);
 		}
-		processDelaunay();
 	}
 
 	/**
 	 * Refine the mesh, using the Ruppert's algorithm.
+	 * If the operation is cancelled, the mesh is valid but only partially refined.
 	 * @param minLength
 	 *		The minimum length of an edge that could be inserted during the refinement.
 	 * @throws DelaunayError
@@ -1261,13 +1713,19 @@ public class ConstrainedMesh implements Serializable {
                 if(minLength <=0){
                         throw new IllegalArgumentException("The minimum length must be strictly positive !");
                 }
-		edgeSplitting(minLength);
-                triangleRefinement(minLength, ev);
+                long start = startPhase(MeshPhase.REFINEMENT);
+                try {
+                        edgeSplitting(minLength);
+                        triangleRefinement(minLength, ev);
+                } finally {
+                        finishPhase(MeshPhase.REFINEMENT, start);
+                }
 	}
 
 	/**
 	 * Refine the mesh, using a derivate of the Ruppert algorithm. We won't split any constraint
          * edges here.
+	 * If the operation is cancelled, the mesh is valid but only partially refined.
 	 * @param minLength
 	 *		The minimum length of an edge that could be inserted during the refinement.
 	 * @throws DelaunayError
@@ -1277,11 +1735,29 @@ public class ConstrainedMesh implements Serializable {
                 if(minLength <=0){
                         throw new IllegalArgumentException("The minimum length must be strictly positive !");
                 }
+                long start = startPhase(MeshPhase.REFINEMENT);
+                try {
+                        circumCenterRefinement(minLength, ev);
+                } finally {
+                        finishPhase(MeshPhase.REFINEMENT, start);
+                }
+	}
+
+        /**
+         * The refinement used by refineTriangles : circumcenters are inserted
+         * where needed, without splitting the encroached edges.
+         * @param minLength
+         * @param ev
+         * @throws DelaunayError
+         */
+        private void circumCenterRefinement(double minLength, InsertionEvaluator ev) throws DelaunayError {
                 processed = new HashMap<Integer, DTriangle>(triangleList.size());
                 remaining = new HashMap<Integer, DTriangle>(triangleList.size());
                 fillRemainingFromTriangles();
                 Set<Map.Entry<Integer, DTriangle>> treatSet = remaining.entrySet();
+                int iteration = 0;
                 while(!treatSet.isEmpty()) {
+                        checkRefinementProgress(iteration++);
                         Map.Entry<Integer, DTriangle> entry = treatSet.iterator().next();
                         DTriangle dt = entry.getValue();
                         if(ev.evaluate(dt)){
@@ -1295,12 +1771,36 @@ public class ConstrainedMesh implements Serializable {
                                 putInProcessed(dt);
                         }
                 }
+                reportProgress(MeshPhase.REFINEMENT, processed.size(), processed.size());
                 triangleList = new LinkedList<DTriangle>(processed.values());
                 processed = null;
                 remaining = null;
                 buffer = null;
 	}
         
+        /**
+         * Report the progress of the triangle refinement, and check if it has been
+         * cancelled. In this case, all the triangles are put back in triangleList
+         * before throwing the error.
+         * @param iteration
+         *      The number of iterations already made by the refinement loop.
+         * @throws DelaunayError
+         */
+        private void checkRefinementProgress(int iteration) throws DelaunayError {
+                if(iteration % PROGRESS_STEP != 0){
+                        return;
+                }
+                int done = processed.size();
+                if(reportProgress(MeshPhase.REFINEMENT, done, done + remaining.size())){
+                        triangleList.addAll(processed.values());
+                        triangleList.addAll(remaining.values());
+                        processed = null;
+                        remaining = null;
+                        buffer = null;
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_CANCELLED);
+                }
+        }
+
         /**
          * Edges are split if encroached.
 	 * @param minLength
@@ -1311,6 +1811,9 @@ public class ConstrainedMesh implements Serializable {
 		int sizeEdges = edges.size();
 		DEdge ed;
 		for(int i = 0; i< sizeEdges; i++){
+			if(i % PROGRESS_STEP == 0 && reportProgress(MeshPhase.REFINEMENT, i, sizeEdges)){
+				throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_CANCELLED);
+			}
 			ed = edges.get(i);
 			if(ed.isEncroached()){
 				splitEncroachedEdge(ed, minLength);
@@ -1339,7 +1842,9 @@ public class ConstrainedMesh implements Serializable {
                 //triangleList is still alive, but empty. Consequently, it can still be used
                 //in the following steps - in splitEncroachedEdge, for instance.
                 Set<Map.Entry<Integer, DTriangle>> treatSet = remaining.entrySet();
+                int iteration = 0;
                 while(!treatSet.isEmpty()) {
+                        checkRefinementProgress(iteration++);
                         Map.Entry<Integer, DTriangle> entry = treatSet.iterator().next();
                         dt = entry.getValue();
                         if(ev.evaluate(dt)){
@@ -1356,6 +1861,7 @@ public class ConstrainedMesh implements Serializable {
                                 putInProcessed(dt);
                         }
                 }
+                reportProgress(MeshPhase.REFINEMENT, processed.size(), processed.size());
                 triangleList = new LinkedList<DTriangle>(processed.values());
                 processed = null;
                 remaining = null;
@@ -1385,6 +1891,7 @@ public class ConstrainedMesh implements Serializable {
 		}
 		middle.setGID(++pointGID);
 		points.add(middle);
+		countCreated((left == null ? 1 : 2) + (right == null ? 0 : 1), (left == null ? 0 : 1) + (right == null ? 0 : 1));
 		secondHalf.setGID(++edgeGID);
 		DEdge ed1 = null;
 		DEdge last1 = null;
@@ -1714,14 +2221,8 @@ public class ConstrainedMesh implements Serializable {
                                 // We check if the two triangles around the edge are ok
                                 if (swapTriangle(anEdge)) {
                                         // Add the triangle's edges to the bad edges list
-                                        LinkedList<DEdge> others = new LinkedList<DEdge>();
-                                        DTriangle aTriangle1 = anEdge.getLeft();
-                                        DTriangle aTriangle2 = anEdge.getRight();
-                                        others.add(aTriangle1.getOppositeEdge(anEdge.getStartPoint()));
-                                        others.add(aTriangle1.getOppositeEdge(anEdge.getEndPoint()));
-                                        others.add(aTriangle2.getOppositeEdge(anEdge.getStartPoint()));
-                                        others.add(aTriangle2.getOppositeEdge(anEdge.getEndPoint()));
-                                        for(DEdge ed : others){
+                                        for(int i = 0; i < 4; i++){
+                                                DEdge ed = getSwapNeighbour(anEdge, i);
                                                 if(ed.getLeft() != null && ed.getRight() != null
                                                         && !badEdgesQueueList.contains(ed)){
                                                         badEdgesQueueList.add(ed);
@@ -1760,12 +2261,8 @@ public class ConstrainedMesh implements Serializable {
                                         swapMemory.addLast(ed);
                                         putInBuffer(left);
                                         putInBuffer(right);
-                                        LinkedList<DEdge> others = new LinkedList<DEdge>();
-                                        others.add(left.getOppositeEdge(ed.getStartPoint()));
-                                        others.add(left.getOppositeEdge(ed.getEndPoint()));
-                                        others.add(right.getOppositeEdge(ed.getStartPoint()));
-                                        others.add(right.getOppositeEdge(ed.getEndPoint()));
-                                        for(DEdge edge : others){
+                                        for(int i = 0; i < 4; i++){
+                                                DEdge edge = getSwapNeighbour(ed, i);
                                                 if(revert && edge.isEncroachedBy(pt)){
                                                       return edge;  
                                                 }else if(edge.getLeft() != null && edge.getRight() != null
@@ -1779,6 +2276,21 @@ public class ConstrainedMesh implements Serializable {
                 return null;
         }
 
+        /**
+         * Get one of the four edges that surround a swapped edge, ie the edges
+         * that must be checked again after a flip-flap. They are given in this order :
+         * left triangle then right triangle, opposite to the start point then to the
+         * end point.
+         * @param ed
+         * @param i
+         *      The index of the wanted edge, between 0 and 3.
+         * @return
+         */
+        private DEdge getSwapNeighbour(DEdge ed, int i) {
+                DTriangle tri = i < 2 ? ed.getLeft() : ed.getRight();
+                return tri.getOppositeEdge(i % 2 == 0 ? ed.getStartPoint() : ed.getEndPoint());
+        }
+
 	/**
 	 * Swap two neighbour triangles, whose common edge is anEdge<br/>
          * 
@@ -1804,22 +2316,22 @@ public class ConstrainedMesh implements Serializable {
 			p1 = ed.getStartPoint();
 			p2 = ed.getEndPoint();
 
-			// Test for each triangle if the remaining point of the
-			// other triangle is inside or not
-			// DTriangle 1 is p1, p2, p3 or p2, p1, p3
+			// p3 is on the left of ed, p4 on its right. The in-circle
+			// determinant is antisymmetric : it is positive both when p4
+			// is in the circumcircle of (p1, p2, p3) and when p3 is in
+			// the circumcircle of (p2, p1, p4).
 			p3 = left.getAlterPoint(p1, p2);
-			if (p3 != null && right.inCircle(p3) == 1) {
-				exchange = true;
-			}
-
-			// DTriangle 2 is p2, p1, p4 or p1, p2, p4
 			p4 = right.getAlterPoint(p1, p2);
-			if (p4 != null && left.inCircle(p4) == 1) {
-				exchange = true;
+			if (p3 != null && p4 != null) {
+				exchange = Predicates.inCircle(p1, p2, p3, p4) > 0;
+				if(listener != null){
+					listener.count(MeshCounter.IN_CIRCLE_TESTS, 1);
+				}
 			}
 			if (p3 != p4 && exchange ) {
                                 if( canSwap(ed)){
                                         flipFlap(ed);
+                                        countEvents(MeshCounter.FLIPS, 1);
                                 } else {
                                         exchange = false;
                                 }
@@ -1894,10 +2406,26 @@ public class ConstrainedMesh implements Serializable {
                 DPoint p4 = right.getAlterPoint(p1, p2);
                 final DEdge anEdge11 = left.getOppositeEdge(p2);
                 final DEdge anEdge22 = left.getOppositeEdge(p1);
-                boolean err1 = (anEdge11.isLeft(p4) && anEdge11.isLeft(p2)) || (anEdge11.isRight(p4) && anEdge11.isRight(p2));
-                boolean err2 = (anEdge22.isLeft(p4) && anEdge22.isLeft(p1)) || (anEdge22.isRight(p4) && anEdge22.isRight(p1));
+                //The quadrilateral must be strictly convex : p4 and p2 are on the
+                //same side of anEdge11, p4 and p1 on the same side of anEdge22.
+                boolean err1 = sameSide(anEdge11, p4, p2);
+                boolean err2 = sameSide(anEdge22, p4, p1);
                 return err1 && err2;
         }
+
+        /**
+         * Check that p and q are strictly on the same side of the line that
+         * contains ed, using exact predicates.
+         * @param ed
+         * @param p
+         * @param q
+         * @return
+         */
+        private static boolean sameSide(DEdge ed, DPoint p, DPoint q){
+                double op = Predicates.orient2d(ed.getStartPoint(), ed.getEndPoint(), p);
+                double oq = Predicates.orient2d(ed.getStartPoint(), ed.getEndPoint(), q);
+                return (op > 0 && oq > 0) || (op < 0 && oq < 0);
+        }
         
         /**
          * Makes a flip-flap on an edge without any test.
@@ -2048,6 +2576,7 @@ public class ConstrainedMesh implements Serializable {
                         DEdge ed = it.next();
                         ed.swap();
                         revertFlipFlap(ed);
+                        countEvents(MeshCounter.REVERTED_SWAPS, 1);
                 }
         }
         
@@ -2125,6 +2654,7 @@ public class ConstrainedMesh implements Serializable {
                 //If the returned value is not null, we come back.
                 if(ret != null){
                         revertPointOnEdgeInsertion(contEdge, pt, memExt, memleft, memright);
+                        countEvents(MeshCounter.REVERTED_INSERTIONS, 1);
                         //We can return here, as we've already found en encroached edge.
                         return ret;
                 }
@@ -2138,6 +2668,7 @@ public class ConstrainedMesh implements Serializable {
                                 contEdge.swap();
                         }
                         revertPointOnEdgeInsertion(contEdge, pt, memExt, memleft, memright);
+                        countEvents(MeshCounter.REVERTED_INSERTIONS, 1);
                 }
                 return ret;
         }
@@ -2168,6 +2699,7 @@ public class ConstrainedMesh implements Serializable {
                 ret = initPointInTriangle(pt, container, badEdges);
                 if(ret != null){
                         revertPointInTriangleInsertion(container, pt, mem, eMem1, eMem2);
+                        countEvents(MeshCounter.REVERTED_INSERTIONS, 1);
                         //we must stop here, that's why we've already revert our process.
                         return ret;
                 }
@@ -2185,6 +2717,7 @@ public class ConstrainedMesh implements Serializable {
                                 actualContainer = eMem0.getRight();
                         }
                         revertPointInTriangleInsertion(actualContainer, pt, mem, eMem1, eMem2);
+                        countEvents(MeshCounter.REVERTED_INSERTIONS, 1);
                 }
                 return ret;
         }
@@ -2361,6 +2894,535 @@ public class ConstrainedMesh implements Serializable {
                 }
         }
         
+        /**
+         * Remove a point from the computed mesh. Only the star of the point, ie
+         * the triangles that share it, is re-triangulated, with the Delaunay
+         * criterion. The points, edges and triangles of the mesh are updated, and
+         * the new edges and triangles are given new GIDs.</p><p>
+         * If the point is on the boundary of the mesh, the boundary is kept convex.
+         * If the point splits a straight constraint in two locked edges, these two
+         * edges are replaced by a single locked edge. A point that is an extremity
+         * of any other locked edge can't be removed.
+         * @param pt
+         *      The point to remove. It is searched in the mesh using its 2D coordinates.
+         * @throws DelaunayError
+         *      If the mesh has not been computed, if pt is not a vertex of the mesh,
+         *      or if it can't be removed without breaking a constraint.
+         */
+        public final void removePoint(DPoint pt) throws DelaunayError {
+                if(!isMeshComputed()){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED);
+                }
+                DEdge spoke = findSpoke(pt);
+                if(spoke == null){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_POINT_NOT_FOUND);
+                }
+                DPoint vertex = spoke.getStartPoint().equals2D(pt) ? spoke.getStartPoint() : spoke.getEndPoint();
+                VertexStar star = VertexStar.around(vertex, spoke);
+                int[][] fill = star.fill(false);
+                if(fill == null){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_INVALID_CALL,
+                                "The point is an extremity of a constraint, it can't be removed.");
+                }
+                if(triangleList.size() - star.getTriangles().size() + fill.length == 0){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_ENOUGH_POINTS_FOUND);
+                }
+                List<DEdge> newEdges = new ArrayList<DEdge>();
+                List<DTriangle> created = fillStar(star, fill, newEdges);
+                removeInstance(points, vertex);
+                for(DEdge ed : star.getSpokes()){
+                        removeInstance(edges, ed);
+                        if(ed.isLocked()){
+                                removeInstance(constraintEdges, ed);
+                        }
+                }
+                for(DEdge ed : newEdges){
+                        addEdgeToLeftSortedList(edges, ed);
+                        if(ed.isLocked()){
+                                addEdgeToLeftSortedList(constraintEdges, ed);
+                        }
+                }
+                removeInstances(triangleList, star.getTriangles());
+                triangleList.addAll(created);
+                countEvents(MeshCounter.POINTS_REMOVED, 1);
+        }
+
+        /**
+         * Find an edge of the mesh that has pt as an extremity. When the edges are
+         * sorted, the edges whose left point is pt are found with a binary search,
+         * as they follow the degenerated edge (pt, pt). The list is scanned otherwise.
+         * @param pt
+         * @return
+         *      An edge that has pt as an extremity, or null if pt is not in the mesh.
+         */
+        private DEdge findSpoke(DPoint pt) {
+                int index = Collections.binarySearch(edges, new DEdge(pt, pt));
+                int pos = index < 0 ? -index - 1 : index;
+                if(pos < edges.size() && edges.get(pos).isExtremity(pt)){
+                        return edges.get(pos);
+                }
+                for(DEdge ed : edges){
+                        if(ed.isExtremity(pt)){
+                                return ed;
+                        }
+                }
+                return null;
+        }
+
+        /**
+         * Remove the elements of elts from the list, using identity, in a single
+         * pass over the list.
+         * @param list
+         * @param elts
+         */
+        private static <T> void removeInstances(List<T> list, List<T> elts) {
+                Set<T> old = Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+                old.addAll(elts);
+                int kept = 0;
+                for(int i = 0; i < list.size(); i++){
+                        T elt = list.get(i);
+                        if(!old.contains(elt)){
+                                list.set(kept, elt);
+                                kept++;
+                        }
+                }
+                list.subList(kept, list.size()).clear();
+        }
+
+        /**
+         * Insert a constraint edge in the computed mesh. Its extremities are
+         * inserted in the mesh if needed. The triangles crossed by the constraint
+         * form a corridor : they are removed, and the two sides of the corridor
+         * are re-triangulated with the constrained Delaunay criterion. The other
+         * triangles are kept as they are.</p><p>
+         * When the constraint goes through a point of the mesh, it is split at
+         * this point. When it crosses a locked edge, both are split at their
+         * intersection, whose z is computed with the weights of the mesh, as in
+         * forceConstraintIntegrity.
+         * @param constraint
+         * @throws DelaunayError
+         *      If the mesh has not been computed, or if the constraint is not
+         *      inside the mesh.
+         */
+        public final void insertConstraintEdge(DEdge constraint) throws DelaunayError {
+                if(!isMeshComputed()){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED);
+                }
+                DPoint current = insertVertex(constraint.getStartPoint());
+                DPoint end = insertVertex(constraint.getEndPoint());
+                DEdge spoke = findSpoke(current);
+                int property = constraint.getProperty();
+                while(current != end){
+                        DEdge piece = insertConstraintPart(current, spoke, end, property);
+                        current = piece.getStartPoint() == current ? piece.getEndPoint() : piece.getStartPoint();
+                        spoke = piece;
+                }
+        }
+
+        /**
+         * Get the vertex of the mesh at the location of pt, inserting pt if needed.
+         * @param pt
+         * @return
+         *      The vertex.
+         * @throws DelaunayError
+         *      If pt is outside the mesh.
+         */
+        private DPoint insertVertex(DPoint pt) throws DelaunayError {
+                DEdge spoke = findSpoke(pt);
+                if(spoke != null){
+                        return spoke.getStartPoint().equals2D(pt) ? spoke.getStartPoint() : spoke.getEndPoint();
+                }
+                Element container = triangleList.get(0).searchPointContainer(pt);
+                if(!(container instanceof DTriangle) || !((DTriangle) container).isInside(pt)){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_OUTSIDE_TRIANGLE);
+                }
+                DTriangle tri = (DTriangle) container;
+                if(tri.isOnAnEdge(pt)){
+                        insertPointOnEdge(pt, tri.getContainingEdge(pt));
+                } else {
+                        insertPointInTriangle(pt, tri, 0);
+                }
+                return pt;
+        }
+
+        /**
+         * Insert the constraint from u to target, until the first point of the
+         * mesh reached, or the first locked edge crossed.
+         * @param u
+         * @param spoke
+         *      An edge that has u as an extremity.
+         * @param target
+         * @param property
+         * @return
+         *      The locked edge that goes from u to the point reached.
+         * @throws DelaunayError
+         */
+        private DEdge insertConstraintPart(DPoint u, DEdge spoke, DPoint target, int property) throws DelaunayError {
+                VertexStar star = VertexStar.around(u, spoke);
+                List<DPoint> link = star.getLink();
+                int size = link.size();
+                for(int i = 0; i < size; i++){
+                        if(isOnConstraint(u, target, link.get(i))){
+                                //The constraint goes along an existing edge.
+                                DEdge ed = star.getSpokes().get(i);
+                                if(ed.isLocked()){
+                                        ed.addProperty(property);
+                                } else {
+                                        ed.setLocked(true);
+                                        ed.setProperty(property);
+                                }
+                                addEdgeToLeftSortedList(constraintEdges, ed);
+                                return ed;
+                        }
+                }
+                int exit = -1;
+                for(int i = 0; i < star.getTriangles().size(); i++){
+                        if(Predicates.orient2d(u, target, link.get(i)) < 0
+                                && Predicates.orient2d(u, target, link.get((i + 1) % size)) > 0){
+                                exit = i;
+                                break;
+                        }
+                }
+                if(exit < 0){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_OUTSIDE_TRIANGLE);
+                }
+                //The points and edges on each side of the corridor, from u.
+                List<DPoint> leftPts = new ArrayList<DPoint>();
+                List<DEdge> leftEdges = new ArrayList<DEdge>();
+                List<DPoint> rightPts = new ArrayList<DPoint>();
+                List<DEdge> rightEdges = new ArrayList<DEdge>();
+                leftPts.add(u);
+                leftPts.add(link.get((exit + 1) % size));
+                leftEdges.add(star.getSpokes().get((exit + 1) % size));
+                rightPts.add(u);
+                rightPts.add(link.get(exit));
+                rightEdges.add(star.getSpokes().get(exit));
+                List<DTriangle> corridor = new ArrayList<DTriangle>();
+                List<DEdge> crossed = new ArrayList<DEdge>();
+                DTriangle tri = star.getTriangles().get(exit);
+                DEdge ed = star.getLinkEdges().get(exit);
+                corridor.add(tri);
+                while(true){
+                        if(ed.isLocked()){
+                                return splitConstraint(u, star, target, ed, property);
+                        }
+                        crossed.add(ed);
+                        DTriangle next = ed.getLeft() == tri ? ed.getRight() : ed.getLeft();
+                        if(next == null){
+                                throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_OUTSIDE_TRIANGLE);
+                        }
+                        corridor.add(next);
+                        DPoint v = next.getOppositePoint(ed);
+                        DPoint l = leftPts.get(leftPts.size() - 1);
+                        DPoint r = rightPts.get(rightPts.size() - 1);
+                        double side = Predicates.orient2d(u, target, v);
+                        if(v == target || isOnConstraint(u, target, v)){
+                                leftEdges.add(next.getOppositeEdge(r));
+                                leftPts.add(v);
+                                rightEdges.add(next.getOppositeEdge(l));
+                                rightPts.add(v);
+                                return fillCorridor(leftPts, leftEdges, rightPts, rightEdges, corridor, crossed, property);
+                        } else if(side > 0){
+                                leftEdges.add(next.getOppositeEdge(r));
+                                leftPts.add(v);
+                                ed = next.getOppositeEdge(l);
+                        } else {
+                                rightEdges.add(next.getOppositeEdge(l));
+                                rightPts.add(v);
+                                ed = next.getOppositeEdge(r);
+                        }
+                        tri = next;
+                }
+        }
+
+        /**
+         * Check if v lies on the constraint that goes from u to target, ahead of u.
+         * As u may be a rounded intersection, v is on the constraint when its
+         * distance to the line is lower than the precision of the mesh.
+         * @param u
+         * @param target
+         * @param v
+         * @return
+         */
+        private boolean isOnConstraint(DPoint u, DPoint target, DPoint v) {
+                double dx = target.getX() - u.getX();
+                double dy = target.getY() - u.getY();
+                double dot = (v.getX() - u.getX()) * dx + (v.getY() - u.getY()) * dy;
+                if(dot <= 0){
+                        return false;
+                }
+                double tolerance = Math.max(precision, Tools.EPSILON) * Math.sqrt(dx * dx + dy * dy);
+                return Math.abs(Predicates.orient2d(u, target, v)) <= tolerance;
+        }
+
+        /**
+         * The constraint from u to target crosses the locked edge ed : split ed at
+         * the intersection, and insert the constraint from u to the intersection.
+         * @return
+         *      The locked edge that goes from u to the intersection.
+         * @throws DelaunayError
+         */
+        private DEdge splitConstraint(DPoint u, VertexStar star, DPoint target, DEdge ed, int property) throws DelaunayError {
+                DEdge segment = new DEdge(u, target);
+                segment.setProperty(property);
+                Element inter = ed.getIntersection(segment, weights);
+                if(!(inter instanceof DPoint)){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_INTERNAL_ERROR);
+                }
+                DPoint middle = (DPoint) inter;
+                if(middle.equals2D(ed.getStartPoint())){
+                        middle = ed.getStartPoint();
+                } else if(middle.equals2D(ed.getEndPoint())){
+                        middle = ed.getEndPoint();
+                } else {
+                        insertPointOnEdge(middle, ed);
+                }
+                //The flip-flaps may have moved the spokes of u.
+                for(DEdge sp : star.getSpokes()){
+                        if(sp.getStartPoint() == u || sp.getEndPoint() == u){
+                                return insertConstraintPart(u, sp, middle, property);
+                        }
+                }
+                return insertConstraintPart(u, findSpoke(u), middle, property);
+        }
+
+        /**
+         * Insert pt on the edge ed of the computed mesh, and restore the
+         * Delaunay criterion around it. If ed is locked, its two halves are.
+         * @param pt
+         * @param ed
+         * @throws DelaunayError
+         */
+        private void insertPointOnEdge(DPoint pt, DEdge ed) throws DelaunayError {
+                DPoint end = ed.getEndPoint();
+                LinkedList<DEdge> badEdges = new LinkedList<DEdge>();
+                initPointOnEdge(pt, ed, badEdges);
+                if(ed.isLocked()){
+                        for(DEdge sp : VertexStar.around(pt, ed).getSpokes()){
+                                if(sp.getEndPoint() == end){
+                                        sp.setLocked(true);
+                                        sp.setProperty(ed.getProperty());
+                                        addEdgeToLeftSortedList(constraintEdges, sp);
+                                        break;
+                                }
+                        }
+                }
+                badEdgesQueueList = badEdges;
+                processBadEdges();
+        }
+
+        /**
+         * Replace the triangles of a corridor with the locked edge that goes
+         * through it, and with the constrained Delaunay triangulations of its two
+         * sides.
+         * @param leftPts
+         *      The points on the left of the corridor, from its first point to its last one.
+         * @param leftEdges
+         *      The edges between the points of leftPts.
+         * @param rightPts
+         * @param rightEdges
+         * @param corridor
+         *      The triangles crossed by the new edge.
+         * @param crossed
+         *      The edges crossed by the new edge.
+         * @param property
+         * @return
+         *      The new locked edge.
+         * @throws DelaunayError
+         */
+        private DEdge fillCorridor(List<DPoint> leftPts, List<DEdge> leftEdges, List<DPoint> rightPts,
+                        List<DEdge> rightEdges, List<DTriangle> corridor, List<DEdge> crossed, int property)
+                        throws DelaunayError {
+                DPoint u = leftPts.get(0);
+                DPoint w = leftPts.get(leftPts.size() - 1);
+                DEdge piece = new DEdge(u, w);
+                piece.setLocked(true);
+                piece.setProperty(property);
+                edgeGID++;
+                piece.setGID(edgeGID);
+                //Both polygons are counterclockwise, and start with the new edge.
+                List<DPoint> upper = new ArrayList<DPoint>();
+                List<DEdge> upperSides = new ArrayList<DEdge>();
+                upper.add(u);
+                upperSides.add(piece);
+                for(int j = leftPts.size() - 1; j > 0; j--){
+                        upper.add(leftPts.get(j));
+                        upperSides.add(leftEdges.get(j - 1));
+                }
+                List<DPoint> lower = new ArrayList<DPoint>();
+                List<DEdge> lowerSides = new ArrayList<DEdge>();
+                lower.add(w);
+                lowerSides.add(piece);
+                for(int j = 0; j < rightPts.size() - 1; j++){
+                        lower.add(rightPts.get(j));
+                        lowerSides.add(rightEdges.get(j));
+                }
+                List<DTriangle> created = new ArrayList<DTriangle>();
+                List<DEdge> inner = new ArrayList<DEdge>();
+                for(int p = 0; p < 2; p++){
+                        List<DPoint> pts = p == 0 ? upper : lower;
+                        int[] poly = new int[pts.size()];
+                        for(int i = 0; i < poly.length; i++){
+                                poly[i] = i;
+                        }
+                        List<int[]> fill = new ArrayList<int[]>();
+                        if(!EarClipper.clip(pts, poly, true, false, fill)){
+                                throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_INTERNAL_ERROR);
+                        }
+                        Map<Integer, DEdge> diagonals = new HashMap<Integer, DEdge>();
+                        created.addAll(buildPolygon(pts, p == 0 ? upperSides : lowerSides, true,
+                                fill.toArray(new int[fill.size()][]), diagonals));
+                        inner.addAll(diagonals.values());
+                }
+                legalize(inner);
+                removeInstances(triangleList, corridor);
+                removeInstances(edges, crossed);
+                triangleList.addAll(created);
+                addEdgeToLeftSortedList(edges, piece);
+                addEdgeToLeftSortedList(constraintEdges, piece);
+                for(DEdge ed : inner){
+                        addEdgeToLeftSortedList(edges, ed);
+                }
+                countEvents(MeshCounter.EDGES_CREATED, inner.size() + 1);
+                countEvents(MeshCounter.TRIANGLES_CREATED, created.size());
+                return piece;
+        }
+
+        /**
+         * Remove elt from the list, using identity. A binary search is tried first,
+         * as the list is sorted as long as the mesh has not been refined.
+         * @param list
+         * @param elt
+         */
+        private <T extends Comparable<? super T>> void removeInstance(List<T> list, T elt) {
+                int index = Collections.binarySearch(list, elt);
+                if(index >= 0 && list.get(index) == elt){
+                        list.remove(index);
+                        return;
+                }
+                for(int i = 0; i < list.size(); i++){
+                        if(list.get(i) == elt){
+                                list.remove(i);
+                                return;
+                        }
+                }
+        }
+        
+        /**
+         * Fill the polygon left by the removal of the center of star with the
+         * triangles computed by VertexStar.fill. The link edges are kept and
+         * connected to the new triangles, the diagonals are created with a new GID,
+         * and are then legalized with flip-flaps. If the star is split by a straight
+         * constraint, the diagonal that replaces its two locked spokes is locked.<br/>
+         * The lists of the mesh are not updated here : the caller must remove the
+         * spokes and the triangles of the star from them, and add the new edges and
+         * triangles. Large batches of removals can then be applied at once.
+         * @param star
+         * @param fill
+         * @param newEdges
+         *      The diagonals created in the polygon are added to this list.
+         * @return
+         *      The new triangles.
+         * @throws DelaunayError
+         */
+        final List<DTriangle> fillStar(VertexStar star, int[][] fill, List<DEdge> newEdges) throws DelaunayError {
+                List<DPoint> link = star.getLink();
+                List<DEdge> linkEdges = star.getLinkEdges();
+                int size = link.size();
+                //The link edges that are not used by the new triangles must not
+                //keep a reference to the old ones.
+                for(int i = 0; i < linkEdges.size(); i++){
+                        DEdge ed = linkEdges.get(i);
+                        if(ed.getLeft() == star.getTriangles().get(i)){
+                                ed.setLeft(null);
+                        } else {
+                                ed.setRight(null);
+                        }
+                }
+                Map<Integer, DEdge> diagonals = new HashMap<Integer, DEdge>();
+                List<DTriangle> ret = buildPolygon(link, linkEdges, star.isClosed(), fill, diagonals);
+                int[] split = star.getSplit();
+                if(split != null){
+                        DEdge merged = diagonals.get(Math.min(split[0], split[1]) * size + Math.max(split[0], split[1]));
+                        merged.setLocked(true);
+                        merged.setProperty(star.getSpokes().get(split[0]).getProperty());
+                }
+                List<DEdge> inner = new ArrayList<DEdge>(diagonals.values());
+                newEdges.addAll(inner);
+                legalize(inner);
+                countEvents(MeshCounter.EDGES_CREATED, inner.size());
+                countEvents(MeshCounter.TRIANGLES_CREATED, ret.size());
+                return ret;
+        }
+
+        /**
+         * Build the triangles of fill in the polygon pts. The side i of the polygon,
+         * from pts[i] to pts[i+1], is the existing edge sides[i]. The diagonals are
+         * created with a new GID, and stored in diagonals, using the indices of their
+         * extremities as a key.
+         * @param pts
+         * @param sides
+         * @param cyclic
+         *      false if there is no side from the last point to the first one.
+         * @param fill
+         *      The triangles, as triples of indices in pts.
+         * @param diagonals
+         * @return
+         *      The new triangles, with a new GID.
+         * @throws DelaunayError
+         */
+        private List<DTriangle> buildPolygon(List<DPoint> pts, List<DEdge> sides, boolean cyclic,
+                        int[][] fill, Map<Integer, DEdge> diagonals) throws DelaunayError {
+                int size = pts.size();
+                List<DTriangle> ret = new ArrayList<DTriangle>(fill.length);
+                for(int[] tri : fill){
+                        DEdge[] triEdges = new DEdge[DTriangle.PT_NB];
+                        for(int k = 0; k < DTriangle.PT_NB; k++){
+                                int a = tri[k];
+                                int b = tri[(k + 1) % DTriangle.PT_NB];
+                                if(b == a + 1 || (cyclic && b == (a + 1) % size)){
+                                        triEdges[k] = sides.get(a);
+                                } else {
+                                        int key = Math.min(a, b) * size + Math.max(a, b);
+                                        DEdge diag = diagonals.get(key);
+                                        if(diag == null){
+                                                diag = new DEdge(pts.get(a), pts.get(b));
+                                                edgeGID++;
+                                                diag.setGID(edgeGID);
+                                                diagonals.put(key, diag);
+                                        }
+                                        triEdges[k] = diag;
+                                }
+                        }
+                        DTriangle created = new DTriangle(triEdges[0], triEdges[1], triEdges[2]);
+                        triangleGID++;
+                        created.setGID(triangleGID);
+                        ret.add(created);
+                }
+                return ret;
+        }
+
+        /**
+         * Process the flip-flaps needed on the new edges inner, and on the new
+         * edges only : the triangles around them are the only ones involved.
+         * @param inner
+         * @throws DelaunayError
+         */
+        private void legalize(List<DEdge> inner) throws DelaunayError {
+                LinkedList<DEdge> queue = new LinkedList<DEdge>(inner);
+                while(!queue.isEmpty()){
+                        DEdge ed = queue.removeFirst();
+                        if(!ed.isLocked() && swapTriangle(ed)){
+                                for(int i = 0; i < 4; i++){
+                                        DEdge nb = getSwapNeighbour(ed, i);
+                                        if(inner.contains(nb) && !queue.contains(nb)){
+                                                queue.add(nb);
+                                        }
+                                }
+                        }
+                }
+        }
+        
         /**
          * When inserting a point in the already processed mesh, we must generate the
          * needed edges and triangles, and then process the flip-flap operations. 
@@ -2417,6 +3479,7 @@ public class ConstrainedMesh implements Serializable {
                 pointGID++;
                 pt.setGID(pointGID);
                 points.add(pt);
+                countCreated(3, 2);
                 //e1, e2 and e3 can't be encroached, as they are not locked, and they
                 //can't be on the boundary of the mesh.
                 //they can't be bad (yet) either.
@@ -2508,6 +3571,7 @@ public class ConstrainedMesh implements Serializable {
                 edgeGID++;
                 otherPart.setGID(edgeGID);
                 edges.add(otherPart);
+                countCreated((left == null ? 1 : 2) + (right == null ? 0 : 1), (left == null ? 0 : 1) + (right == null ? 0 : 1));
                 //At this stage, left and right are not valid triangles anymore.
                 contEdge.setEndPoint(pt);
                 //We must still return the first encroached edge we find, if any.
@@ -2535,9 +3599,24 @@ public class ConstrainedMesh implements Serializable {
         /**
          * Ensure points are at least at epsilon from other points
          * NB : points are supposed to be already sorted
+         * If the operation is cancelled, the mesh is not changed.
          * @param epsilon
          */
         public final void dataQualification(double epsilon) throws DelaunayError {
+                long start = startPhase(MeshPhase.DATA_QUALIFICATION);
+                try {
+                        qualifyPoints(epsilon);
+                } finally {
+                        finishPhase(MeshPhase.DATA_QUALIFICATION, start);
+                }
+        }
+
+        /**
+         * The merge of the close points, used by dataQualification.
+         * @param epsilon
+         * @throws DelaunayError
+         */
+        private void qualifyPoints(double epsilon) throws DelaunayError {
                 if (isMeshComputed()) {
                         throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_GENERATED);
                 } else if (points == null || edges == null || constraintEdges == null || polygons == null) {
@@ -2551,6 +3630,9 @@ public class ConstrainedMesh implements Serializable {
                         int index = -1;
                         for (DPoint aPoint : points) {
                                 index++;
+                                if(index % PROGRESS_STEP == 0 && reportProgress(MeshPhase.DATA_QUALIFICATION, index, points.size())){
+                                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_CANCELLED);
+                                }
                                 if (!replacePoints.containsKey(aPoint)){
                                         // get all points at less than epsilon and put them in ReplacePoints
                                         double x1 = aPoint.getX();
@@ -2578,6 +3660,8 @@ public class ConstrainedMesh implements Serializable {
                                 }
                         }
 
+                        reportProgress(MeshPhase.DATA_QUALIFICATION, points.size(), points.size());
+                        countEvents(MeshCounter.POINTS_MERGED, replacePoints.size());
                         // Points are processed, we remove all points in the list that are in the HashMap
                         ListIterator<DPoint> iterPts = points.listIterator();
                         while (iterPts.hasNext()) {
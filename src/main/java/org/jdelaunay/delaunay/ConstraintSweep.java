@@ -0,0 +1,478 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+import org.jdelaunay.delaunay.geometries.Element;
+import org.jdelaunay.delaunay.tools.Tools;
+
+/**
+ * The Bentley-Ottmann sweep used by forceConstraintIntegrity. It splits the
+ * constraints at their intersections, and at the points of the mesh that
+ * lie on them.</p><p>
+ * The events are the points of the mesh, that are already sorted, merged with
+ * a heap of the intersections found during the sweep. The status is a
+ * balanced tree of the non-vertical constraints that cross the sweep line,
+ * sorted with a VerticalComparator. As it is only checked for the neighbours
+ * of the constraints that change at each event, the sweep costs
+ * O((n+k) log n), where k is the number of intersections.
+ * A vertical constraint only lives at the abscissa of its extremities, so it is
+ * kept apart from the tree.</p><p>
+ * Overlapping colinear constraints are merged, the shared part getting the
+ * properties of both. If weights are given, a point where constraints cross
+ * takes the Z of the heaviest one that goes through it.
+ */
+final class ConstraintSweep {
+
+        //The points of the mesh, sorted.
+        private final List<DPoint> input;
+        //The index of the next point of input to be processed.
+        private int nextPoint = 0;
+        //The intersections that have not been processed yet.
+        private final PriorityQueue<Crossing> crossings = new PriorityQueue<Crossing>();
+        //The number of intersections found so far.
+        private long found = 0;
+        //The constraints, sorted with their left point.
+        private final List<DEdge> constraints;
+        //The index of the next constraint to be inserted.
+        private int nextConstraint = 0;
+        //The parts of merged colinear constraints that begin after the current event.
+        private final PriorityQueue<DEdge> starts = new PriorityQueue<DEdge>();
+        private final VerticalComparator comp = new VerticalComparator(0);
+        //The non-vertical constraints that cross the sweep line.
+        private final TreeSet<DEdge> status = new TreeSet<DEdge>(comp);
+        //The vertical constraints that lie on the sweep line.
+        private final List<DEdge> verticals = new ArrayList<DEdge>();
+        //The processed events, sorted.
+        private final List<DPoint> events;
+        //The constraints that won't be split anymore.
+        private final List<DEdge> finished = new ArrayList<DEdge>();
+        private final Map<Integer, Integer> weights;
+        private DPoint last = null;
+
+        /**
+         * Prepare the sweep of the constraints.
+         * @param points
+         *      The points of the mesh, sorted. They must contain the extremities
+         *      of the constraints.
+         * @param constraints
+         *      The constraints, directed and sorted from their left point.
+         * @param weights
+         */
+        ConstraintSweep(List<DPoint> points, List<DEdge> constraints, Map<Integer, Integer> weights) {
+                this.input = points;
+                this.constraints = constraints;
+                this.weights = weights;
+                this.events = new ArrayList<DPoint>(points.size());
+        }
+
+        /**
+         * @return
+         *      true if some events remain to be processed.
+         */
+        boolean hasNextEvent() {
+                return nextPoint < input.size() || !crossings.isEmpty();
+        }
+
+        /**
+         * @return
+         *      The number of events that remain to be processed.
+         */
+        int getRemainingEvents() {
+                return input.size() - nextPoint + crossings.size();
+        }
+
+        /**
+         * Process the next event : the constraints that go through it are split,
+         * the ones that begin there are inserted in the status, and the new
+         * neighbours in the status are checked for intersections.
+         * @throws DelaunayError
+         */
+        void processNextEvent() throws DelaunayError {
+                DPoint p = pollEvent();
+                if(p == null){
+                        return;
+                }
+                events.add(p);
+                comp.setAbs(p.getX());
+                DEdge probe = new DEdge(p, new DPoint(p.getX() + 1, p.getY(), p.getZ()));
+                List<DEdge> through = removeThrough(p, probe);
+                List<DEdge> leaving = new ArrayList<DEdge>();
+                for(; nextConstraint < constraints.size(); nextConstraint++){
+                        DEdge ed = constraints.get(nextConstraint);
+                        if(!ed.getPointLeft().equals2D(p)){
+                                break;
+                        }
+                        leaving.add(ed);
+                }
+                while(!starts.isEmpty() && starts.peek().getPointLeft().equals2D(p)){
+                        leaving.add(starts.poll());
+                }
+                if(!weights.isEmpty() && through.size() + leaving.size() > 1){
+                        assignZ(p, through, leaving);
+                }
+                for(DEdge ed : through){
+                        if(ed.getPointRight().equals2D(p)){
+                                finished.add(ed);
+                        } else {
+                                finished.add(part(ed, ed.getPointLeft(), p));
+                                leaving.add(part(ed, p, ed.getPointRight()));
+                        }
+                }
+                List<DEdge> inserted = merge(p, leaving);
+                DEdge lowest = null;
+                DEdge highest = null;
+                for(DEdge ed : inserted){
+                        if(ed.isVertical()){
+                                verticals.add(ed);
+                                crossVertical(ed, probe);
+                        } else {
+                                if(!status.add(ed)){
+                                        //An identical constraint is already there.
+                                        status.ceiling(ed).addProperty(ed.getProperty());
+                                        continue;
+                                }
+                                lowest = lowest == null ? ed : lowest;
+                                highest = ed;
+                        }
+                }
+                if(lowest == null){
+                        checkCrossing(status.lower(probe), status.higher(probe), p);
+                } else {
+                        checkCrossing(status.lower(lowest), lowest, p);
+                        checkCrossing(highest, status.higher(highest), p);
+                }
+        }
+
+        /**
+         * Get the points of the mesh : the processed events, the intersections
+         * found so far and the points that have not been reached yet.
+         * @return
+         *      The sorted points.
+         */
+        List<DPoint> getPoints() {
+                List<DPoint> ret = new ArrayList<DPoint>(events);
+                ret.addAll(input.subList(nextPoint, input.size()));
+                if(!crossings.isEmpty()){
+                        for(Crossing c : crossings){
+                                ret.add(c.pt);
+                        }
+                        Collections.sort(ret);
+                }
+                return ret;
+        }
+
+        /**
+         * Get the constraints : the ones that have been split, and the ones
+         * that have not been processed completely yet. Together, they describe
+         * the same geometry than the original constraints.
+         * @return
+         *      The constraints, unsorted.
+         */
+        List<DEdge> getConstraints() {
+                List<DEdge> ret = new ArrayList<DEdge>(finished);
+                ret.addAll(status);
+                ret.addAll(verticals);
+                ret.addAll(starts);
+                ret.addAll(constraints.subList(nextConstraint, constraints.size()));
+                return ret;
+        }
+
+        /**
+         * Get the next event. The points that are equal to the last event are
+         * skipped, as well as the intersections that are points of the mesh.
+         * @return
+         *      The next event, or null if there is none.
+         */
+        private DPoint pollEvent() {
+                while(hasNextEvent()){
+                        DPoint cand;
+                        if(nextPoint < input.size()
+                                && (crossings.isEmpty() || input.get(nextPoint).compareTo2D(crossings.peek().pt) <= 0)){
+                                cand = input.get(nextPoint);
+                                nextPoint++;
+                        } else {
+                                cand = crossings.poll().pt;
+                        }
+                        if(last == null || !cand.equals2D(last)){
+                                last = cand;
+                                return cand;
+                        }
+                }
+                return null;
+        }
+
+        /**
+         * Remove from the status and from the vertical constraints the ones that
+         * go through p. They are contiguous in the status, around probe.
+         * @param p
+         * @param probe
+         *      An horizontal edge that begins at p.
+         * @return
+         */
+        private List<DEdge> removeThrough(DPoint p, DEdge probe) {
+                List<DEdge> ret = new ArrayList<DEdge>();
+                Iterator<DEdge> it = status.tailSet(probe, true).iterator();
+                while(it.hasNext()){
+                        DEdge ed = it.next();
+                        if(!goesThrough(ed, p)){
+                                break;
+                        }
+                        ret.add(ed);
+                        it.remove();
+                }
+                it = status.headSet(probe, false).descendingIterator();
+                while(it.hasNext()){
+                        DEdge ed = it.next();
+                        if(!goesThrough(ed, p)){
+                                break;
+                        }
+                        ret.add(ed);
+                        it.remove();
+                }
+                it = verticals.iterator();
+                while(it.hasNext()){
+                        DEdge ed = it.next();
+                        if(goesThrough(ed, p)){
+                                ret.add(ed);
+                                it.remove();
+                        } else if(ed.getPointRight().compareTo2D(p) < 0){
+                                //The sweep line has left this vertical constraint.
+                                finished.add(ed);
+                                it.remove();
+                        }
+                }
+                return ret;
+        }
+
+        /**
+         * Merge the constraints that begin at p and that are colinear. The
+         * shortest one gets the properties of the others, which are cut to its
+         * right point and will be processed with the next events.
+         * @param p
+         * @param leaving
+         * @return
+         *      The constraints that begin at p, vertically sorted.
+         */
+        private List<DEdge> merge(DPoint p, List<DEdge> leaving) {
+                for(int i = 0; i < leaving.size(); i++){
+                        DEdge ed = leaving.get(i);
+                        if(ed.getPointLeft() != p){
+                                leaving.set(i, part(ed, p, ed.getPointRight()));
+                        }
+                }
+                //They all begin at p : they are sorted with their slope, and then
+                //with their length.
+                Collections.sort(leaving, comp);
+                List<DEdge> ret = new ArrayList<DEdge>();
+                int i = 0;
+                while(i < leaving.size()){
+                        DEdge first = leaving.get(i);
+                        i++;
+                        while(i < leaving.size() && isColinear(first, leaving.get(i))){
+                                DEdge other = leaving.get(i);
+                                first.addProperty(other.getProperty());
+                                if(!other.getPointRight().equals2D(first.getPointRight())){
+                                        starts.add(part(other, first.getPointRight(), other.getPointRight()));
+                                }
+                                i++;
+                        }
+                        ret.add(first);
+                }
+                return ret;
+        }
+
+        /**
+         * Register the intersections between the vertical constraint ver and the
+         * constraints of the status.
+         * @param ver
+         * @param probe
+         *      An horizontal edge that begins at the lower point of ver.
+         * @throws DelaunayError
+         */
+        private void crossVertical(DEdge ver, DEdge probe) throws DelaunayError {
+                DPoint low = ver.getPointLeft();
+                DPoint top = ver.getPointRight();
+                for(DEdge ed : status.tailSet(probe, false)){
+                        DPoint onLine = ed.getPointFromItsX(low.getX());
+                        if(onLine == null || onLine.compareTo2D(top) >= 0){
+                                break;
+                        }
+                        checkCrossing(ed, ver, low);
+                }
+        }
+
+        /**
+         * Register the intersection of lower and upper as an event, if they
+         * cross after p.
+         * @param lower
+         * @param upper
+         * @param p
+         * @throws DelaunayError
+         */
+        private void checkCrossing(DEdge lower, DEdge upper, DPoint p) throws DelaunayError {
+                if(lower == null || upper == null){
+                        return;
+                }
+                //We work on copies, as getIntersection can change the z of the
+                //extremities.
+                boolean useUpper = !weights.isEmpty() && upper.getMaxWeight(weights) > lower.getMaxWeight(weights);
+                DEdge copy = new DEdge(new DPoint(lower.getPointLeft()), new DPoint(lower.getPointRight()));
+                Element inter = copy.getIntersection(new DPoint(upper.getPointLeft()),
+                        new DPoint(upper.getPointRight()), useUpper);
+                if(inter instanceof DPoint){
+                        DPoint pt = (DPoint) inter;
+                        if(pt.compareTo2D(p) > 0 && !isExtremity(lower, pt) && !isExtremity(upper, pt)
+                                && Collections.binarySearch(input, pt) < 0){
+                                crossings.add(new Crossing(pt, found++));
+                        }
+                }
+        }
+
+        /**
+         * Give to p the z of the heaviest constraint that goes through it, if
+         * p is not one of its extremities.
+         * @param p
+         * @param through
+         * @param leaving
+         */
+        private void assignZ(DPoint p, List<DEdge> through, List<DEdge> leaving) {
+                DEdge heaviest = null;
+                int max = Integer.MIN_VALUE;
+                boolean extremity = false;
+                List<DEdge> all = new ArrayList<DEdge>(through);
+                all.addAll(leaving);
+                for(DEdge ed : all){
+                        int w = ed.getMaxWeight(weights);
+                        boolean ext = isExtremity(ed, p);
+                        if(w > max || (w == max && ext && !extremity)){
+                                max = w;
+                                heaviest = ed;
+                                extremity = ext;
+                        }
+                }
+                if(heaviest != null && !extremity){
+                        DPoint l = heaviest.getPointLeft();
+                        DPoint r = heaviest.getPointRight();
+                        double dx = r.getX() - l.getX();
+                        double dy = r.getY() - l.getY();
+                        double t = ((p.getX() - l.getX()) * dx + (p.getY() - l.getY()) * dy) / (dx * dx + dy * dy);
+                        p.setZ(l.getZ() + t * (r.getZ() - l.getZ()));
+                }
+        }
+
+        /**
+         * Build a new constraint from a to b, with the property of ed.
+         * @param ed
+         * @param a
+         * @param b
+         * @return
+         */
+        private static DEdge part(DEdge ed, DPoint a, DPoint b) {
+                DEdge ret = new DEdge(a, b);
+                ret.setProperty(ed.getProperty());
+                ret.setLocked(ed.isLocked());
+                return ret;
+        }
+
+        /**
+         * Check if p lies on ed, at a distance lower than epsilon.
+         * @param ed
+         * @param p
+         * @return
+         */
+        private static boolean goesThrough(DEdge ed, DPoint p) {
+                DPoint l = ed.getPointLeft();
+                DPoint r = ed.getPointRight();
+                if(p.compareTo2D(l) < 0 || p.compareTo2D(r) > 0){
+                        return false;
+                }
+                double dx = r.getX() - l.getX();
+                double dy = r.getY() - l.getY();
+                double cross = dx * (p.getY() - l.getY()) - dy * (p.getX() - l.getX());
+                return cross * cross <= Tools.EPSILON2 * (dx * dx + dy * dy);
+        }
+
+        /**
+         * Two edges that begin at the same point are colinear if they are both
+         * vertical, or if they have the same slope, as in VerticalComparator.
+         * @param e1
+         * @param e2
+         * @return
+         */
+        private static boolean isColinear(DEdge e1, DEdge e2) {
+                if(e1.isVertical() || e2.isVertical()){
+                        return e1.isVertical() && e2.isVertical();
+                }
+                double s1 = (e1.getPointRight().getY() - e1.getPointLeft().getY())
+                        / (e1.getPointRight().getX() - e1.getPointLeft().getX());
+                double s2 = (e2.getPointRight().getY() - e2.getPointLeft().getY())
+                        / (e2.getPointRight().getX() - e2.getPointLeft().getX());
+                return -Tools.EPSILON < s1 - s2 && s1 - s2 < Tools.EPSILON;
+        }
+
+        private static boolean isExtremity(DEdge ed, DPoint p) {
+                return ed.getPointLeft().equals2D(p) || ed.getPointRight().equals2D(p);
+        }
+
+        /**
+         * An intersection waiting in the heap. The same intersection can be
+         * found several times : the first one found is processed, the others
+         * are skipped.
+         */
+        private static final class Crossing implements Comparable<Crossing> {
+                private final DPoint pt;
+                private final long order;
+
+                Crossing(DPoint pt, long order) {
+                        this.pt = pt;
+                        this.order = order;
+                }
+
+                @Override
+                public int compareTo(Crossing o) {
+                        int c = pt.compareTo2D(o.pt);
+                        if(c != 0){
+                                return c;
+                        }
+                        return order < o.order ? -1 : (order > o.order ? 1 : 0);
+                }
+        }
+}
@@ -0,0 +1,225 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+import org.jdelaunay.delaunay.geometries.DTriangle;
+import org.jdelaunay.delaunay.tools.Tools;
+
+/**
+ * Extracts the isolines of a computed ConstrainedMesh.
+ *
+ * For each level, an edge is crossed when one of its points is lower than the
+ * level and the other one is not. A triangle crossed by the level has then
+ * exactly two crossed edges, and the isoline is traced from triangle to triangle
+ * through them, with DEdge.getLeft and getRight. The isolines that reach the
+ * boundary of the mesh are traced first, from the boundary ; the remaining
+ * crossed triangles belong to rings. Each isoline is given to the listener as
+ * soon as it has been traced, so that the isolines of a level are never all in
+ * memory.
+ *
+ * The levels are independent : they are processed on several threads.
+ */
+public final class ContourExtractor {
+
+        private final List<DTriangle> triangles;
+        //The index of each triangle in triangles.
+        private final Map<DTriangle, Integer> indices;
+        //The triangles that have an edge on the boundary of the mesh.
+        private final List<DTriangle> boundary = new ArrayList<DTriangle>();
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Build an extractor for the given mesh.
+         * @param mesh
+         * @throws DelaunayError
+         *      If the mesh has not been computed.
+         */
+        public ContourExtractor(ConstrainedMesh mesh) throws DelaunayError {
+                if(!mesh.isMeshComputed()){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED);
+                }
+                triangles = mesh.getTriangleList();
+                indices = new IdentityHashMap<DTriangle, Integer>(triangles.size());
+                for(int i = 0; i < triangles.size(); i++){
+                        DTriangle tri = triangles.get(i);
+                        indices.put(tri, i);
+                        for(int k = 0; k < DTriangle.PT_NB; k++){
+                                DEdge ed = tri.getEdge(k);
+                                if(ed.getLeft() == null || ed.getRight() == null){
+                                        boundary.add(tri);
+                                        break;
+                                }
+                        }
+                }
+        }
+
+        /**
+         * Get the number of threads used to process the levels.
+         * @return
+         *      The number of available processors by default.
+         */
+        public int getParallelism() {
+                return parallelism;
+        }
+
+        /**
+         * Set the number of threads used to process the levels.
+         * @param threads
+         *      Must be at least 1.
+         */
+        public void setParallelism(int threads) {
+                if(threads < 1){
+                        throw new IllegalArgumentException("At least one thread is needed");
+                }
+                parallelism = threads;
+        }
+
+        /**
+         * Extract the isolines of the given levels, and give them to listener.
+         * @param levels
+         * @param listener
+         * @throws DelaunayError
+         *      If the extraction has been interrupted.
+         */
+        public void extract(double[] levels, final ContourListener listener) throws DelaunayError {
+                int threads = Math.min(parallelism, levels.length);
+                if(threads <= 1){
+                        for(double level : levels){
+                                extract(level, listener);
+                        }
+                        return;
+                }
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                try {
+                        List<Future<Void>> tasks = new ArrayList<Future<Void>>(levels.length);
+                        for(final double level : levels){
+                                tasks.add(executor.submit(new Callable<Void>() {
+                                        @Override
+                                        public Void call() throws DelaunayError {
+                                                extract(level, listener);
+                                                return null;
+                                        }
+                                }));
+                        }
+                        for(Future<Void> task : tasks){
+                                Tools.join(task);
+                        }
+                } finally {
+                        executor.shutdownNow();
+                }
+        }
+
+        /**
+         * Extract the isolines of one level.
+         */
+        private void extract(double level, ContourListener listener) throws DelaunayError {
+                boolean[] visited = new boolean[triangles.size()];
+                for(DTriangle tri : boundary){
+                        for(int k = 0; k < DTriangle.PT_NB; k++){
+                                DEdge ed = tri.getEdge(k);
+                                if((ed.getLeft() == null || ed.getRight() == null) && isCrossed(ed, level)
+                                                && !visited[indices.get(tri)]){
+                                        listener.contour(level, trace(tri, ed, level, visited), false);
+                                }
+                        }
+                }
+                for(int i = 0; i < visited.length; i++){
+                        if(!visited[i]){
+                                DTriangle tri = triangles.get(i);
+                                for(int k = 0; k < DTriangle.PT_NB; k++){
+                                        DEdge ed = tri.getEdge(k);
+                                        if(isCrossed(ed, level)){
+                                                listener.contour(level, trace(tri, ed, level, visited), true);
+                                                break;
+                                        }
+                                }
+                        }
+                }
+        }
+
+        /**
+         * Trace an isoline, entering in start through the edge entry. The walk
+         * ends on the boundary of the mesh, or when it comes back in start.
+         */
+        private List<DPoint> trace(DTriangle start, DEdge entry, double level, boolean[] visited)
+                        throws DelaunayError {
+                List<DPoint> ret = new ArrayList<DPoint>();
+                ret.add(getCrossing(entry, level));
+                DTriangle current = start;
+                DEdge in = entry;
+                while(current != null && !visited[indices.get(current)]){
+                        visited[indices.get(current)] = true;
+                        DEdge out = null;
+                        for(int k = 0; k < DTriangle.PT_NB && out == null; k++){
+                                DEdge ed = current.getEdge(k);
+                                if(ed != in && isCrossed(ed, level)){
+                                        out = ed;
+                                }
+                        }
+                        if(out == null){
+                                break;
+                        }
+                        ret.add(getCrossing(out, level));
+                        current = out.getLeft() == current ? out.getRight() : out.getLeft();
+                        in = out;
+                }
+                return ret;
+        }
+
+        /**
+         * Check if one of the points of ed is lower than level, and the other one
+         * is not.
+         */
+        private static boolean isCrossed(DEdge ed, double level) {
+                return (ed.getStartPoint().getZ() < level) != (ed.getEndPoint().getZ() < level);
+        }
+
+        /**
+         * Get the point of a crossed edge where the z value is level.
+         */
+        private static DPoint getCrossing(DEdge ed, double level) throws DelaunayError {
+                DPoint a = ed.getStartPoint();
+                DPoint b = ed.getEndPoint();
+                double t = (level - a.getZ()) / (b.getZ() - a.getZ());
+                return new DPoint(a.getX() + t * (b.getX() - a.getX()), a.getY() + t * (b.getY() - a.getY()), level);
+        }
+}
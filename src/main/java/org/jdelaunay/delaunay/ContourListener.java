@@ -0,0 +1,58 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+import java.util.List;
+import org.jdelaunay.delaunay.geometries.DPoint;
+
+/**
+ * Receives the isolines computed by a ContourExtractor, one by one, as soon as
+ * they have been traced.
+ *
+ * When the levels are processed on several threads, the listener is called from
+ * these threads : it must be thread safe.
+ */
+public interface ContourListener {
+
+        /**
+         * Called when an isoline has been traced.
+         * @param level
+         *      The z value of the isoline.
+         * @param points
+         *      The points of the isoline, in order. Their z value is level.
+         * @param closed
+         *      true if the isoline is a ring : its last point is then equal to
+         *      its first one. Otherwise, its two ends are on the boundary of the
+         *      mesh.
+         */
+        void contour(double level, List<DPoint> points, boolean closed);
+
+}
@@ -0,0 +1,134 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+import java.util.List;
+import org.jdelaunay.delaunay.geometries.DPoint;
+import org.jdelaunay.delaunay.tools.Predicates;
+
+/**
+ * Triangulates the polygons left in a mesh by local edits, by clipping their
+ * ears.</p><p>
+ * An ear is clipped only if it is convex and if its circumcircle does not contain
+ * any other vertex of the polygon. Such an ear always exists when the polygon is
+ * the star of a vertex removed from a Delaunay triangulation, and the result is
+ * then its Delaunay triangulation. Otherwise, if the clipping is not strict, a
+ * convex ear that contains no other vertex is clipped : the diagonals must then
+ * be legalized with flip-flaps, which gives the constrained Delaunay
+ * triangulation of the polygon.
+ */
+final class EarClipper {
+
+        private EarClipper() {
+        }
+
+        /**
+         * Clip the ears of poly, and put them in out. If the polygon is not
+         * cyclic, its first and last points are never clipped, and the ears are
+         * clipped until the polygon is convex.
+         * @param pts
+         * @param poly
+         *      The indices in pts of the vertices of the polygon, counterclockwise.
+         *      This array is modified.
+         * @param cyclic
+         * @param strict
+         *      If true, only the Delaunay ears are clipped.
+         * @param out
+         *      The ears, as counterclockwise triples of indices in pts.
+         * @return
+         *      false if a cyclic polygon could not be triangulated.
+         */
+        static boolean clip(List<DPoint> pts, int[] poly, boolean cyclic, boolean strict, List<int[]> out) {
+                int size = poly.length;
+                while(size > 3 || (!cyclic && size == 3)){
+                        int best = -1;
+                        int first = cyclic ? 0 : 1;
+                        int last = cyclic ? size : size - 1;
+                        for(int i = first; i < last; i++){
+                                int a = poly[(i + size - 1) % size];
+                                int b = poly[i];
+                                int c = poly[(i + 1) % size];
+                                int ear = classifyEar(pts, poly, size, a, b, c);
+                                if(ear > 0){
+                                        best = i;
+                                        break;
+                                } else if(ear == 0 && best < 0 && !strict){
+                                        best = i;
+                                }
+                        }
+                        if(best < 0){
+                                return !cyclic;
+                        }
+                        out.add(new int[]{poly[(best + size - 1) % size], poly[best], poly[(best + 1) % size]});
+                        size--;
+                        System.arraycopy(poly, best + 1, poly, best, size - best);
+                }
+                if(cyclic){
+                        if(size < 3 || Predicates.orient2d(pts.get(poly[0]), pts.get(poly[1]), pts.get(poly[2])) <= 0){
+                                return false;
+                        }
+                        out.add(new int[]{poly[0], poly[1], poly[2]});
+                }
+                return true;
+        }
+
+        /**
+         * Check the ear (a, b, c) of the polygon poly.
+         * @return
+         *      1 if the ear can be clipped and is Delaunay, 0 if it can be clipped
+         *      but its circumcircle contains another vertex, -1 if it can't be
+         *      clipped.
+         */
+        private static int classifyEar(List<DPoint> pts, int[] poly, int size, int a, int b, int c) {
+                DPoint pa = pts.get(a);
+                DPoint pb = pts.get(b);
+                DPoint pc = pts.get(c);
+                if(Predicates.orient2d(pa, pb, pc) <= 0){
+                        return -1;
+                }
+                int ret = 1;
+                for(int j = 0; j < size; j++){
+                        int d = poly[j];
+                        if(d != a && d != b && d != c){
+                                DPoint pd = pts.get(d);
+                                if(Predicates.inCircle(pa, pb, pc, pd) > 0){
+                                        if(Predicates.orient2d(pa, pb, pd) >= 0
+                                                && Predicates.orient2d(pb, pc, pd) >= 0
+                                                && Predicates.orient2d(pc, pa, pd) >= 0){
+                                                return -1;
+                                        }
+                                        ret = 0;
+                                }
+                        }
+                }
+                return ret;
+        }
+}
@@ -0,0 +1,233 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+
+/**
+ * Collects the points and the constraint edges of a mesh before building it.
+ *
+ * ConstrainedMesh.addPoint and addConstraintEdge keep the lists of the mesh
+ * sorted after each insertion, which is quadratic when many elements are added
+ * one by one. The builder stores the coordinates in primitive arrays, then sorts
+ * and merges them once when build is called.
+ */
+public final class MeshBuilder {
+
+        private static final int DEFAULT_CAPACITY = 16;
+
+        private double[] x;
+        private double[] y;
+        private double[] z;
+        private int pointCount = 0;
+        //Two point indices for each constraint.
+        private int[] constraints;
+        private int constraintCount = 0;
+
+        /**
+         * Build an empty builder.
+         */
+        public MeshBuilder() {
+                this(DEFAULT_CAPACITY);
+        }
+
+        /**
+         * Build an empty builder, ready to store pointCapacity points.
+         * @param pointCapacity
+         */
+        public MeshBuilder(int pointCapacity) {
+                int cap = Math.max(1, pointCapacity);
+                x = new double[cap];
+                y = new double[cap];
+                z = new double[cap];
+                constraints = new int[2 * DEFAULT_CAPACITY];
+        }
+
+        /**
+         * Add a point. The duplicates are merged when the mesh is built.
+         * @param px
+         * @param py
+         * @param pz
+         * @return
+         *      The index of the point in this builder.
+         */
+        public int addPoint(double px, double py, double pz) {
+                if(pointCount == x.length){
+                        int cap = 2 * x.length;
+                        x = Arrays.copyOf(x, cap);
+                        y = Arrays.copyOf(y, cap);
+                        z = Arrays.copyOf(z, cap);
+                }
+                x[pointCount] = px;
+                y[pointCount] = py;
+                z[pointCount] = pz;
+                return pointCount++;
+        }
+
+        /**
+         * Add a constraint edge between two points of this builder.
+         * @param start
+         * @param end
+         * @throws DelaunayError
+         *      If one of the indices is not the index of a point.
+         */
+        public void addConstraint(int start, int end) throws DelaunayError {
+                if(start < 0 || start >= pointCount || end < 0 || end >= pointCount){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_POINT_NOT_FOUND);
+                }
+                if(2 * constraintCount == constraints.length){
+                        constraints = Arrays.copyOf(constraints, 2 * constraints.length);
+                }
+                constraints[2 * constraintCount] = start;
+                constraints[2 * constraintCount + 1] = end;
+                constraintCount++;
+        }
+
+        /**
+         * Add a constraint edge, and its two points.
+         * @param x1
+         * @param y1
+         * @param z1
+         * @param x2
+         * @param y2
+         * @param z2
+         * @throws DelaunayError
+         */
+        public void addConstraint(double x1, double y1, double z1, double x2, double y2, double z2) throws DelaunayError {
+                int start = addPoint(x1, y1, z1);
+                addConstraint(start, addPoint(x2, y2, z2));
+        }
+
+        /**
+         * Get the number of points added to this builder, duplicates included.
+         * @return
+         */
+        public int getPointCount() {
+                return pointCount;
+        }
+
+        /**
+         * Get the number of constraints added to this builder.
+         * @return
+         */
+        public int getConstraintCount() {
+                return constraintCount;
+        }
+
+        /**
+         * Build a mesh that contains the points and the constraints of this builder,
+         * ready to be triangulated. The points are sorted, and the points that are
+         * equal in 2D are merged : the first one added is kept. The constraints are
+         * locked, directed from their left point and sorted, the duplicated and
+         * degenerated ones are removed. The points and the constraints are given
+         * sequential GIDs, in their sorted order. The builder is not modified.
+         * @return
+         * @throws DelaunayError
+         */
+        public ConstrainedMesh build() throws DelaunayError {
+                int[] order = sortPoints();
+                ArrayList<DPoint> pts = new ArrayList<DPoint>(pointCount);
+                //The index in pts of each point of the builder.
+                int[] rank = new int[pointCount];
+                int last = -1;
+                for(int i = 0; i < pointCount; i++){
+                        int p = order[i];
+                        if(last < 0 || DPoint.compare2D(x[last], y[last], x[p], y[p]) != 0){
+                                DPoint pt = new DPoint(x[p], y[p], z[p]);
+                                pts.add(pt);
+                                pt.setGID(pts.size());
+                                last = p;
+                        }
+                        rank[p] = pts.size() - 1;
+                }
+                //The constraints are sorted on (left rank, right rank), which is
+                //the order of sortLeftRight as pts is sorted.
+                long[] keys = new long[constraintCount];
+                int n = 0;
+                for(int c = 0; c < constraintCount; c++){
+                        int s = rank[constraints[2 * c]];
+                        int e = rank[constraints[2 * c + 1]];
+                        if(s != e){
+                                keys[n++] = ((long) Math.min(s, e) << 32) | Math.max(s, e);
+                        }
+                }
+                Arrays.sort(keys, 0, n);
+                ArrayList<DEdge> edges = new ArrayList<DEdge>(n);
+                for(int c = 0; c < n; c++){
+                        if(c == 0 || keys[c] != keys[c - 1]){
+                                DEdge ed = new DEdge(pts.get((int) (keys[c] >>> 32)), pts.get((int) keys[c]));
+                                ed.setLocked(true);
+                                edges.add(ed);
+                                ed.setGID(edges.size());
+                        }
+                }
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setSortedInput(pts, edges);
+                return mesh;
+        }
+
+        /**
+         * Sort the indices of the points with the order of DPoint.compareTo2D. The
+         * sort is stable, so that the first of two equal points comes first.
+         * @return
+         */
+        private int[] sortPoints() {
+                int[] src = new int[pointCount];
+                for(int i = 0; i < pointCount; i++){
+                        src[i] = i;
+                }
+                int[] dst = new int[pointCount];
+                //Bottom-up merge sort.
+                for(int width = 1; width < pointCount; width *= 2){
+                        for(int lo = 0; lo < pointCount; lo += 2 * width){
+                                int mid = Math.min(lo + width, pointCount);
+                                int hi = Math.min(lo + 2 * width, pointCount);
+                                int i = lo;
+                                int j = mid;
+                                for(int k = lo; k < hi; k++){
+                                        if(i < mid && (j >= hi || DPoint.compare2D(x[src[i]], y[src[i]], x[src[j]], y[src[j]]) <= 0)){
+                                                dst[k] = src[i++];
+                                        } else {
+                                                dst[k] = src[j++];
+                                        }
+                                }
+                        }
+                        int[] tmp = src;
+                        src = dst;
+                        dst = tmp;
+                }
+                return src;
+        }
+}
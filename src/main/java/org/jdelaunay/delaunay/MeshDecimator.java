@@ -0,0 +1,336 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+import org.jdelaunay.delaunay.geometries.DTriangle;
+import org.jdelaunay.delaunay.monitor.MeshCounter;
+import org.jdelaunay.delaunay.monitor.MeshListener;
+import org.jdelaunay.delaunay.tools.Predicates;
+
+/**
+ * Removes vertices from a computed ConstrainedMesh while the vertical error of
+ * the resulting surface stays under a threshold.</p><p>
+ * The vertical error of a removal is measured on the vertex itself and on all the
+ * vertices already removed that lie in its star : each triangle keeps the removed
+ * vertices it contains, so that the error never accumulates beyond the threshold.
+ * The removals are processed in increasing error order, with a priority queue.
+ * When a vertex is removed, its star is re-triangulated with Delaunay ears (cf
+ * VertexStar), and the cost of its neighbours is computed again.</p><p>
+ * The vertices of the boundary of the mesh and the extremities of locked edges are
+ * never removed, so that the footprint and the constraints are kept as they are.
+ */
+public final class MeshDecimator {
+
+        private final ConstrainedMesh mesh;
+        //An edge that has the point as an extremity, for each point that can be removed.
+        private Map<DPoint, DEdge> spokes;
+        //The removed points that lie in each triangle.
+        private Map<DTriangle, List<DPoint>> buckets;
+        //The current version of the cost of each point.
+        private Map<DPoint, Integer> stamps;
+        private PriorityQueue<Candidate> queue;
+
+        /**
+         * Build a decimator for the given mesh.
+         * @param mesh
+         * @throws DelaunayError
+         *      If the mesh has not been computed.
+         */
+        public MeshDecimator(ConstrainedMesh mesh) throws DelaunayError {
+                if(!mesh.isMeshComputed()){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED);
+                }
+                this.mesh = mesh;
+        }
+
+        /**
+         * Remove as many vertices as possible from the mesh, while keeping the
+         * vertical distance between the original vertices and the decimated
+         * surface under maxError. The points, edges and triangles of the mesh
+         * are updated when the decimation is done.
+         * @param maxError
+         *      The maximal vertical error, must be positive.
+         * @return
+         *      The number of removed vertices.
+         * @throws DelaunayError
+         */
+        public int decimate(double maxError) throws DelaunayError {
+                if(maxError < 0){
+                        throw new IllegalArgumentException("The maximal error must be positive");
+                }
+                init();
+                Map<Object, Object> removed = new IdentityHashMap<Object, Object>();
+                List<DEdge> newEdges = new ArrayList<DEdge>();
+                List<DTriangle> newTriangles = new ArrayList<DTriangle>();
+                int count = 0;
+                while(!queue.isEmpty()){
+                        Candidate cand = queue.poll();
+                        Integer stamp = stamps.get(cand.pt);
+                        if(stamp == null || stamp != cand.stamp){
+                                continue;
+                        }
+                        if(cand.cost > maxError){
+                                break;
+                        }
+                        VertexStar star = VertexStar.around(cand.pt, spokes.get(cand.pt));
+                        int[][] fill = star.fill(true);
+                        List<DPoint> inside = gather(star);
+                        List<DTriangle> created = mesh.fillStar(star, fill, newEdges);
+                        newTriangles.addAll(created);
+                        for(DTriangle tri : star.getTriangles()){
+                                buckets.remove(tri);
+                        }
+                        for(DPoint pt : inside){
+                                DTriangle tri = findTriangle(created, pt);
+                                List<DPoint> bucket = buckets.get(tri);
+                                if(bucket == null){
+                                        bucket = new ArrayList<DPoint>();
+                                        buckets.put(tri, bucket);
+                                }
+                                bucket.add(pt);
+                        }
+                        removed.put(cand.pt, cand.pt);
+                        stamps.remove(cand.pt);
+                        spokes.remove(cand.pt);
+                        for(DEdge ed : star.getSpokes()){
+                                removed.put(ed, ed);
+                        }
+                        for(DTriangle tri : star.getTriangles()){
+                                removed.put(tri, tri);
+                        }
+                        List<DPoint> link = star.getLink();
+                        for(int i = 0; i < link.size(); i++){
+                                DPoint pt = link.get(i);
+                                if(spokes.containsKey(pt)){
+                                        spokes.put(pt, star.getLinkEdges().get(i));
+                                        push(pt);
+                                }
+                        }
+                        count++;
+                }
+                if(count > 0){
+                        update(removed, newEdges, newTriangles);
+                        MeshListener listener = mesh.getMeshListener();
+                        if(listener != null){
+                                listener.count(MeshCounter.POINTS_REMOVED, count);
+                        }
+                }
+                spokes = null;
+                buckets = null;
+                stamps = null;
+                queue = null;
+                return count;
+        }
+
+        /**
+         * Find the points that can be removed, and compute their cost.
+         */
+        private void init() {
+                List<DEdge> edges = mesh.getEdges();
+                spokes = new IdentityHashMap<DPoint, DEdge>();
+                Map<DPoint, DPoint> fixed = new IdentityHashMap<DPoint, DPoint>();
+                for(DEdge ed : edges){
+                        DPoint start = ed.getStartPoint();
+                        DPoint end = ed.getEndPoint();
+                        if(ed.isLocked() || ed.getLeft() == null || ed.getRight() == null){
+                                fixed.put(start, start);
+                                fixed.put(end, end);
+                        }
+                        spokes.put(start, ed);
+                        spokes.put(end, ed);
+                }
+                for(DPoint pt : fixed.keySet()){
+                        spokes.remove(pt);
+                }
+                buckets = new IdentityHashMap<DTriangle, List<DPoint>>();
+                stamps = new IdentityHashMap<DPoint, Integer>();
+                queue = new PriorityQueue<Candidate>(Math.max(1, spokes.size()));
+                for(DPoint pt : spokes.keySet()){
+                        push(pt);
+                }
+        }
+
+        /**
+         * Compute the cost of the removal of pt, and put it in the queue.
+         */
+        private void push(DPoint pt) {
+                Integer old = stamps.get(pt);
+                int stamp = old == null ? 0 : old + 1;
+                stamps.put(pt, stamp);
+                double cost = cost(pt);
+                if(cost < Double.POSITIVE_INFINITY){
+                        queue.add(new Candidate(pt, cost, stamp));
+                }
+        }
+
+        /**
+         * The maximal vertical error made on pt and on the points removed in its
+         * star if pt is removed.
+         */
+        private double cost(DPoint pt) {
+                VertexStar star = VertexStar.around(pt, spokes.get(pt));
+                if(!star.isClosed() || star.isConstrained()){
+                        return Double.POSITIVE_INFINITY;
+                }
+                int[][] fill = star.fill(true);
+                if(fill == null){
+                        return Double.POSITIVE_INFINITY;
+                }
+                List<DPoint> link = star.getLink();
+                double max = 0;
+                for(DPoint other : gather(star)){
+                        double err = Double.POSITIVE_INFINITY;
+                        for(int[] tri : fill){
+                                DPoint a = link.get(tri[0]);
+                                DPoint b = link.get(tri[1]);
+                                DPoint c = link.get(tri[2]);
+                                double wa = Predicates.orient2d(b, c, other);
+                                double wb = Predicates.orient2d(c, a, other);
+                                double wc = Predicates.orient2d(a, b, other);
+                                if(wa >= 0 && wb >= 0 && wc >= 0){
+                                        double z = (wa * a.getZ() + wb * b.getZ() + wc * c.getZ()) / (wa + wb + wc);
+                                        err = Math.abs(other.getZ() - z);
+                                        break;
+                                }
+                        }
+                        max = Math.max(max, err);
+                }
+                return max;
+        }
+
+        /**
+         * The center of star, and the removed points that lie in its triangles.
+         */
+        private List<DPoint> gather(VertexStar star) {
+                List<DPoint> ret = new ArrayList<DPoint>();
+                ret.add(star.getCenter());
+                for(DTriangle tri : star.getTriangles()){
+                        List<DPoint> bucket = buckets.get(tri);
+                        if(bucket != null){
+                                ret.addAll(bucket);
+                        }
+                }
+                return ret;
+        }
+
+        /**
+         * Find the triangle of tris that contains pt. As tris covers the star pt
+         * comes from, the last one is returned if rounding errors make the search fail.
+         */
+        private static DTriangle findTriangle(List<DTriangle> tris, DPoint pt) {
+                for(DTriangle tri : tris){
+                        DPoint a = tri.getPoint(0);
+                        DPoint b = tri.getPoint(1);
+                        DPoint c = tri.getPoint(2);
+                        double wa = Predicates.orient2d(b, c, pt);
+                        double wb = Predicates.orient2d(c, a, pt);
+                        double wc = Predicates.orient2d(a, b, pt);
+                        if((wa >= 0 && wb >= 0 && wc >= 0) || (wa <= 0 && wb <= 0 && wc <= 0)){
+                                return tri;
+                        }
+                }
+                return tris.get(tris.size() - 1);
+        }
+
+        /**
+         * Apply the removals to the lists of the mesh, in a single pass over each of them.
+         */
+        private void update(Map<Object, Object> removed, List<DEdge> newEdges, List<DTriangle> newTriangles) {
+                List<DPoint> points = mesh.getPoints();
+                List<DPoint> keptPoints = new ArrayList<DPoint>(points.size());
+                for(DPoint pt : points){
+                        if(!removed.containsKey(pt)){
+                                keptPoints.add(pt);
+                        }
+                }
+                points.clear();
+                points.addAll(keptPoints);
+                List<DEdge> edges = mesh.getEdges();
+                List<DEdge> keptEdges = new ArrayList<DEdge>(edges.size());
+                for(DEdge ed : edges){
+                        if(!removed.containsKey(ed)){
+                                keptEdges.add(ed);
+                        }
+                }
+                for(DEdge ed : newEdges){
+                        if(!removed.containsKey(ed)){
+                                keptEdges.add(ed);
+                        }
+                }
+                Collections.sort(keptEdges);
+                edges.clear();
+                edges.addAll(keptEdges);
+                List<DTriangle> triangles = mesh.getTriangleList();
+                List<DTriangle> keptTriangles = new ArrayList<DTriangle>(triangles.size());
+                for(DTriangle tri : triangles){
+                        if(!removed.containsKey(tri)){
+                                keptTriangles.add(tri);
+                        }
+                }
+                for(DTriangle tri : newTriangles){
+                        if(!removed.containsKey(tri)){
+                                keptTriangles.add(tri);
+                        }
+                }
+                triangles.clear();
+                triangles.addAll(keptTriangles);
+        }
+
+        /**
+         * A point of the queue, with the cost of its removal. The stamp is used to
+         * skip the costs that have been computed again since.
+         */
+        private static final class Candidate implements Comparable<Candidate> {
+                private final DPoint pt;
+                private final double cost;
+                private final int stamp;
+
+                Candidate(DPoint pt, double cost, int stamp) {
+                        this.pt = pt;
+                        this.cost = cost;
+                        this.stamp = stamp;
+                }
+
+                @Override
+                public int compareTo(Candidate other) {
+                        return Double.compare(cost, other.cost);
+                }
+        }
+}
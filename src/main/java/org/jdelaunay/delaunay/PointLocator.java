@@ -0,0 +1,444 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+import org.jdelaunay.delaunay.geometries.DTriangle;
+import org.jdelaunay.delaunay.geometries.Element;
+import org.jdelaunay.delaunay.indexed.IndexedMesh;
+import org.jdelaunay.delaunay.indexed.IndexedTriangulator;
+import org.jdelaunay.delaunay.tools.Predicates;
+import org.jdelaunay.delaunay.tools.Tools;
+
+/**
+ * A point location index over a computed ConstrainedMesh : a Delaunay hierarchy.
+ *
+ * The first level is a random sample of the points of the mesh, one point out
+ * of RATIO, and each next level is a sample of the previous one, until a level has
+ * less than MIN_LEVEL_SIZE points. The Delaunay triangulation of each level is
+ * computed by an IndexedTriangulator, without the constraints. A query walks in
+ * the highest level, then goes down from the closest point of the triangle it has
+ * found, walking again in each level, and finally in the mesh itself with
+ * DTriangle.searchPointContainer. Each walk is expected to cross a constant number
+ * of triangles, so that a query is expected to be in O(log n).
+ *
+ * interpolateZ computes the heights of many points at once, from primitive
+ * arrays, on several threads.
+ *
+ * The index is not updated when the mesh changes : it must be built again after
+ * a refinement, or after the insertion of new points.
+ */
+public final class PointLocator {
+
+        //The expected number of points of a level for each point of the next one.
+        private static final int RATIO = 30;
+        //No level is built above a level that has less points than this.
+        private static final int MIN_LEVEL_SIZE = 64;
+        private static final long SAMPLE_SEED = 42L;
+        //The minimum number of queries of a run of interpolateZ.
+        private static final int MIN_RUN_SIZE = 4096;
+
+        //A triangle of the mesh that contains each point of the first level.
+        private final DTriangle[] starts;
+        //The triangulations of the levels, from the first one to the highest.
+        private final List<IndexedMesh> levels = new ArrayList<IndexedMesh>();
+        //For each level, a triangle that contains each of its points.
+        private final List<int[]> incidents = new ArrayList<int[]>();
+        //For each level but the first, the index of each of its points in the
+        //previous level.
+        private final List<int[]> downs = new ArrayList<int[]>();
+        //The triangle used to start the walks when there is no level.
+        private final DTriangle first;
+        //The number of threads used by interpolateZ.
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Build the index of the given mesh.
+         * @param mesh
+         * @throws DelaunayError
+         *      If the mesh has not been computed.
+         */
+        public PointLocator(ConstrainedMesh mesh) throws DelaunayError {
+                List<DTriangle> triangles = mesh.getTriangleList();
+                if(!mesh.isMeshComputed() || triangles.isEmpty()){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED);
+                }
+                first = triangles.get(0);
+                Random rand = new Random(SAMPLE_SEED);
+                List<DPoint> points = mesh.getPoints();
+                Map<DPoint, Integer> sampled = new IdentityHashMap<DPoint, Integer>();
+                IndexedMesh level = new IndexedMesh(points.size() / RATIO + 1, 2 * (points.size() / RATIO) + 1);
+                for(DPoint pt : points){
+                        if(rand.nextInt(RATIO) == 0){
+                                sampled.put(pt, level.addPoint(pt.getX(), pt.getY(), pt.getZ()));
+                        }
+                }
+                starts = new DTriangle[level.getPointCount()];
+                for(DTriangle tri : triangles){
+                        for(int k = 0; k < DTriangle.PT_NB; k++){
+                                Integer index = sampled.get(tri.getPoint(k));
+                                if(index != null){
+                                        starts[index] = tri;
+                                }
+                        }
+                }
+                sampled = null;
+                int[] down = null;
+                while(level.getPointCount() >= DTriangle.PT_NB && addLevel(level, down)){
+                        IndexedMesh previous = level;
+                        if(previous.getPointCount() < MIN_LEVEL_SIZE){
+                                break;
+                        }
+                        level = new IndexedMesh();
+                        down = new int[previous.getPointCount() / RATIO + 1];
+                        for(int i = 0; i < previous.getPointCount(); i++){
+                                if(rand.nextInt(RATIO) == 0){
+                                        if(level.getPointCount() == down.length){
+                                                down = Arrays.copyOf(down, 2 * down.length);
+                                        }
+                                        down[level.getPointCount()] = i;
+                                        level.addPoint(previous.getX(i), previous.getY(i), previous.getZ(i));
+                                }
+                        }
+                }
+        }
+
+        /**
+         * Triangulate a level and add it to the hierarchy.
+         * @param level
+         * @param down
+         *      The index of each point of the level in the previous one, or null
+         *      for the first level.
+         * @return
+         *      false if the level can't be triangulated, because its points are
+         *      collinear.
+         */
+        private boolean addLevel(IndexedMesh level, int[] down) {
+                try {
+                        new IndexedTriangulator(level).triangulate();
+                } catch (DelaunayError e) {
+                        return false;
+                }
+                int[] incident = new int[level.getPointCount()];
+                Arrays.fill(incident, -1);
+                for(int t = 0; t < level.getTriangleCount(); t++){
+                        for(int k = 0; k < DTriangle.PT_NB; k++){
+                                incident[level.getVertex(t, k)] = t;
+                        }
+                }
+                levels.add(level);
+                incidents.add(incident);
+                if(down != null){
+                        downs.add(down);
+                }
+                return true;
+        }
+
+        /**
+         * Get the number of levels of the hierarchy, the mesh excluded.
+         * @return
+         */
+        public int getLevelCount() {
+                return levels.size();
+        }
+
+        /**
+         * Search the element of the mesh that contains pt.
+         * @param pt
+         * @return
+         *      The triangle that contains pt, or the last edge visited if pt is
+         *      outside the mesh.
+         * @throws DelaunayError
+         */
+        public Element locate(DPoint pt) throws DelaunayError {
+                return getStart(pt.getX(), pt.getY()).searchPointContainer(pt);
+        }
+
+        /**
+         * Search the element of the mesh that contains pt, starting from the given
+         * triangle, unless pt lies beyond a constraint edge of this triangle. This
+         * is the "safe" search used by DTriangle.getCircumCenterContainerSafe : as
+         * it depends on the constraints of from, the hierarchy is not used, and the
+         * walk starts from from.
+         * @param pt
+         * @param from
+         * @return
+         *      The triangle that contains pt, the last edge visited if pt is outside
+         *      the mesh, or null if pt lies beyond a constraint edge of from.
+         * @throws DelaunayError
+         */
+        public Element locate(DPoint pt, DTriangle from) throws DelaunayError {
+                return from.searchPointContainerSafe(pt);
+        }
+
+        /**
+         * Compute the z values of many points, on the planes of the triangles that
+         * contain them. The queries are sorted along a Hilbert curve, and split in
+         * as many runs as the parallelism, each run on its own thread. In a run,
+         * the hierarchy is only used for the first query : the walk of each other
+         * query starts from the triangle of the previous one, that is close.
+         * @param x
+         * @param y
+         * @param z
+         *      Receives the z value of each point, or NaN if the point is outside
+         *      the mesh. Must be as long as x and y.
+         * @throws DelaunayError
+         *      If a run has been interrupted.
+         */
+        public void interpolateZ(double[] x, double[] y, double[] z) throws DelaunayError {
+                if(x.length != y.length || x.length != z.length){
+                        throw new IllegalArgumentException("x, y and z must have the same length");
+                }
+                final int[] order = hilbertOrder(x, y);
+                int n = order.length;
+                int runs = Math.max(1, Math.min(parallelism, n / MIN_RUN_SIZE));
+                if(runs == 1){
+                        interpolateRun(order, 0, n, x, y, z);
+                        return;
+                }
+                ExecutorService executor = Executors.newFixedThreadPool(runs);
+                try {
+                        List<Future<?>> tasks = new ArrayList<Future<?>>(runs);
+                        for(int r = 0; r < runs; r++){
+                                final int start = (int) ((long) r * n / runs);
+                                final int end = (int) ((long) (r + 1) * n / runs);
+                                final double[] qx = x;
+                                final double[] qy = y;
+                                final double[] qz = z;
+                                tasks.add(executor.submit(new Runnable() {
+                                        @Override
+                                        public void run() {
+                                                interpolateRun(order, start, end, qx, qy, qz);
+                                        }
+                                }));
+                        }
+                        for(Future<?> task : tasks){
+                                Tools.join(task);
+                        }
+                } finally {
+                        executor.shutdownNow();
+                }
+        }
+
+        /**
+         * Compute the z values of many points, as interpolateZ(x, y, z).
+         * @param x
+         * @param y
+         * @return
+         *      The z value of each point, or NaN if it is outside the mesh.
+         * @throws DelaunayError
+         */
+        public double[] interpolateZ(double[] x, double[] y) throws DelaunayError {
+                double[] z = new double[x.length];
+                interpolateZ(x, y, z);
+                return z;
+        }
+
+        /**
+         * Get the number of threads used by interpolateZ.
+         * @return
+         *      The number of available processors by default.
+         */
+        public int getParallelism() {
+                return parallelism;
+        }
+
+        /**
+         * Set the number of threads used by interpolateZ.
+         * @param threads
+         *      Must be at least 1.
+         */
+        public void setParallelism(int threads) {
+                if(threads < 1){
+                        throw new IllegalArgumentException("At least one thread is needed");
+                }
+                parallelism = threads;
+        }
+
+        /**
+         * Interpolate the queries order[start] to order[end - 1].
+         */
+        private void interpolateRun(int[] order, int start, int end, double[] x, double[] y, double[] z) {
+                DTriangle current = null;
+                for(int i = start; i < end; i++){
+                        int q = order[i];
+                        if(current == null){
+                                current = getStart(x[q], y[q]);
+                        }
+                        DTriangle container = walk(current, x[q], y[q]);
+                        if(container == null){
+                                z[q] = Double.NaN;
+                        } else {
+                                z[q] = container.interpolateZ(x[q], y[q]);
+                                current = container;
+                        }
+                }
+        }
+
+        /**
+         * Sort the queries along a Hilbert curve.
+         * @return
+         *      The indices of the queries, in this order.
+         */
+        private static int[] hilbertOrder(double[] x, double[] y) {
+                int n = x.length;
+                double minX = Double.POSITIVE_INFINITY;
+                double minY = Double.POSITIVE_INFINITY;
+                double maxX = Double.NEGATIVE_INFINITY;
+                double maxY = Double.NEGATIVE_INFINITY;
+                for(int i = 0; i < n; i++){
+                        minX = Math.min(minX, x[i]);
+                        maxX = Math.max(maxX, x[i]);
+                        minY = Math.min(minY, y[i]);
+                        maxY = Math.max(maxY, y[i]);
+                }
+                double scale = (Tools.HILBERT_SIDE - 1) / Math.max(Math.max(maxX - minX, maxY - minY), Double.MIN_VALUE);
+                long[] keys = new long[n];
+                for(int i = 0; i < n; i++){
+                        int hx = (int) ((x[i] - minX) * scale);
+                        int hy = (int) ((y[i] - minY) * scale);
+                        keys[i] = (Tools.hilbertIndex(hx, hy) << 32) | i;
+                }
+                Arrays.sort(keys);
+                int[] ret = new int[n];
+                for(int i = 0; i < n; i++){
+                        ret[i] = (int) keys[i];
+                }
+                return ret;
+        }
+
+        /**
+         * Walk in the mesh from start, as DTriangle.searchPointContainer, without
+         * building any DPoint.
+         * @return
+         *      The triangle that contains (x, y), or null if it is outside the
+         *      mesh.
+         */
+        private static DTriangle walk(DTriangle start, double x, double y) {
+                DTriangle current = start;
+                while(true){
+                        DTriangle next = null;
+                        boolean outside = false;
+                        for(int k = 0; k < DTriangle.PT_NB && next == null; k++){
+                                DEdge ed = current.getEdge(k);
+                                DPoint s = ed.getStartPoint();
+                                DPoint e = ed.getEndPoint();
+                                double o = Predicates.orient2d(s.getX(), s.getY(), e.getX(), e.getY(), x, y);
+                                boolean left = ed.getLeft() == current;
+                                if(left ? o < -Tools.EPSILON : o > Tools.EPSILON){
+                                        next = left ? ed.getRight() : ed.getLeft();
+                                        outside = next == null;
+                                }
+                        }
+                        if(next == null){
+                                return outside ? null : current;
+                        }
+                        current = next;
+                }
+        }
+
+        /**
+         * Go down the hierarchy, and get a triangle of the mesh close to (x, y).
+         */
+        private DTriangle getStart(double x, double y) {
+                if(levels.isEmpty()){
+                        return first;
+                }
+                int top = levels.size() - 1;
+                int t = 0;
+                for(int l = top; l >= 0; l--){
+                        IndexedMesh level = levels.get(l);
+                        t = walk(level, t, x, y);
+                        int v = closestVertex(level, t, x, y);
+                        if(l == 0){
+                                DTriangle start = starts[v];
+                                return start == null ? first : start;
+                        }
+                        int below = downs.get(l - 1)[v];
+                        t = Math.max(0, incidents.get(l - 1)[below]);
+                }
+                return first;
+        }
+
+        /**
+         * Walk in a level from the triangle t, and get the triangle that contains
+         * (x, y), or the triangle of the hull where the walk has left the level.
+         */
+        private static int walk(IndexedMesh level, int t, double x, double y) {
+                int current = t;
+                boolean moved = true;
+                while(moved){
+                        moved = false;
+                        for(int k = 0; k < DTriangle.PT_NB; k++){
+                                int a = level.getVertex(current, (k + 1) % DTriangle.PT_NB);
+                                int b = level.getVertex(current, (k + 2) % DTriangle.PT_NB);
+                                int next = level.getNeighbour(current, k);
+                                if(next >= 0 && Predicates.orient2d(level.getX(a), level.getY(a),
+                                                level.getX(b), level.getY(b), x, y) < 0){
+                                        current = next;
+                                        moved = true;
+                                        break;
+                                }
+                        }
+                }
+                return current;
+        }
+
+        /**
+         * Get the vertex of the triangle t of a level that is the closest to (x, y).
+         */
+        private static int closestVertex(IndexedMesh level, int t, double x, double y) {
+                int best = -1;
+                double min = Double.POSITIVE_INFINITY;
+                for(int k = 0; k < DTriangle.PT_NB; k++){
+                        int v = level.getVertex(t, k);
+                        double dx = level.getX(v) - x;
+                        double dy = level.getY(v) - y;
+                        double d = dx * dx + dy * dy;
+                        if(d < min){
+                                min = d;
+                                best = v;
+                        }
+                }
+                return best;
+        }
+}
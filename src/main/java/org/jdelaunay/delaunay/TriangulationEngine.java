@@ -0,0 +1,68 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+/**
+ * The algorithms that can be used by ConstrainedMesh.processDelaunay to compute
+ * the triangulation. They give the same Delaunay triangulation, up to the choice
+ * of the diagonals between cocircular points.
+ */
+public enum TriangulationEngine {
+        /**
+         * The sweep-line : the points are inserted from left to right in a
+         * boundary, the constraints are added when their left point is reached.
+         * This is the default engine.
+         */
+        SWEEP,
+        /**
+         * The incremental insertion of IndexedTriangulator : the points are
+         * inserted in a randomized Hilbert order, each of them being located
+         * by walking from the last one. The constraints are inserted at the end,
+         * which is efficient when they are few. The points that lie on a
+         * constraint split it.
+         */
+        INCREMENTAL,
+        /**
+         * The divide and conquer algorithm of DivideAndConquerTriangulator : the
+         * sorted points are split in halves that are triangulated on different
+         * threads, then merged. The constraints are inserted at the end, as with
+         * INCREMENTAL.
+         */
+        DIVIDE_AND_CONQUER,
+        /**
+         * The sweep-line on several threads : the sorted points are split in
+         * slabs along x, each slab is triangulated with SWEEP and its own
+         * constraints, then the slabs are stitched together by
+         * IndexedTriangulator. The constraints that join two slabs are inserted
+         * at the end.
+         */
+        PARALLEL_SWEEP
+}
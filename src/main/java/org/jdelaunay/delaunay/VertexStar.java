@@ -0,0 +1,275 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+import org.jdelaunay.delaunay.geometries.DTriangle;
+import org.jdelaunay.delaunay.tools.Predicates;
+
+/**
+ * The star of a vertex of a computed mesh, ie the triangles that share this
+ * vertex, and the polygon they leave once the vertex has been removed.</p><p>
+ * The star is ordered counterclockwise : the triangle i lies between the spokes
+ * i and i+1, and the link edge i, opposite to the center in the triangle i,
+ * goes from the link point i to the link point i+1. The star of a vertex of the
+ * boundary of the mesh is open : its first and last spokes are on the boundary,
+ * and it has one more spoke than triangles.
+ */
+final class VertexStar {
+
+        private final DPoint center;
+        private final List<DEdge> spokes = new ArrayList<DEdge>();
+        private final List<DTriangle> triangles = new ArrayList<DTriangle>();
+        private final List<DPoint> link = new ArrayList<DPoint>();
+        private final List<DEdge> linkEdges = new ArrayList<DEdge>();
+        private boolean closed = true;
+        //The link indices of the ends of the two locked spokes that go through
+        //the center, if any.
+        private int[] split = null;
+
+        private VertexStar(DPoint center) {
+                this.center = center;
+        }
+
+        /**
+         * Walk around center, starting from the given spoke.
+         * @param center
+         * @param spoke
+         *      An edge of the mesh that has center as an extremity.
+         * @return
+         *      The star of center.
+         */
+        static VertexStar around(DPoint center, DEdge spoke) {
+                VertexStar star = new VertexStar(center);
+                DEdge first = spoke;
+                DTriangle tri = ccwTriangle(first, center);
+                //On the boundary, we start from the spoke that has no triangle clockwise.
+                DTriangle cw = first.getLeft() == tri ? first.getRight() : first.getLeft();
+                while(cw != null){
+                        first = nextSpoke(cw, first, center);
+                        if(first == spoke){
+                                break;
+                        }
+                        cw = first.getLeft() == cw ? first.getRight() : first.getLeft();
+                }
+                tri = ccwTriangle(first, center);
+                DEdge current = first;
+                do {
+                        star.spokes.add(current);
+                        star.link.add(other(current, center));
+                        if(tri == null){
+                                star.closed = false;
+                                break;
+                        }
+                        star.triangles.add(tri);
+                        star.linkEdges.add(tri.getOppositeEdge(center));
+                        current = nextSpoke(tri, current, center);
+                        tri = current.getLeft() == tri ? current.getRight() : current.getLeft();
+                } while(current != first);
+                star.findSplit();
+                return star;
+        }
+
+        /**
+         * The triangle of spoke that lies counterclockwise around center, or null.
+         */
+        private static DTriangle ccwTriangle(DEdge spoke, DPoint center) {
+                DPoint end = other(spoke, center);
+                DTriangle left = spoke.getLeft();
+                if(left != null && Predicates.orient2d(center, end, left.getOppositePoint(spoke)) > 0){
+                        return left;
+                }
+                DTriangle right = spoke.getRight();
+                if(right != null && Predicates.orient2d(center, end, right.getOppositePoint(spoke)) > 0){
+                        return right;
+                }
+                return null;
+        }
+
+        /**
+         * Check if the locked spokes form a straight constraint that goes through
+         * the center. The center can then be removed, the two spokes being merged.
+         */
+        private void findSplit() {
+                List<Integer> locked = new ArrayList<Integer>();
+                for(int i = 0; i < spokes.size(); i++){
+                        if(spokes.get(i).isLocked()){
+                                locked.add(i);
+                        }
+                }
+                if(locked.size() == 2){
+                        int i = locked.get(0);
+                        int j = locked.get(1);
+                        DPoint a = link.get(i);
+                        DPoint b = link.get(j);
+                        boolean straight = Predicates.orient2d(a, center, b) == 0
+                                && (a.getX() - center.getX()) * (b.getX() - center.getX())
+                                + (a.getY() - center.getY()) * (b.getY() - center.getY()) < 0;
+                        if(straight && (closed || (i == 0 && j == link.size() - 1))){
+                                split = new int[]{i, j};
+                        }
+                }
+        }
+        /**
+         * The extremity of ed that is not pt.
+         */
+        private static DPoint other(DEdge ed, DPoint pt) {
+                return ed.getStartPoint() == pt ? ed.getEndPoint() : ed.getStartPoint();
+        }
+
+        /**
+         * The edge of tri that has pt as an extremity and that is not ed.
+         */
+        private static DEdge nextSpoke(DTriangle tri, DEdge ed, DPoint pt) {
+                for(int k = 0; k < DTriangle.PT_NB; k++){
+                        DEdge cand = tri.getEdge(k);
+                        if(cand != ed && (cand.getStartPoint() == pt || cand.getEndPoint() == pt)){
+                                return cand;
+                        }
+                }
+                throw new IllegalStateException("The triangle does not contain the vertex");
+        }
+
+        /**
+         * @return
+         *      The vertex this star is built around.
+         */
+        DPoint getCenter() {
+                return center;
+        }
+
+        /**
+         * @return
+         *      The edges that share the center, counterclockwise.
+         */
+        List<DEdge> getSpokes() {
+                return spokes;
+        }
+
+        /**
+         * @return
+         *      The triangles that share the center, counterclockwise.
+         */
+        List<DTriangle> getTriangles() {
+                return triangles;
+        }
+
+        /**
+         * @return
+         *      The vertices of the polygon left by the removal of the center.
+         */
+        List<DPoint> getLink() {
+                return link;
+        }
+
+        /**
+         * @return
+         *      The edges of the polygon left by the removal of the center.
+         */
+        List<DEdge> getLinkEdges() {
+                return linkEdges;
+        }
+
+        /**
+         * @return
+         *      true if one of the spokes is locked, ie if the center can't be
+         *      removed without breaking a constraint.
+         */
+        boolean isConstrained() {
+                for(DEdge ed : spokes){
+                        if(ed.isLocked()){
+                                return true;
+                        }
+                }
+                return false;
+        }
+
+        /**
+         * @return
+         *      false if the center is on the boundary of the mesh.
+         */
+        boolean isClosed() {
+                return closed;
+        }
+
+        /**
+         * @return
+         *      The link indices of the ends of the two locked spokes, if they form
+         *      a straight constraint through the center, null otherwise. Once the
+         *      center is removed, the edge between these two points must be locked.
+         */
+        int[] getSplit() {
+                return split;
+        }
+
+        /**
+         * Triangulate the polygon left by the removal of the center with
+         * EarClipper.</p><p>
+         * When the star is open, the ears are clipped until the link is convex, so
+         * that the boundary of the mesh stays convex. When the star is split by a
+         * straight constraint, each side of the constraint is filled separately.
+         * @param strict
+         * @return
+         *      The triangles, as counterclockwise triples of indices in the link,
+         *      or null if the polygon could not be triangulated, or if the center
+         *      is the extremity of a locked edge.
+         */
+        int[][] fill(boolean strict) {
+                int size = link.size();
+                List<int[]> ret = new ArrayList<int[]>();
+                boolean done;
+                if(split != null){
+                        done = EarClipper.clip(link, range(split[0], split[1]), true, strict, ret);
+                        if(done && closed){
+                                done = EarClipper.clip(link, range(split[1], split[0] + size), true, strict, ret);
+                        }
+                } else if(isConstrained()){
+                        done = false;
+                } else {
+                        done = EarClipper.clip(link, range(0, size - 1), closed, strict, ret);
+                }
+                return done ? ret.toArray(new int[ret.size()][]) : null;
+        }
+
+        /**
+         * The link indices from start to end, both included, modulo the size of the link.
+         */
+        private int[] range(int start, int end) {
+                int[] ret = new int[end - start + 1];
+                for(int i = 0; i < ret.length; i++){
+                        ret[i] = (start + i) % link.size();
+                }
+                return ret;
+        }
+}
@@ -30,8 +30,11 @@
  */
 package org.jdelaunay.delaunay;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import org.jdelaunay.delaunay.error.DelaunayError;
 import org.jdelaunay.delaunay.geometries.DEdge;
@@ -163,11 +166,39 @@ class VoronoiGraph {
 	}
 
 	/**
-	 * Compute the graph recursively.
+	 * Compute the graph, in depth first. The traversal uses its own stack
+	 * rather than recursion, so that a big flat area can't overflow the
+	 * call stack.
+	 * @param root
+	 * @throws DelaunayError
+	 */
+	private void processNeighbours(VoronoiNode root) throws DelaunayError {
+		Deque<Iterator<VoronoiNode>> stack = new ArrayDeque<Iterator<VoronoiNode>>();
+		stack.push(expand(root).iterator());
+		while(!stack.isEmpty()){
+			Iterator<VoronoiNode> it = stack.peek();
+			if(it.hasNext()){
+				VoronoiNode treat = it.next();
+				//we only process the nodes that were not already in the list,
+				//and so either treated, either referenced to be treat in the
+				//stack.
+				if(!treat.getParent().isSeenForFlatRemoval()){
+					stack.push(expand(treat).iterator());
+				}
+			} else {
+				stack.pop();
+			}
+		}
+	}
+
+	/**
+	 * Add the neighbours of vn to the graph.
 	 * @param vn
+	 * @return
+	 *	The new flat neighbours, that must be processed in their turn.
 	 * @throws DelaunayError
 	 */
-	private void processNeighbours(VoronoiNode vn) throws DelaunayError {
+	private List<VoronoiNode> expand(VoronoiNode vn) throws DelaunayError {
 		vn.getParent().setSeenForFlatRemoval(true);
 		List<VoronoiNode> neighbours = vn.getNeighbourNodes();
 		List<VoronoiNode> toBeTreated = new ArrayList<VoronoiNode>();
@@ -188,15 +219,7 @@ class VoronoiGraph {
 				}
 			}
 		}
-		for(VoronoiNode treat : toBeTreated){
-			//we only process the nodes that were not already in the list,
-			//and so either treated, either referenced to be treat in the
-			//stack.
-                        if(!treat.getParent().isSeenForFlatRemoval()){
-                                processNeighbours(treat);
-                        }
-		}
-
+		return toBeTreated;
 	}
 
 	/**
@@ -284,20 +307,33 @@ class VoronoiGraph {
 	}
 
 	/**
-	 * Compute recursively the depth of the graph.
+	 * Compute the depth of the graph, walking it in depth first from vn
+	 * with an explicit stack.
 	 * @param vn
 	 * @return
 	 * @throws DelaunayError
 	 */
 	private int getMaxLength(VoronoiNode vn) throws DelaunayError {
-		int length = 0;
+		Deque<Frame> stack = new ArrayDeque<Frame>();
 		vn.setSeen(true);
-		for(VoronoiNode voro : vn.getLinkedNodes()){
-			if(!voro.isSeen()){
-				length = Math.max(length, getMaxLength(voro));
+		stack.push(new Frame(vn, 0, 0));
+		while(true){
+			Frame top = stack.peek();
+			if(top.linked.hasNext()){
+				VoronoiNode voro = top.linked.next();
+				if(!voro.isSeen()){
+					voro.setSeen(true);
+					stack.push(new Frame(voro, 0, 0));
+				}
+			} else {
+				stack.pop();
+				int length = (int) top.value + 1;
+				if(stack.isEmpty()){
+					return length;
+				}
+				stack.peek().value = Math.max(stack.peek().value, length);
 			}
 		}
-		return length+1;
 	}
 
 	/**
@@ -334,7 +370,8 @@ class VoronoiGraph {
 	}
 
 	/**
-	 * Compute the z values for the node locations recursively.
+	 * Compute the z values for the node locations, walking the graph in depth
+	 * first from vn with an explicit stack.
 	 * @param vn
 	 * @param delta
 	 * @param prevAlt
@@ -342,22 +379,69 @@ class VoronoiGraph {
 	 * @throws DelaunayError
 	 */
 	private void assignValues(final VoronoiNode vn, final double delta, final double prevAlt, final double flatHeight) throws DelaunayError{
-		if(!vn.getParent().isFlatSlope()){
-			return;
+		Deque<Frame> stack = new ArrayDeque<Frame>();
+		Frame first = assignValue(vn, delta, prevAlt, flatHeight);
+		if(first != null){
+			stack.push(first);
 		}
-		double alt = prevAlt - delta;
-		if((prevAlt > flatHeight && alt < flatHeight)||(prevAlt < flatHeight && alt > flatHeight)){
-			final double deltaBis = delta/4;
-			assignValues(vn, deltaBis, prevAlt, flatHeight);
-		} else {
-			vn.setSeen(true);
-			vn.getLocation().setZ(alt);
-			for(VoronoiNode vor : vn.getLinkedNodes()){
+		while(!stack.isEmpty()){
+			Frame top = stack.peek();
+			if(top.linked.hasNext()){
+				VoronoiNode vor = top.linked.next();
 				if(!vor.isSeen()){
-					assignValues(vor, delta, alt, flatHeight);
+					Frame next = assignValue(vor, top.delta, top.value, flatHeight);
+					if(next != null){
+						stack.push(next);
+					}
 				}
+			} else {
+				stack.pop();
 			}
 		}
 	}
 
+	/**
+	 * Compute the z value of the location of vn, if its parent is flat. The
+	 * step delta is divided by four as long as it makes the altitude cross
+	 * flatHeight.
+	 * @param vn
+	 * @param delta
+	 * @param prevAlt
+	 * @param flatHeight
+	 * @return
+	 *	The frame used to process the nodes linked to vn, null if vn is not flat.
+	 */
+	private Frame assignValue(final VoronoiNode vn, final double delta, final double prevAlt, final double flatHeight) {
+		if(!vn.getParent().isFlatSlope()){
+			return null;
+		}
+		double step = delta;
+		double alt = prevAlt - step;
+		while((prevAlt > flatHeight && alt < flatHeight)||(prevAlt < flatHeight && alt > flatHeight)){
+			step = step/4;
+			alt = prevAlt - step;
+		}
+		vn.setSeen(true);
+		vn.getLocation().setZ(alt);
+		return new Frame(vn, step, alt);
+	}
+
+	/**
+	 * A node being processed by the depth first walks of this graph.
+	 */
+	private static final class Frame {
+		//The nodes linked to the processed one that remain to be seen
+		private final Iterator<VoronoiNode> linked;
+		//The step used to compute the altitudes of the children
+		private final double delta;
+		//The altitude of the node, or the max length of its children
+		private double value;
+
+		Frame(VoronoiNode vn, double delta, double value){
+			this.linked = vn.getLinkedNodes().iterator();
+			this.delta = delta;
+			this.value = value;
+		}
+	}
+
 }
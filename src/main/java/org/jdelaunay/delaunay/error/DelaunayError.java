@@ -85,6 +85,10 @@ public class DelaunayError extends Exception {
          * Failed at splitting a boundary part.
          */
         public static final int DELAUNAY_ERROR_MESH_ALREADY_EXISTS = 108;
+        /**
+         * The operation has been cancelled with a CancellationToken.
+         */
+        public static final int DELAUNAY_ERROR_CANCELLED = 109;
         /**
          * The point has not been inserted during the triangulation.
          */
@@ -154,6 +158,16 @@ public class DelaunayError extends Exception {
                 message = s;
                 code = errorCode;
         }
+
+        /**
+         * Get the code of this error.
+         * @return
+         *      One of the DELAUNAY_ERROR_* constants.
+         */
+        public final int getCode() {
+                return code;
+        }
+
         /*
          * (non-Javadoc)
          *
@@ -194,6 +208,9 @@ public class DelaunayError extends Exception {
                         case DELAUNAY_ERROR_MESH_ALREADY_EXISTS:
                                 ret = "mesh already defined";
                                 break;
+                        case DELAUNAY_ERROR_CANCELLED:
+                                ret = "the operation has been cancelled";
+                                break;
                         case DELAUNAY_ERROR_NON_INSERTED_POINT:
                                 ret = "one point is not inserted in the triangularization";
                                 break;
@@ -320,17 +320,30 @@ public class DPoint extends Element implements Comparable<DPoint> {
 	 *	1 otherwise.
 	 */
 	public final int compareTo2D(DPoint p){
-                double dx = (getX() - p.getX());
+                return compare2D(getX(), getY(), p.getX(), p.getY());
+	}
+
+	/**
+	 * Compare the points (x1, y1) and (x2, y2) with the order used by compareTo2D.
+	 * @param x1
+	 * @param y1
+	 * @param x2
+	 * @param y2
+	 * @return
+	 *	-1 if (x1, y1) is before (x2, y2), 0 if they are equal, 1 otherwise.
+	 */
+	public static int compare2D(double x1, double y1, double x2, double y2){
+                double dx = (x1 - x2);
                 if(dx*dx*2 < Tools.EPSILON2){
-                        double dy = (getY() - p.getY());
+                        double dy = (y1 - y2);
                         if(dx*dx+dy*dy<Tools.EPSILON2){
                                 return 0;
-                        } else if(getY()<p.getY()){
+                        } else if(y1<y2){
                                 return -1;
                         } else {
                                 return 1;
                         }
-                } else if(getX()<p.getX()){
+                } else if(x1<x2){
                         return -1;
                 } else {
                         return 1;
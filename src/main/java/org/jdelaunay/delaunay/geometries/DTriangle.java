@@ -445,7 +445,7 @@ public class DTriangle extends Element implements Comparable<DTriangle>{
 
 			xCenter = cx;
 			yCenter = cy;
-			zCenter = interpolateZ(new DPoint(cx, cy, 0));
+			zCenter = interpolateZ(cx, cy);
 
 			radius = p1.squareDistance2D(xCenter, yCenter);
 		} else {
@@ -537,6 +537,18 @@ public class DTriangle extends Element implements Comparable<DTriangle>{
 	 * @return ZValue
 	 */
 	public final double interpolateZ(DPoint aPoint) {
+		return interpolateZ(aPoint.getX(), aPoint.getY());
+	}
+
+	/**
+	 * Get Z value of the point of coordinates (x, y), computed on the plane
+	 * of this triangle.
+	 *
+	 * @param x
+	 * @param y
+	 * @return ZValue
+	 */
+	public final double interpolateZ(double x, double y) {
 		double zValue = 0;
 
 		DPoint p1,p2,p3;
@@ -561,7 +573,7 @@ public class DTriangle extends Element implements Comparable<DTriangle>{
 
 		if (Math.abs(c) > Tools.EPSILON) {
 			// Non vertical triangle
-			zValue = (-a * aPoint.getX() - b * aPoint.getY() - d) / c;
+			zValue = (-a * x - b * y - d) / c;
 		}
 
 		return zValue;
@@ -1253,57 +1265,76 @@ public class DTriangle extends Element implements Comparable<DTriangle>{
          */
         public final Element getCircumCenterContainerSafe() throws DelaunayError{
                 DPoint cc = new DPoint(getCircumCenter());
-                return searchPointImpl(cc, true);
+                return searchPointContainerSafe(cc);
         }
         
         /**
-         * This method recursively search for pt in the mesh. If it's in this, this is
-         * returned. Else, we search in the adjacent triangles.
+         * This method search for pt in the mesh. If it's in this, this is
+         * returned. Else, we walk through the adjacent triangles, towards pt.
          * @param pt
          * @return
          *      The triangle that contains the triangle, or the last edge visited
          *      if the point is outside the mesh.
-         * @throws DelaunayError 
+         * @throws DelaunayError
          */
         public final Element searchPointContainer(final DPoint pt) throws DelaunayError {
                 return searchPointImpl(pt, false);
         }
-        
+
+        /**
+         * Search for pt in the mesh, as searchPointContainer, but stop if pt lies
+         * beyond a constraint edge of this triangle. The constraints met further
+         * in the walk are crossed.
+         * @param pt
+         * @return
+         *      The triangle that contains pt.<br />
+         *      The last DEdge seen, if pt is not in the mesh. <br />
+         *      <code>null<code> if pt lies beyond a constraint edge of this triangle.
+         * @throws DelaunayError
+         */
+        public final Element searchPointContainerSafe(final DPoint pt) throws DelaunayError {
+                return searchPointImpl(pt, true);
+        }
+
         /**
-         * Common implementation for the search operations.
+         * Common implementation for the search operations. The walk is iterative,
+         * so that a long walk across a big mesh can't overflow the stack. In safe
+         * mode, only the constraint edges of this triangle stop the walk.
          * @param pt
          * @param safe
          * @return
-         * @throws DelaunayError 
+         * @throws DelaunayError
          */
         private Element searchPointImpl(final DPoint pt, final boolean safe) throws DelaunayError {
-                Element ret = null;
-                if(contains(pt)){
-                        return this;
-                } else {
-                        for(DEdge ed : edges){
-                                DPoint op = getOppositePoint(ed);
+                DTriangle current = this;
+                while(!current.contains(pt)){
+                        DTriangle next = null;
+                        Element ret = null;
+                        for(DEdge ed : current.edges){
+                                DPoint op = current.getOppositePoint(ed);
+                                DTriangle other;
                                 if(ed.isRight(pt) && ed.isLeft(op)){
-                                        if(ed.isLocked() && safe){
-                                                return null;
-                                        } else if(ed.getRight() != null){
-                                                return ed.getRight().searchPointContainer(pt );
-                                        } else {
-                                                ret = ed;
-                                        }
+                                        other = ed.getRight();
                                 } else if(ed.isLeft(pt) && ed.isRight(op)){
-                                        if(ed.isLocked() && safe){
-                                                return null;
-                                        } else if(ed.getLeft() != null){
-                                                return ed.getLeft().searchPointContainer(pt);
-                                        } else {
-                                                ret = ed;
-                                        }
+                                        other = ed.getLeft();
+                                } else {
+                                        continue;
+                                }
+                                if(ed.isLocked() && safe && current == this){
+                                        return null;
+                                } else if(other != null){
+                                        next = other;
+                                        break;
+                                } else {
+                                        ret = ed;
                                 }
                         }
-                }             
-                return ret;
-                
+                        if(next == null){
+                                return ret;
+                        }
+                        current = next;
+                }
+                return current;
         }
         
         /**
@@ -0,0 +1,748 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.indexed;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.monitor.CancellationToken;
+import org.jdelaunay.delaunay.monitor.MeshPhase;
+import org.jdelaunay.delaunay.monitor.ProgressMonitor;
+import org.jdelaunay.delaunay.tools.Predicates;
+import org.jdelaunay.delaunay.tools.Tools;
+
+/**
+ * Computes the Delaunay triangulation of the points of an IndexedMesh with the
+ * divide and conquer algorithm of Guibas and Stolfi, on several threads.
+ *
+ * The points are split in two halves by their median along x, each half is
+ * triangulated recursively, then the two triangulations are merged by building
+ * the edges between them from the bottom to the top of their convex hulls. As
+ * proposed by Dwyer, the cuts alternate between x and y, so that the
+ * sub-problems stay roughly square instead of becoming thin strips, whose
+ * long edges would be deleted by the merges. The two halves of the first
+ * levels of the recursion are processed by different threads. The edges are stored in primitive arrays, with the next edge around
+ * their origin in counterclockwise and clockwise order, as in the quad-edge
+ * structure restricted to the primal edges. Each thread takes the identifiers
+ * of its edges by blocks from a shared counter, and reuses the ones it deletes.
+ *
+ * When the triangulation of the points is done, the constraints of the mesh are
+ * inserted by IndexedTriangulator. The points closer than Tools.EPSILON to an
+ * other point are merged with it : they are not used by any triangle.
+ */
+public class DivideAndConquerTriangulator {
+
+        //The virtual point shared by the ghost triangles given to IndexedTriangulator.
+        private static final int GHOST = -1;
+        //The sub-problems smaller than this number of points are not given to
+        //another thread.
+        private static final int PARALLEL_THRESHOLD = 1 << 14;
+        //The number of edges a thread takes at once from the shared counter.
+        private static final int BLOCK = 1 << 10;
+
+        private final IndexedMesh mesh;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private ProgressMonitor progressMonitor = null;
+        private CancellationToken cancellationToken = null;
+        //The points, in the order of the recursion : their coordinates and their
+        //index in the mesh.
+        private double[] xs;
+        private double[] ys;
+        private int[] ids;
+        //The directed edges : e and e ^ 1 are the two directions of the same edge.
+        //org is -1 for the deleted and the unused edges.
+        private int[] org;
+        private int[] onext;
+        private int[] oprev;
+        //The next block of edges to give to a thread.
+        private AtomicInteger nextBlock;
+        private int edgeCapacity;
+        private ExecutorService executor;
+        //The number of levels of the recursion split between threads.
+        private int parallelDepth;
+
+        /**
+         * Build a triangulator for the given mesh.
+         * @param mesh
+         */
+        public DivideAndConquerTriangulator(IndexedMesh mesh) {
+                this.mesh = mesh;
+        }
+
+        /**
+         * Get the number of threads used to compute the triangulation. It is the
+         * number of available processors by default.
+         * @return
+         */
+        public final int getParallelism() {
+                return parallelism;
+        }
+
+        /**
+         * Set the number of threads used to compute the triangulation.
+         * @param threads
+         *      Must be at least 1.
+         */
+        public final void setParallelism(int threads) {
+                if(threads < 1){
+                        throw new IllegalArgumentException("At least one thread is needed");
+                }
+                parallelism = threads;
+        }
+
+        /**
+         * Set the monitor notified of the progress of the triangulation, with the
+         * phase MeshPhase.INSERTION, when the points have been triangulated and
+         * then every ConstrainedMesh.PROGRESS_STEP constraints.
+         * @param monitor
+         */
+        public final void setProgressMonitor(ProgressMonitor monitor) {
+                progressMonitor = monitor;
+        }
+
+        /**
+         * Set the token checked during the triangulation. If it is cancelled,
+         * triangulate throws a DelaunayError and the mesh is not changed.
+         * @param token
+         */
+        public final void setCancellationToken(CancellationToken token) {
+                cancellationToken = token;
+        }
+
+        private boolean isCancelled() {
+                return cancellationToken != null && cancellationToken.isCancelled();
+        }
+
+        /**
+         * Compute the triangles of the mesh, from its points and its constraints.
+         * @throws DelaunayError
+         *      If the mesh has already been triangulated, or if its points are
+         *      less than three or all collinear, or if the triangulation has been
+         *      cancelled.
+         */
+        public final void triangulate() throws DelaunayError {
+                if(mesh.getTriangleCount() > 0){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_GENERATED);
+                }
+                int n = mesh.getPointCount();
+                if(n < 3){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_ENOUGH_POINTS_FOUND);
+                }
+                parallelDepth = 0;
+                while((1 << parallelDepth) < parallelism){
+                        parallelDepth++;
+                }
+                if(parallelDepth > 0){
+                        executor = Executors.newFixedThreadPool((1 << parallelDepth) - 1);
+                }
+                try {
+                        int[] sorted = sortPoints(n);
+                        Map<Integer, Integer> merged = new HashMap<Integer, Integer>();
+                        int m = removeDuplicates(sorted, merged);
+                        if(m < 3){
+                                throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_ENOUGH_POINTS_FOUND);
+                        }
+                        xs = new double[m];
+                        ys = new double[m];
+                        ids = new int[m];
+                        for(int i = 0; i < m; i++){
+                                xs[i] = mesh.getX(sorted[i]);
+                                ys[i] = mesh.getY(sorted[i]);
+                                ids[i] = sorted[i];
+                        }
+                        sorted = null;
+                        int tasks = (1 << parallelDepth) + 1;
+                        edgeCapacity = 3 * m + (tasks + 1) * BLOCK;
+                        org = new int[2 * edgeCapacity];
+                        Arrays.fill(org, -1);
+                        onext = new int[2 * edgeCapacity];
+                        oprev = new int[2 * edgeCapacity];
+                        nextBlock = new AtomicInteger();
+                        triangulate(0, m, 0, 0, new Arena());
+                        if(isCancelled()){
+                                throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_CANCELLED);
+                        }
+                        long total = (long) n + mesh.getConstraintCount();
+                        if(progressMonitor != null){
+                                progressMonitor.progress(MeshPhase.INSERTION, n, total);
+                        }
+                        IndexedTriangulator constraints = new IndexedTriangulator(mesh);
+                        constraints.setProgressMonitor(progressMonitor);
+                        constraints.setCancellationToken(cancellationToken);
+                        handOver(constraints, merged.isEmpty() ? null : merged);
+                } finally {
+                        if(executor != null){
+                                executor.shutdownNow();
+                                executor = null;
+                        }
+                        xs = null;
+                        ys = null;
+                        ids = null;
+                        org = null;
+                        onext = null;
+                        oprev = null;
+                }
+        }
+
+        // ------------------------------------------------------------------------
+        // Preparation of the points
+
+        /**
+         * Sort the points by x, then by y.
+         * @return
+         *      The indices of the points in the mesh, in the sorted order.
+         */
+        private int[] sortPoints(int n) throws DelaunayError {
+                int[] ret = new int[n];
+                boolean sorted = true;
+                for(int i = 0; i < n; i++){
+                        ret[i] = i;
+                        sorted = sorted && (i == 0 || compare(i - 1, i) <= 0);
+                }
+                if(!sorted){
+                        sort(ret, new int[n], 0, n, 0);
+                }
+                return ret;
+        }
+
+        private int compare(int a, int b) {
+                double ax = mesh.getX(a);
+                double bx = mesh.getX(b);
+                if(ax != bx){
+                        return ax < bx ? -1 : 1;
+                }
+                double ay = mesh.getY(a);
+                double by = mesh.getY(b);
+                return ay < by ? -1 : (ay > by ? 1 : 0);
+        }
+
+        /**
+         * Merge sort of the points between lo and hi, the two halves being sorted
+         * by different threads in the first levels of the recursion.
+         */
+        private void sort(final int[] pts, final int[] tmp, final int lo, int hi, final int depth)
+                        throws DelaunayError {
+                if(hi - lo < 2){
+                        return;
+                }
+                final int mid = (lo + hi) >>> 1;
+                if(depth < parallelDepth && hi - lo >= PARALLEL_THRESHOLD){
+                        Future<Void> left = executor.submit(new Callable<Void>() {
+                                @Override
+                                public Void call() throws DelaunayError {
+                                        sort(pts, tmp, lo, mid, depth + 1);
+                                        return null;
+                                }
+                        });
+                        sort(pts, tmp, mid, hi, depth + 1);
+                        Tools.join(left);
+                } else {
+                        sort(pts, tmp, lo, mid, depth + 1);
+                        sort(pts, tmp, mid, hi, depth + 1);
+                }
+                if(compare(pts[mid - 1], pts[mid]) <= 0){
+                        return;
+                }
+                System.arraycopy(pts, lo, tmp, lo, hi - lo);
+                int i = lo;
+                int j = mid;
+                for(int k = lo; k < hi; k++){
+                        if(j >= hi || (i < mid && compare(tmp[i], tmp[j]) <= 0)){
+                                pts[k] = tmp[i++];
+                        } else {
+                                pts[k] = tmp[j++];
+                        }
+                }
+        }
+
+        /**
+         * Remove from the sorted points the ones that are closer than Tools.EPSILON
+         * to a previous one. They are recorded in merged.
+         * @return
+         *      The number of remaining points, at the beginning of sorted.
+         */
+        private int removeDuplicates(int[] sorted, Map<Integer, Integer> merged) {
+                int m = 0;
+                for(int i = 0; i < sorted.length; i++){
+                        int p = sorted[i];
+                        double px = mesh.getX(p);
+                        double py = mesh.getY(p);
+                        int rep = -1;
+                        for(int j = m - 1; j >= 0 && px - mesh.getX(sorted[j]) <= Tools.EPSILON; j--){
+                                double dx = px - mesh.getX(sorted[j]);
+                                double dy = py - mesh.getY(sorted[j]);
+                                if(dx * dx + dy * dy <= Tools.EPSILON2){
+                                        rep = sorted[j];
+                                        break;
+                                }
+                        }
+                        if(rep >= 0){
+                                merged.put(p, rep);
+                        } else {
+                                sorted[m++] = p;
+                        }
+                }
+                return m;
+        }
+
+        // ------------------------------------------------------------------------
+        // Edges
+
+        /**
+         * The edges owned by a task : the ones it has deleted, and the rest of
+         * the last block it has taken.
+         */
+        private static final class Arena {
+                private int[] free = new int[16];
+                private int size = 0;
+                private int next = 0;
+                private int end = 0;
+
+                private void release(int edge) {
+                        if(size == free.length){
+                                int[] tmp = new int[2 * size];
+                                System.arraycopy(free, 0, tmp, 0, size);
+                                free = tmp;
+                        }
+                        free[size++] = edge;
+                }
+
+                /**
+                 * Take the edges of other, that won't use them anymore.
+                 */
+                private void absorb(Arena other) {
+                        for(int i = 0; i < other.size; i++){
+                                release(other.free[i]);
+                        }
+                        for(int e = other.next; e < other.end; e++){
+                                release(e);
+                        }
+                }
+        }
+
+        private int newEdge(Arena arena) {
+                if(arena.size > 0){
+                        return arena.free[--arena.size];
+                }
+                if(arena.next == arena.end){
+                        arena.next = nextBlock.getAndAdd(BLOCK);
+                        arena.end = arena.next + BLOCK;
+                        if(arena.end > edgeCapacity){
+                                throw new IllegalStateException("The edge capacity has been exceeded");
+                        }
+                }
+                return arena.next++;
+        }
+
+        private int dest(int e) {
+                return org[e ^ 1];
+        }
+
+        /**
+         * The next edge counterclockwise around the left face of e.
+         */
+        private int lnext(int e) {
+                return oprev[e ^ 1];
+        }
+
+        /**
+         * The previous edge counterclockwise around the right face of e.
+         */
+        private int rprev(int e) {
+                return onext[e ^ 1];
+        }
+
+        /**
+         * Create an edge from a to b, alone in its rings.
+         * @return
+         *      The edge directed from a to b.
+         */
+        private int makeEdge(Arena arena, int a, int b) {
+                int e = 2 * newEdge(arena);
+                org[e] = a;
+                org[e + 1] = b;
+                onext[e] = e;
+                oprev[e] = e;
+                onext[e + 1] = e + 1;
+                oprev[e + 1] = e + 1;
+                return e;
+        }
+
+        /**
+         * Exchange the rings around the origin of a and b : joins them if they are
+         * distinct, splits them otherwise.
+         */
+        private void splice(int a, int b) {
+                int an = onext[a];
+                int bn = onext[b];
+                onext[a] = bn;
+                onext[b] = an;
+                oprev[bn] = a;
+                oprev[an] = b;
+        }
+
+        /**
+         * Create an edge from the destination of a to the origin of b, so that a,
+         * the new edge and b share the same left face.
+         */
+        private int connect(Arena arena, int a, int b) {
+                int e = makeEdge(arena, dest(a), org[b]);
+                splice(e, lnext(a));
+                splice(e ^ 1, b);
+                return e;
+        }
+
+        private void deleteEdge(Arena arena, int e) {
+                splice(e, oprev[e]);
+                splice(e ^ 1, oprev[e ^ 1]);
+                org[e] = -1;
+                org[e ^ 1] = -1;
+                arena.release(e >> 1);
+        }
+
+        // ------------------------------------------------------------------------
+        // Geometry
+
+        private boolean ccw(int a, int b, int c) {
+                return Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]) > 0;
+        }
+
+        private boolean rightOf(int p, int e) {
+                return ccw(p, dest(e), org[e]);
+        }
+
+        private boolean leftOf(int p, int e) {
+                return ccw(p, org[e], dest(e));
+        }
+
+        /**
+         * Check if d is strictly in the circumcircle of the counterclockwise
+         * triangle (a, b, c).
+         */
+        private boolean inCircle(int a, int b, int c, int d) {
+                return Predicates.inCircle(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c], xs[d], ys[d]) > 0;
+        }
+
+        // ------------------------------------------------------------------------
+        // Divide and conquer
+
+        /**
+         * Compare two points in the frame used to split along axis : by x then y
+         * for the axis 0, by y then by decreasing x for the axis 1. The second frame
+         * is the first one rotated by a quarter turn, so the orientation of the
+         * triangles doesn't change.
+         */
+        private int compare(int a, int b, int axis) {
+                return compare(a, xs[b], ys[b], axis);
+        }
+
+        private int compare(int a, double bx, double by, int axis) {
+                double ax = xs[a];
+                double ay = ys[a];
+                if(axis == 0){
+                        if(ax != bx){
+                                return ax < bx ? -1 : 1;
+                        }
+                        return ay < by ? -1 : (ay > by ? 1 : 0);
+                }
+                if(ay != by){
+                        return ay < by ? -1 : 1;
+                }
+                return ax > bx ? -1 : (ax < bx ? 1 : 0);
+        }
+
+        private void swap(int i, int j) {
+                double tx = xs[i];
+                xs[i] = xs[j];
+                xs[j] = tx;
+                double ty = ys[i];
+                ys[i] = ys[j];
+                ys[j] = ty;
+                int tid = ids[i];
+                ids[i] = ids[j];
+                ids[j] = tid;
+        }
+
+        /**
+         * Move the points between lo and hi so that the ones before k are lower
+         * than the one at k, and the ones after k greater, along axis.
+         */
+        private void select(int lo, int hi, int k, int axis) {
+                int l = lo;
+                int r = hi - 1;
+                while(l < r){
+                        int m = (l + r) >>> 1;
+                        if(compare(m, l, axis) < 0){
+                                swap(m, l);
+                        }
+                        if(compare(r, l, axis) < 0){
+                                swap(r, l);
+                        }
+                        if(compare(r, m, axis) < 0){
+                                swap(r, m);
+                        }
+                        double px = xs[m];
+                        double py = ys[m];
+                        int i = l;
+                        int j = r;
+                        while(i <= j){
+                                while(compare(i, px, py, axis) < 0){
+                                        i++;
+                                }
+                                while(compare(j, px, py, axis) > 0){
+                                        j--;
+                                }
+                                if(i <= j){
+                                        swap(i, j);
+                                        i++;
+                                        j--;
+                                }
+                        }
+                        if(k <= j){
+                                r = j;
+                        } else if(k >= i){
+                                l = i;
+                        } else {
+                                return;
+                        }
+                }
+        }
+
+        /**
+         * Triangulate the points between lo and hi. They are split in two halves
+         * along axis, and the halves along the other axis, so that the
+         * sub-problems stay roughly square.
+         * @return
+         *      An edge of the convex hull, with the outer face on its left.
+         */
+        private int triangulate(final int lo, int hi, final int axis, final int depth, Arena arena)
+                        throws DelaunayError {
+                int n = hi - lo;
+                if(n <= 3){
+                        for(int i = lo + 1; i < hi; i++){
+                                for(int j = i; j > lo && compare(j, j - 1, 0) < 0; j--){
+                                        swap(j, j - 1);
+                                }
+                        }
+                }
+                if(n == 2){
+                        return makeEdge(arena, lo, lo + 1);
+                }
+                if(n == 3){
+                        int a = makeEdge(arena, lo, lo + 1);
+                        int b = makeEdge(arena, lo + 1, lo + 2);
+                        splice(a ^ 1, b);
+                        if(ccw(lo, lo + 1, lo + 2)){
+                                connect(arena, b, a);
+                        } else if(ccw(lo, lo + 2, lo + 1)){
+                                return connect(arena, b, a);
+                        }
+                        return b ^ 1;
+                }
+                if(n <= ConstrainedMesh.PROGRESS_STEP && 2 * n > ConstrainedMesh.PROGRESS_STEP && isCancelled()){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_CANCELLED);
+                }
+                final int mid = lo + n / 2;
+                select(lo, hi, mid, axis);
+                int left;
+                int right;
+                if(depth < parallelDepth && n >= PARALLEL_THRESHOLD){
+                        final Arena leftArena = new Arena();
+                        Arena rightArena = new Arena();
+                        Future<Integer> task = executor.submit(new Callable<Integer>() {
+                                @Override
+                                public Integer call() throws DelaunayError {
+                                        return triangulate(lo, mid, 1 - axis, depth + 1, leftArena);
+                                }
+                        });
+                        right = triangulate(mid, hi, 1 - axis, depth + 1, rightArena);
+                        left = Tools.join(task);
+                        arena.absorb(leftArena);
+                        arena.absorb(rightArena);
+                } else {
+                        left = triangulate(lo, mid, 1 - axis, depth + 1, arena);
+                        right = triangulate(mid, hi, 1 - axis, depth + 1, arena);
+                }
+                return merge(left, right, axis, arena);
+        }
+
+        /**
+         * Merge two triangulations separated along axis.
+         * @param left
+         *      A hull edge of the lower triangulation, with the outer face on its left.
+         * @param right
+         *      A hull edge of the upper triangulation, with the outer face on its left.
+         * @return
+         *      A hull edge of the merged triangulation, with the outer face on its left.
+         */
+        private int merge(int left, int right, int axis, Arena arena) {
+                //The hull edge out of the last point of the left part, and the one
+                //out of the first point of the right part.
+                int ldi = left;
+                for(int e = lnext(left); e != left; e = lnext(e)){
+                        if(compare(org[e], org[ldi], axis) > 0){
+                                ldi = e;
+                        }
+                }
+                int rdi = right;
+                for(int e = lnext(right); e != right; e = lnext(e)){
+                        if(compare(dest(e), dest(rdi), axis) < 0){
+                                rdi = e;
+                        }
+                }
+                rdi ^= 1;
+                //Compute the lower common tangent of the two hulls.
+                while(true){
+                        if(leftOf(org[rdi], ldi)){
+                                ldi = lnext(ldi);
+                        } else if(rightOf(org[ldi], rdi)){
+                                rdi = rprev(rdi);
+                        } else {
+                                break;
+                        }
+                }
+                int basel = connect(arena, rdi ^ 1, ldi);
+                //Build the edges between the two triangulations, from the bottom to
+                //the top, removing the edges that are not Delaunay anymore.
+                while(true){
+                        //The candidates are removed until the next one is basel itself,
+                        //whose extremity is on the circle : no need to test it.
+                        int lcand = onext[basel ^ 1];
+                        boolean lvalid = rightOf(dest(lcand), basel);
+                        if(lvalid){
+                                while(onext[lcand] != (basel ^ 1)
+                                        && inCircle(dest(basel), org[basel], dest(lcand), dest(onext[lcand]))){
+                                        int t = onext[lcand];
+                                        deleteEdge(arena, lcand);
+                                        lcand = t;
+                                }
+                        }
+                        int rcand = oprev[basel];
+                        boolean rvalid = rightOf(dest(rcand), basel);
+                        if(rvalid){
+                                while(oprev[rcand] != basel
+                                        && inCircle(dest(basel), org[basel], dest(rcand), dest(oprev[rcand]))){
+                                        int t = oprev[rcand];
+                                        deleteEdge(arena, rcand);
+                                        rcand = t;
+                                }
+                        }
+                        if(!lvalid && !rvalid){
+                                break;
+                        }
+                        if(!lvalid || (rvalid && inCircle(dest(lcand), org[lcand], org[rcand], dest(rcand)))){
+                                basel = connect(arena, rcand, basel ^ 1);
+                        } else {
+                                basel = connect(arena, basel ^ 1, lcand ^ 1);
+                        }
+                }
+                return basel ^ 1;
+        }
+
+        // ------------------------------------------------------------------------
+        // Output
+
+        /**
+         * Build the triangles from the faces of the edges, close the hull with
+         * ghost triangles and give them to constraints.
+         */
+        private void handOver(IndexedTriangulator constraints, Map<Integer, Integer> merged)
+                        throws DelaunayError {
+                int edges = Math.min(nextBlock.get(), edgeCapacity);
+                //The triangle on the left of each directed edge.
+                int[] face = new int[2 * edges];
+                Arrays.fill(face, -1);
+                int count = 0;
+                List<Integer> outer = new ArrayList<Integer>();
+                for(int e = 0; e < 2 * edges; e++){
+                        if(org[e] >= 0 && face[e] < 0){
+                                int e1 = lnext(e);
+                                int e2 = lnext(e1);
+                                if(lnext(e2) == e && ccw(org[e], org[e1], org[e2])){
+                                        face[e] = count;
+                                        face[e1] = count;
+                                        face[e2] = count;
+                                        count++;
+                                } else {
+                                        outer.add(e);
+                                }
+                        }
+                }
+                if(count == 0){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_ENOUGH_POINTS_FOUND, "all the points are collinear");
+                }
+                int real = count;
+                for(int e : outer){
+                        face[e] = count++;
+                }
+                int[] tv = new int[3 * count];
+                int[] tn = new int[3 * count];
+                for(int e = 0; e < 2 * edges; e++){
+                        if(org[e] >= 0 && face[e] < real){
+                                int e1 = lnext(e);
+                                int e2 = lnext(e1);
+                                int base = 3 * face[e];
+                                if(org[e] < org[e1] && org[e] < org[e2]){
+                                        //Each triangle is written once, from its lowest point.
+                                        tv[base] = ids[org[e]];
+                                        tv[base + 1] = ids[org[e1]];
+                                        tv[base + 2] = ids[org[e2]];
+                                        tn[base] = face[e1 ^ 1];
+                                        tn[base + 1] = face[e2 ^ 1];
+                                        tn[base + 2] = face[e ^ 1];
+                                }
+                        }
+                }
+                for(int e : outer){
+                        int base = 3 * face[e];
+                        tv[base] = ids[org[e]];
+                        tv[base + 1] = ids[dest(e)];
+                        tv[base + 2] = GHOST;
+                        tn[base] = face[lnext(e)];
+                        tn[base + 1] = face[onext[e] ^ 1];
+                        tn[base + 2] = face[e ^ 1];
+                }
+                face = null;
+                org = null;
+                onext = null;
+                oprev = null;
+                constraints.triangulate(tv, tn, count, merged);
+        }
+}
@@ -0,0 +1,372 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.indexed;
+
+import java.util.Arrays;
+
+/**
+ * A triangulation stored in primitive arrays, as a compact alternative to the
+ * DPoint, DEdge and DTriangle object model of ConstrainedMesh. It needs about 24
+ * bytes per point and 25 bytes per triangle.
+ *
+ * The points are identified by their index, in the order they have been added.
+ * The triangles are identified by their index too. Each triangle is made of three
+ * points given in counterclockwise order. The edge opposite to the point k of a
+ * triangle (k in 0, 1, 2) goes from the point k+1 to the point k+2 ; the neighbour
+ * k of the triangle is the triangle on the other side of this edge, or -1 if the
+ * edge is on the convex hull. The constraint flag of each edge of each triangle is
+ * stored in a bit set.
+ *
+ * The constraints added with addConstraint are the input of the triangulation : they
+ * are the segments that must be edges of the mesh. The triangles are computed by
+ * an IndexedTriangulator, or obtained from a ConstrainedMesh with MeshConverter.
+ */
+public class IndexedMesh {
+
+        private static final int DEFAULT_CAPACITY = 16;
+
+        private double[] x;
+        private double[] y;
+        private double[] z;
+        private int pointCount = 0;
+        //The input constraints, two point indices for each of them.
+        private int[] constraints;
+        private int constraintCount = 0;
+        //Three point indices for each triangle.
+        private int[] vertices;
+        //Three neighbour indices for each triangle.
+        private int[] neighbours;
+        //One bit for each edge of each triangle.
+        private int[] flags;
+        private int triangleCount = 0;
+
+        /**
+         * Build an empty mesh.
+         */
+        public IndexedMesh() {
+                this(DEFAULT_CAPACITY, DEFAULT_CAPACITY);
+        }
+
+        /**
+         * Build an empty mesh that can contain the given numbers of points and
+         * triangles without being resized. A triangulation of n points has
+         * less than 2n triangles.
+         * @param pointCapacity
+         * @param triangleCapacity
+         */
+        public IndexedMesh(int pointCapacity, int triangleCapacity) {
+                x = new double[Math.max(1, pointCapacity)];
+                y = new double[x.length];
+                z = new double[x.length];
+                constraints = new int[DEFAULT_CAPACITY];
+                vertices = new int[3 * Math.max(1, triangleCapacity)];
+                neighbours = new int[vertices.length];
+                flags = new int[flagWords(vertices.length)];
+        }
+
+        /**
+         * The number of int needed to store bits bits.
+         */
+        private static int flagWords(int bits) {
+                return (bits + Integer.SIZE - 1) / Integer.SIZE;
+        }
+
+        /**
+         * Get a new capacity, at least equal to needed.
+         */
+        private static int grow(int current, int needed) {
+                return Math.max(needed, current + (current >> 1) + 1);
+        }
+
+        /**
+         * Add a point to the mesh.
+         * @param px
+         * @param py
+         * @param pz
+         * @return
+         *      The index of the new point.
+         */
+        public final int addPoint(double px, double py, double pz) {
+                if(pointCount == x.length){
+                        int cap = grow(x.length, pointCount + 1);
+                        x = Arrays.copyOf(x, cap);
+                        y = Arrays.copyOf(y, cap);
+                        z = Arrays.copyOf(z, cap);
+                }
+                x[pointCount] = px;
+                y[pointCount] = py;
+                z[pointCount] = pz;
+                return pointCount++;
+        }
+
+        /**
+         * Add a constraint between two points of the mesh. It will be an edge of
+         * the triangulation. The constraints must not intersect, except at their
+         * extremities.
+         * @param start
+         * @param end
+         */
+        public final void addConstraint(int start, int end) {
+                if(start < 0 || end < 0 || start >= pointCount || end >= pointCount){
+                        throw new IndexOutOfBoundsException("No such point : "+start+", "+end);
+                }
+                if(2 * constraintCount + 2 > constraints.length){
+                        constraints = Arrays.copyOf(constraints, grow(constraints.length, 2 * constraintCount + 2));
+                }
+                constraints[2 * constraintCount] = start;
+                constraints[2 * constraintCount + 1] = end;
+                constraintCount++;
+        }
+
+        /**
+         * Add a triangle. Its neighbours are not set, and none of its edges is
+         * a constraint.
+         * @param a
+         * @param b
+         * @param c
+         *      The three points, in counterclockwise order.
+         * @return
+         *      The index of the new triangle.
+         */
+        public final int addTriangle(int a, int b, int c) {
+                ensureTriangleCapacity(triangleCount + 1);
+                int base = 3 * triangleCount;
+                vertices[base] = a;
+                vertices[base + 1] = b;
+                vertices[base + 2] = c;
+                neighbours[base] = -1;
+                neighbours[base + 1] = -1;
+                neighbours[base + 2] = -1;
+                for(int k = 0; k < 3; k++){
+                        setBit(base + k, false);
+                }
+                return triangleCount++;
+        }
+
+        /**
+         * Ensure that count triangles can be stored.
+         */
+        private void ensureTriangleCapacity(int count) {
+                if(3 * count > vertices.length){
+                        int cap = 3 * grow(vertices.length / 3, count);
+                        vertices = Arrays.copyOf(vertices, cap);
+                        neighbours = Arrays.copyOf(neighbours, cap);
+                        flags = Arrays.copyOf(flags, flagWords(cap));
+                }
+        }
+
+        /**
+         * Replace all the triangles of the mesh. The arrays are used directly.
+         * @param verts
+         * @param neighs
+         * @param bits
+         * @param count
+         */
+        final void setTriangles(int[] verts, int[] neighs, int[] bits, int count) {
+                vertices = verts;
+                neighbours = neighs;
+                flags = bits;
+                triangleCount = count;
+        }
+
+        private void setBit(int bit, boolean value) {
+                if(value){
+                        flags[bit >>> 5] |= 1 << (bit & 31);
+                } else {
+                        flags[bit >>> 5] &= ~(1 << (bit & 31));
+                }
+        }
+
+        /**
+         * Get the number of points.
+         * @return
+         */
+        public final int getPointCount() {
+                return pointCount;
+        }
+
+        /**
+         * @param point
+         * @return
+         *      the x coordinate of the point.
+         */
+        public final double getX(int point) {
+                return x[point];
+        }
+
+        /**
+         * @param point
+         * @return
+         *      the y coordinate of the point.
+         */
+        public final double getY(int point) {
+                return y[point];
+        }
+
+        /**
+         * @param point
+         * @return
+         *      the z coordinate of the point.
+         */
+        public final double getZ(int point) {
+                return z[point];
+        }
+
+        /**
+         * Get the number of input constraints.
+         * @return
+         */
+        public final int getConstraintCount() {
+                return constraintCount;
+        }
+
+        /**
+         * Get an extremity of a constraint.
+         * @param constraint
+         * @param end
+         *      0 for the start point, 1 for the end point.
+         * @return
+         *      The index of the point.
+         */
+        public final int getConstraintPoint(int constraint, int end) {
+                return constraints[2 * constraint + end];
+        }
+
+        /**
+         * Get the number of triangles.
+         * @return
+         */
+        public final int getTriangleCount() {
+                return triangleCount;
+        }
+
+        /**
+         * Get a point of a triangle.
+         * @param triangle
+         * @param k
+         *      0, 1 or 2.
+         * @return
+         *      The index of the point.
+         */
+        public final int getVertex(int triangle, int k) {
+                return vertices[3 * triangle + k];
+        }
+
+        /**
+         * Get the neighbour of a triangle on the other side of the edge opposite
+         * to its point k.
+         * @param triangle
+         * @param k
+         * @return
+         *      The index of the neighbour, or -1 if the edge is on the hull.
+         */
+        public final int getNeighbour(int triangle, int k) {
+                return neighbours[3 * triangle + k];
+        }
+
+        /**
+         * Set the neighbour of a triangle on the other side of the edge opposite
+         * to its point k. The neighbour is not updated.
+         * @param triangle
+         * @param k
+         * @param neighbour
+         */
+        public final void setNeighbour(int triangle, int k, int neighbour) {
+                neighbours[3 * triangle + k] = neighbour;
+        }
+
+        /**
+         * Check if the edge opposite to the point k of the triangle is a constraint.
+         * @param triangle
+         * @param k
+         * @return
+         */
+        public final boolean isConstrained(int triangle, int k) {
+                int bit = 3 * triangle + k;
+                return (flags[bit >>> 5] & (1 << (bit & 31))) != 0;
+        }
+
+        /**
+         * Set if the edge opposite to the point k of the triangle is a constraint.
+         * The neighbour is not updated.
+         * @param triangle
+         * @param k
+         * @param constrained
+         */
+        public final void setConstrained(int triangle, int k, boolean constrained) {
+                setBit(3 * triangle + k, constrained);
+        }
+
+        /**
+         * Get the index, in neighbour, of the edge shared with triangle.
+         * @param neighbour
+         * @param triangle
+         * @return
+         *      0, 1 or 2, or -1 if the triangles are not neighbours.
+         */
+        public final int getNeighbourIndex(int neighbour, int triangle) {
+                int base = 3 * neighbour;
+                for(int k = 0; k < 3; k++){
+                        if(neighbours[base + k] == triangle){
+                                return k;
+                        }
+                }
+                return -1;
+        }
+
+        /**
+         * Count the edges of the triangulation. Each edge shared by two triangles
+         * is counted once.
+         * @return
+         */
+        public final int getEdgeCount() {
+                int ret = 0;
+                for(int i = 0; i < 3 * triangleCount; i++){
+                        if(neighbours[i] < 0 || neighbours[i] > i / 3){
+                                ret++;
+                        }
+                }
+                return ret;
+        }
+
+        /**
+         * Release the unused capacity of the arrays.
+         */
+        public final void trimToSize() {
+                x = Arrays.copyOf(x, Math.max(1, pointCount));
+                y = Arrays.copyOf(y, x.length);
+                z = Arrays.copyOf(z, x.length);
+                constraints = Arrays.copyOf(constraints, 2 * constraintCount);
+                vertices = Arrays.copyOf(vertices, 3 * triangleCount);
+                neighbours = Arrays.copyOf(neighbours, 3 * triangleCount);
+                flags = Arrays.copyOf(flags, flagWords(3 * triangleCount));
+        }
+}
@@ -0,0 +1,1143 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.indexed;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.monitor.CancellationToken;
+import org.jdelaunay.delaunay.monitor.MeshPhase;
+import org.jdelaunay.delaunay.monitor.ProgressMonitor;
+import org.jdelaunay.delaunay.tools.Predicates;
+import org.jdelaunay.delaunay.tools.Tools;
+
+/**
+ * Computes the constrained Delaunay triangulation of an IndexedMesh, directly in
+ * its primitive arrays. No object is created for the points, edges or triangles.
+ *
+ * The points are inserted one by one, in a biased randomized insertion order
+ * (BRIO) : they are spread in rounds of doubling sizes, and each round follows a
+ * Hilbert curve so that two consecutive points are close to each other. The
+ * rounds keep the good expected complexity of a random order, the curve keeps the
+ * walks short and the memory accesses local. Each point is located by walking
+ * from the last created triangle, and the Delaunay property is restored with
+ * flips. The convex hull is closed by "ghost" triangles, that share a virtual
+ * point at infinity, so that the points outside the current hull are processed
+ * as the others. Then the constraints are inserted by flipping the edges they
+ * cross, and the Delaunay property is restored around them.
+ *
+ * The constraints must not intersect, except at their extremities. A point that
+ * lies on a constraint splits it. The points closer than Tools.EPSILON to an
+ * already inserted point are merged with it : they are not used by any triangle.
+ */
+public class IndexedTriangulator {
+
+        //The virtual point shared by the ghost triangles.
+        private static final int GHOST = -1;
+        //The last BRIO round contains half of the points, the previous one a
+        //quarter... The first round gathers the remaining ones.
+        private static final int MAX_ROUNDS = 24;
+        private static final long BRIO_SEED = 42L;
+
+        private final IndexedMesh mesh;
+        //The triangles being built : ghosts included.
+        private int[] tv;
+        private int[] tn;
+        private int[] tf;
+        private int count;
+        //A triangle that contains each inserted point.
+        private int[] vertexTriangle;
+        //The points merged with another one.
+        private Map<Integer, Integer> merged = null;
+        //The triangles whose edge opposite to their first point must be checked.
+        private int[] stack = new int[64];
+        private int stackSize = 0;
+        //The last created triangle, where the next walk begins.
+        private int last = 0;
+        //The state of the random generator used by the walk.
+        private int random = 1;
+        //Set by locate : the index of the edge that contains the point, or -1.
+        private int locatedEdge;
+        //Set by locate : the point equal to the located one, or -1.
+        private int locatedPoint;
+        private ProgressMonitor progressMonitor = null;
+        private CancellationToken cancellationToken = null;
+
+        /**
+         * Build a triangulator for the given mesh.
+         * @param mesh
+         */
+        public IndexedTriangulator(IndexedMesh mesh) {
+                this.mesh = mesh;
+        }
+
+        /**
+         * Set the monitor notified of the progress of the triangulation, every
+         * ConstrainedMesh.PROGRESS_STEP points, with the phase MeshPhase.INSERTION.
+         * @param monitor
+         */
+        public final void setProgressMonitor(ProgressMonitor monitor) {
+                progressMonitor = monitor;
+        }
+
+        /**
+         * Set the token checked every ConstrainedMesh.PROGRESS_STEP points. If it
+         * is cancelled, triangulate throws a DelaunayError and the mesh is not
+         * changed.
+         * @param token
+         */
+        public final void setCancellationToken(CancellationToken token) {
+                cancellationToken = token;
+        }
+
+        /**
+         * Report the progress of the insertion.
+         * @return
+         *      true if the triangulation has been cancelled.
+         */
+        private boolean reportProgress(long done, long total) {
+                if(progressMonitor != null){
+                        progressMonitor.progress(MeshPhase.INSERTION, done, total);
+                }
+                return cancellationToken != null && cancellationToken.isCancelled();
+        }
+
+        /**
+         * Compute the triangles of the mesh, from its points and its constraints.
+         * @throws DelaunayError
+         *      If the mesh has already been triangulated, or if its points are
+         *      less than three or all collinear, or if the triangulation has been
+         *      cancelled.
+         */
+        public final void triangulate() throws DelaunayError {
+                if(mesh.getTriangleCount() > 0){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_GENERATED);
+                }
+                int n = mesh.getPointCount();
+                if(n < 3){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_ENOUGH_POINTS_FOUND);
+                }
+                int[] order = insertionOrder();
+                int capacity = 2 * n + 2;
+                tv = new int[3 * capacity];
+                tn = new int[3 * capacity];
+                tf = new int[(3 * capacity + 31) / 32];
+                count = 0;
+                vertexTriangle = new int[n];
+                Arrays.fill(vertexTriangle, -1);
+                int first = initialize(order);
+                int constraints = mesh.getConstraintCount();
+                long total = (long) n + constraints;
+                for(int i = first; i < order.length; i++){
+                        if(order[i] >= 0){
+                                insertPoint(order[i]);
+                        }
+                        if(i % ConstrainedMesh.PROGRESS_STEP == 0 && reportProgress(i, total)){
+                                throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_CANCELLED);
+                        }
+                }
+                order = null;
+                insertConstraints(n, total);
+        }
+
+        /**
+         * Insert the constraints of the mesh in a Delaunay triangulation of its
+         * points that has been computed elsewhere, and give the result to the mesh.
+         * The triangles follow the layout used by this class : the convex hull is
+         * closed by ghost triangles, whose virtual point is -1, the neighbour k of
+         * a triangle is opposite to its point k, and the ghost triangles are
+         * neighbours of each other along the hull.
+         * @param verts
+         *      The points of the triangles, three by triangle, counterclockwise.
+         * @param neighs
+         *      The neighbours of the triangles, three by triangle.
+         * @param triangles
+         *      The number of triangles, ghosts included.
+         * @param mergedPoints
+         *      The points that are not used by the triangles, mapped to the point
+         *      used in their place. Can be null.
+         * @throws DelaunayError
+         */
+        final void triangulate(int[] verts, int[] neighs, int triangles, Map<Integer, Integer> mergedPoints)
+                        throws DelaunayError {
+                int n = mesh.getPointCount();
+                tv = verts;
+                tn = neighs;
+                tf = new int[(verts.length + 31) / 32];
+                count = triangles;
+                merged = mergedPoints;
+                vertexTriangle = new int[n];
+                Arrays.fill(vertexTriangle, -1);
+                for(int i = 0; i < 3 * count; i++){
+                        if(tv[i] != GHOST){
+                                vertexTriangle[tv[i]] = i / 3;
+                        }
+                }
+                insertConstraints(n, (long) n + mesh.getConstraintCount());
+        }
+
+        /**
+         * Complete the triangles of the mesh into the constrained Delaunay
+         * triangulation of its points and its constraints. The triangles must form
+         * several triangulations of convex areas that can be ordered along x : all
+         * the points of one of them are lower than the points of the next one,
+         * by x then by y. Each of them must be constrained Delaunay, and all the
+         * points of the mesh must be used.
+         *
+         * The space between two consecutive triangulations is filled by following
+         * their hulls from the bottom to the top, then the Delaunay property is
+         * restored with flips, that stay close to the seams. The constraints that
+         * are not edges yet are inserted at the end.
+         * @throws DelaunayError
+         *      If the mesh has no triangle, if one of its points is not used, if
+         *      the hull of one of its triangulations is not a simple cycle, if
+         *      its triangulations can't be ordered, or if the operation has been
+         *      cancelled.
+         */
+        public final void stitch() throws DelaunayError {
+                int triangles = mesh.getTriangleCount();
+                if(triangles == 0){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED);
+                }
+                int n = mesh.getPointCount();
+                int capacity = Math.max(2 * n, triangles) + 2;
+                tv = new int[3 * capacity];
+                tn = new int[3 * capacity];
+                tf = new int[(3 * capacity + 31) / 32];
+                count = 0;
+                vertexTriangle = new int[n];
+                Arrays.fill(vertexTriangle, -1);
+                //The hull edges : the one that starts at each hull point, the point
+                //where it ends and the one where the previous edge starts.
+                int[] hullSlot = new int[n];
+                int[] hullNext = new int[n];
+                int[] hullPrev = new int[n];
+                Arrays.fill(hullNext, -1);
+                for(int t = 0; t < triangles; t++){
+                        set(newTriangle(), mesh.getVertex(t, 0), mesh.getVertex(t, 1), mesh.getVertex(t, 2),
+                                mesh.getNeighbour(t, 0), mesh.getNeighbour(t, 1), mesh.getNeighbour(t, 2),
+                                mesh.isConstrained(t, 0), mesh.isConstrained(t, 1), mesh.isConstrained(t, 2));
+                        for(int k = 0; k < 3; k++){
+                                if(tn[3 * t + k] < 0){
+                                        int a = tv[3 * t + (k + 1) % 3];
+                                        int b = tv[3 * t + (k + 2) % 3];
+                                        hullSlot[a] = 3 * t + k;
+                                        hullNext[a] = b;
+                                        hullPrev[b] = a;
+                                }
+                        }
+                }
+                for(int p = 0; p < n; p++){
+                        if(vertexTriangle[p] < 0){
+                                throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NON_INSERTED_POINT, "point " + p);
+                        }
+                }
+                //The lowest and the highest point of each hull.
+                List<int[]> hulls = new ArrayList<int[]>();
+                boolean[] seen = new boolean[n];
+                for(int p = 0; p < n; p++){
+                        if(hullNext[p] >= 0 && !seen[p]){
+                                int low = p;
+                                int high = p;
+                                int v = p;
+                                do {
+                                        seen[v] = true;
+                                        low = compare(v, low) < 0 ? v : low;
+                                        high = compare(v, high) > 0 ? v : high;
+                                        v = hullNext[v];
+                                        if(v != p && (v < 0 || seen[v])){
+                                                throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_INTERNAL_ERROR,
+                                                        "the hull of a triangulation is not a simple cycle");
+                                        }
+                                } while(v != p);
+                                int i = hulls.size();
+                                while(i > 0 && compare(hulls.get(i - 1)[0], low) > 0){
+                                        i--;
+                                }
+                                hulls.add(i, new int[]{low, high});
+                        }
+                }
+                seen = null;
+                int[] suspects = new int[64];
+                int suspectCount = 0;
+                for(int i = 1; i < hulls.size(); i++){
+                        if(compare(hulls.get(i - 1)[1], hulls.get(i)[0]) >= 0){
+                                throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_INCORRECT_TOPOLOGY,
+                                        "the triangulations overlap along x");
+                        }
+                        int first = count;
+                        zip(hulls.get(i - 1)[1], hulls.get(i)[0], hullSlot, hullNext, hullPrev);
+                        if(3 * count > suspects.length){
+                                suspects = Arrays.copyOf(suspects, 3 * count);
+                        }
+                        for(int slot = 3 * first; slot < 3 * count; slot++){
+                                suspects[suspectCount++] = slot;
+                        }
+                }
+                //Close the hull with the ghost triangles.
+                int start = hulls.get(0)[0];
+                int firstGhost = count;
+                int v = start;
+                do {
+                        newTriangle();
+                        v = hullNext[v];
+                        if(v != start && (v < 0 || count - firstGhost >= n)){
+                                throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_INTERNAL_ERROR,
+                                        "the stitched hull is not a simple cycle");
+                        }
+                } while(v != start);
+                int g = firstGhost;
+                do {
+                        int next = hullNext[v];
+                        int prev = g == firstGhost ? count - 1 : g - 1;
+                        int after = g == count - 1 ? firstGhost : g + 1;
+                        int slot = hullSlot[v];
+                        set(g, next, v, GHOST, prev, after, slot / 3, false, false, flag(slot));
+                        tn[slot] = g;
+                        g++;
+                        v = next;
+                } while(v != start);
+                legalize(suspects, suspectCount);
+                long total = (long) n + mesh.getConstraintCount();
+                if(reportProgress(n, total)){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_CANCELLED);
+                }
+                insertConstraints(n, total);
+        }
+
+        /**
+         * Fill the space between two triangulations separated along x, from their
+         * lower common tangent to the upper one, and update the hull.
+         * @param l
+         *      The highest point of the left triangulation.
+         * @param r
+         *      The lowest point of the right triangulation.
+         */
+        private void zip(int l, int r, int[] hullSlot, int[] hullNext, int[] hullPrev) throws DelaunayError {
+                while(true){
+                        if(orient(l, hullPrev[l], r) > 0){
+                                l = hullPrev[l];
+                        } else if(orient(r, hullNext[r], l) < 0){
+                                r = hullNext[r];
+                        } else {
+                                break;
+                        }
+                }
+                int lowL = l;
+                int lowR = r;
+                int first = -1;
+                int prev = -1;
+                int prevSlot = -1;
+                while(true){
+                        int lc = hullNext[l];
+                        int rc = hullPrev[r];
+                        boolean lvalid = orient(lc, l, r) > 0;
+                        boolean rvalid = orient(rc, l, r) > 0;
+                        if(!lvalid && !rvalid){
+                                break;
+                        }
+                        int t = newTriangle();
+                        if(!lvalid || (rvalid && inCircle(lc, l, r, rc) > 0)){
+                                int slot = hullSlot[rc];
+                                set(t, r, rc, l, -1, prev, slot / 3, false, false, flag(slot));
+                                tn[slot] = t;
+                                r = rc;
+                        } else {
+                                int slot = hullSlot[l];
+                                set(t, r, lc, l, slot / 3, prev, -1, flag(slot), false, false);
+                                tn[slot] = t;
+                                l = lc;
+                        }
+                        if(first < 0){
+                                first = t;
+                        } else {
+                                tn[prevSlot] = t;
+                        }
+                        prevSlot = tn[3 * t] < 0 ? 3 * t : 3 * t + 2;
+                        prev = t;
+                }
+                if(first < 0){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_INCORRECT_TOPOLOGY,
+                                "the triangulations are collinear");
+                }
+                hullNext[lowL] = lowR;
+                hullPrev[lowR] = lowL;
+                hullSlot[lowL] = 3 * first + 1;
+                hullNext[r] = l;
+                hullPrev[l] = r;
+                hullSlot[r] = prevSlot;
+        }
+
+        /**
+         * Flip the edges of the given slots, and then the edges around the flipped
+         * ones, as long as they are not Delaunay.
+         */
+        private void legalize(int[] slots, int size) {
+                int[] todo = slots;
+                int top = size;
+                while(top > 0){
+                        int slot = todo[--top];
+                        int t = slot / 3;
+                        if(isIllegal(t, slot % 3)){
+                                int o = tn[slot];
+                                flip(t, slot % 3);
+                                if(top + 4 > todo.length){
+                                        todo = Arrays.copyOf(todo, 2 * todo.length + 4);
+                                }
+                                todo[top++] = 3 * t;
+                                todo[top++] = 3 * t + 2;
+                                todo[top++] = 3 * o;
+                                todo[top++] = 3 * o + 1;
+                        }
+                }
+        }
+
+        /**
+         * Compare two points by x, then by y.
+         */
+        private int compare(int a, int b) {
+                double ax = mesh.getX(a);
+                double bx = mesh.getX(b);
+                if(ax != bx){
+                        return ax < bx ? -1 : 1;
+                }
+                double ay = mesh.getY(a);
+                double by = mesh.getY(b);
+                return ay < by ? -1 : (ay > by ? 1 : 0);
+        }
+
+        /**
+         * Insert the constraints in the triangulation of the points, then give the
+         * real triangles to the mesh.
+         * @param done
+         *      The progress already done.
+         * @param total
+         *      The total progress.
+         * @throws DelaunayError
+         */
+        private void insertConstraints(long done, long total) throws DelaunayError {
+                int constraints = mesh.getConstraintCount();
+                for(int c = 0; c < constraints; c++){
+                        insertConstraint(getInserted(mesh.getConstraintPoint(c, 0)),
+                                getInserted(mesh.getConstraintPoint(c, 1)));
+                        if(c % ConstrainedMesh.PROGRESS_STEP == 0 && reportProgress(done + c, total)){
+                                throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_CANCELLED);
+                        }
+                }
+                compact();
+                reportProgress(total, total);
+        }
+
+        /**
+         * Get the point that has been inserted in place of pt.
+         */
+        private int getInserted(int pt) {
+                if(merged != null){
+                        Integer rep = merged.get(pt);
+                        if(rep != null){
+                                return rep;
+                        }
+                }
+                return pt;
+        }
+
+        // ------------------------------------------------------------------------
+        // Geometry
+
+        /**
+         * Positive if (a, b, c) is counterclockwise, negative if it is clockwise.
+         */
+        private double orient(int a, int b, int c) {
+                return Predicates.orient2d(mesh.getX(a), mesh.getY(a), mesh.getX(b), mesh.getY(b), mesh.getX(c), mesh.getY(c));
+        }
+
+        /**
+         * Positive if d is strictly in the circumcircle of the counterclockwise
+         * triangle (a, b, c).
+         */
+        private double inCircle(int a, int b, int c, int d) {
+                return Predicates.inCircle(mesh.getX(a), mesh.getY(a), mesh.getX(b), mesh.getY(b),
+                        mesh.getX(c), mesh.getY(c), mesh.getX(d), mesh.getY(d));
+        }
+
+        /**
+         * Check if two points are at the same location.
+         */
+        private boolean samePoint(int a, int b) {
+                double dx = mesh.getX(a) - mesh.getX(b);
+                double dy = mesh.getY(a) - mesh.getY(b);
+                return dx * dx + dy * dy <= Tools.EPSILON2;
+        }
+
+        /**
+         * Sort the points in rounds, each of them along a Hilbert curve.
+         * @return
+         *      The indices of the points, in insertion order.
+         */
+        private int[] insertionOrder() {
+                int n = mesh.getPointCount();
+                double minX = Double.POSITIVE_INFINITY;
+                double minY = Double.POSITIVE_INFINITY;
+                double maxX = Double.NEGATIVE_INFINITY;
+                double maxY = Double.NEGATIVE_INFINITY;
+                for(int i = 0; i < n; i++){
+                        minX = Math.min(minX, mesh.getX(i));
+                        maxX = Math.max(maxX, mesh.getX(i));
+                        minY = Math.min(minY, mesh.getY(i));
+                        maxY = Math.max(maxY, mesh.getY(i));
+                }
+                double scale = (Tools.HILBERT_SIDE - 1) / Math.max(Math.max(maxX - minX, maxY - minY), Double.MIN_VALUE);
+                //A point goes to the last round with probability 1/2, to the
+                //previous one with probability 1/4...
+                Random rand = new Random(BRIO_SEED);
+                int[] round = new int[n];
+                int[] start = new int[MAX_ROUNDS + 1];
+                for(int i = 0; i < n; i++){
+                        round[i] = MAX_ROUNDS - 1 - Math.min(MAX_ROUNDS - 1, Integer.numberOfTrailingZeros(rand.nextInt()));
+                        start[round[i] + 1]++;
+                }
+                for(int r = 0; r < MAX_ROUNDS; r++){
+                        start[r + 1] += start[r];
+                }
+                //The Hilbert indices are lower than 2^30, the keys are positive.
+                long[] keys = new long[n];
+                int[] next = Arrays.copyOf(start, MAX_ROUNDS);
+                for(int i = 0; i < n; i++){
+                        int hx = (int) ((mesh.getX(i) - minX) * scale);
+                        int hy = (int) ((mesh.getY(i) - minY) * scale);
+                        keys[next[round[i]]++] = (Tools.hilbertIndex(hx, hy) << 32) | i;
+                }
+                int[] ret = new int[n];
+                for(int r = 0; r < MAX_ROUNDS; r++){
+                        Arrays.sort(keys, start[r], start[r + 1]);
+                }
+                for(int i = 0; i < n; i++){
+                        ret[i] = (int) keys[i];
+                }
+                return ret;
+        }
+
+        // ------------------------------------------------------------------------
+        // Triangles
+
+        private boolean isGhost(int t) {
+                int base = 3 * t;
+                return tv[base] == GHOST || tv[base + 1] == GHOST || tv[base + 2] == GHOST;
+        }
+
+        private boolean flag(int slot) {
+                return (tf[slot >>> 5] & (1 << (slot & 31))) != 0;
+        }
+
+        private void setFlag(int slot, boolean value) {
+                if(value){
+                        tf[slot >>> 5] |= 1 << (slot & 31);
+                } else {
+                        tf[slot >>> 5] &= ~(1 << (slot & 31));
+                }
+        }
+
+        /**
+         * Get the index of the neighbour of t that is o.
+         */
+        private int indexOf(int t, int o) {
+                int base = 3 * t;
+                return tn[base] == o ? 0 : (tn[base + 1] == o ? 1 : 2);
+        }
+
+        private int newTriangle() {
+                if(3 * count + 3 > tv.length){
+                        int cap = tv.length + tv.length / 2 + 3;
+                        tv = Arrays.copyOf(tv, cap);
+                        tn = Arrays.copyOf(tn, cap);
+                        tf = Arrays.copyOf(tf, (cap + 31) / 32);
+                }
+                return count++;
+        }
+
+        /**
+         * Set the points, the neighbours and the constraint flags of a triangle.
+         */
+        private void set(int t, int a, int b, int c, int na, int nb, int nc, boolean fa, boolean fb, boolean fc) {
+                int base = 3 * t;
+                tv[base] = a;
+                tv[base + 1] = b;
+                tv[base + 2] = c;
+                tn[base] = na;
+                tn[base + 1] = nb;
+                tn[base + 2] = nc;
+                setFlag(base, fa);
+                setFlag(base + 1, fb);
+                setFlag(base + 2, fc);
+                if(a != GHOST){
+                        vertexTriangle[a] = t;
+                }
+                if(b != GHOST){
+                        vertexTriangle[b] = t;
+                }
+                if(c != GHOST){
+                        vertexTriangle[c] = t;
+                }
+                last = t;
+        }
+
+        /**
+         * Replace the neighbour old of t by rep.
+         */
+        private void replaceNeighbour(int t, int old, int rep) {
+                tn[3 * t + indexOf(t, old)] = rep;
+        }
+
+        private void push(int t) {
+                if(stackSize == stack.length){
+                        stack = Arrays.copyOf(stack, 2 * stackSize);
+                }
+                stack[stackSize++] = t;
+        }
+
+        // ------------------------------------------------------------------------
+        // Insertion of the points
+
+        /**
+         * Build the first triangle, with the first point, the next distinct one and
+         * the next one that is not collinear with them. These points are removed
+         * from order.
+         * @return
+         *      The index in order of the next point to insert.
+         * @throws DelaunayError
+         */
+        private int initialize(int[] order) throws DelaunayError {
+                int a = order[0];
+                int ib = 1;
+                while(ib < order.length && samePoint(a, order[ib])){
+                        merge(order[ib], a);
+                        order[ib] = -1;
+                        ib++;
+                }
+                int ic = ib + 1;
+                while(ic < order.length && orient(a, order[ib], order[ic]) == 0){
+                        ic++;
+                }
+                if(ic >= order.length){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_ENOUGH_POINTS_FOUND, "all the points are collinear");
+                }
+                int b = order[ib];
+                int c = order[ic];
+                order[ib] = -1;
+                order[ic] = -1;
+                if(orient(a, b, c) < 0){
+                        int tmp = b;
+                        b = c;
+                        c = tmp;
+                }
+                int r = newTriangle();
+                int x = newTriangle();
+                int y = newTriangle();
+                int z = newTriangle();
+                set(x, c, b, GHOST, z, y, r, false, false, false);
+                set(y, a, c, GHOST, x, z, r, false, false, false);
+                set(z, b, a, GHOST, y, x, r, false, false, false);
+                set(r, a, b, c, x, y, z, false, false, false);
+                return 1;
+        }
+
+        /**
+         * Record that pt has been merged with rep.
+         */
+        private void merge(int pt, int rep) {
+                if(merged == null){
+                        merged = new HashMap<Integer, Integer>();
+                }
+                merged.put(pt, rep);
+        }
+
+        private int nextRandom() {
+                random ^= random << 13;
+                random ^= random >>> 17;
+                random ^= random << 5;
+                return random & Integer.MAX_VALUE;
+        }
+
+        /**
+         * Find the triangle that contains p, by walking from the last created
+         * triangle. locatedEdge and locatedPoint are set.
+         * @param p
+         * @return
+         *      A real triangle that contains p, or a ghost triangle if p is
+         *      strictly outside the convex hull.
+         */
+        private int locate(int p) {
+                int t = last;
+                if(isGhost(t)){
+                        int base = 3 * t;
+                        t = tn[base + (tv[base] == GHOST ? 0 : (tv[base + 1] == GHOST ? 1 : 2))];
+                }
+                locatedEdge = -1;
+                locatedPoint = -1;
+                int steps = 0;
+                boolean moved = true;
+                while(moved){
+                        moved = false;
+                        if(++steps > count){
+                                return locateAll(p);
+                        }
+                        int base = 3 * t;
+                        int r = nextRandom() % 3;
+                        for(int j = 0; j < 3 && !moved; j++){
+                                int k = (r + j) % 3;
+                                if(orient(tv[base + (k + 1) % 3], tv[base + (k + 2) % 3], p) < 0){
+                                        t = tn[base + k];
+                                        moved = true;
+                                }
+                        }
+                        if(moved && isGhost(t)){
+                                checkPoints(t, p);
+                                return t;
+                        }
+                }
+                checkPoints(t, p);
+                if(locatedPoint < 0){
+                        int base = 3 * t;
+                        for(int k = 0; k < 3; k++){
+                                if(orient(tv[base + (k + 1) % 3], tv[base + (k + 2) % 3], p) == 0){
+                                        locatedEdge = k;
+                                }
+                        }
+                }
+                return t;
+        }
+
+        /**
+         * Search p in all the triangles. Used when the walk does not end, which
+         * could only happen with inconsistent predicates.
+         */
+        private int locateAll(int p) {
+                int ghost = -1;
+                for(int t = 0; t < count; t++){
+                        int base = 3 * t;
+                        if(isGhost(t)){
+                                int k = tv[base] == GHOST ? 0 : (tv[base + 1] == GHOST ? 1 : 2);
+                                if(orient(tv[base + (k + 1) % 3], tv[base + (k + 2) % 3], p) > 0){
+                                        ghost = t;
+                                }
+                        } else if(orient(tv[base], tv[base + 1], p) >= 0 && orient(tv[base + 1], tv[base + 2], p) >= 0
+                                        && orient(tv[base + 2], tv[base], p) >= 0){
+                                last = t;
+                                return locate(p);
+                        }
+                }
+                checkPoints(ghost, p);
+                return ghost;
+        }
+
+        /**
+         * Set locatedPoint if p is at the same place than a point of t.
+         */
+        private void checkPoints(int t, int p) {
+                int base = 3 * t;
+                for(int k = 0; k < 3; k++){
+                        if(tv[base + k] != GHOST && samePoint(tv[base + k], p)){
+                                locatedPoint = tv[base + k];
+                        }
+                }
+        }
+
+        /**
+         * Insert a point in the triangulation.
+         * @param p
+         */
+        private void insertPoint(int p) {
+                int t = locate(p);
+                if(locatedPoint >= 0){
+                        merge(p, locatedPoint);
+                        return;
+                }
+                if(locatedEdge >= 0){
+                        splitEdge(t, locatedEdge, p);
+                } else {
+                        splitTriangle(t, p);
+                }
+                legalize();
+        }
+
+        /**
+         * Split t in three triangles around p.
+         */
+        private void splitTriangle(int t, int p) {
+                int base = 3 * t;
+                int a = tv[base];
+                int b = tv[base + 1];
+                int c = tv[base + 2];
+                int n0 = tn[base];
+                int n1 = tn[base + 1];
+                int n2 = tn[base + 2];
+                boolean f0 = flag(base);
+                boolean f1 = flag(base + 1);
+                boolean f2 = flag(base + 2);
+                int t1 = newTriangle();
+                int t2 = newTriangle();
+                set(t, p, b, c, n0, t1, t2, f0, false, false);
+                set(t1, p, c, a, n1, t2, t, f1, false, false);
+                set(t2, p, a, b, n2, t, t1, f2, false, false);
+                replaceNeighbour(n1, t, t1);
+                replaceNeighbour(n2, t, t2);
+                push(t);
+                push(t1);
+                push(t2);
+        }
+
+        /**
+         * Split the edge opposite to the point k of t, and the two triangles that
+         * share it, with p.
+         */
+        private void splitEdge(int t, int k, int p) {
+                int base = 3 * t;
+                int c = tv[base + k];
+                int a = tv[base + (k + 1) % 3];
+                int b = tv[base + (k + 2) % 3];
+                int tA = tn[base + (k + 1) % 3];
+                int tB = tn[base + (k + 2) % 3];
+                boolean fA = flag(base + (k + 1) % 3);
+                boolean fB = flag(base + (k + 2) % 3);
+                boolean fE = flag(base + k);
+                int o = tn[base + k];
+                int j = indexOf(o, t);
+                int ob = 3 * o;
+                int d = tv[ob + j];
+                int oB = tn[ob + (j + 1) % 3];
+                int oA = tn[ob + (j + 2) % 3];
+                boolean gB = flag(ob + (j + 1) % 3);
+                boolean gA = flag(ob + (j + 2) % 3);
+                int t1 = newTriangle();
+                int t3 = newTriangle();
+                set(t, p, c, a, tB, t3, t1, fB, fE, false);
+                set(t1, p, b, c, tA, t, o, fA, false, fE);
+                set(o, p, d, b, oA, t1, t3, gA, fE, false);
+                set(t3, p, a, d, oB, o, t, gB, false, fE);
+                replaceNeighbour(tA, t, t1);
+                replaceNeighbour(oB, o, t3);
+                push(t);
+                push(t1);
+                push(o);
+                push(t3);
+        }
+
+        /**
+         * Flip the edges opposite to the first point of the triangles of the
+         * stack, as long as they are not Delaunay.
+         */
+        private void legalize() {
+                while(stackSize > 0){
+                        int t = stack[--stackSize];
+                        if(isIllegal(t, 0)){
+                                int o = tn[3 * t];
+                                flip(t, 0);
+                                push(t);
+                                push(o);
+                        }
+                }
+        }
+
+        /**
+         * Check if the edge opposite to the point k of t must be flipped.
+         */
+        private boolean isIllegal(int t, int k) {
+                int base = 3 * t;
+                if(flag(base + k)){
+                        return false;
+                }
+                int p = tv[base + k];
+                int u = tv[base + (k + 1) % 3];
+                int v = tv[base + (k + 2) % 3];
+                int o = tn[base + k];
+                int j = indexOf(o, t);
+                int w = tv[3 * o + j];
+                if(w == GHOST){
+                        return false;
+                } else if(p == GHOST){
+                        return isIllegal(o, j);
+                } else if(u == GHOST){
+                        return orient(v, p, w) > 0;
+                } else if(v == GHOST){
+                        return orient(p, u, w) > 0;
+                } else {
+                        return inCircle(p, u, v, w) > 0;
+                }
+        }
+
+        /**
+         * Flip the edge opposite to the point k of t. After the flip, this point
+         * is the first one of t and of its former neighbour.
+         */
+        private void flip(int t, int k) {
+                int base = 3 * t;
+                int p = tv[base + k];
+                int u = tv[base + (k + 1) % 3];
+                int v = tv[base + (k + 2) % 3];
+                int nA = tn[base + (k + 1) % 3];
+                int nB = tn[base + (k + 2) % 3];
+                boolean fA = flag(base + (k + 1) % 3);
+                boolean fB = flag(base + (k + 2) % 3);
+                int o = tn[base + k];
+                int j = indexOf(o, t);
+                int ob = 3 * o;
+                int w = tv[ob + j];
+                int nC = tn[ob + (j + 1) % 3];
+                int nD = tn[ob + (j + 2) % 3];
+                boolean fC = flag(ob + (j + 1) % 3);
+                boolean fD = flag(ob + (j + 2) % 3);
+                set(t, p, u, w, nC, o, nB, fC, false, fB);
+                set(o, p, w, v, nD, nA, t, fD, fA, false);
+                replaceNeighbour(nA, t, o);
+                replaceNeighbour(nC, o, t);
+        }
+
+        // ------------------------------------------------------------------------
+        // Insertion of the constraints
+
+        /**
+         * Find the edge (a, b).
+         * @return
+         *      3 * t + k, where the edge is opposite to the point k of the
+         *      triangle t, or -1 if there is no such edge.
+         */
+        private int findEdge(int a, int b) {
+                int start = vertexTriangle[a];
+                int t = start;
+                do {
+                        int base = 3 * t;
+                        int i = tv[base] == a ? 0 : (tv[base + 1] == a ? 1 : 2);
+                        if(tv[base + (i + 1) % 3] == b){
+                                return base + (i + 2) % 3;
+                        } else if(tv[base + (i + 2) % 3] == b){
+                                return base + (i + 1) % 3;
+                        }
+                        t = tn[base + (i + 1) % 3];
+                } while(t != start);
+                return -1;
+        }
+
+        /**
+         * Set the constraint flag on both sides of an edge.
+         */
+        private void constrain(int slot) {
+                int t = slot / 3;
+                int o = tn[slot];
+                setFlag(slot, true);
+                setFlag(3 * o + indexOf(o, t), true);
+        }
+
+        /**
+         * Check if the open segments (a, b) and (c, d) intersect.
+         */
+        private boolean crosses(int a, int b, int c, int d) {
+                double o1 = orient(a, b, c);
+                double o2 = orient(a, b, d);
+                double o3 = orient(c, d, a);
+                double o4 = orient(c, d, b);
+                return ((o1 > 0 && o2 < 0) || (o1 < 0 && o2 > 0)) && ((o3 > 0 && o4 < 0) || (o3 < 0 && o4 > 0));
+        }
+
+        /**
+         * Check if c lies on the segment (a, b), strictly between a and b.
+         */
+        private boolean between(int a, int b, int c) {
+                if(orient(a, b, c) != 0){
+                        return false;
+                }
+                double dx = mesh.getX(b) - mesh.getX(a);
+                double dy = mesh.getY(b) - mesh.getY(a);
+                double dot = (mesh.getX(c) - mesh.getX(a)) * dx + (mesh.getY(c) - mesh.getY(a)) * dy;
+                return dot > 0 && dot < dx * dx + dy * dy;
+        }
+
+        /**
+         * Make the segment (s, e) an edge of the triangulation, split at the points
+         * it contains.
+         * @throws DelaunayError
+         */
+        private void insertConstraint(int s, int e) throws DelaunayError {
+                int start = s;
+                while(start != e){
+                        int slot = findEdge(start, e);
+                        if(slot >= 0){
+                                constrain(slot);
+                                return;
+                        }
+                        //We search the triangle around start in which the segment begins.
+                        int t = vertexTriangle[start];
+                        int first = t;
+                        int u = GHOST;
+                        int v = GHOST;
+                        boolean found = false;
+                        do {
+                                int base = 3 * t;
+                                int i = tv[base] == start ? 0 : (tv[base + 1] == start ? 1 : 2);
+                                u = tv[base + (i + 1) % 3];
+                                v = tv[base + (i + 2) % 3];
+                                if(u != GHOST && v != GHOST){
+                                        if(between(start, e, u) || between(start, e, v)){
+                                                int next = between(start, e, u) ? u : v;
+                                                constrain(findEdge(start, next));
+                                                start = next;
+                                                found = true;
+                                        } else if(orient(start, u, e) > 0 && orient(start, v, e) < 0){
+                                                start = recoverEdge(start, e, t, u, v);
+                                                found = true;
+                                        }
+                                }
+                                t = tn[base + (i + 1) % 3];
+                        } while(!found && t != first);
+                        if(!found){
+                                throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_INTERNAL_ERROR, "can't insert a constraint");
+                        }
+                }
+        }
+
+        /**
+         * Flip the edges crossed by the segment that goes from s to e, until it
+         * reaches e or a point that lies on it.
+         * @param s
+         * @param e
+         * @param t
+         *      The triangle (s, u, v) where the segment begins.
+         * @return
+         *      The point where the segment has been stopped.
+         */
+        private int recoverEdge(int s, int e, int t, int u, int v) {
+                LinkedList<int[]> crossed = new LinkedList<int[]>();
+                int cu = u;
+                int cv = v;
+                int ct = t;
+                int end = e;
+                while(true){
+                        crossed.add(new int[]{cu, cv});
+                        int slot = findEdge(cu, cv);
+                        int o = tn[slot];
+                        if(o == ct){
+                                o = slot / 3;
+                        }
+                        int ob = 3 * o;
+                        int w = tv[ob] != cu && tv[ob] != cv ? tv[ob] : (tv[ob + 1] != cu && tv[ob + 1] != cv ? tv[ob + 1] : tv[ob + 2]);
+                        if(w == e){
+                                break;
+                        } else if(between(s, e, w)){
+                                end = w;
+                                break;
+                        }
+                        if(orient(s, e, w) * orient(s, e, cu) < 0){
+                                cv = w;
+                        } else {
+                                cu = w;
+                        }
+                        ct = o;
+                }
+                List<int[]> created = new LinkedList<int[]>();
+                while(!crossed.isEmpty()){
+                        int[] edge = crossed.removeFirst();
+                        int slot = findEdge(edge[0], edge[1]);
+                        int ft = slot / 3;
+                        int k = slot % 3;
+                        int base = 3 * ft;
+                        int p = tv[base + k];
+                        int pu = tv[base + (k + 1) % 3];
+                        int pv = tv[base + (k + 2) % 3];
+                        int o = tn[slot];
+                        int w = tv[3 * o + indexOf(o, ft)];
+                        if(orient(p, pu, w) > 0 && orient(p, w, pv) > 0){
+                                flip(ft, k);
+                                if(crosses(s, end, p, w)){
+                                        crossed.add(new int[]{p, w});
+                                } else {
+                                        created.add(new int[]{p, w});
+                                }
+                        } else {
+                                crossed.add(edge);
+                        }
+                }
+                constrain(findEdge(s, end));
+                //We restore the Delaunay property around the new edges.
+                boolean swapped = true;
+                while(swapped){
+                        swapped = false;
+                        for(int[] edge : created){
+                                int slot = findEdge(edge[0], edge[1]);
+                                if(slot >= 0 && isIllegal(slot / 3, slot % 3)){
+                                        int ft = slot / 3;
+                                        int k = slot % 3;
+                                        int p = tv[slot];
+                                        int o = tn[slot];
+                                        int w = tv[3 * o + indexOf(o, ft)];
+                                        flip(ft, k);
+                                        edge[0] = p;
+                                        edge[1] = w;
+                                        swapped = true;
+                                }
+                        }
+                }
+                return end;
+        }
+
+        // ------------------------------------------------------------------------
+        // Output
+
+        /**
+         * Remove the ghost triangles and give the real ones to the mesh.
+         */
+        private void compact() {
+                int[] newIndex = new int[count];
+                int real = 0;
+                for(int t = 0; t < count; t++){
+                        newIndex[t] = isGhost(t) ? -1 : real++;
+                }
+                for(int t = 0; t < count; t++){
+                        int dst = newIndex[t];
+                        if(dst >= 0){
+                                for(int k = 0; k < 3; k++){
+                                        tv[3 * dst + k] = tv[3 * t + k];
+                                        tn[3 * dst + k] = newIndex[tn[3 * t + k]];
+                                        setFlag(3 * dst + k, flag(3 * t + k));
+                                }
+                        }
+                }
+                mesh.setTriangles(tv, tn, tf, real);
+                tv = null;
+                tn = null;
+                tf = null;
+                vertexTriangle = null;
+        }
+}
@@ -0,0 +1,102 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.indexed;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A file mapped in memory as a sequence of chunks, so that files larger than
+ * 2 GB can be addressed with long positions. The values are little endian, and
+ * must be aligned on their size : a value never spans two chunks.
+ */
+final class MappedBuffer {
+
+        private final MappedByteBuffer[] chunks;
+        private final int bits;
+        private final long mask;
+
+        /**
+         * Map size bytes of the channel, from its beginning.
+         * @param channel
+         * @param mode
+         * @param size
+         * @param chunkBits
+         *      The size of the chunks is 2^chunkBits bytes.
+         * @throws IOException
+         */
+        MappedBuffer(FileChannel channel, FileChannel.MapMode mode, long size, int chunkBits) throws IOException {
+                bits = chunkBits;
+                long chunkSize = 1L << chunkBits;
+                mask = chunkSize - 1;
+                chunks = new MappedByteBuffer[(int) ((size + chunkSize - 1) >>> chunkBits)];
+                for(int i = 0; i < chunks.length; i++){
+                        long pos = (long) i << chunkBits;
+                        chunks[i] = channel.map(mode, pos, Math.min(chunkSize, size - pos));
+                        chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+                }
+        }
+
+        int getInt(long pos) {
+                return chunks[(int) (pos >>> bits)].getInt((int) (pos & mask));
+        }
+
+        double getDouble(long pos) {
+                return chunks[(int) (pos >>> bits)].getDouble((int) (pos & mask));
+        }
+
+        void putInt(long pos, int value) {
+                chunks[(int) (pos >>> bits)].putInt((int) (pos & mask), value);
+        }
+
+        void putDouble(long pos, double value) {
+                chunks[(int) (pos >>> bits)].putDouble((int) (pos & mask), value);
+        }
+
+        float getFloat(long pos) {
+                return chunks[(int) (pos >>> bits)].getFloat((int) (pos & mask));
+        }
+
+        void putFloat(long pos, float value) {
+                chunks[(int) (pos >>> bits)].putFloat((int) (pos & mask), value);
+        }
+
+        /**
+         * Write the modifications to the file.
+         */
+        void force() {
+                for(MappedByteBuffer chunk : chunks){
+                        chunk.force();
+                }
+        }
+}
@@ -0,0 +1,457 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.indexed;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.tools.Predicates;
+
+/**
+ * A triangulation stored in a file that is mapped in memory, for the meshes that
+ * don't fit in the heap. The layout of the file follows the one of IndexedMesh :
+ * the coordinates of the points, then the three points, the three neighbours and
+ * the constraint flags of each triangle, then a coarse grid of starting triangles
+ * used to locate the points.
+ *
+ * Opening a file does not read it : the operating system loads the pages when
+ * they are used. The file is mapped in chunks of 1 GB, so its size is not limited
+ * to 2 GB. The queries don't modify the mesh and can be run from several threads.
+ *
+ * The mesh must cover the convex hull of its points, as the meshes computed by
+ * ConstrainedMesh and IndexedTriangulator do.
+ */
+public final class MappedMesh implements Closeable {
+
+        static final int MAGIC = 0x314d444a;
+        static final int VERSION = 1;
+        static final int DEFAULT_CHUNK_BITS = 30;
+        private static final int HEADER_SIZE = 64;
+        private static final int POINT_SIZE = 24;
+        //The seed grid has about one cell for TRIANGLES_PER_CELL triangles.
+        private static final int TRIANGLES_PER_CELL = 16;
+        private static final int MAX_GRID_SIZE = 4096;
+
+        private final RandomAccessFile file;
+        private final MappedBuffer buffer;
+        private final int pointCount;
+        private final int triangleCount;
+        private final int gridSize;
+        private final double minX;
+        private final double minY;
+        private final double cellWidth;
+        private final double cellHeight;
+        private final long verticesPos;
+        private final long neighboursPos;
+        private final long flagsPos;
+        private final long gridPos;
+
+        /**
+         * Build a mesh on an opened file.
+         * @param file
+         * @param buffer
+         * @param length
+         *      The length of the file.
+         * @throws IOException
+         *      If the file is not a mesh file.
+         */
+        private MappedMesh(RandomAccessFile file, MappedBuffer buffer, long length) throws IOException {
+                this.file = file;
+                this.buffer = buffer;
+                if(length < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION){
+                        throw new IOException("not a mesh file of version " + VERSION);
+                }
+                pointCount = buffer.getInt(8);
+                triangleCount = buffer.getInt(12);
+                gridSize = buffer.getInt(16);
+                minX = buffer.getDouble(24);
+                minY = buffer.getDouble(32);
+                cellWidth = (buffer.getDouble(40) - minX) / gridSize;
+                cellHeight = (buffer.getDouble(48) - minY) / gridSize;
+                verticesPos = HEADER_SIZE + (long) POINT_SIZE * pointCount;
+                neighboursPos = verticesPos + 12L * triangleCount;
+                flagsPos = neighboursPos + 12L * triangleCount;
+                gridPos = flagsPos + 8L * ((3L * triangleCount + 63) / 64);
+                if(length != gridPos + 4L * gridSize * gridSize){
+                        throw new IOException("the size of the mesh file is wrong");
+                }
+        }
+
+        /**
+         * Open a mesh file written by one of the write methods.
+         * @param f
+         * @return
+         * @throws IOException
+         */
+        public static MappedMesh open(File f) throws IOException {
+                return open(f, DEFAULT_CHUNK_BITS);
+        }
+
+        /**
+         * Open a mesh file, mapped in chunks of 2^chunkBits bytes.
+         * @param f
+         * @param chunkBits
+         * @return
+         * @throws IOException
+         */
+        static MappedMesh open(File f, int chunkBits) throws IOException {
+                RandomAccessFile raf = new RandomAccessFile(f, "r");
+                try {
+                        long length = raf.length();
+                        MappedBuffer buf = new MappedBuffer(raf.getChannel(), FileChannel.MapMode.READ_ONLY, length, chunkBits);
+                        return new MappedMesh(raf, buf, length);
+                } catch (IOException e){
+                        raf.close();
+                        throw e;
+                }
+        }
+
+        /**
+         * Write a computed ConstrainedMesh in a mesh file.
+         * @param mesh
+         * @param f
+         * @return
+         *      The mesh stored in f.
+         * @throws DelaunayError
+         *      If mesh has not been computed.
+         * @throws IOException
+         */
+        public static MappedMesh write(ConstrainedMesh mesh, File f) throws DelaunayError, IOException {
+                return write(MeshConverter.toIndexedMesh(mesh), f, DEFAULT_CHUNK_BITS);
+        }
+
+        /**
+         * Write a triangulated IndexedMesh in a mesh file.
+         * @param mesh
+         * @param f
+         * @return
+         *      The mesh stored in f.
+         * @throws DelaunayError
+         *      If mesh does not contain any triangle.
+         * @throws IOException
+         */
+        public static MappedMesh write(IndexedMesh mesh, File f) throws DelaunayError, IOException {
+                return write(mesh, f, DEFAULT_CHUNK_BITS);
+        }
+
+        /**
+         * Write a triangulated IndexedMesh in a mesh file, mapped in chunks of
+         * 2^chunkBits bytes.
+         */
+        static MappedMesh write(IndexedMesh mesh, File f, int chunkBits) throws DelaunayError, IOException {
+                int nt = mesh.getTriangleCount();
+                if(nt == 0){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED);
+                }
+                int np = mesh.getPointCount();
+                int grid = Math.min(MAX_GRID_SIZE, Math.max(1, (int) Math.ceil(Math.sqrt((double) nt / TRIANGLES_PER_CELL))));
+                long gridStart = HEADER_SIZE + (long) POINT_SIZE * np + 24L * nt + 8L * ((3L * nt + 63) / 64);
+                long length = gridStart + 4L * grid * grid;
+                RandomAccessFile raf = new RandomAccessFile(f, "rw");
+                try {
+                        raf.setLength(0);
+                        raf.setLength(length);
+                        MappedBuffer buf = new MappedBuffer(raf.getChannel(), FileChannel.MapMode.READ_WRITE, length, chunkBits);
+                        writeContent(mesh, buf, grid);
+                        MappedMesh ret = new MappedMesh(raf, buf, length);
+                        ret.buildGrid();
+                        buf.force();
+                        return ret;
+                } catch (IOException e){
+                        raf.close();
+                        throw e;
+                }
+        }
+
+        /**
+         * Write the header, the points and the triangles of mesh.
+         */
+        private static void writeContent(IndexedMesh mesh, MappedBuffer buf, int grid) {
+                int np = mesh.getPointCount();
+                int nt = mesh.getTriangleCount();
+                double x0 = Double.POSITIVE_INFINITY;
+                double y0 = Double.POSITIVE_INFINITY;
+                double x1 = Double.NEGATIVE_INFINITY;
+                double y1 = Double.NEGATIVE_INFINITY;
+                long pos = HEADER_SIZE;
+                for(int i = 0; i < np; i++){
+                        double px = mesh.getX(i);
+                        double py = mesh.getY(i);
+                        x0 = Math.min(x0, px);
+                        y0 = Math.min(y0, py);
+                        x1 = Math.max(x1, px);
+                        y1 = Math.max(y1, py);
+                        buf.putDouble(pos, px);
+                        buf.putDouble(pos + 8, py);
+                        buf.putDouble(pos + 16, mesh.getZ(i));
+                        pos += POINT_SIZE;
+                }
+                for(int t = 0; t < nt; t++){
+                        for(int k = 0; k < 3; k++){
+                                buf.putInt(pos, mesh.getVertex(t, k));
+                                pos += 4;
+                        }
+                }
+                for(int t = 0; t < nt; t++){
+                        for(int k = 0; k < 3; k++){
+                                buf.putInt(pos, mesh.getNeighbour(t, k));
+                                pos += 4;
+                        }
+                }
+                int word = 0;
+                int slots = 3 * nt;
+                for(int s = 0; s < slots; s++){
+                        if(mesh.isConstrained(s / 3, s % 3)){
+                                word |= 1 << (s & 31);
+                        }
+                        if((s & 31) == 31 || s == slots - 1){
+                                buf.putInt(pos, word);
+                                pos += 4;
+                                word = 0;
+                        }
+                }
+                buf.putInt(0, MAGIC);
+                buf.putInt(4, VERSION);
+                buf.putInt(8, np);
+                buf.putInt(12, nt);
+                buf.putInt(16, grid);
+                buf.putDouble(24, x0);
+                buf.putDouble(32, y0);
+                buf.putDouble(40, x1);
+                buf.putDouble(48, y1);
+        }
+
+        /**
+         * Fill the seed grid with a triangle close to the center of each cell. The
+         * cells are processed row by row in alternate directions, each walk
+         * starting from the result of the previous one.
+         */
+        private void buildGrid() {
+                int seed = 0;
+                for(int j = 0; j < gridSize; j++){
+                        for(int c = 0; c < gridSize; c++){
+                                int i = j % 2 == 0 ? c : gridSize - 1 - c;
+                                int found = walk(minX + (i + 0.5) * cellWidth, minY + (j + 0.5) * cellHeight, seed);
+                                seed = found >= 0 ? found : -2 - found;
+                                buffer.putInt(gridPos + 4L * ((long) j * gridSize + i), seed);
+                        }
+                }
+        }
+
+        /**
+         * Release the file. The memory mapping itself is released when this
+         * object is garbage collected.
+         * @throws IOException
+         */
+        @Override
+        public void close() throws IOException {
+                file.close();
+        }
+
+        /**
+         * Get the number of points.
+         * @return
+         */
+        public int getPointCount() {
+                return pointCount;
+        }
+
+        /**
+         * @param point
+         * @return
+         *      the x coordinate of the point.
+         */
+        public double getX(int point) {
+                return buffer.getDouble(HEADER_SIZE + (long) POINT_SIZE * point);
+        }
+
+        /**
+         * @param point
+         * @return
+         *      the y coordinate of the point.
+         */
+        public double getY(int point) {
+                return buffer.getDouble(HEADER_SIZE + (long) POINT_SIZE * point + 8);
+        }
+
+        /**
+         * @param point
+         * @return
+         *      the z coordinate of the point.
+         */
+        public double getZ(int point) {
+                return buffer.getDouble(HEADER_SIZE + (long) POINT_SIZE * point + 16);
+        }
+
+        /**
+         * Get the number of triangles.
+         * @return
+         */
+        public int getTriangleCount() {
+                return triangleCount;
+        }
+
+        /**
+         * Get a point of a triangle. The points of a triangle are given in
+         * counterclockwise order.
+         * @param triangle
+         * @param k
+         *      0, 1 or 2.
+         * @return
+         *      The index of the point.
+         */
+        public int getVertex(int triangle, int k) {
+                return buffer.getInt(verticesPos + 12L * triangle + 4 * k);
+        }
+
+        /**
+         * Get the neighbour of a triangle on the other side of the edge opposite
+         * to its point k.
+         * @param triangle
+         * @param k
+         * @return
+         *      The index of the neighbour, or -1 if the edge is on the hull.
+         */
+        public int getNeighbour(int triangle, int k) {
+                return buffer.getInt(neighboursPos + 12L * triangle + 4 * k);
+        }
+
+        /**
+         * Get the index, in neighbour, of the edge shared with triangle.
+         * @param neighbour
+         * @param triangle
+         * @return
+         *      0, 1 or 2, or -1 if the triangles are not neighbours.
+         */
+        public int getNeighbourIndex(int neighbour, int triangle) {
+                for(int k = 0; k < 3; k++){
+                        if(getNeighbour(neighbour, k) == triangle){
+                                return k;
+                        }
+                }
+                return -1;
+        }
+
+        /**
+         * Check if the edge opposite to the point k of the triangle is a constraint.
+         * @param triangle
+         * @param k
+         * @return
+         */
+        public boolean isConstrained(int triangle, int k) {
+                long bit = 3L * triangle + k;
+                return (buffer.getInt(flagsPos + 4 * (bit >>> 5)) & (1 << (bit & 31))) != 0;
+        }
+
+        /**
+         * Get the triangle that contains the point (x, y). If the point is on an
+         * edge or a vertex, any of the triangles that share it can be returned.
+         * @param x
+         * @param y
+         * @return
+         *      The index of the triangle, or -1 if the point is outside the mesh.
+         */
+        public int locate(double x, double y) {
+                int i = Math.max(0, Math.min(gridSize - 1, (int) ((x - minX) / cellWidth)));
+                int j = Math.max(0, Math.min(gridSize - 1, (int) ((y - minY) / cellHeight)));
+                int found = walk(x, y, buffer.getInt(gridPos + 4L * ((long) j * gridSize + i)));
+                return found >= 0 ? found : -1;
+        }
+
+        /**
+         * Compute the z value of the point (x, y) on the plane of the triangle
+         * that contains it.
+         * @param x
+         * @param y
+         * @return
+         *      The z value, or NaN if the point is outside the mesh.
+         */
+        public double interpolateZ(double x, double y) {
+                int t = locate(x, y);
+                if(t < 0){
+                        return Double.NaN;
+                }
+                int a = getVertex(t, 0);
+                int b = getVertex(t, 1);
+                int c = getVertex(t, 2);
+                double area = orient(a, b, getX(c), getY(c));
+                double wa = orient(b, c, x, y) / area;
+                double wb = orient(c, a, x, y) / area;
+                return wa * getZ(a) + wb * getZ(b) + (1 - wa - wb) * getZ(c);
+        }
+
+        /**
+         * Twice the signed area of the triangle (a, b, (x, y)).
+         */
+        private double orient(int a, int b, double x, double y) {
+                return Predicates.orient2d(getX(a), getY(a), getX(b), getY(b), x, y);
+        }
+
+        /**
+         * Walk from the triangle start to the triangle that contains (x, y). The
+         * first edge tested in each triangle is chosen randomly, so that the walk
+         * can't loop in constrained triangulations.
+         * @param x
+         * @param y
+         * @param start
+         * @return
+         *      The index of the triangle that contains (x, y), or -2 - t if the walk
+         *      left the mesh through an edge of the triangle t.
+         */
+        private int walk(double x, double y, int start) {
+                int t = start;
+                int rnd = (0x2545f491 ^ start) | 1;
+                while(true){
+                        rnd ^= rnd << 13;
+                        rnd ^= rnd >>> 17;
+                        rnd ^= rnd << 5;
+                        int first = (rnd >>> 1) % 3;
+                        int next = t;
+                        for(int i = 0; i < 3 && next == t; i++){
+                                int k = (first + i) % 3;
+                                if(orient(getVertex(t, (k + 1) % 3), getVertex(t, (k + 2) % 3), x, y) < 0){
+                                        next = getNeighbour(t, k);
+                                        if(next < 0){
+                                                return -2 - t;
+                                        }
+                                }
+                        }
+                        if(next == t){
+                                return t;
+                        }
+                        t = next;
+                }
+        }
+}
@@ -0,0 +1,208 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.indexed;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+import org.jdelaunay.delaunay.geometries.DTriangle;
+
+/**
+ * Converts the meshes between the object model of ConstrainedMesh and the
+ * primitive arrays of IndexedMesh.
+ */
+public final class MeshConverter {
+
+        /**
+         * Default constructor is private : this is an utility class.
+         */
+        private MeshConverter(){
+        }
+
+        /**
+         * Build an IndexedMesh from a computed ConstrainedMesh. The points keep the
+         * order of mesh.getPoints(), the triangles the order of mesh.getTriangleList().
+         * The locked edges are marked as constraints, and are the constraints of
+         * the new mesh.
+         * @param mesh
+         * @return
+         * @throws DelaunayError
+         *      If mesh has not been computed.
+         */
+        public static IndexedMesh toIndexedMesh(ConstrainedMesh mesh) throws DelaunayError {
+                if(!mesh.isMeshComputed()){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED);
+                }
+                List<DPoint> pts = mesh.getPoints();
+                List<DTriangle> triangles = mesh.getTriangleList();
+                IndexedMesh ret = new IndexedMesh(pts.size(), triangles.size());
+                Map<DPoint, Integer> pointIndex = new IdentityHashMap<DPoint, Integer>(pts.size());
+                for(DPoint pt : pts){
+                        pointIndex.put(pt, ret.addPoint(pt.getX(), pt.getY(), pt.getZ()));
+                }
+                Map<DTriangle, Integer> triangleIndex = new IdentityHashMap<DTriangle, Integer>(triangles.size());
+                for(DTriangle tri : triangles){
+                        DPoint p0 = tri.getPoint(0);
+                        DPoint p1 = tri.getPoint(1);
+                        DPoint p2 = tri.getPoint(2);
+                        double orient = (p1.getX() - p0.getX()) * (p2.getY() - p0.getY())
+                                - (p1.getY() - p0.getY()) * (p2.getX() - p0.getX());
+                        if(orient < 0){
+                                DPoint tmp = p1;
+                                p1 = p2;
+                                p2 = tmp;
+                        }
+                        triangleIndex.put(tri, ret.addTriangle(pointIndex.get(p0), pointIndex.get(p1), pointIndex.get(p2)));
+                }
+                for(DTriangle tri : triangles){
+                        int t = triangleIndex.get(tri);
+                        for(int k = 0; k < 3; k++){
+                                DEdge ed = tri.getOppositeEdge(pts.get(ret.getVertex(t, k)));
+                                DTriangle other = ed.getLeft() == tri ? ed.getRight() : ed.getLeft();
+                                ret.setNeighbour(t, k, other == null ? -1 : triangleIndex.get(other));
+                                ret.setConstrained(t, k, ed.isLocked());
+                        }
+                }
+                for(DEdge ed : mesh.getConstraintEdges()){
+                        Integer start = pointIndex.get(ed.getStartPoint());
+                        Integer end = pointIndex.get(ed.getEndPoint());
+                        if(start != null && end != null){
+                                ret.addConstraint(start, end);
+                        }
+                }
+                return ret;
+        }
+
+        /**
+         * Build a computed ConstrainedMesh from a triangulated IndexedMesh. A
+         * DPoint is created for each point used by a triangle, a DEdge for each
+         * edge and a DTriangle for each triangle. The constrained edges are locked,
+         * and are the constraint edges of the new mesh.
+         * @param mesh
+         * @return
+         * @throws DelaunayError
+         */
+        public static ConstrainedMesh toConstrainedMesh(IndexedMesh mesh) throws DelaunayError {
+                int triangleCount = mesh.getTriangleCount();
+                if(triangleCount == 0){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED);
+                }
+                DPoint[] pts = new DPoint[mesh.getPointCount()];
+                List<DPoint> pointList = new ArrayList<DPoint>();
+                for(int t = 0; t < triangleCount; t++){
+                        for(int k = 0; k < 3; k++){
+                                int v = mesh.getVertex(t, k);
+                                if(pts[v] == null){
+                                        pts[v] = new DPoint(mesh.getX(v), mesh.getY(v), mesh.getZ(v));
+                                        pointList.add(pts[v]);
+                                }
+                        }
+                }
+                List<DEdge> edgeList = new ArrayList<DEdge>();
+                List<DTriangle> triangles = buildTriangles(mesh, pts, null, edgeList);
+                ConstrainedMesh ret = new ConstrainedMesh();
+                ret.setTriangulation(pointList, edgeList, triangles);
+                return ret;
+        }
+
+        /**
+         * Build the edges and the triangles of a triangulated IndexedMesh on
+         * existing points. The constrained edges are locked.
+         * @param mesh
+         * @param pts
+         *      The point used for each point of mesh. It must be set for all the
+         *      points used by the triangles.
+         * @param existing
+         *      Edges that are reused instead of creating new ones when they join
+         *      the same points as an edge of the mesh. Can be null.
+         * @param edgeList
+         *      Receives the edges of the triangulation.
+         * @return
+         *      The triangles, in the order of mesh.
+         * @throws DelaunayError
+         */
+        public static List<DTriangle> buildTriangles(IndexedMesh mesh, DPoint[] pts, List<DEdge> existing,
+                        List<DEdge> edgeList) throws DelaunayError {
+                int triangleCount = mesh.getTriangleCount();
+                Map<Long, DEdge> reused = new HashMap<Long, DEdge>();
+                if(existing != null && !existing.isEmpty()){
+                        Map<DPoint, Integer> pointIndex = new IdentityHashMap<DPoint, Integer>(pts.length);
+                        for(int i = 0; i < pts.length; i++){
+                                if(pts[i] != null){
+                                        pointIndex.put(pts[i], i);
+                                }
+                        }
+                        for(DEdge ed : existing){
+                                Integer a = pointIndex.get(ed.getStartPoint());
+                                Integer b = pointIndex.get(ed.getEndPoint());
+                                if(a != null && b != null){
+                                        reused.put(edgeKey(a, b), ed);
+                                }
+                        }
+                }
+                //The edge opposite to the point k of the triangle t is stored at 3 * t + k
+                DEdge[] edges = new DEdge[3 * triangleCount];
+                for(int t = 0; t < triangleCount; t++){
+                        for(int k = 0; k < 3; k++){
+                                if(edges[3 * t + k] == null){
+                                        int a = mesh.getVertex(t, (k + 1) % 3);
+                                        int b = mesh.getVertex(t, (k + 2) % 3);
+                                        DEdge ed = reused.get(edgeKey(a, b));
+                                        if(ed == null){
+                                                ed = new DEdge(pts[a], pts[b]);
+                                        }
+                                        ed.setLocked(mesh.isConstrained(t, k));
+                                        edges[3 * t + k] = ed;
+                                        edgeList.add(ed);
+                                        int o = mesh.getNeighbour(t, k);
+                                        if(o >= 0){
+                                                edges[3 * o + mesh.getNeighbourIndex(o, t)] = ed;
+                                        }
+                                }
+                        }
+                }
+                List<DTriangle> triangles = new ArrayList<DTriangle>(triangleCount);
+                for(int t = 0; t < triangleCount; t++){
+                        triangles.add(new DTriangle(edges[3 * t], edges[3 * t + 1], edges[3 * t + 2]));
+                }
+                return triangles;
+        }
+
+        private static long edgeKey(int a, int b) {
+                return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+        }
+}
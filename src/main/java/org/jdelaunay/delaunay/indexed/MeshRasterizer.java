@@ -0,0 +1,429 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.indexed;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DPoint;
+import org.jdelaunay.delaunay.geometries.DTriangle;
+import org.jdelaunay.delaunay.tools.Tools;
+
+/**
+ * Converts a computed ConstrainedMesh to a DEM grid. Each triangle is scan-converted
+ * : the cells whose center lies in it receive the z value of its plane at this
+ * center, and optionally its slope and its aspect. The cells outside the mesh
+ * receive NODATA.
+ *
+ * The grids are written in the ESRI GridFloat format : a raw file of little
+ * endian 32 bits floats, row after row from the north, and a .hdr file that
+ * holds the header of the ESRI ASCII grids. The raw files are mapped in memory,
+ * so that the grids don't need to fit in the heap. The rows are split in tiles
+ * of TILE_ROWS rows, rasterized on several threads.
+ */
+public final class MeshRasterizer {
+
+        /**
+         * The value of the cells that are outside the mesh.
+         */
+        public static final float NODATA = -9999f;
+        private static final int TILE_ROWS = 64;
+        private static final int FLOAT_SIZE = 4;
+
+        private final List<DTriangle> triangles;
+        private final double xll;
+        private final double yll;
+        private final double cellSize;
+        private final int cols;
+        private final int rows;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Build a rasterizer whose grid covers the bounding box of the mesh.
+         * @param mesh
+         * @param cellSize
+         * @throws DelaunayError
+         *      If the mesh has not been computed.
+         */
+        public MeshRasterizer(ConstrainedMesh mesh, double cellSize) throws DelaunayError {
+                this(mesh, getMin(mesh, true), getMin(mesh, false), cellSize,
+                        getSize(mesh, true, cellSize), getSize(mesh, false, cellSize));
+        }
+
+        /**
+         * Build a rasterizer for the given grid.
+         * @param mesh
+         * @param xll
+         *      The x coordinate of the lower left corner of the grid.
+         * @param yll
+         *      The y coordinate of the lower left corner of the grid.
+         * @param cellSize
+         *      The side of the cells.
+         * @param cols
+         *      The number of columns.
+         * @param rows
+         *      The number of rows.
+         * @throws DelaunayError
+         *      If the mesh has not been computed.
+         */
+        public MeshRasterizer(ConstrainedMesh mesh, double xll, double yll, double cellSize, int cols, int rows)
+                        throws DelaunayError {
+                if(!mesh.isMeshComputed()){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED);
+                }
+                if(!(cellSize > 0) || cols < 1 || rows < 1){
+                        throw new IllegalArgumentException("The grid must have a positive cell size, and at least one cell");
+                }
+                this.triangles = mesh.getTriangleList();
+                this.xll = xll;
+                this.yll = yll;
+                this.cellSize = cellSize;
+                this.cols = cols;
+                this.rows = rows;
+        }
+
+        /**
+         * Get the lower bound of the points of the mesh, along x or y.
+         */
+        private static double getMin(ConstrainedMesh mesh, boolean x) throws DelaunayError {
+                if(!mesh.isMeshComputed()){
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED);
+                }
+                double min = Double.POSITIVE_INFINITY;
+                for(DPoint pt : mesh.getPoints()){
+                        min = Math.min(min, x ? pt.getX() : pt.getY());
+                }
+                return min;
+        }
+
+        /**
+         * Get the number of cells needed to cover the points of the mesh, along x
+         * or y.
+         */
+        private static int getSize(ConstrainedMesh mesh, boolean x, double cellSize) {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for(DPoint pt : mesh.getPoints()){
+                        double v = x ? pt.getX() : pt.getY();
+                        min = Math.min(min, v);
+                        max = Math.max(max, v);
+                }
+                return Math.max(1, (int) Math.ceil((max - min) / cellSize));
+        }
+
+        /**
+         * Get the number of columns of the grid.
+         * @return
+         */
+        public int getColumnCount() {
+                return cols;
+        }
+
+        /**
+         * Get the number of rows of the grid.
+         * @return
+         */
+        public int getRowCount() {
+                return rows;
+        }
+
+        /**
+         * Get the number of threads used to rasterize the tiles.
+         * @return
+         *      The number of available processors by default.
+         */
+        public int getParallelism() {
+                return parallelism;
+        }
+
+        /**
+         * Set the number of threads used to rasterize the tiles.
+         * @param threads
+         *      Must be at least 1.
+         */
+        public void setParallelism(int threads) {
+                if(threads < 1){
+                        throw new IllegalArgumentException("At least one thread is needed");
+                }
+                parallelism = threads;
+        }
+
+        /**
+         * Write the z grid.
+         * @param zFile
+         *      The raw file. The header is written next to it, with the
+         *      extension .hdr.
+         * @throws DelaunayError
+         * @throws IOException
+         */
+        public void write(File zFile) throws DelaunayError, IOException {
+                write(zFile, null, null, MappedMesh.DEFAULT_CHUNK_BITS);
+        }
+
+        /**
+         * Write the z grid, and optionally the slope and the aspect grids. The
+         * slope is the one of DTriangle.getSlopeInDegree, the aspect the one of
+         * DTriangle.getSlopeAspect, in degrees from the north.
+         * @param zFile
+         * @param slopeFile
+         *      Can be null.
+         * @param aspectFile
+         *      Can be null.
+         * @throws DelaunayError
+         * @throws IOException
+         */
+        public void write(File zFile, File slopeFile, File aspectFile) throws DelaunayError, IOException {
+                write(zFile, slopeFile, aspectFile, MappedMesh.DEFAULT_CHUNK_BITS);
+        }
+
+        /**
+         * Write the grids, mapped in chunks of 2^chunkBits bytes.
+         */
+        void write(File zFile, File slopeFile, File aspectFile, int chunkBits) throws DelaunayError, IOException {
+                File[] files = {zFile, slopeFile, aspectFile};
+                RandomAccessFile[] rafs = new RandomAccessFile[files.length];
+                final MappedBuffer[] buffers = new MappedBuffer[files.length];
+                long length = (long) FLOAT_SIZE * cols * rows;
+                int tiles = (rows + TILE_ROWS - 1) / TILE_ROWS;
+                final int[][] buckets = getBuckets(tiles);
+                ExecutorService executor = null;
+                try {
+                        for(int b = 0; b < files.length; b++){
+                                if(files[b] != null){
+                                        rafs[b] = new RandomAccessFile(files[b], "rw");
+                                        rafs[b].setLength(0);
+                                        rafs[b].setLength(length);
+                                        buffers[b] = new MappedBuffer(rafs[b].getChannel(), FileChannel.MapMode.READ_WRITE,
+                                                length, chunkBits);
+                                        writeHeader(files[b]);
+                                }
+                        }
+                        executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, tiles)));
+                        List<Future<Void>> tasks = new ArrayList<Future<Void>>(tiles);
+                        for(int t = 0; t < tiles; t++){
+                                final int tile = t;
+                                tasks.add(executor.submit(new Callable<Void>() {
+                                        @Override
+                                        public Void call() throws DelaunayError {
+                                                rasterizeTile(tile, buckets[tile], buffers);
+                                                return null;
+                                        }
+                                }));
+                        }
+                        for(Future<Void> task : tasks){
+                                Tools.join(task);
+                        }
+                        for(MappedBuffer buffer : buffers){
+                                if(buffer != null){
+                                        buffer.force();
+                                }
+                        }
+                } finally {
+                        if(executor != null){
+                                executor.shutdownNow();
+                        }
+                        for(RandomAccessFile raf : rafs){
+                                if(raf != null){
+                                        raf.close();
+                                }
+                        }
+                }
+        }
+
+        /**
+         * Write the header of a grid, in the .hdr file next to f.
+         */
+        private void writeHeader(File f) throws IOException {
+                String name = f.getName();
+                int dot = name.lastIndexOf('.');
+                String base = dot > 0 ? name.substring(0, dot) : name;
+                PrintWriter out = new PrintWriter(new FileWriter(new File(f.getParentFile(), base + ".hdr")));
+                try {
+                        out.println("ncols " + cols);
+                        out.println("nrows " + rows);
+                        out.println("xllcorner " + xll);
+                        out.println("yllcorner " + yll);
+                        out.println("cellsize " + cellSize);
+                        out.println("NODATA_value " + NODATA);
+                        out.println("byteorder LSBFIRST");
+                } finally {
+                        out.close();
+                }
+        }
+
+        /**
+         * Get the first and the last rows whose centers are between minY and maxY.
+         * @return
+         *      The two rows, the first greater than the last if there is none.
+         */
+        private int[] getRows(double minY, double maxY) {
+                int first = (int) Math.max(0, Math.ceil(rows - 0.5 - (maxY - yll) / cellSize));
+                int last = (int) Math.min(rows - 1, Math.floor(rows - 0.5 - (minY - yll) / cellSize));
+                return new int[]{first, last};
+        }
+
+        /**
+         * Get the triangles that cross each tile.
+         * @return
+         *      The indices of the triangles, for each tile.
+         */
+        private int[][] getBuckets(int tiles) {
+                int[] counts = new int[tiles];
+                int n = triangles.size();
+                int[] firstTile = new int[n];
+                int[] lastTile = new int[n];
+                for(int i = 0; i < n; i++){
+                        DTriangle tri = triangles.get(i);
+                        double minY = Double.POSITIVE_INFINITY;
+                        double maxY = Double.NEGATIVE_INFINITY;
+                        for(int k = 0; k < DTriangle.PT_NB; k++){
+                                double y = tri.getPoint(k).getY();
+                                minY = Math.min(minY, y);
+                                maxY = Math.max(maxY, y);
+                        }
+                        int[] r = getRows(minY, maxY);
+                        firstTile[i] = r[0] / TILE_ROWS;
+                        lastTile[i] = r[1] < r[0] ? firstTile[i] - 1 : r[1] / TILE_ROWS;
+                        for(int t = firstTile[i]; t <= lastTile[i]; t++){
+                                counts[t]++;
+                        }
+                }
+                int[][] ret = new int[tiles][];
+                for(int t = 0; t < tiles; t++){
+                        ret[t] = new int[counts[t]];
+                }
+                Arrays.fill(counts, 0);
+                for(int i = 0; i < n; i++){
+                        for(int t = firstTile[i]; t <= lastTile[i]; t++){
+                                ret[t][counts[t]++] = i;
+                        }
+                }
+                return ret;
+        }
+
+        /**
+         * Rasterize the given triangles in a tile, and copy it in the buffers.
+         */
+        private void rasterizeTile(int tile, int[] tris, MappedBuffer[] buffers) throws DelaunayError {
+                int firstRow = tile * TILE_ROWS;
+                int tileRows = Math.min(TILE_ROWS, rows - firstRow);
+                float[][] values = new float[buffers.length][];
+                for(int b = 0; b < buffers.length; b++){
+                        if(buffers[b] != null){
+                                values[b] = new float[tileRows * cols];
+                                Arrays.fill(values[b], NODATA);
+                        }
+                }
+                double[] px = new double[DTriangle.PT_NB];
+                double[] py = new double[DTriangle.PT_NB];
+                double[] pz = new double[DTriangle.PT_NB];
+                for(int i : tris){
+                        DTriangle tri = triangles.get(i);
+                        for(int k = 0; k < DTriangle.PT_NB; k++){
+                                DPoint pt = tri.getPoint(k);
+                                px[k] = pt.getX();
+                                py[k] = pt.getY();
+                                pz[k] = pt.getZ();
+                        }
+                        //The plane a(x - x0) + b(y - y0) + c(z - z0) = 0, as in
+                        //DTriangle.interpolateZ.
+                        double ux = px[1] - px[0];
+                        double uy = py[1] - py[0];
+                        double uz = pz[1] - pz[0];
+                        double vx = px[2] - px[0];
+                        double vy = py[2] - py[0];
+                        double vz = pz[2] - pz[0];
+                        double a = uy * vz - uz * vy;
+                        double b = uz * vx - ux * vz;
+                        double c = ux * vy - uy * vx;
+                        if(Math.abs(c) <= Tools.EPSILON){
+                                continue;
+                        }
+                        float slope = values[1] == null ? 0 : (float) tri.getSlopeInDegree();
+                        float aspect = values[2] == null ? 0 : (float) tri.getSlopeAspect();
+                        int[] r = getRows(Math.min(py[0], Math.min(py[1], py[2])), Math.max(py[0], Math.max(py[1], py[2])));
+                        int start = Math.max(r[0], firstRow);
+                        int end = Math.min(r[1], firstRow + tileRows - 1);
+                        for(int row = start; row <= end; row++){
+                                double y = yll + (rows - row - 0.5) * cellSize;
+                                double minX = Double.POSITIVE_INFINITY;
+                                double maxX = Double.NEGATIVE_INFINITY;
+                                for(int k = 0; k < DTriangle.PT_NB; k++){
+                                        int l = (k + 1) % DTriangle.PT_NB;
+                                        if(py[k] == py[l]){
+                                                if(py[k] == y){
+                                                        minX = Math.min(minX, Math.min(px[k], px[l]));
+                                                        maxX = Math.max(maxX, Math.max(px[k], px[l]));
+                                                }
+                                        } else if(Math.min(py[k], py[l]) <= y && y <= Math.max(py[k], py[l])){
+                                                double x = px[k] + (y - py[k]) * (px[l] - px[k]) / (py[l] - py[k]);
+                                                minX = Math.min(minX, x);
+                                                maxX = Math.max(maxX, x);
+                                        }
+                                }
+                                int firstCol = (int) Math.max(0, Math.ceil((minX - xll) / cellSize - 0.5));
+                                int lastCol = (int) Math.min(cols - 1, Math.floor((maxX - xll) / cellSize - 0.5));
+                                int base = (row - firstRow) * cols;
+                                for(int col = firstCol; col <= lastCol; col++){
+                                        double x = xll + (col + 0.5) * cellSize;
+                                        values[0][base + col] = (float) (pz[0] - (a * (x - px[0]) + b * (y - py[0])) / c);
+                                        if(values[1] != null){
+                                                values[1][base + col] = slope;
+                                        }
+                                        if(values[2] != null){
+                                                values[2][base + col] = aspect;
+                                        }
+                                }
+                        }
+                }
+                long pos = (long) FLOAT_SIZE * firstRow * cols;
+                for(int b = 0; b < buffers.length; b++){
+                        if(buffers[b] != null){
+                                float[] v = values[b];
+                                for(int i = 0; i < v.length; i++){
+                                        buffers[b].putFloat(pos + (long) FLOAT_SIZE * i, v[i]);
+                                }
+                        }
+                }
+        }
+}
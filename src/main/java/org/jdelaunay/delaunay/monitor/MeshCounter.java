@@ -0,0 +1,62 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.monitor;
+
+/**
+ * The events counted during the processing of a ConstrainedMesh, as they are
+ * reported to a MeshListener.
+ */
+public enum MeshCounter {
+        /** The flip-flaps actually performed. */
+        FLIPS,
+        /** The in-circle tests made while searching the edges to flip. */
+        IN_CIRCLE_TESTS,
+        /**
+         * The size of the boundary, in BoundaryPart instances, counted after each
+         * point insertion. Divide it by the number of points to obtain the mean
+         * size of the boundary during the sweep.
+         */
+        BOUNDARY_PARTS,
+        /** The point insertions that have been reverted during the refinement. */
+        REVERTED_INSERTIONS,
+        /** The flip-flaps that have been reverted during the refinement. */
+        REVERTED_SWAPS,
+        /** The points created by the mesh : intersections, Steiner points. */
+        POINTS_CREATED,
+        /** The edges created by the mesh. */
+        EDGES_CREATED,
+        /** The triangles created by the mesh. */
+        TRIANGLES_CREATED,
+        /** The points removed by dataQualification, as they were too close to another one. */
+        POINTS_MERGED,
+        /** The points removed from a computed mesh, by decimation or deletion. */
+        POINTS_REMOVED
+}
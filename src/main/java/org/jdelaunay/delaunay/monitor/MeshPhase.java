@@ -0,0 +1,62 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.monitor;
+
+/**
+ * The phases of the processing of a ConstrainedMesh, as they are reported to a
+ * MeshListener.
+ *
+ * SWEEP and FLIPS are interleaved : the flips are processed after the insertion
+ * of each point. Their times are summed during processDelaunay, and reported when
+ * the triangulation ends.
+ */
+public enum MeshPhase {
+        /** The sort of the input points, in setPoints or removeFlatTriangles. */
+        SORTING,
+        /** The insertion of the points in the boundary, in processDelaunay. */
+        SWEEP,
+        /** The processing of the bad edges with the flip-flap algorithm. */
+        FLIPS,
+        /** The computation of the intersections of the constraints, in forceConstraintIntegrity. */
+        CONSTRAINT_INTEGRITY,
+        /** The refinement of the mesh, in refineMesh or refineTriangles. */
+        REFINEMENT,
+        /** The removal of the flat triangles, including the new triangulation. */
+        FLAT_REMOVAL,
+        /** The merge of the points that are too close, in dataQualification. */
+        DATA_QUALIFICATION,
+        /**
+         * The insertion of the points and the constraints by the incremental,
+         * the divide and conquer or the parallel sweep engine, that replaces
+         * SWEEP and FLIPS when it is used.
+         */
+        INSERTION
+}
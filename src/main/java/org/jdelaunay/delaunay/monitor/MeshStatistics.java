@@ -0,0 +1,126 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.monitor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A MeshListener that sums the counters and the times of each phase. One
+ * instance is supposed to be used for one job : it is not thread safe.
+ */
+public class MeshStatistics implements MeshListener {
+
+        private final long[] counters;
+        private final long[] nanos;
+        private final int[] calls;
+
+        /**
+         * Build a new MeshStatistics, with all its values set to 0.
+         */
+        public MeshStatistics() {
+                counters = new long[MeshCounter.values().length];
+                nanos = new long[MeshPhase.values().length];
+                calls = new int[MeshPhase.values().length];
+        }
+
+        @Override
+        public void phaseStarted(MeshPhase phase) {
+        }
+
+        @Override
+        public void phaseFinished(MeshPhase phase, long time) {
+                nanos[phase.ordinal()] += time;
+                calls[phase.ordinal()]++;
+        }
+
+        @Override
+        public void count(MeshCounter counter, long amount) {
+                counters[counter.ordinal()] += amount;
+        }
+
+        /**
+         * Get the value of a counter.
+         * @param counter
+         * @return
+         *      The sum of the amounts reported for counter.
+         */
+        public final long getCount(MeshCounter counter) {
+                return counters[counter.ordinal()];
+        }
+
+        /**
+         * Get the total time spent in a phase.
+         * @param phase
+         * @param unit
+         * @return
+         *      The time, converted (and truncated) to unit.
+         */
+        public final long getTime(MeshPhase phase, TimeUnit unit) {
+                return unit.convert(nanos[phase.ordinal()], TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Get the number of times a phase has ended.
+         * @param phase
+         * @return
+         */
+        public final int getCalls(MeshPhase phase) {
+                return calls[phase.ordinal()];
+        }
+
+        /**
+         * Set all the values to 0.
+         */
+        public final void reset() {
+                for(int i = 0; i < counters.length; i++){
+                        counters[i] = 0;
+                }
+                for(int i = 0; i < nanos.length; i++){
+                        nanos[i] = 0;
+                        calls[i] = 0;
+                }
+        }
+
+        @Override
+        public String toString() {
+                StringBuilder sb = new StringBuilder();
+                for(MeshPhase phase : MeshPhase.values()){
+                        if(calls[phase.ordinal()] > 0){
+                                sb.append(phase).append(" : ")
+                                        .append(getTime(phase, TimeUnit.MILLISECONDS)).append(" ms\n");
+                        }
+                }
+                for(MeshCounter counter : MeshCounter.values()){
+                        sb.append(counter).append(" : ").append(getCount(counter)).append('\n');
+                }
+                return sb.toString();
+        }
+}
@@ -0,0 +1,67 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.monitor;
+
+/**
+ * A ProgressMonitor can be given to a ConstrainedMesh to follow the progress of
+ * its long running operations. The progress is reported regularly, at the points
+ * where the operations could be cancelled with a CancellationToken :
+ *
+ *   * SWEEP : the points inserted by processDelaunay.<br/>
+ *
+ *   * CONSTRAINT_INTEGRITY : the event points processed by forceConstraintIntegrity.
+ *     The total grows when intersections are found.<br/>
+ *
+ *   * REFINEMENT : the triangles processed by the refinement. The total grows
+ *     when new triangles are created.<br/>
+ *
+ *   * FLAT_REMOVAL : the flat areas processed by removeFlatTriangles. Their total
+ *     is unknown.<br/>
+ *
+ *   * DATA_QUALIFICATION : the points checked by dataQualification.<p></p>
+ *
+ * The methods are called in the thread that processes the mesh.
+ */
+public interface ProgressMonitor {
+
+        /**
+         * Called regularly during the operations.
+         * @param phase
+         *      The running phase.
+         * @param done
+         *      The amount of work done since the beginning of the phase.
+         * @param total
+         *      The total amount of work known at this time, or a negative value
+         *      if it is unknown.
+         */
+        void progress(MeshPhase phase, long done, long total);
+
+}
@@ -0,0 +1,328 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.tools;
+
+import org.jdelaunay.delaunay.geometries.DPoint;
+
+/**
+ * Robust orientation and in-circle predicates, after Shewchuk's "Adaptive
+ * Precision Floating-Point Arithmetic and Fast Robust Geometric Predicates".
+ *
+ * The determinants are first computed with plain floating point arithmetic. If the
+ * result is too close to zero to be trusted, they are computed again exactly, with
+ * expansions : sums of non-overlapping doubles. The sign of the returned value is
+ * always the sign of the exact determinant, whatever the magnitude of the
+ * coordinates. The expansions rely on the rounding of IEEE 754 doubles, which
+ * the JVM uses on SSE2 hardware, and everywhere since Java 17.
+ */
+public final class Predicates {
+
+        //2^-53, the relative error of a floating point operation.
+        private static final double EPS = 1.1102230246251565e-16;
+        //2^27 + 1, used to split a double in two halves.
+        private static final double SPLITTER = 134217729.0;
+        private static final double ORIENT_BOUND = (3.0 + 16.0 * EPS) * EPS;
+        private static final double IN_CIRCLE_BOUND = (10.0 + 96.0 * EPS) * EPS;
+
+        /**
+         * Default constructor is private : it is not supposed to be used !
+         */
+        private Predicates(){
+        }
+
+        /**
+         * Twice the signed area of the triangle (a, b, c).
+         * @param a
+         * @param b
+         * @param c
+         * @return
+         *      A positive value if (a, b, c) is counterclockwise, a negative value
+         *      if it is clockwise, 0 if the points are collinear.
+         */
+        public static double orient2d(DPoint a, DPoint b, DPoint c) {
+                return orient2d(a.getX(), a.getY(), b.getX(), b.getY(), c.getX(), c.getY());
+        }
+
+        /**
+         * Twice the signed area of the triangle (a, b, c).
+         * @return
+         *      A positive value if (a, b, c) is counterclockwise, a negative value
+         *      if it is clockwise, 0 if the points are collinear.
+         */
+        public static double orient2d(double ax, double ay, double bx, double by, double cx, double cy) {
+                double detLeft = (ax - cx) * (by - cy);
+                double detRight = (ay - cy) * (bx - cx);
+                double det = detLeft - detRight;
+                double detSum;
+                if(detLeft > 0){
+                        if(detRight <= 0){
+                                return det;
+                        }
+                        detSum = detLeft + detRight;
+                } else if(detLeft < 0){
+                        if(detRight >= 0){
+                                return det;
+                        }
+                        detSum = -detLeft - detRight;
+                } else {
+                        return det;
+                }
+                double bound = ORIENT_BOUND * detSum;
+                if(det >= bound || -det >= bound){
+                        return det;
+                }
+                return orient2dExact(ax, ay, bx, by, cx, cy);
+        }
+
+        /**
+         * Check if d is in the circumcircle of (a, b, c).
+         * @param a
+         * @param b
+         * @param c
+         * @param d
+         * @return
+         *      A positive value if d is strictly inside the circumcircle of the
+         *      counterclockwise triangle (a, b, c), a negative value if it is
+         *      outside, 0 if the four points are cocircular. The sign is reversed
+         *      if (a, b, c) is clockwise.
+         */
+        public static double inCircle(DPoint a, DPoint b, DPoint c, DPoint d) {
+                return inCircle(a.getX(), a.getY(), b.getX(), b.getY(), c.getX(), c.getY(), d.getX(), d.getY());
+        }
+
+        /**
+         * Check if (dx, dy) is in the circumcircle of (a, b, c).
+         * @return
+         *      A positive value if d is strictly inside the circumcircle of the
+         *      counterclockwise triangle (a, b, c), a negative value if it is
+         *      outside, 0 if the four points are cocircular. The sign is reversed
+         *      if (a, b, c) is clockwise.
+         */
+        public static double inCircle(double ax, double ay, double bx, double by,
+                        double cx, double cy, double dx, double dy) {
+                double adx = ax - dx;
+                double bdx = bx - dx;
+                double cdx = cx - dx;
+                double ady = ay - dy;
+                double bdy = by - dy;
+                double cdy = cy - dy;
+                double bdxcdy = bdx * cdy;
+                double cdxbdy = cdx * bdy;
+                double aLift = adx * adx + ady * ady;
+                double cdxady = cdx * ady;
+                double adxcdy = adx * cdy;
+                double bLift = bdx * bdx + bdy * bdy;
+                double adxbdy = adx * bdy;
+                double bdxady = bdx * ady;
+                double cLift = cdx * cdx + cdy * cdy;
+                double det = aLift * (bdxcdy - cdxbdy) + bLift * (cdxady - adxcdy) + cLift * (adxbdy - bdxady);
+                double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * aLift
+                        + (Math.abs(cdxady) + Math.abs(adxcdy)) * bLift
+                        + (Math.abs(adxbdy) + Math.abs(bdxady)) * cLift;
+                double bound = IN_CIRCLE_BOUND * permanent;
+                if(det > bound || -det > bound){
+                        return det;
+                }
+                return inCircleExact(ax, ay, bx, by, cx, cy, dx, dy);
+        }
+
+        /**
+         * The exact orientation determinant.
+         */
+        static double orient2dExact(double ax, double ay, double bx, double by, double cx, double cy) {
+                double[] acx = twoDiff(ax, cx);
+                double[] acy = twoDiff(ay, cy);
+                double[] bcx = twoDiff(bx, cx);
+                double[] bcy = twoDiff(by, cy);
+                return estimate(sum(product(acx, bcy), negate(product(acy, bcx))));
+        }
+
+        /**
+         * The exact in-circle determinant.
+         */
+        static double inCircleExact(double ax, double ay, double bx, double by,
+                        double cx, double cy, double dx, double dy) {
+                double[] adx = twoDiff(ax, dx);
+                double[] ady = twoDiff(ay, dy);
+                double[] bdx = twoDiff(bx, dx);
+                double[] bdy = twoDiff(by, dy);
+                double[] cdx = twoDiff(cx, dx);
+                double[] cdy = twoDiff(cy, dy);
+                double[] aLift = sum(product(adx, adx), product(ady, ady));
+                double[] bLift = sum(product(bdx, bdx), product(bdy, bdy));
+                double[] cLift = sum(product(cdx, cdx), product(cdy, cdy));
+                double[] bc = sum(product(bdx, cdy), negate(product(cdx, bdy)));
+                double[] ca = sum(product(cdx, ady), negate(product(adx, cdy)));
+                double[] ab = sum(product(adx, bdy), negate(product(bdx, ady)));
+                double[] det = sum(product(aLift, bc), product(bLift, ca));
+                return estimate(sum(det, product(cLift, ab)));
+        }
+
+        // ------------------------------------------------------------------------
+        // Expansions : arrays of non-overlapping doubles sorted by increasing
+        // magnitude, whose exact sum is the represented value.
+
+        /**
+         * The exact difference a - b, as an expansion of two components.
+         */
+        private static double[] twoDiff(double a, double b) {
+                double x = a - b;
+                double bVirtual = a - x;
+                double aVirtual = x + bVirtual;
+                double bRound = bVirtual - b;
+                double aRound = a - aVirtual;
+                return new double[]{aRound + bRound, x};
+        }
+
+        /**
+         * Add the double b to the expansion e. The zero components are removed.
+         */
+        private static double[] grow(double[] e, double b) {
+                double[] h = new double[e.length + 1];
+                int n = 0;
+                double q = b;
+                for(double enow : e){
+                        double x = q + enow;
+                        double bVirtual = x - q;
+                        double aVirtual = x - bVirtual;
+                        double err = (q - aVirtual) + (enow - bVirtual);
+                        q = x;
+                        if(err != 0){
+                                h[n++] = err;
+                        }
+                }
+                if(q != 0 || n == 0){
+                        h[n++] = q;
+                }
+                return trim(h, n);
+        }
+
+        /**
+         * The sum of two expansions.
+         */
+        private static double[] sum(double[] e, double[] f) {
+                double[] h = e;
+                for(double fnow : f){
+                        h = grow(h, fnow);
+                }
+                return h;
+        }
+
+        /**
+         * Multiply the expansion e by the double b. The zero components are removed.
+         */
+        private static double[] scale(double[] e, double b) {
+                double[] h = new double[2 * e.length];
+                int n = 0;
+                double[] split = split(b);
+                double q = e[0] * b;
+                double err = twoProductTail(e[0], b, split, q);
+                if(err != 0){
+                        h[n++] = err;
+                }
+                for(int i = 1; i < e.length; i++){
+                        double p1 = e[i] * b;
+                        double p0 = twoProductTail(e[i], b, split, p1);
+                        double s = q + p0;
+                        double bVirtual = s - q;
+                        double aVirtual = s - bVirtual;
+                        err = (q - aVirtual) + (p0 - bVirtual);
+                        if(err != 0){
+                                h[n++] = err;
+                        }
+                        q = p1 + s;
+                        err = s - (q - p1);
+                        if(err != 0){
+                                h[n++] = err;
+                        }
+                }
+                if(q != 0 || n == 0){
+                        h[n++] = q;
+                }
+                return trim(h, n);
+        }
+
+        /**
+         * The product of two expansions.
+         */
+        private static double[] product(double[] e, double[] f) {
+                double[] h = scale(e, f[0]);
+                for(int i = 1; i < f.length; i++){
+                        h = sum(h, scale(e, f[i]));
+                }
+                return h;
+        }
+
+        private static double[] negate(double[] e) {
+                double[] h = new double[e.length];
+                for(int i = 0; i < e.length; i++){
+                        h[i] = -e[i];
+                }
+                return h;
+        }
+
+        /**
+         * Split a in two halves of 26 bits, returned as {high, low}.
+         */
+        private static double[] split(double a) {
+                double c = SPLITTER * a;
+                double big = c - a;
+                double hi = c - big;
+                return new double[]{hi, a - hi};
+        }
+
+        /**
+         * The rounding error of the product x = a * b.
+         */
+        private static double twoProductTail(double a, double b, double[] bSplit, double x) {
+                double[] aSplit = split(a);
+                double err1 = x - aSplit[0] * bSplit[0];
+                double err2 = err1 - aSplit[1] * bSplit[0];
+                double err3 = err2 - aSplit[0] * bSplit[1];
+                return aSplit[1] * bSplit[1] - err3;
+        }
+
+        private static double[] trim(double[] h, int n) {
+                if(n == h.length){
+                        return h;
+                }
+                double[] ret = new double[n];
+                System.arraycopy(h, 0, ret, 0, n);
+                return ret;
+        }
+
+        /**
+         * The most significant component of the expansion, which has its sign.
+         */
+        private static double estimate(double[] e) {
+                return e[e.length - 1];
+        }
+}
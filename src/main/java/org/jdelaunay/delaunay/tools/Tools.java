@@ -33,6 +33,8 @@ package org.jdelaunay.delaunay.tools;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import org.jdelaunay.delaunay.error.DelaunayError;
 import org.jdelaunay.delaunay.geometries.DEdge;
 import org.jdelaunay.delaunay.geometries.DPoint;
@@ -55,6 +57,10 @@ public final class Tools {
 	public static final int BIT_POLYGON = 4;
 	public static final int BIT_ZUSED = 5;
 	public static final int BIT_MARKED = 6;
+	/**
+	 * The side of the grid used to compute the Hilbert indices.
+	 */
+	public static final int HILBERT_SIDE = 1 << 15;
         
 
 
@@ -209,4 +215,65 @@ public final class Tools {
 		return true;
 	}
 
+        /**
+         * Get the position of a cell along the Hilbert curve that covers a grid
+         * of HILBERT_SIDE x HILBERT_SIDE cells. Sorting points by this index keeps
+         * two consecutive points close to each other.
+         * @param hx
+         * @param hy
+         * @return
+         *      The index, lower than 2^30.
+         */
+        public static long hilbertIndex(int hx, int hy) {
+                long d = 0;
+                int cx = hx;
+                int cy = hy;
+                for(int s = HILBERT_SIDE / 2; s > 0; s /= 2){
+                        int rx = (cx & s) > 0 ? 1 : 0;
+                        int ry = (cy & s) > 0 ? 1 : 0;
+                        d += (long) s * s * ((3 * rx) ^ ry);
+                        if(ry == 0){
+                                if(rx == 1){
+                                        cx = HILBERT_SIDE - 1 - cx;
+                                        cy = HILBERT_SIDE - 1 - cy;
+                                }
+                                int tmp = cx;
+                                cx = cy;
+                                cy = tmp;
+                        }
+                }
+                return d;
+        }
+
+        /**
+         * Wait for the result of a task run by an executor. If the task failed,
+         * its DelaunayError, RuntimeException or Error is thrown again, and any
+         * other cause is wrapped in a DelaunayError.
+         * @param <T>
+         * @param task
+         * @return
+         *      The result of the task.
+         * @throws DelaunayError
+         *      If the task failed, or if the current thread has been interrupted
+         *      while waiting : the code is then DELAUNAY_ERROR_CANCELLED.
+         */
+        public static <T> T join(Future<T> task) throws DelaunayError {
+                try {
+                        return task.get();
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_CANCELLED, "interrupted");
+                } catch (ExecutionException e) {
+                        Throwable cause = e.getCause();
+                        if(cause instanceof DelaunayError){
+                                throw (DelaunayError) cause;
+                        } else if(cause instanceof RuntimeException){
+                                throw (RuntimeException) cause;
+                        } else if(cause instanceof Error){
+                                throw (Error) cause;
+                        }
+                        throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_INTERNAL_ERROR, cause.toString());
+                }
+        }
+
 }
@@ -43,6 +43,7 @@ import org.jdelaunay.delaunay.error.DelaunayError;
 import org.jdelaunay.delaunay.geometries.DEdge;
 import org.jdelaunay.delaunay.geometries.DPoint;
 import org.jdelaunay.delaunay.geometries.DTriangle;
+import org.jdelaunay.delaunay.tools.Predicates;
 
 public class BaseUtility extends TestCase {
 
@@ -313,4 +314,26 @@ public class BaseUtility extends TestCase {
 		assertTrue(true);
 	}
 
+        /**
+         * Check that each edge has at least one triangle, that the unlocked edges
+         * respect the Delaunay criterion, and that the number of triangles
+         * matches the number of points and of boundary edges (Euler's formula).
+         * @param mesh
+         */
+        public void assertDelaunay(ConstrainedMesh mesh) {
+                int boundary = 0;
+                for(DEdge ed : mesh.getEdges()){
+                        DTriangle left = ed.getLeft();
+                        DTriangle right = ed.getRight();
+                        assertTrue(left != null || right != null);
+                        if(left == null || right == null){
+                                boundary++;
+                        } else if(!ed.isLocked()){
+                                assertTrue(Predicates.inCircle(ed.getStartPoint(), ed.getEndPoint(),
+                                        left.getOppositePoint(ed), right.getOppositePoint(ed)) <= 0);
+                        }
+                }
+                assertEquals(2 * mesh.getPoints().size() - boundary - 2, mesh.getTriangleList().size());
+        }
+
 }
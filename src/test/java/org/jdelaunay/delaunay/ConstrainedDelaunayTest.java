@@ -37,6 +37,7 @@ import java.util.List;
 import org.jdelaunay.delaunay.error.DelaunayError;
 import org.jdelaunay.delaunay.geometries.DEdge;
 import org.jdelaunay.delaunay.geometries.DPoint;
+import org.jdelaunay.delaunay.geometries.DTriangle;
 import org.jdelaunay.delaunay.geometries.Element;
 
 public class ConstrainedDelaunayTest extends BaseUtility {
@@ -1223,7 +1224,89 @@ public class ConstrainedDelaunayTest extends BaseUtility {
 		assertTrue(mesh.getConstraintEdges().get(2).hasProperty(RIVER));
 
 	}
-        
+
+	/**
+	 * A vertical constraint must be split where another constraint crosses
+	 * it and where another constraint ends on it.
+	 * @throws DelaunayError
+	 */
+	public void testIntersectionVerticalSplit() throws DelaunayError {
+		ConstrainedMesh mesh = new ConstrainedMesh();
+		mesh.addConstraintEdge(new DEdge(2,0,0,2,4,0));
+		mesh.addConstraintEdge(new DEdge(0,1,0,2,3,0));
+		mesh.addConstraintEdge(new DEdge(0,0,0,4,2,0));
+		mesh.forceConstraintIntegrity();
+		List<DEdge> edges = mesh.getConstraintEdges();
+		assertTrue(edges.size() == 6);
+		assertTrue(edges.contains(new DEdge(2,0,0,2,1,0)));
+		assertTrue(edges.contains(new DEdge(2,1,0,2,3,0)));
+		assertTrue(edges.contains(new DEdge(2,3,0,2,4,0)));
+		assertTrue(edges.contains(new DEdge(0,1,0,2,3,0)));
+		assertTrue(edges.contains(new DEdge(0,0,0,2,1,0)));
+		assertTrue(edges.contains(new DEdge(2,1,0,4,2,0)));
+		assertTrue(mesh.getPoints().size() == 7);
+	}
+
+	/**
+	 * A grid of n horizontal and n vertical constraints : each one is split
+	 * n times.
+	 * @throws DelaunayError
+	 */
+	public void testIntersectionGrid() throws DelaunayError {
+		int n = 30;
+		ConstrainedMesh mesh = new ConstrainedMesh();
+		for(int i = 1; i <= n; i++){
+			mesh.addConstraintEdge(new DEdge(0,i,0,n+1,i,0));
+			mesh.addConstraintEdge(new DEdge(i,0,0,i,n+1,0));
+		}
+		mesh.forceConstraintIntegrity();
+		assertTrue(mesh.getConstraintEdges().size() == 2*n*(n+1));
+		assertTrue(mesh.getPoints().size() == n*n + 4*n);
+		mesh.processDelaunay();
+		assertTrue(mesh.isMeshComputed());
+	}
+
+	/**
+	 * Constraints inserted in a computed grid cross each other at rounded
+	 * points. The rest of (39,20)-(1,38) then goes within the rounding error of
+	 * (20,29), which must be a vertex of the inserted constraint.
+	 * @throws DelaunayError
+	 */
+	public void testInsertCrossingConstraintsGrid() throws DelaunayError {
+		ConstrainedMesh mesh = new ConstrainedMesh();
+		for(int i = 0; i <= 40; i++){
+			for(int j = 0; j <= 40; j++){
+				mesh.addPoint(new DPoint(i, j, 0));
+			}
+		}
+		mesh.processDelaunay();
+		mesh.insertConstraintEdge(new DEdge(19, 32, 0, 11, 9, 0));
+		mesh.insertConstraintEdge(new DEdge(27, 36, 0, 21, 16, 0));
+		mesh.insertConstraintEdge(new DEdge(4, 30, 0, 30, 24, 0));
+		mesh.insertConstraintEdge(new DEdge(9, 29, 0, 18, 27, 0));
+		mesh.insertConstraintEdge(new DEdge(32, 7, 0, 9, 12, 0));
+		mesh.insertConstraintEdge(new DEdge(2, 16, 0, 36, 9, 0));
+		mesh.insertConstraintEdge(new DEdge(39, 20, 0, 1, 38, 0));
+		assertCoherence(mesh);
+		assertTrianglesTopology(mesh);
+		assertGIDUnicity(mesh);
+		assertConstraintsAreLocked(mesh);
+		assertDelaunay(mesh);
+		List<DTriangle> triangles = mesh.getTriangleList();
+		for(DEdge ed : mesh.getEdges()){
+			assertTrue(ed.getLeft() == null || triangles.contains(ed.getLeft()));
+			assertTrue(ed.getRight() == null || triangles.contains(ed.getRight()));
+		}
+		DPoint vertex = new DPoint(20, 29, 0);
+		boolean found = false;
+		for(DEdge ed : mesh.getConstraintEdges()){
+			if(ed.getStartPoint().equals2D(vertex) || ed.getEndPoint().equals2D(vertex)){
+				found = true;
+			}
+		}
+		assertTrue(found);
+	}
+
         /**
          * The mesh instance is supposed to throws exceptions in some cases, when 
          * there are not enough points to process the triangulation, and when 
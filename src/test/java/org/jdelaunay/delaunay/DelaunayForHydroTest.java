@@ -30,8 +30,14 @@
  */
 package org.jdelaunay.delaunay;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
 import org.jdelaunay.delaunay.geometries.DTriangle;
 
 
@@ -76,4 +82,106 @@ public class DelaunayForHydroTest extends BaseUtility {
 		assertTrue(nbFlat == 0);
 	}
 
+	/**
+	 * The incremental removal of flat triangles keeps the triangles that are
+	 * not close to a flat area, and leaves a computed Delaunay mesh.
+	 *
+	 * @throws DelaunayError
+	 */
+	public void testRemoveFlatTrianglesIncremental() throws DelaunayError {
+		ConstrainedMesh aMesh = new ConstrainedMesh();
+		aMesh.setPrecision(1.0e-3);
+		aMesh.setPoints(getPoints());
+		aMesh.processDelaunay();
+		List<DTriangle> before = new ArrayList<DTriangle>(aMesh.getTriangleList());
+		int points = aMesh.getPoints().size();
+		aMesh.removeFlatTriangles(true);
+		assertTrue(aMesh.isMeshComputed());
+		assertTrue(aMesh.getPoints().size() > points);
+		//The existing triangles are split or flipped, but never dropped.
+		Set<DTriangle> after = Collections.newSetFromMap(new IdentityHashMap<DTriangle, Boolean>());
+		after.addAll(aMesh.getTriangleList());
+		for(DTriangle tri : before){
+			assertTrue(after.contains(tri));
+		}
+		int nbFlat = 0;
+		for (DTriangle myTriangle : aMesh.getTriangleList()) {
+			if (myTriangle.isFlatSlope()) {
+				nbFlat++;
+			}
+		}
+		assertTrue(nbFlat == 0);
+		assertDelaunay(aMesh);
+	}
+
+	/**
+	 * In a flat grid crossed by a locked diagonal, some skeleton points lie on
+	 * the diagonal. They are inserted, and both halves of the split edges are
+	 * locked.
+	 *
+	 * @throws DelaunayError
+	 */
+	public void testRemoveFlatTrianglesIncrementalOnEdge() throws DelaunayError {
+		ConstrainedMesh aMesh = new ConstrainedMesh();
+		aMesh.setPrecision(1.0e-3);
+		for(int i = 0; i <= 4; i++){
+			for(int j = 0; j <= 4; j++){
+				int z = i == 0 || j == 0 || i == 4 || j == 4 ? 10 : 0;
+				aMesh.addPoint(new DPoint(i, j, z));
+			}
+		}
+		aMesh.addConstraintEdge(new DEdge(1, 1, 0, 3, 3, 0));
+		aMesh.forceConstraintIntegrity();
+		aMesh.processDelaunay();
+		aMesh.removeFlatTriangles(true);
+		int onDiagonal = 0;
+		for(DPoint pt : aMesh.getPoints()){
+			if(pt.equals2D(new DPoint(1.5, 1.5, 0)) || pt.equals2D(new DPoint(2.5, 2.5, 0))){
+				onDiagonal++;
+			}
+		}
+		assertEquals(2, onDiagonal);
+		assertEquals(4, aMesh.getConstraintEdges().size());
+		int locked = 0;
+		for(DEdge ed : aMesh.getEdges()){
+			if(ed.isLocked()){
+				locked++;
+			}
+		}
+		assertEquals(4, locked);
+		assertConstraintsAreLocked(aMesh);
+		for (DTriangle myTriangle : aMesh.getTriangleList()) {
+			assertFalse(myTriangle.isFlatSlope());
+		}
+		assertTrianglesTopology(aMesh);
+		assertDelaunay(aMesh);
+	}
+
+	/**
+	 * The flat areas are processed in parallel, but the result does not
+	 * depend on the number of threads.
+	 *
+	 * @throws DelaunayError
+	 */
+	public void testRemoveFlatTrianglesParallel() throws DelaunayError {
+		ConstrainedMesh single = new ConstrainedMesh();
+		single.setPrecision(1.0e-3);
+		single.setParallelism(1);
+		single.setPoints(getPoints());
+		single.processDelaunay();
+		single.removeFlatTriangles();
+		ConstrainedMesh parallel = new ConstrainedMesh();
+		parallel.setPrecision(1.0e-3);
+		parallel.setParallelism(4);
+		parallel.setPoints(getPoints());
+		parallel.processDelaunay();
+		parallel.removeFlatTriangles();
+		assertEquals(single.getPoints().size(), parallel.getPoints().size());
+		for(int i = 0; i < single.getPoints().size(); i++){
+			assertTrue(single.getPoints().get(i).equals(parallel.getPoints().get(i)));
+			assertEquals(single.getPoints().get(i).getZ(), parallel.getPoints().get(i).getZ(), 0);
+		}
+		assertEquals(single.getTriangleList().size(), parallel.getTriangleList().size());
+	}
+
 }
@@ -0,0 +1,165 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.log4j.Logger;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.evaluator.SkinnyEvaluator;
+import org.jdelaunay.delaunay.geometries.DPoint;
+
+/**
+ * Checks that the memory allocated by the triangulation and the refinement does
+ * not grow. The number of bytes allocated per point is measured and compared to
+ * a recorded baseline. If you reduce the allocations, update the baselines with
+ * the values logged by the tests at the debug level.
+ *
+ * The measure relies on the com.sun.management extension of ThreadMXBean. The
+ * tests do nothing on the virtual machines that don't provide it.
+ */
+public class TestAllocation extends BaseUtility {
+
+        private static final Logger LOG = Logger.getLogger(TestAllocation.class);
+        //The recorded number of bytes allocated per inserted point by processDelaunay.
+        private static final long TRIANGULATION_BASELINE = 1440;
+        //The recorded number of bytes allocated per Steiner point by refineMesh.
+        private static final long REFINEMENT_BASELINE = 2310;
+        //The allowed growth, relatively to the baselines.
+        private static final double TOLERANCE = 1.25;
+        private static final int POINTS = 5000;
+
+        /**
+         * Get a set of random points that is always the same.
+         * @param number
+         * @return
+         * @throws DelaunayError
+         */
+        private static List<DPoint> getSeededPoints(int number) throws DelaunayError {
+                Random rand = new Random(42);
+                List<DPoint> ret = new ArrayList<DPoint>(number);
+                for(int i = 0; i < number; i++){
+                        ret.add(new DPoint(rand.nextDouble() * 700, rand.nextDouble() * 700, rand.nextDouble() * 10));
+                }
+                return ret;
+        }
+
+        /**
+         * Get the bean used to measure the allocations of the current thread.
+         * @return
+         *      The bean, or null if the measure is not supported.
+         */
+        private static com.sun.management.ThreadMXBean getBean() {
+                ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+                if(bean instanceof com.sun.management.ThreadMXBean){
+                        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+                        if(sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()){
+                                return sunBean;
+                        }
+                }
+                return null;
+        }
+
+        /**
+         * Triangulate a set of points, and return the number of bytes allocated by
+         * processDelaunay.
+         * @param bean
+         * @return
+         * @throws DelaunayError
+         */
+        private long measureTriangulation(com.sun.management.ThreadMXBean bean) throws DelaunayError {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(getSeededPoints(POINTS));
+                long id = Thread.currentThread().getId();
+                long before = bean.getThreadAllocatedBytes(id);
+                mesh.processDelaunay();
+                return bean.getThreadAllocatedBytes(id) - before;
+        }
+
+        /**
+         * Checks the memory allocated per point by processDelaunay.
+         * @throws DelaunayError
+         */
+        public void testTriangulationAllocation() throws DelaunayError {
+                com.sun.management.ThreadMXBean bean = getBean();
+                if(bean == null){
+                        return;
+                }
+                //The first run is used to load the classes and warm the code.
+                measureTriangulation(bean);
+                long perPoint = measureTriangulation(bean) / POINTS;
+                LOG.debug("Bytes allocated per point by processDelaunay : " + perPoint);
+                assertTrue(perPoint > 0);
+                assertTrue("processDelaunay allocates " + perPoint + " bytes per point, the baseline is "
+                        + TRIANGULATION_BASELINE, perPoint <= TRIANGULATION_BASELINE * TOLERANCE);
+        }
+
+        /**
+         * Refine a triangulation, and return the number of bytes allocated by
+         * refineMesh per Steiner point.
+         * @param bean
+         * @return
+         * @throws DelaunayError
+         */
+        private long measureRefinement(com.sun.management.ThreadMXBean bean) throws DelaunayError {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(getSeededPoints(POINTS / 5));
+                mesh.processDelaunay();
+                int pointsBefore = mesh.getPoints().size();
+                long id = Thread.currentThread().getId();
+                long before = bean.getThreadAllocatedBytes(id);
+                mesh.refineMesh(1, new SkinnyEvaluator(25));
+                long allocated = bean.getThreadAllocatedBytes(id) - before;
+                int steiner = mesh.getPoints().size() - pointsBefore;
+                assertTrue(steiner > 0);
+                return allocated / steiner;
+        }
+
+        /**
+         * Checks the memory allocated per Steiner point by refineMesh.
+         * @throws DelaunayError
+         */
+        public void testRefinementAllocation() throws DelaunayError {
+                com.sun.management.ThreadMXBean bean = getBean();
+                if(bean == null){
+                        return;
+                }
+                measureRefinement(bean);
+                long perPoint = measureRefinement(bean);
+                LOG.debug("Bytes allocated per Steiner point by refineMesh : " + perPoint);
+                assertTrue(perPoint > 0);
+                assertTrue("refineMesh allocates " + perPoint + " bytes per Steiner point, the baseline is "
+                        + REFINEMENT_BASELINE, perPoint <= REFINEMENT_BASELINE * TOLERANCE);
+        }
+}
@@ -31,12 +31,16 @@
 package org.jdelaunay.delaunay;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import org.jdelaunay.delaunay.error.DelaunayError;
 import org.jdelaunay.delaunay.geometries.DEdge;
 import org.jdelaunay.delaunay.geometries.DPoint;
 import org.jdelaunay.delaunay.geometries.DTriangle;
+import org.jdelaunay.delaunay.geometries.Element;
 
 /**
  * This class checks that the constrained triangulation is well performed.
@@ -2535,4 +2539,213 @@ public class TestConstrainedMesh extends BaseUtility {
                 assertTrue(ed22 == mesh.getEdges().get(index));
         }
 
+        /**
+         * Remove points from a computed mesh, one after the other. The mesh stays
+         * a Delaunay triangulation of the remaining points.
+         * @throws DelaunayError
+         */
+        public void testRemovePoint() throws DelaunayError {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(Workloads.poissonDisc(1000, 3));
+                mesh.processDelaunay();
+                Random rand = new Random(5);
+                for(int i = 0; i < 300; i++){
+                        List<DPoint> pts = mesh.getPoints();
+                        DPoint pt = pts.get(rand.nextInt(pts.size()));
+                        int size = pts.size();
+                        mesh.removePoint(new DPoint(pt.getX(), pt.getY(), 0));
+                        assertEquals(size - 1, mesh.getPoints().size());
+                        assertFalse(mesh.getPoints().contains(pt));
+                }
+                assertCoherence(mesh);
+                assertTrianglesTopology(mesh);
+                assertUseEachPoint(mesh);
+                assertUseEachEdge(mesh);
+                assertGIDUnicity(mesh);
+                assertDelaunay(mesh);
+                //The boundary is still the convex hull : a new triangulation of
+                //the remaining points gives the same number of triangles.
+                ConstrainedMesh other = new ConstrainedMesh();
+                other.setPoints(new ArrayList<DPoint>(mesh.getPoints()));
+                other.processDelaunay();
+                assertEquals(other.getTriangleList().size(), mesh.getTriangleList().size());
+                assertEquals(other.getEdges().size(), mesh.getEdges().size());
+        }
+
+        /**
+         * A point in the middle of a straight constraint can be removed : the two
+         * parts of the constraint are merged. The extremities of the constraint
+         * can't be removed.
+         * @throws DelaunayError
+         */
+        public void testRemovePointOnConstraint() throws DelaunayError {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.addConstraintEdge(new DEdge(0, 5, 0, 5, 5, 2));
+                mesh.addConstraintEdge(new DEdge(5, 5, 2, 10, 5, 0));
+                mesh.addPoint(new DPoint(0, 0, 0));
+                mesh.addPoint(new DPoint(10, 0, 0));
+                mesh.addPoint(new DPoint(10, 10, 0));
+                mesh.addPoint(new DPoint(0, 10, 0));
+                mesh.addPoint(new DPoint(3, 2, 0));
+                mesh.addPoint(new DPoint(6, 8, 0));
+                mesh.processDelaunay();
+                mesh.removePoint(new DPoint(5, 5, 2));
+                assertEquals(8, mesh.getPoints().size());
+                int index = mesh.getEdges().indexOf(new DEdge(0, 5, 0, 10, 5, 0));
+                assertTrue(index >= 0);
+                DEdge merged = mesh.getEdges().get(index);
+                assertTrue(merged.isLocked());
+                assertEquals(1, mesh.getConstraintEdges().size());
+                assertTrue(mesh.getConstraintEdges().get(0) == merged);
+                assertTrianglesTopology(mesh);
+                assertGIDUnicity(mesh);
+                assertDelaunay(mesh);
+                try {
+                        mesh.removePoint(new DPoint(0, 5, 0));
+                        fail();
+                } catch (DelaunayError d){
+                }
+                try {
+                        mesh.removePoint(new DPoint(4, 4, 0));
+                        fail();
+                } catch (DelaunayError d){
+                }
+                assertEquals(8, mesh.getPoints().size());
+        }
+
+        /**
+         * Insert constraints in a computed mesh. The result is the same as the
+         * one obtained when the constraints are given before the triangulation.
+         * @throws DelaunayError
+         */
+        public void testInsertConstraintEdge() throws DelaunayError {
+                List<DPoint> pts = Workloads.poissonDisc(2000, 11);
+                double side = Workloads.getSide(2000);
+                Random rand = new Random(13);
+                List<DEdge> constraints = new ArrayList<DEdge>();
+                for(int i = 0; i < 15; i++){
+                        constraints.add(new DEdge(side * (0.05 + 0.9 * rand.nextDouble()), side * (0.05 + 0.9 * rand.nextDouble()), 0,
+                                side * (0.05 + 0.9 * rand.nextDouble()), side * (0.05 + 0.9 * rand.nextDouble()), 0));
+                }
+                //This one goes through points of the mesh.
+                constraints.add(new DEdge(pts.get(0), pts.get(1)));
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(pts);
+                mesh.processDelaunay();
+                for(DEdge ed : constraints){
+                        mesh.insertConstraintEdge(new DEdge(new DPoint(ed.getStartPoint()), new DPoint(ed.getEndPoint())));
+                }
+                assertCoherence(mesh);
+                assertTrianglesTopology(mesh);
+                assertUseEachPoint(mesh);
+                assertUseEachEdge(mesh);
+                assertGIDUnicity(mesh);
+                assertDelaunay(mesh);
+                assertConstraintsAreLocked(mesh);
+                ConstrainedMesh other = new ConstrainedMesh();
+                other.setPoints(Workloads.poissonDisc(2000, 11));
+                for(DEdge ed : constraints){
+                        other.addConstraintEdge(new DEdge(new DPoint(ed.getStartPoint()), new DPoint(ed.getEndPoint())));
+                }
+                other.forceConstraintIntegrity();
+                other.processDelaunay();
+                assertEquals(other.getPoints().size(), mesh.getPoints().size());
+                assertEquals(other.getTriangleList().size(), mesh.getTriangleList().size());
+                assertEquals(lockedCount(other), lockedCount(mesh));
+                assertEquals(other.getConstraintEdges().size(), mesh.getConstraintEdges().size());
+        }
+
+        /**
+         * A constraint that ends on a locked edge splits it in two locked halves.
+         * @throws DelaunayError
+         */
+        public void testInsertConstraintEdgeOnLockedEdge() throws DelaunayError {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.addPoint(new DPoint(0, 0, 0));
+                mesh.addPoint(new DPoint(10, 0, 0));
+                mesh.addPoint(new DPoint(10, 10, 0));
+                mesh.addPoint(new DPoint(0, 10, 0));
+                mesh.addPoint(new DPoint(3, 7, 0));
+                mesh.processDelaunay();
+                DEdge first = new DEdge(0, 5, 0, 10, 5, 0);
+                first.setProperty(WALL);
+                mesh.insertConstraintEdge(first);
+                mesh.insertConstraintEdge(new DEdge(5, 5, 0, 5, 9, 0));
+                assertEquals(9, mesh.getPoints().size());
+                assertEquals(3, lockedCount(mesh));
+                assertEquals(3, mesh.getConstraintEdges().size());
+                assertConstraintsAreLocked(mesh);
+                int walls = 0;
+                for(DEdge ed : mesh.getConstraintEdges()){
+                        if(ed.hasProperty(WALL)){
+                                walls++;
+                        }
+                }
+                assertEquals(2, walls);
+                assertTrianglesTopology(mesh);
+                assertGIDUnicity(mesh);
+                assertDelaunay(mesh);
+        }
+
+        private void resetElementWeights() {
+                while(!Element.WEIGHTED_PROPERTIES.isEmpty()){
+                        Element.WEIGHTED_PROPERTIES.remove(0);
+                }
+                Element.WEIGHTED_PROPERTIES.add(WALL);
+                Element.WEIGHTED_PROPERTIES.add(SEWER);
+                Element.WEIGHTED_PROPERTIES.add(ROAD);
+                Element.WEIGHTED_PROPERTIES.add(DITCH);
+                Element.WEIGHTED_PROPERTIES.add(RIVER);
+                Element.WEIGHTED_PROPERTIES.add(URBAN_PARCEL);
+                Element.WEIGHTED_PROPERTIES.add(RURAL_PARCEL);
+                Element.WEIGHTED_PROPERTIES.add(LEVEL);
+        }
+
+        private int lockedCount(ConstrainedMesh mesh) {
+                int ret = 0;
+                for(DEdge ed : mesh.getEdges()){
+                        if(ed.isLocked()){
+                                ret++;
+                        }
+                }
+                return ret;
+        }
+
+        /**
+         * When an inserted constraint crosses a locked edge, the z of the
+         * intersection is given by the edge with the highest weight.
+         * @throws DelaunayError
+         */
+        public void testInsertConstraintEdgeWeights() throws DelaunayError {
+                resetElementWeights();
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.addPoint(new DPoint(0, 0, 0));
+                mesh.addPoint(new DPoint(10, 0, 0));
+                mesh.addPoint(new DPoint(10, 10, 0));
+                mesh.addPoint(new DPoint(0, 10, 0));
+                mesh.addPoint(new DPoint(3, 6, 0));
+                mesh.addPoint(new DPoint(7, 4, 0));
+                Map<Integer, Integer> weights = new HashMap<Integer, Integer>();
+                weights.put(WALL, 10);
+                weights.put(RIVER, 20);
+                mesh.setWeights(weights);
+                mesh.processDelaunay();
+                DEdge first = new DEdge(0, 5, 0, 10, 5, 0);
+                first.setProperty(WALL);
+                mesh.insertConstraintEdge(first);
+                DEdge second = new DEdge(5, 1, 20, 5, 9, 20);
+                second.setProperty(RIVER);
+                mesh.insertConstraintEdge(second);
+                assertTrue(mesh.getPoints().contains(new DPoint(5, 5, 20)));
+                assertEquals(11, mesh.getPoints().size());
+                assertEquals(4, lockedCount(mesh));
+                assertTrianglesTopology(mesh);
+                assertGIDUnicity(mesh);
+                assertDelaunay(mesh);
+                try {
+                        mesh.insertConstraintEdge(new DEdge(5, 5, 0, 15, 5, 0));
+                        fail();
+                } catch (DelaunayError d){
+                }
+        }
 }
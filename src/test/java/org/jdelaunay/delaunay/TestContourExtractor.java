@@ -0,0 +1,157 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+
+/**
+ * Tests the extraction of the isolines of a mesh.
+ */
+public class TestContourExtractor extends BaseUtility {
+
+        /**
+         * Keeps the isolines it receives.
+         */
+        private static final class Collector implements ContourListener {
+                private final List<Double> levels = Collections.synchronizedList(new ArrayList<Double>());
+                private final List<List<DPoint>> lines = Collections.synchronizedList(new ArrayList<List<DPoint>>());
+                private final List<Boolean> closed = Collections.synchronizedList(new ArrayList<Boolean>());
+
+                @Override
+                public void contour(double level, List<DPoint> points, boolean ring) {
+                        levels.add(level);
+                        lines.add(points);
+                        closed.add(ring);
+                }
+        }
+
+        /**
+         * Build a mesh of well spaced points, whose z is given by the distance to
+         * the center of the mesh if cone is true, by x otherwise.
+         */
+        private ConstrainedMesh getMesh(boolean cone) throws DelaunayError {
+                double side = Workloads.getSide(5000);
+                List<DPoint> pts = new ArrayList<DPoint>();
+                for(DPoint pt : Workloads.poissonDisc(5000, 21)){
+                        double z = cone ? -Math.hypot(pt.getX() - side / 2, pt.getY() - side / 2) : pt.getX();
+                        pts.add(new DPoint(pt.getX(), pt.getY(), z));
+                }
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(pts);
+                mesh.processDelaunay();
+                return mesh;
+        }
+
+        private boolean isOnBoundary(DPoint pt, ConstrainedMesh mesh) {
+                for(DEdge ed : mesh.getEdges()){
+                        if((ed.getLeft() == null || ed.getRight() == null) && ed.contains(pt)){
+                                return true;
+                        }
+                }
+                return false;
+        }
+
+        /**
+         * On a plane, each level gives one isoline, that crosses the mesh from
+         * one side of its boundary to the other.
+         * @throws DelaunayError
+         */
+        public void testPlane() throws DelaunayError {
+                ConstrainedMesh mesh = getMesh(false);
+                double side = Workloads.getSide(5000);
+                double level = side / 2 + 0.123;
+                Collector collector = new Collector();
+                new ContourExtractor(mesh).extract(new double[]{level, -10, side + 10}, collector);
+                assertEquals(1, collector.lines.size());
+                assertFalse(collector.closed.get(0));
+                assertEquals(level, collector.levels.get(0), 0);
+                List<DPoint> line = collector.lines.get(0);
+                assertTrue(line.size() > 10);
+                for(DPoint pt : line){
+                        assertEquals(level, pt.getZ(), 0);
+                        assertEquals(level, pt.getX(), 1e-6);
+                }
+                assertTrue(isOnBoundary(line.get(0), mesh));
+                assertTrue(isOnBoundary(line.get(line.size() - 1), mesh));
+        }
+
+        /**
+         * On a cone, each level gives one ring. The levels are processed on several
+         * threads, with the same result as on one thread.
+         * @throws DelaunayError
+         */
+        public void testRings() throws DelaunayError {
+                ConstrainedMesh mesh = getMesh(true);
+                double[] levels = new double[20];
+                for(int i = 0; i < levels.length; i++){
+                        levels[i] = -10 - 12.5 * i;
+                }
+                ContourExtractor extractor = new ContourExtractor(mesh);
+                extractor.setParallelism(4);
+                Collector collector = new Collector();
+                extractor.extract(levels, collector);
+                assertEquals(levels.length, collector.lines.size());
+                for(int i = 0; i < collector.lines.size(); i++){
+                        assertTrue(collector.closed.get(i));
+                        List<DPoint> ring = collector.lines.get(i);
+                        assertTrue(ring.size() > 3);
+                        assertEquals(ring.get(0), ring.get(ring.size() - 1));
+                        for(DPoint pt : ring){
+                                assertEquals(collector.levels.get(i), pt.getZ(), 0);
+                        }
+                }
+                extractor.setParallelism(1);
+                Collector single = new Collector();
+                extractor.extract(levels, single);
+                for(int i = 0; i < levels.length; i++){
+                        assertEquals(levels[i], single.levels.get(i), 0);
+                        int j = collector.levels.indexOf(levels[i]);
+                        assertEquals(single.lines.get(i).size(), collector.lines.get(j).size());
+                }
+        }
+
+        /**
+         * The mesh must be computed.
+         */
+        public void testNotGenerated() {
+                try {
+                        new ContourExtractor(new ConstrainedMesh());
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED, d.getCode());
+                }
+        }
+}
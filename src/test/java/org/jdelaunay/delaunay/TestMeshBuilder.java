@@ -0,0 +1,154 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+
+/**
+ * Tests the bulk construction of meshes with MeshBuilder.
+ */
+public class TestMeshBuilder extends BaseUtility {
+
+        /**
+         * The builder gives the same input as addPoint and addConstraintEdge.
+         * @throws DelaunayError
+         */
+        public void testSameAsIncremental() throws DelaunayError {
+                Random rand = new Random(17);
+                MeshBuilder builder = new MeshBuilder();
+                ConstrainedMesh ref = new ConstrainedMesh();
+                for(int i = 0; i < 3000; i++){
+                        double x = rand.nextInt(200) * 0.5;
+                        double y = rand.nextInt(200) * 0.5;
+                        builder.addPoint(x, y, i);
+                        ref.addPoint(new DPoint(x, y, i));
+                }
+                List<DEdge> lines = Workloads.contourLines(5, 40, 17);
+                for(DEdge ed : lines){
+                        DPoint s = ed.getStartPoint();
+                        DPoint e = ed.getEndPoint();
+                        builder.addConstraint(s.getX(), s.getY(), s.getZ(), e.getX(), e.getY(), e.getZ());
+                        ref.addConstraintEdge(new DEdge(s.getX(), s.getY(), s.getZ(), e.getX(), e.getY(), e.getZ()));
+                }
+                ConstrainedMesh mesh = builder.build();
+                assertEquals(ref.getPoints().size(), mesh.getPoints().size());
+                for(int i = 0; i < ref.getPoints().size(); i++){
+                        DPoint p = ref.getPoints().get(i);
+                        DPoint q = mesh.getPoints().get(i);
+                        assertTrue(p.equals(q));
+                        assertEquals(i + 1, q.getGID());
+                }
+                assertEquals(ref.getConstraintEdges().size(), mesh.getConstraintEdges().size());
+                for(int i = 0; i < ref.getConstraintEdges().size(); i++){
+                        DEdge e = mesh.getConstraintEdges().get(i);
+                        assertEquals(0, ref.getConstraintEdges().get(i).compareTo(e));
+                        assertTrue(e.isLocked());
+                        assertEquals(i + 1, e.getGID());
+                        assertSame(e.getStartPoint(), e.getPointLeft());
+                        assertSame(e.getStartPoint(), mesh.getPoints().get(mesh.listContainsPoint(e.getStartPoint())));
+                }
+                assertEquals(ref.getExtensionPoints().get(0), mesh.getExtensionPoints().get(0));
+                assertEquals(ref.getExtensionPoints().get(1), mesh.getExtensionPoints().get(1));
+                ref.processDelaunay();
+                mesh.processDelaunay();
+                assertEquals(ref.getTriangleList().size(), mesh.getTriangleList().size());
+                assertCoherence(mesh);
+                assertConstraintsAreLocked(mesh);
+        }
+
+        /**
+         * Duplicated points and constraints are merged, degenerated constraints
+         * are removed.
+         * @throws DelaunayError
+         */
+        public void testDuplicates() throws DelaunayError {
+                MeshBuilder builder = new MeshBuilder(1);
+                int a = builder.addPoint(10, 0, 1);
+                int b = builder.addPoint(0, 0, 2);
+                int c = builder.addPoint(5, 5, 3);
+                int d = builder.addPoint(10, 0, 4);
+                builder.addConstraint(a, b);
+                builder.addConstraint(b, d);
+                builder.addConstraint(a, d);
+                builder.addConstraint(c, b);
+                assertEquals(4, builder.getPointCount());
+                assertEquals(4, builder.getConstraintCount());
+                ConstrainedMesh mesh = builder.build();
+                List<DPoint> pts = mesh.getPoints();
+                assertEquals(3, pts.size());
+                assertEquals(new DPoint(0, 0, 2), pts.get(0));
+                assertEquals(new DPoint(10, 0, 1), pts.get(2));
+                List<DEdge> constraints = mesh.getConstraintEdges();
+                assertEquals(2, constraints.size());
+                assertSame(pts.get(0), constraints.get(0).getStartPoint());
+                assertSame(pts.get(1), constraints.get(0).getEndPoint());
+                assertSame(pts.get(0), constraints.get(1).getStartPoint());
+                assertSame(pts.get(2), constraints.get(1).getEndPoint());
+                assertEquals(1, constraints.get(0).getGID());
+                assertEquals(2, constraints.get(1).getGID());
+                //The builder can be used again.
+                builder.addPoint(3, -4, 0);
+                assertEquals(4, builder.build().getPoints().size());
+                try {
+                        builder.addConstraint(0, 7);
+                        fail();
+                } catch (DelaunayError e){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_POINT_NOT_FOUND, e.getCode());
+                }
+        }
+
+        /**
+         * A large set of points with constraints can be triangulated.
+         * @throws DelaunayError
+         */
+        public void testTriangulation() throws DelaunayError {
+                List<DPoint> pts = Workloads.poissonDisc(20000, 5);
+                MeshBuilder builder = new MeshBuilder(pts.size());
+                List<Integer> ids = new ArrayList<Integer>();
+                for(DPoint pt : pts){
+                        ids.add(builder.addPoint(pt.getX(), pt.getY(), pt.getZ()));
+                }
+                for(int i = 0; i + 1 < 50; i++){
+                        builder.addConstraint(ids.get(i * 100), ids.get(i * 100 + 1));
+                }
+                ConstrainedMesh mesh = builder.build();
+                mesh.forceConstraintIntegrity();
+                mesh.processDelaunay();
+                assertTrue(mesh.getPoints().size() >= pts.size());
+                assertConstraintsAreLocked(mesh);
+                assertTrianglesTopology(mesh);
+        }
+}
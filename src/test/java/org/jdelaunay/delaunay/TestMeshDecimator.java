@@ -0,0 +1,150 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+
+/**
+ * Tests the decimation of a computed mesh.
+ */
+public class TestMeshDecimator extends BaseUtility {
+
+        /**
+         * Build a mesh of well spaced points, whose z is given by a smooth relief if
+         * relief is true, by a plane otherwise.
+         */
+        private ConstrainedMesh getMesh(boolean relief, List<DEdge> constraints) throws DelaunayError {
+                double side = Workloads.getSide(3000);
+                List<DPoint> pts = new ArrayList<DPoint>();
+                for(DPoint pt : Workloads.poissonDisc(3000, 7)){
+                        double x = pt.getX();
+                        double y = pt.getY();
+                        double z = relief ? 30 * Math.sin(x / side * 2 * Math.PI) * Math.cos(y / side * Math.PI) : 0.5 * x - y;
+                        pts.add(new DPoint(x, y, z));
+                }
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(pts);
+                for(DEdge ed : constraints){
+                        mesh.addConstraintEdge(ed);
+                }
+                mesh.processDelaunay();
+                return mesh;
+        }
+
+        /**
+         * Check the consistency of the mesh after a decimation.
+         */
+        private void assertValid(ConstrainedMesh mesh) {
+                assertCoherence(mesh);
+                assertTrianglesTopology(mesh);
+                assertUseEachPoint(mesh);
+                assertUseEachEdge(mesh);
+                assertGIDUnicity(mesh);
+                assertDelaunay(mesh);
+        }
+
+        /**
+         * On a plane, all the inner vertices can be removed without any error.
+         * @throws DelaunayError
+         */
+        public void testPlane() throws DelaunayError {
+                ConstrainedMesh mesh = getMesh(false, new ArrayList<DEdge>());
+                int boundary = 0;
+                for(DEdge ed : mesh.getEdges()){
+                        if(ed.getLeft() == null || ed.getRight() == null){
+                                boundary++;
+                        }
+                }
+                int before = mesh.getPoints().size();
+                int removed = new MeshDecimator(mesh).decimate(1e-9);
+                assertEquals(before - boundary, removed);
+                assertEquals(boundary, mesh.getPoints().size());
+                assertValid(mesh);
+        }
+
+        /**
+         * On a relief, the original points stay close to the decimated surface,
+         * and no point is removed when the error must be null.
+         * @throws DelaunayError
+         */
+        public void testErrorBound() throws DelaunayError {
+                ConstrainedMesh mesh = getMesh(true, new ArrayList<DEdge>());
+                List<DPoint> original = new ArrayList<DPoint>(mesh.getPoints());
+                assertEquals(0, new MeshDecimator(mesh).decimate(0));
+                double maxError = 0.5;
+                int removed = new MeshDecimator(mesh).decimate(maxError);
+                assertTrue(removed > original.size() / 2);
+                assertEquals(original.size() - removed, mesh.getPoints().size());
+                assertValid(mesh);
+                double[] x = new double[original.size()];
+                double[] y = new double[original.size()];
+                for(int i = 0; i < x.length; i++){
+                        x[i] = original.get(i).getX();
+                        y[i] = original.get(i).getY();
+                }
+                double[] z = new PointLocator(mesh).interpolateZ(x, y);
+                for(int i = 0; i < x.length; i++){
+                        assertEquals(original.get(i).getZ(), z[i], maxError + 1e-9);
+                }
+        }
+
+        /**
+         * The constraint edges are kept as they are.
+         * @throws DelaunayError
+         */
+        public void testConstraints() throws DelaunayError {
+                double side = Workloads.getSide(3000);
+                List<DEdge> constraints = new ArrayList<DEdge>();
+                constraints.add(new DEdge(0.3 * side, 0.2 * side, 0, 0.7 * side, 0.6 * side, 0));
+                constraints.add(new DEdge(0.2 * side, 0.8 * side, 0, 0.5 * side, 0.5 * side, 0));
+                ConstrainedMesh mesh = getMesh(false, constraints);
+                int locked = 0;
+                for(DEdge ed : mesh.getEdges()){
+                        if(ed.isLocked()){
+                                locked++;
+                        }
+                }
+                assertTrue(new MeshDecimator(mesh).decimate(1) > 0);
+                assertValid(mesh);
+                int after = 0;
+                for(DEdge ed : mesh.getEdges()){
+                        if(ed.isLocked()){
+                                after++;
+                        }
+                }
+                assertEquals(locked, after);
+                assertConstraintsAreLocked(mesh);
+        }
+}
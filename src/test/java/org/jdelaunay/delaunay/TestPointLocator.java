@@ -0,0 +1,226 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+import org.jdelaunay.delaunay.geometries.DTriangle;
+import org.jdelaunay.delaunay.geometries.Element;
+
+/**
+ * Tests the Delaunay hierarchy of PointLocator, and the iterative walk of
+ * DTriangle.searchPointContainer.
+ */
+public class TestPointLocator extends BaseUtility {
+
+        /**
+         * The points of a computed mesh are found in the triangles that contain
+         * them, the points outside the mesh on a hull edge.
+         * @throws DelaunayError
+         */
+        public void testLocate() throws DelaunayError {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(new ArrayList<DPoint>(Workloads.poissonDisc(20000, 3)));
+                for(DEdge ed : Workloads.contourLines(5, 1000, 3)){
+                        mesh.addConstraintEdge(ed);
+                }
+                mesh.forceConstraintIntegrity();
+                mesh.processDelaunay();
+                PointLocator locator = new PointLocator(mesh);
+                assertTrue(locator.getLevelCount() >= 2);
+                double side = Workloads.getSide(20000);
+                Random rand = new Random(5);
+                for(int i = 0; i < 2000; i++){
+                        DPoint pt = new DPoint(rand.nextDouble() * side, rand.nextDouble() * side, 0);
+                        Element container = locator.locate(pt);
+                        if(container instanceof DTriangle){
+                                assertTrue(((DTriangle) container).contains(pt));
+                        } else {
+                                DEdge ed = (DEdge) container;
+                                assertTrue(ed.getLeft() == null || ed.getRight() == null);
+                        }
+                }
+                for(DTriangle tri : mesh.getTriangleList().subList(0, 500)){
+                        DPoint pt = tri.getBarycenter();
+                        assertSame(tri, locator.locate(pt));
+                }
+                Element outside = locator.locate(new DPoint(-100, side / 2, 0));
+                assertTrue(outside instanceof DEdge);
+                DEdge hull = (DEdge) outside;
+                assertTrue(hull.getLeft() == null || hull.getRight() == null);
+        }
+
+        /**
+         * The safe search stops at the constraints, as getCircumCenterContainerSafe.
+         * @throws DelaunayError
+         */
+        public void testLocateSafe() throws DelaunayError {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.addPoint(new DPoint(0,3,0));
+                mesh.addPoint(new DPoint(4,3,0));
+                mesh.addConstraintEdge(new DEdge(new DPoint(2,0,0), new DPoint(2,6,0)));
+                mesh.processDelaunay();
+                int index = mesh.getTriangleList().indexOf(new DTriangle(new DPoint(0,3,0), new DPoint(2,6,0),new DPoint(2,0,0)));
+                DTriangle tri = mesh.getTriangleList().get(index);
+                PointLocator locator = new PointLocator(mesh);
+                assertEquals(0, locator.getLevelCount());
+                DPoint right = new DPoint(3,3,0);
+                assertNull(locator.locate(right, tri));
+                DTriangle container = (DTriangle) locator.locate(right);
+                assertTrue(container.contains(right));
+                assertSame(tri, locator.locate(new DPoint(1,3,0), tri));
+        }
+
+        /**
+         * Only the constraints of the first triangle stop the safe search : the
+         * ones met further in the walk are crossed.
+         * @throws DelaunayError
+         */
+        public void testLocateSafeFarConstraint() throws DelaunayError {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.addPoint(new DPoint(0,3,0));
+                mesh.addPoint(new DPoint(1,3,0));
+                mesh.addPoint(new DPoint(4,3,0));
+                mesh.addConstraintEdge(new DEdge(new DPoint(2,0,0), new DPoint(2,6,0)));
+                mesh.processDelaunay();
+                DTriangle from = null;
+                for(DTriangle tri : mesh.getTriangleList()){
+                        if(!tri.getEdge(0).isLocked() && !tri.getEdge(1).isLocked() && !tri.getEdge(2).isLocked()){
+                                from = tri;
+                        }
+                }
+                assertNotNull(from);
+                DPoint right = new DPoint(3,3,0);
+                DTriangle container = (DTriangle) new PointLocator(mesh).locate(right, from);
+                assertTrue(container.contains(right));
+        }
+
+        /**
+         * The index can't be built on a mesh that has not been computed.
+         */
+        public void testNotGenerated() {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                try {
+                        new PointLocator(mesh);
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED, d.getCode());
+                }
+        }
+
+        /**
+         * A walk across a long mesh crosses tens of thousands of triangles
+         * without overflowing the stack.
+         * @throws DelaunayError
+         */
+        public void testLongWalk() throws DelaunayError {
+                Random rand = new Random(9);
+                List<DPoint> pts = new ArrayList<DPoint>();
+                for(int i = 0; i < 40000; i++){
+                        pts.add(new DPoint(i + rand.nextDouble() * 0.5, rand.nextDouble() * 4, 0));
+                }
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(pts);
+                mesh.processDelaunay();
+                DTriangle start = null;
+                for(DTriangle tri : mesh.getTriangleList()){
+                        if(tri.getBarycenter().getX() < 2){
+                                start = tri;
+                                break;
+                        }
+                }
+                DPoint far = new DPoint(39998, 2, 0);
+                Element container = start.searchPointContainer(far);
+                assertTrue(container instanceof DTriangle);
+                assertTrue(((DTriangle) container).contains(far));
+                assertSame(container, new PointLocator(mesh).locate(far));
+        }
+
+        /**
+         * The heights of many points are computed on several threads, on the plane
+         * of the mesh, and are NaN outside of it.
+         * @throws DelaunayError
+         */
+        public void testInterpolateZ() throws DelaunayError {
+                List<DPoint> pts = new ArrayList<DPoint>();
+                for(DPoint pt : Workloads.poissonDisc(20000, 13)){
+                        pts.add(new DPoint(pt.getX(), pt.getY(), 2 * pt.getX() - 3 * pt.getY() + 1));
+                }
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(pts);
+                mesh.processDelaunay();
+                PointLocator locator = new PointLocator(mesh);
+                locator.setParallelism(4);
+                double side = Workloads.getSide(20000);
+                Random rand = new Random(17);
+                int n = 50000;
+                double[] x = new double[n];
+                double[] y = new double[n];
+                for(int i = 0; i < n; i++){
+                        x[i] = rand.nextDouble() * side;
+                        y[i] = rand.nextDouble() * side;
+                }
+                x[0] = -50;
+                y[1] = side + 50;
+                double[] z = locator.interpolateZ(x, y);
+                assertTrue(Double.isNaN(z[0]));
+                assertTrue(Double.isNaN(z[1]));
+                int inside = 0;
+                for(int i = 0; i < n; i++){
+                        if(!Double.isNaN(z[i])){
+                                inside++;
+                                assertEquals(2 * x[i] - 3 * y[i] + 1, z[i], 1e-6);
+                                DTriangle tri = (DTriangle) locator.locate(new DPoint(x[i], y[i], 0));
+                                assertEquals(tri.interpolateZ(x[i], y[i]), z[i], 1e-9);
+                        }
+                }
+                assertTrue(inside > n * 0.9);
+                locator.setParallelism(1);
+                double[] single = new double[n];
+                locator.interpolateZ(x, y, single);
+                for(int i = 0; i < n; i++){
+                        assertEquals(Double.isNaN(z[i]), Double.isNaN(single[i]));
+                        if(!Double.isNaN(z[i])){
+                                assertEquals(z[i], single[i], 1e-9);
+                        }
+                }
+                try {
+                        locator.interpolateZ(x, y, new double[3]);
+                        fail();
+                } catch (IllegalArgumentException e){
+                        assertEquals(1, locator.getParallelism());
+                }
+        }
+}
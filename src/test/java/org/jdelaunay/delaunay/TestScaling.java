@@ -0,0 +1,182 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+import java.util.List;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DPoint;
+import org.jdelaunay.delaunay.monitor.MeshCounter;
+import org.jdelaunay.delaunay.monitor.MeshStatistics;
+
+/**
+ * Checks that the cost of processDelaunay grows like n.log(n) with the number
+ * of points n, so that a quadratic behaviour is caught early. The triangulation is
+ * run on two sizes of the same workload ; the ratio of the numbers of inCircle
+ * tests must stay close to the ratio of the n.log(n) values. These tests are
+ * deterministic.
+ * The ratio of the durations is checked too when the jdelaunay.timing system
+ * property is true (mvn test -Djdelaunay.timing=true), as it depends on the load
+ * of the machine. The best of several runs is kept to reduce its noise.
+ */
+public class TestScaling extends BaseUtility {
+
+        private static final int SMALL = 4000;
+        private static final int LARGE = 32000;
+        private static final int RUNS = 3;
+        //Check the durations too.
+        private static final boolean TIMING = Boolean.getBoolean("jdelaunay.timing");
+        //The allowed excess of the durations, relatively to the n.log(n) ratio.
+        //A quadratic behaviour would exceed it about three times.
+        private static final double TIME_TOLERANCE = 2.5;
+        //The allowed excess of the number of inCircle tests.
+        private static final double COUNT_TOLERANCE = 1.25;
+
+        /**
+         * Generates the points of a workload.
+         */
+        private interface Generator {
+                List<DPoint> generate(int number) throws DelaunayError;
+        }
+
+        /**
+         * Triangulate the points of a workload.
+         * @param gen
+         * @param number
+         * @param stats
+         *      Receives the counters of the triangulation.
+         * @return
+         *      The duration of the triangulation, in nanoseconds.
+         * @throws DelaunayError
+         */
+        private long triangulate(Generator gen, int number, MeshStatistics stats) throws DelaunayError {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(gen.generate(number));
+                mesh.setMeshListener(stats);
+                long start = System.nanoTime();
+                mesh.processDelaunay();
+                return System.nanoTime() - start;
+        }
+
+        /**
+         * Get the best duration of the triangulation of number points.
+         * @return
+         *      The duration, in nanoseconds.
+         * @throws DelaunayError
+         */
+        private long bestTime(Generator gen, int number) throws DelaunayError {
+                long best = Long.MAX_VALUE;
+                for(int i = 0; i < RUNS; i++){
+                        best = Math.min(best, triangulate(gen, number, null));
+                }
+                return best;
+        }
+
+        /**
+         * Get the number of inCircle tests made during the triangulation of number points.
+         * @throws DelaunayError
+         */
+        private long inCircleTests(Generator gen, int number) throws DelaunayError {
+                MeshStatistics stats = new MeshStatistics();
+                triangulate(gen, number, stats);
+                return stats.getCount(MeshCounter.IN_CIRCLE_TESTS);
+        }
+
+        /**
+         * Checks the growth of the cost of the triangulation between SMALL
+         * and LARGE points.
+         * @param name
+         * @param gen
+         * @throws DelaunayError
+         */
+        private void assertScaling(String name, Generator gen) throws DelaunayError {
+                double expected = LARGE * Math.log(LARGE) / (SMALL * Math.log(SMALL));
+                double tests = (double) inCircleTests(gen, LARGE) / inCircleTests(gen, SMALL);
+                assertTrue(name + " : the number of inCircle tests has been multiplied by " + tests
+                        + " while n.log(n) has been multiplied by " + expected,
+                        tests < expected * COUNT_TOLERANCE);
+                if(!TIMING){
+                        return;
+                }
+                //warm up
+                bestTime(gen, SMALL);
+                double ratio = (double) bestTime(gen, LARGE) / bestTime(gen, SMALL);
+                assertTrue(name + " : the duration has been multiplied by " + ratio
+                        + " while n.log(n) has been multiplied by " + expected,
+                        ratio < expected * TIME_TOLERANCE);
+        }
+
+        public void testPoissonDiscScaling() throws DelaunayError {
+                assertScaling("Poisson-disc", new Generator() {
+                        @Override
+                        public List<DPoint> generate(int number) throws DelaunayError {
+                                return Workloads.poissonDisc(number, 1);
+                        }
+                });
+        }
+
+        public void testLidarScaling() throws DelaunayError {
+                assertScaling("LiDAR", new Generator() {
+                        @Override
+                        public List<DPoint> generate(int number) throws DelaunayError {
+                                return Workloads.lidarStrips(number, 4, 1);
+                        }
+                });
+        }
+
+        public void testCocircularScaling() throws DelaunayError {
+                assertScaling("cocircular", new Generator() {
+                        @Override
+                        public List<DPoint> generate(int number) throws DelaunayError {
+                                return Workloads.cocircularGrid((int) Math.sqrt(number / 8.0), 8, 0.3);
+                        }
+                });
+        }
+
+        /**
+         * When the cocircular grid is aligned on the axis, many points share
+         * their absciss and the sweep needs O(n.sqrt(n)) flips. We check that it
+         * does not get worse.
+         * @throws DelaunayError
+         */
+        public void testAlignedCocircularScaling() throws DelaunayError {
+                Generator gen = new Generator() {
+                        @Override
+                        public List<DPoint> generate(int number) throws DelaunayError {
+                                return Workloads.cocircularGrid((int) Math.sqrt(number / 8.0), 8, 0);
+                        }
+                };
+                double expected = Math.pow((double) LARGE / SMALL, 1.5);
+                double tests = (double) inCircleTests(gen, LARGE) / inCircleTests(gen, SMALL);
+                assertTrue("the number of inCircle tests has been multiplied by " + tests
+                        + " while n.sqrt(n) has been multiplied by " + expected,
+                        tests < expected * COUNT_TOLERANCE);
+        }
+}
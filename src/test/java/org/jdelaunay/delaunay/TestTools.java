@@ -31,6 +31,8 @@
 package org.jdelaunay.delaunay;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
 import org.jdelaunay.delaunay.error.DelaunayError;
 import org.jdelaunay.delaunay.geometries.DEdge;
 import org.jdelaunay.delaunay.geometries.DPoint;
@@ -66,4 +68,45 @@ public class TestTools extends BaseUtility {
 		assertFalse(Tools.isVerticallySorted(list, 1));
 
 	}
+
+        /**
+         * join gives the result of a task, throws its DelaunayError again, and
+         * wraps its checked exceptions.
+         */
+        public void testJoin() throws DelaunayError {
+                FutureTask<Integer> ok = new FutureTask<Integer>(new Callable<Integer>() {
+                        @Override
+                        public Integer call() {
+                                return 3;
+                        }
+                });
+                ok.run();
+                assertEquals(Integer.valueOf(3), Tools.join(ok));
+                FutureTask<Integer> failed = new FutureTask<Integer>(new Callable<Integer>() {
+                        @Override
+                        public Integer call() throws DelaunayError {
+                                throw new DelaunayError(DelaunayError.DELAUNAY_ERROR_CANCELLED);
+                        }
+                });
+                failed.run();
+                try {
+                        Tools.join(failed);
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_CANCELLED, d.getCode());
+                }
+                FutureTask<Integer> checked = new FutureTask<Integer>(new Callable<Integer>() {
+                        @Override
+                        public Integer call() throws Exception {
+                                throw new Exception("checked");
+                        }
+                });
+                checked.run();
+                try {
+                        Tools.join(checked);
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_INTERNAL_ERROR, d.getCode());
+                }
+        }
 }
@@ -0,0 +1,267 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.evaluator.SkinnyEvaluator;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+import org.jdelaunay.delaunay.monitor.CancellationToken;
+import org.jdelaunay.delaunay.monitor.MeshPhase;
+import org.jdelaunay.delaunay.monitor.ProgressMonitor;
+
+/**
+ * Tests the engines of processDelaunay that work on an IndexedMesh, against the
+ * sweep-line.
+ */
+public class TestTriangulationEngine extends BaseUtility {
+
+        private static String key(DEdge ed) {
+                DPoint l = ed.getPointLeft();
+                DPoint r = ed.getPointRight();
+                return l.getX() + " " + l.getY() + " " + r.getX() + " " + r.getY();
+        }
+
+        private static Set<String> edgeSet(ConstrainedMesh mesh) {
+                Set<String> ret = new HashSet<String>();
+                for(DEdge ed : mesh.getEdges()){
+                        ret.add(key(ed));
+                }
+                return ret;
+        }
+
+        private ConstrainedMesh triangulate(List<DPoint> pts, List<DEdge> constraints, TriangulationEngine engine)
+                        throws DelaunayError {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setEngine(engine);
+                mesh.setPoints(new ArrayList<DPoint>(pts));
+                if(constraints != null){
+                        for(DEdge ed : constraints){
+                                mesh.addConstraintEdge(new DEdge(ed));
+                        }
+                        mesh.forceConstraintIntegrity();
+                }
+                mesh.processDelaunay();
+                return mesh;
+        }
+
+        /**
+         * Both engines compute the same Delaunay triangulation.
+         * @throws DelaunayError
+         */
+        public void testSameTriangulation() throws DelaunayError {
+                List<DPoint> pts = Workloads.poissonDisc(5000, 21);
+                ConstrainedMesh sweep = triangulate(pts, null, TriangulationEngine.SWEEP);
+                ConstrainedMesh incremental = triangulate(pts, null, TriangulationEngine.INCREMENTAL);
+                assertEquals(TriangulationEngine.INCREMENTAL, incremental.getEngine());
+                assertEquals(sweep.getTriangleList().size(), incremental.getTriangleList().size());
+                assertEquals(edgeSet(sweep), edgeSet(incremental));
+                assertCoherence(incremental);
+                assertTrianglesTopology(incremental);
+                assertGIDUnicity(incremental);
+        }
+
+        /**
+         * Both engines keep the same constraints.
+         * @throws DelaunayError
+         */
+        public void testConstraints() throws DelaunayError {
+                List<DPoint> pts = Workloads.poissonDisc(3000, 22);
+                List<DEdge> lines = Workloads.contourLines(6, 60, 22);
+                ConstrainedMesh sweep = triangulate(pts, lines, TriangulationEngine.SWEEP);
+                ConstrainedMesh incremental = triangulate(pts, lines, TriangulationEngine.INCREMENTAL);
+                assertEquals(sweep.getPoints().size(), incremental.getPoints().size());
+                assertEquals(sweep.getTriangleList().size(), incremental.getTriangleList().size());
+                Set<String> constraints = new HashSet<String>();
+                for(DEdge ed : sweep.getConstraintEdges()){
+                        constraints.add(key(ed));
+                }
+                Set<String> incConstraints = new HashSet<String>();
+                for(DEdge ed : incremental.getConstraintEdges()){
+                        incConstraints.add(key(ed));
+                }
+                assertEquals(constraints, incConstraints);
+                assertTrue(edgeSet(incremental).containsAll(constraints));
+                assertCoherence(incremental);
+                assertConstraintsAreLocked(incremental);
+                incremental.refineMesh(1, new SkinnyEvaluator(20));
+                assertCoherence(incremental);
+        }
+
+        /**
+         * The divide and conquer engine computes the same triangulation as the
+         * sweep, constraints included.
+         * @throws DelaunayError
+         */
+        public void testDivideAndConquer() throws DelaunayError {
+                List<DPoint> pts = Workloads.poissonDisc(3000, 24);
+                List<DEdge> lines = Workloads.contourLines(6, 60, 24);
+                ConstrainedMesh sweep = triangulate(pts, lines, TriangulationEngine.SWEEP);
+                ConstrainedMesh dc = triangulate(pts, lines, TriangulationEngine.DIVIDE_AND_CONQUER);
+                assertEquals(sweep.getTriangleList().size(), dc.getTriangleList().size());
+                assertEquals(edgeSet(sweep), edgeSet(dc));
+                assertCoherence(dc);
+                assertTrianglesTopology(dc);
+                assertConstraintsAreLocked(dc);
+        }
+
+        /**
+         * The slabs of the parallel sweep are stitched in the same triangulation
+         * as the one of the sweep, constraints included.
+         * @throws DelaunayError
+         */
+        public void testParallelSweep() throws DelaunayError {
+                List<DPoint> pts = Workloads.poissonDisc(20000, 25);
+                List<DEdge> lines = Workloads.contourLines(4, 1400, 25);
+                ConstrainedMesh sweep = triangulate(pts, lines, TriangulationEngine.SWEEP);
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setEngine(TriangulationEngine.PARALLEL_SWEEP);
+                mesh.setParallelism(4);
+                mesh.setPoints(new ArrayList<DPoint>(pts));
+                for(DEdge ed : lines){
+                        mesh.addConstraintEdge(new DEdge(ed));
+                }
+                mesh.forceConstraintIntegrity();
+                mesh.processDelaunay();
+                assertEquals(sweep.getTriangleList().size(), mesh.getTriangleList().size());
+                assertEquals(edgeSet(sweep), edgeSet(mesh));
+                assertCoherence(mesh);
+                assertTrianglesTopology(mesh);
+                assertConstraintsAreLocked(mesh);
+                try {
+                        mesh.setParallelism(0);
+                        fail();
+                } catch (IllegalArgumentException e){
+                        assertEquals(4, mesh.getParallelism());
+                }
+        }
+
+        /**
+         * The parallel sweep does not hang on points of an integer grid, nor on
+         * collinear points, and gives the triangles of the sweep.
+         * @throws DelaunayError
+         */
+        public void testParallelSweepDegenerate() throws DelaunayError {
+                Random rand = new Random(0);
+                Set<String> keys = new HashSet<String>();
+                List<DPoint> grid = new ArrayList<DPoint>();
+                while(grid.size() < 200){
+                        int x = rand.nextInt(40);
+                        int y = rand.nextInt(40);
+                        if(keys.add(x + " " + y)){
+                                grid.add(new DPoint(x, y, rand.nextDouble()));
+                        }
+                }
+                List<DPoint> line = new ArrayList<DPoint>();
+                for(int i = 0; i < 50; i++){
+                        line.add(new DPoint(i, i, 0));
+                }
+                line.add(new DPoint(0, 10, 0));
+                for(List<DPoint> pts : Arrays.asList(grid, line)){
+                        ConstrainedMesh sweep = triangulate(pts, null, TriangulationEngine.SWEEP);
+                        ConstrainedMesh mesh = new ConstrainedMesh();
+                        mesh.setEngine(TriangulationEngine.PARALLEL_SWEEP);
+                        mesh.setParallelism(4);
+                        mesh.setPoints(new ArrayList<DPoint>(pts));
+                        mesh.processDelaunay();
+                        assertEquals(sweep.getTriangleList().size(), mesh.getTriangleList().size());
+                        assertEquals(edgeSet(sweep), edgeSet(mesh));
+                }
+        }
+
+        /**
+         * The constraint edges are kept, and replaced by their parts when they
+         * contain points.
+         * @throws DelaunayError
+         */
+        public void testSplitConstraint() throws DelaunayError {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setEngine(TriangulationEngine.INCREMENTAL);
+                mesh.addPoint(new DPoint(5, 0, 0));
+                mesh.addPoint(new DPoint(5, 5, 0));
+                mesh.addPoint(new DPoint(5, -5, 0));
+                DEdge constraint = new DEdge(0, 0, 0, 10, 0, 0);
+                DEdge other = new DEdge(0, 0, 0, 5, 5, 0);
+                mesh.addConstraintEdge(constraint);
+                mesh.addConstraintEdge(other);
+                mesh.processDelaunay();
+                assertEquals(3, mesh.getConstraintEdges().size());
+                assertTrue(mesh.getEdges().contains(other));
+                assertFalse(mesh.getEdges().contains(constraint));
+                assertTrue(mesh.getEdges().contains(new DEdge(0, 0, 0, 5, 0, 0)));
+                assertTrue(mesh.getEdges().contains(new DEdge(5, 0, 0, 10, 0, 0)));
+                assertConstraintsAreLocked(mesh);
+                assertEquals(4, mesh.getTriangleList().size());
+        }
+
+        /**
+         * The progress is reported, and the operation can be cancelled.
+         * @throws DelaunayError
+         */
+        public void testCancel() throws DelaunayError {
+                final List<Long> reports = new ArrayList<Long>();
+                final CancellationToken token = new CancellationToken();
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setEngine(TriangulationEngine.INCREMENTAL);
+                mesh.setPoints(Workloads.poissonDisc(5000, 23));
+                mesh.setCancellationToken(token);
+                mesh.setProgressMonitor(new ProgressMonitor() {
+                        @Override
+                        public void progress(MeshPhase phase, long done, long total) {
+                                assertEquals(MeshPhase.INSERTION, phase);
+                                reports.add(done);
+                                if(done >= 2 * ConstrainedMesh.PROGRESS_STEP){
+                                        token.cancel();
+                                }
+                        }
+                });
+                try {
+                        mesh.processDelaunay();
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_CANCELLED, d.getCode());
+                }
+                assertFalse(mesh.isMeshComputed());
+                assertTrue(mesh.getTriangleList().isEmpty());
+                assertEquals(2, reports.size());
+                mesh.setCancellationToken(null);
+                reports.clear();
+                mesh.processDelaunay();
+                assertTrue(mesh.isMeshComputed());
+                assertEquals(Long.valueOf(mesh.getPoints().size()), reports.get(reports.size() - 1));
+        }
+}
@@ -583,4 +583,44 @@ public class TestVoronoiGraph extends BaseUtility{
 		assertTrue(vg.getNotFlat().getLocation().getZ()>vg.getStartNode().getLocation().getZ());
 	}
 
+	/**
+	 * A long flat strip gives a graph far deeper than what a recursive walk
+	 * could handle.
+	 * @throws DelaunayError
+	 */
+	public void testLongFlatStrip() throws DelaunayError {
+		int n = 50000;
+		DPoint[] bottom = new DPoint[n+1];
+		DPoint[] top = new DPoint[n+1];
+		for(int i = 0; i <= n; i++){
+			double z = i == n ? 10 : 0;
+			bottom[i] = new DPoint(i, 0, z);
+			top[i] = new DPoint(i, 1, z);
+		}
+		DEdge rung = new DEdge(bottom[0], top[0]);
+		DTriangle first = null;
+		for(int i = 0; i < n; i++){
+			DEdge b = new DEdge(bottom[i], bottom[i+1]);
+			DEdge t = new DEdge(top[i], top[i+1]);
+			DEdge diag = new DEdge(bottom[i+1], top[i]);
+			DEdge next = new DEdge(bottom[i+1], top[i+1]);
+			DTriangle tri = new DTriangle(b, diag, rung);
+			new DTriangle(next, t, diag);
+			first = first == null ? tri : first;
+			rung = next;
+		}
+		VoronoiGraph vg = new VoronoiGraph(first);
+		vg.fillUntilNotFlatFound();
+		assertEquals(2*n-1, vg.getSortedNodes().size());
+		assertNotNull(vg.getNotFlat());
+		vg.assignZValues();
+		assertTrue(vg.isUseful());
+		assertEquals(2*n-2, vg.getMaxDepth());
+		for(VoronoiNode vn : vg.getSortedNodes()){
+			if(vn.getParent().isFlatSlope()){
+				assertTrue(vn.getLocation().getZ()<10 && vn.getLocation().getZ()>0);
+			}
+		}
+	}
+
 }
@@ -0,0 +1,124 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+
+/**
+ * Checks the inputs built by Workloads, and that they can be triangulated.
+ */
+public class TestWorkloads extends BaseUtility {
+
+        /**
+         * Two points of a Poisson-disc sampling are never too close.
+         * @throws DelaunayError
+         */
+        public void testPoissonDisc() throws DelaunayError {
+                List<DPoint> pts = Workloads.poissonDisc(2000, 1);
+                assertTrue(pts.size() > 1600 && pts.size() < 2400);
+                assertEquals(pts, Workloads.poissonDisc(2000, 1));
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(pts);
+                mesh.processDelaunay();
+                double radius = Math.sqrt(0.7 * 100);
+                for(DEdge ed : mesh.getEdges()){
+                        assertTrue(ed.get2DLength() >= radius * 0.999);
+                }
+                assertCoherence(mesh);
+                assertUseEachPoint(mesh);
+        }
+
+        /**
+         * The LiDAR strips can be triangulated.
+         * @throws DelaunayError
+         */
+        public void testLidarStrips() throws DelaunayError {
+                List<DPoint> pts = Workloads.lidarStrips(3000, 4, 1);
+                assertTrue(pts.size() > 2000 && pts.size() <= 3000);
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(pts);
+                mesh.processDelaunay();
+                assertCoherence(mesh);
+                assertUseEachPoint(mesh);
+        }
+
+        /**
+         * The contour lines don't intersect : forcing the integrity of the
+         * constraints does not add any point.
+         * @throws DelaunayError
+         */
+        public void testContourLines() throws DelaunayError {
+                ArrayList<DEdge> lines = Workloads.contourLines(10, 2000, 1);
+                assertEquals(10 * 1999, lines.size());
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setConstraintEdges(lines);
+                int before = mesh.getPoints().size();
+                assertEquals(10 * 2000, before);
+                mesh.forceConstraintIntegrity();
+                assertEquals(before, mesh.getPoints().size());
+                mesh.processDelaunay();
+                assertCoherence(mesh);
+                assertConstraintsAreLocked(mesh);
+        }
+
+        /**
+         * The cocircular points can be triangulated.
+         * @throws DelaunayError
+         */
+        public void testCocircularGrid() throws DelaunayError {
+                List<DPoint> pts = Workloads.cocircularGrid(20, 12, 0);
+                assertEquals(20 * 20 * 12, pts.size());
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(pts);
+                mesh.processDelaunay();
+                assertCoherence(mesh);
+                assertUseEachPoint(mesh);
+        }
+
+        /**
+         * The intersections of a nearly collinear bundle are computed.
+         * @throws DelaunayError
+         */
+        public void testNearCollinearBundle() throws DelaunayError {
+                ArrayList<DEdge> bundle = Workloads.nearCollinearBundle(20, 1000, 1);
+                assertEquals(20, bundle.size());
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setConstraintEdges(bundle);
+                mesh.forceConstraintIntegrity();
+                assertTrue(mesh.getConstraintEdges().size() >= 20);
+                mesh.processDelaunay();
+                assertCoherence(mesh);
+        }
+}
@@ -0,0 +1,303 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+
+/**
+ * Generators for large and realistic inputs, to be used in the tests that need
+ * more than the small hand built data of BaseUtility. All the generators take a
+ * seed and are deterministic.
+ *
+ * The point sets are generated in a square whose side is proportional to the square
+ * root of the number of points, so that their density does not depend on their size.
+ */
+public final class Workloads {
+
+        //The ratio between the mean distance of two consecutive points on a
+        //scan line and the distance between two scan lines, in the LiDAR strips.
+        private static final double SCAN_ANISOTROPY = 5;
+        //The overlap of two consecutive LiDAR strips.
+        private static final double STRIP_OVERLAP = 0.2;
+        //The number of candidates tried around each point in the Poisson-disc sampling.
+        private static final int POISSON_CANDIDATES = 30;
+        //The density of a Poisson-disc sampling of radius 1.
+        private static final double POISSON_DENSITY = 0.7;
+
+        /**
+         * Default constructor is private : this is an utility class.
+         */
+        private Workloads(){
+        }
+
+        /**
+         * Get the side of the square that will contain number points.
+         * @param number
+         * @return
+         */
+        public static double getSide(int number){
+                return Math.sqrt(number) * 10;
+        }
+
+        /**
+         * Points generated with a Poisson-disc sampling (Bridson's algorithm) : they
+         * are uniformly distributed, but two points are never closer than a given
+         * radius. This is what we obtain with well-spaced survey points.
+         * @param number
+         *      The approximate number of points.
+         * @param seed
+         * @return
+         *      A new list of points. It is not sorted.
+         * @throws DelaunayError
+         */
+        public static List<DPoint> poissonDisc(int number, long seed) throws DelaunayError {
+                Random rand = new Random(seed);
+                double side = getSide(number);
+                double radius = Math.sqrt(POISSON_DENSITY * side * side / number);
+                double cell = radius / Math.sqrt(2);
+                int cells = (int) Math.ceil(side / cell);
+                //The index (+1) of the point contained in each cell, 0 if empty.
+                int[] grid = new int[cells * cells];
+                List<DPoint> ret = new ArrayList<DPoint>(number);
+                List<DPoint> active = new ArrayList<DPoint>();
+                DPoint first = new DPoint(rand.nextDouble() * side, rand.nextDouble() * side, 0);
+                addPoissonPoint(first, ret, active, grid, cells, cell);
+                while(!active.isEmpty()){
+                        int index = rand.nextInt(active.size());
+                        DPoint current = active.get(index);
+                        boolean found = false;
+                        for(int k = 0; k < POISSON_CANDIDATES && !found; k++){
+                                double angle = rand.nextDouble() * 2 * Math.PI;
+                                double dist = radius * (1 + rand.nextDouble());
+                                double x = current.getX() + dist * Math.cos(angle);
+                                double y = current.getY() + dist * Math.sin(angle);
+                                if(x >= 0 && y >= 0 && x < side && y < side
+                                        && isFarEnough(x, y, ret, grid, cells, cell, radius)){
+                                        addPoissonPoint(new DPoint(x, y, relief(x, y, side)), ret, active, grid, cells, cell);
+                                        found = true;
+                                }
+                        }
+                        if(!found){
+                                //We replace the point by the last one, to remove it in constant time.
+                                active.set(index, active.get(active.size() - 1));
+                                active.remove(active.size() - 1);
+                        }
+                }
+                return ret;
+        }
+
+        /**
+         * Add pt to the output and to the acceleration grid of the Poisson-disc sampling.
+         */
+        private static void addPoissonPoint(DPoint pt, List<DPoint> ret, List<DPoint> active,
+                        int[] grid, int cells, double cell) {
+                ret.add(pt);
+                active.add(pt);
+                grid[(int) (pt.getY() / cell) * cells + (int) (pt.getX() / cell)] = ret.size();
+        }
+
+        /**
+         * Check that there is no point closer than radius from (x,y).
+         */
+        private static boolean isFarEnough(double x, double y, List<DPoint> ret, int[] grid,
+                        int cells, double cell, double radius) {
+                int cx = (int) (x / cell);
+                int cy = (int) (y / cell);
+                for(int i = Math.max(0, cx - 2); i <= Math.min(cells - 1, cx + 2); i++){
+                        for(int j = Math.max(0, cy - 2); j <= Math.min(cells - 1, cy + 2); j++){
+                                int index = grid[j * cells + i];
+                                if(index > 0){
+                                        DPoint other = ret.get(index - 1);
+                                        double dx = other.getX() - x;
+                                        double dy = other.getY() - y;
+                                        if(dx * dx + dy * dy < radius * radius){
+                                                return false;
+                                        }
+                                }
+                        }
+                }
+                return true;
+        }
+
+        /**
+         * Points organized as an airborne LiDAR survey : the square is covered with
+         * parallel strips that overlap, and each strip is made of scan lines that
+         * are orthogonal to the flight direction. The points are much closer along
+         * a scan line than between two scan lines, which makes the input strongly
+         * anisotropic, and the scan lines of two overlapping strips are not aligned.
+         * @param number
+         *      The approximate number of points.
+         * @param strips
+         *      The number of flight strips.
+         * @param seed
+         * @return
+         *      A new list of points. It is not sorted.
+         * @throws DelaunayError
+         */
+        public static List<DPoint> lidarStrips(int number, int strips, long seed) throws DelaunayError {
+                Random rand = new Random(seed);
+                double side = getSide(number);
+                double stripStep = side / strips;
+                double width = stripStep * (1 + STRIP_OVERLAP);
+                double perStrip = (double) number / strips;
+                int scanLines = Math.max(1, (int) Math.sqrt(perStrip * side / (SCAN_ANISOTROPY * width)));
+                int perLine = Math.max(1, (int) (perStrip / scanLines));
+                double lineStep = side / scanLines;
+                double pointStep = width / perLine;
+                List<DPoint> ret = new ArrayList<DPoint>(strips * scanLines * perLine);
+                for(int s = 0; s < strips; s++){
+                        double y0 = s * stripStep;
+                        //The scan lines of a strip are shifted.
+                        double offset = rand.nextDouble() * lineStep;
+                        for(int l = 0; l < scanLines; l++){
+                                double x0 = offset + l * lineStep;
+                                for(int k = 0; k < perLine; k++){
+                                        //The mirror makes the scan lines slightly oblique.
+                                        double y = y0 + (k + rand.nextDouble() * 0.5) * pointStep;
+                                        double x = x0 + (y - y0) / width * lineStep * 0.1
+                                                + rand.nextGaussian() * pointStep * 0.05;
+                                        if(x < side && y < side){
+                                                ret.add(new DPoint(x, y, relief(x, y, side) + rand.nextGaussian() * 0.1));
+                                        }
+                                }
+                        }
+                }
+                return ret;
+        }
+
+        /**
+         * Level lines of a synthetic relief, as constraint edges. Each line is a
+         * wavy polyline that goes from the left to the right of the domain, with
+         * vertices distant of about 1, and a constant z. The lines don't intersect.
+         * @param lines
+         *      The number of level lines.
+         * @param vertices
+         *      The number of vertices of each line.
+         * @param seed
+         * @return
+         *      The edges of all the lines.
+         * @throws DelaunayError
+         */
+        public static ArrayList<DEdge> contourLines(int lines, int vertices, long seed) throws DelaunayError {
+                Random rand = new Random(seed);
+                double gap = 20;
+                double amplitude = gap * 0.4;
+                double wave = vertices / 7.0;
+                ArrayList<DEdge> ret = new ArrayList<DEdge>(lines * (vertices - 1));
+                for(int i = 0; i < lines; i++){
+                        double phase = rand.nextDouble() * 2 * Math.PI;
+                        double base = (i + 1) * gap;
+                        DPoint previous = null;
+                        for(int k = 0; k < vertices; k++){
+                                double x = k + (k == 0 || k == vertices - 1 ? 0 : (rand.nextDouble() - 0.5) * 0.5);
+                                double y = base + amplitude * Math.sin(2 * Math.PI * x / wave + phase);
+                                DPoint current = new DPoint(x, y, i * 10);
+                                if(previous != null){
+                                        ret.add(new DEdge(previous, current));
+                                }
+                                previous = current;
+                        }
+                }
+                return ret;
+        }
+
+        /**
+         * Points placed on circles, whose centers are the nodes of a regular grid. All
+         * the points of a circle are cocircular, and all the circles are identical :
+         * this is a highly degenerated input for the inCircle tests. The grid can be
+         * rotated : the points stay cocircular, but are not aligned anymore on the
+         * vertical lines.
+         * @param cells
+         *      The number of circles in each direction.
+         * @param pointsPerCircle
+         * @param angle
+         *      The rotation of the grid, in radians.
+         * @return
+         *      A new list of points. It is not sorted.
+         * @throws DelaunayError
+         */
+        public static List<DPoint> cocircularGrid(int cells, int pointsPerCircle, double angle) throws DelaunayError {
+                double step = 10;
+                double radius = step * 0.4;
+                double cos = Math.cos(angle);
+                double sin = Math.sin(angle);
+                List<DPoint> ret = new ArrayList<DPoint>(cells * cells * pointsPerCircle);
+                for(int i = 0; i < cells; i++){
+                        for(int j = 0; j < cells; j++){
+                                double cx = (i + 0.5) * step * cos - (j + 0.5) * step * sin;
+                                double cy = (i + 0.5) * step * sin + (j + 0.5) * step * cos;
+                                for(int k = 0; k < pointsPerCircle; k++){
+                                        double a = angle + 2 * Math.PI * k / pointsPerCircle;
+                                        ret.add(new DPoint(cx + radius * Math.cos(a), cy + radius * Math.sin(a), (i + j) % 2));
+                                }
+                        }
+                }
+                return ret;
+        }
+
+        /**
+         * A bundle of nearly collinear constraint edges, as obtained when the same
+         * road or river is digitized several times. All the edges go roughly from
+         * (0,0) to (length,0), with angles of about 1e-5 radian between them, so
+         * that many of them intersect with very small angles.
+         * @param number
+         *      The number of edges in the bundle.
+         * @param length
+         * @param seed
+         * @return
+         * @throws DelaunayError
+         */
+        public static ArrayList<DEdge> nearCollinearBundle(int number, double length, long seed) throws DelaunayError {
+                Random rand = new Random(seed);
+                double spread = length * 1e-5;
+                ArrayList<DEdge> ret = new ArrayList<DEdge>(number);
+                for(int i = 0; i < number; i++){
+                        double x1 = rand.nextDouble() * length * 0.1;
+                        double x2 = length * (0.9 + rand.nextDouble() * 0.1);
+                        ret.add(new DEdge(x1, rand.nextDouble() * spread, 0, x2, rand.nextDouble() * spread, 0));
+                }
+                return ret;
+        }
+
+        /**
+         * A smooth synthetic relief, used to give a z to the generated points.
+         */
+        private static double relief(double x, double y, double side){
+                double u = x / side * 2 * Math.PI;
+                double v = y / side * 2 * Math.PI;
+                return 100 * Math.sin(u) * Math.cos(v) + 20 * Math.sin(5 * u + v);
+        }
+}
@@ -0,0 +1,233 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.indexed;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.jdelaunay.delaunay.BaseUtility;
+import org.jdelaunay.delaunay.Workloads;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+import org.jdelaunay.delaunay.monitor.CancellationToken;
+
+/**
+ * Tests the divide and conquer triangulation of IndexedMesh instances.
+ */
+public class TestDivideAndConquerTriangulator extends BaseUtility {
+
+        private IndexedMesh getMesh(List<DPoint> pts) {
+                IndexedMesh mesh = new IndexedMesh();
+                for(DPoint pt : pts){
+                        mesh.addPoint(pt.getX(), pt.getY(), pt.getZ());
+                }
+                return mesh;
+        }
+
+        private void triangulate(IndexedMesh mesh, int threads) throws DelaunayError {
+                DivideAndConquerTriangulator dc = new DivideAndConquerTriangulator(mesh);
+                dc.setParallelism(threads);
+                dc.triangulate();
+        }
+
+        /**
+         * Checks the topology of the mesh.
+         * @return
+         *      The number of edges on the convex hull.
+         */
+        private int assertValid(IndexedMesh mesh) {
+                int hull = 0;
+                for(int t = 0; t < mesh.getTriangleCount(); t++){
+                        int a = mesh.getVertex(t, 0);
+                        int b = mesh.getVertex(t, 1);
+                        int c = mesh.getVertex(t, 2);
+                        assertTrue((mesh.getX(b) - mesh.getX(a)) * (mesh.getY(c) - mesh.getY(a))
+                                - (mesh.getY(b) - mesh.getY(a)) * (mesh.getX(c) - mesh.getX(a)) > 0);
+                        for(int k = 0; k < 3; k++){
+                                int o = mesh.getNeighbour(t, k);
+                                if(o < 0){
+                                        hull++;
+                                        continue;
+                                }
+                                int j = mesh.getNeighbourIndex(o, t);
+                                assertEquals(mesh.getVertex(t, (k + 1) % 3), mesh.getVertex(o, (j + 2) % 3));
+                                assertEquals(mesh.getVertex(t, (k + 2) % 3), mesh.getVertex(o, (j + 1) % 3));
+                                assertEquals(mesh.isConstrained(t, k), mesh.isConstrained(o, j));
+                        }
+                }
+                return hull;
+        }
+
+        private Set<Long> edgeSet(IndexedMesh mesh) {
+                Set<Long> ret = new HashSet<Long>();
+                for(int t = 0; t < mesh.getTriangleCount(); t++){
+                        for(int k = 0; k < 3; k++){
+                                long a = mesh.getVertex(t, (k + 1) % 3);
+                                long b = mesh.getVertex(t, (k + 2) % 3);
+                                ret.add(Math.min(a, b) << 32 | Math.max(a, b));
+                        }
+                }
+                return ret;
+        }
+
+        /**
+         * Random points, split between several threads : the mesh is the same as
+         * the one of IndexedTriangulator.
+         * @throws DelaunayError
+         */
+        public void testRandomPoints() throws DelaunayError {
+                List<DPoint> pts = Workloads.poissonDisc(40000, 7);
+                IndexedMesh mesh = getMesh(pts);
+                triangulate(mesh, 4);
+                int hull = assertValid(mesh);
+                assertEquals(2 * pts.size() - hull - 2, mesh.getTriangleCount());
+                IndexedMesh ref = getMesh(pts);
+                new IndexedTriangulator(ref).triangulate();
+                assertEquals(edgeSet(ref), edgeSet(mesh));
+                IndexedMesh single = getMesh(pts);
+                triangulate(single, 1);
+                assertEquals(edgeSet(ref), edgeSet(single));
+        }
+
+        /**
+         * A grid has many cocircular and collinear points, on its hull too.
+         * @throws DelaunayError
+         */
+        public void testGrid() throws DelaunayError {
+                IndexedMesh mesh = new IndexedMesh();
+                for(int i = 0; i < 200; i++){
+                        for(int j = 0; j < 200; j++){
+                                mesh.addPoint(j, i, 0);
+                        }
+                }
+                triangulate(mesh, 3);
+                int hull = assertValid(mesh);
+                assertEquals(4 * 199, hull);
+                assertEquals(2 * 199 * 199, mesh.getTriangleCount());
+        }
+
+        /**
+         * The duplicated points are merged, the constraints use the kept ones.
+         * @throws DelaunayError
+         */
+        public void testDuplicates() throws DelaunayError {
+                IndexedMesh mesh = new IndexedMesh();
+                mesh.addPoint(0, 0, 0);
+                mesh.addPoint(10, 0, 0);
+                mesh.addPoint(0, 0, 1);
+                mesh.addPoint(0, 10, 0);
+                mesh.addPoint(10, 10, 0);
+                mesh.addPoint(10, 10, 0);
+                mesh.addConstraint(2, 5);
+                triangulate(mesh, 1);
+                assertValid(mesh);
+                assertEquals(2, mesh.getTriangleCount());
+                int constrained = 0;
+                for(int t = 0; t < 2; t++){
+                        for(int k = 0; k < 3; k++){
+                                constrained += mesh.isConstrained(t, k) ? 1 : 0;
+                        }
+                }
+                assertEquals(2, constrained);
+        }
+
+        /**
+         * The constraints are inserted in the triangulation of the points.
+         * @throws DelaunayError
+         */
+        public void testConstraints() throws DelaunayError {
+                ArrayList<DEdge> lines = Workloads.contourLines(8, 300, 5);
+                Random rand = new Random(5);
+                List<DPoint> pts = new ArrayList<DPoint>();
+                for(int i = 0; i < 3000; i++){
+                        pts.add(new DPoint(rand.nextDouble() * 300, rand.nextDouble() * 180, 0));
+                }
+                IndexedMesh mesh = getMesh(pts);
+                for(DEdge ed : lines){
+                        int s = mesh.addPoint(ed.getStartPoint().getX(), ed.getStartPoint().getY(), ed.getStartPoint().getZ());
+                        int e = mesh.addPoint(ed.getEndPoint().getX(), ed.getEndPoint().getY(), ed.getEndPoint().getZ());
+                        mesh.addConstraint(s, e);
+                }
+                triangulate(mesh, 2);
+                assertValid(mesh);
+                int constrained = 0;
+                for(int t = 0; t < mesh.getTriangleCount(); t++){
+                        for(int k = 0; k < 3; k++){
+                                if(mesh.isConstrained(t, k) && (mesh.getNeighbour(t, k) < 0 || mesh.getNeighbour(t, k) > t)){
+                                        constrained++;
+                                }
+                        }
+                }
+                assertEquals(lines.size(), constrained);
+        }
+
+        /**
+         * The triangulation can't be done twice, with collinear points, or when
+         * it has been cancelled.
+         * @throws DelaunayError
+         */
+        public void testErrors() throws DelaunayError {
+                IndexedMesh mesh = new IndexedMesh();
+                for(int i = 0; i < 10; i++){
+                        mesh.addPoint(i, 2 * i, 0);
+                }
+                try {
+                        triangulate(mesh, 2);
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_NOT_ENOUGH_POINTS_FOUND, d.getCode());
+                }
+                mesh.addPoint(0, 5, 0);
+                triangulate(mesh, 2);
+                assertValid(mesh);
+                try {
+                        triangulate(mesh, 2);
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_GENERATED, d.getCode());
+                }
+                CancellationToken token = new CancellationToken();
+                token.cancel();
+                IndexedMesh other = getMesh(Workloads.poissonDisc(5000, 8));
+                DivideAndConquerTriangulator dc = new DivideAndConquerTriangulator(other);
+                dc.setCancellationToken(token);
+                try {
+                        dc.triangulate();
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_CANCELLED, d.getCode());
+                }
+                assertEquals(0, other.getTriangleCount());
+        }
+}
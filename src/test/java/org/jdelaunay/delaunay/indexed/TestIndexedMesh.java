@@ -0,0 +1,92 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.indexed;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the storage of the IndexedMesh.
+ */
+public class TestIndexedMesh extends TestCase {
+
+        /**
+         * The arrays grow when points and triangles are added.
+         */
+        public void testGrowth() {
+                IndexedMesh mesh = new IndexedMesh(1, 1);
+                for(int i = 0; i < 100; i++){
+                        assertEquals(i, mesh.addPoint(i, 2 * i, 3 * i));
+                }
+                for(int i = 0; i < 98; i++){
+                        assertEquals(i, mesh.addTriangle(i, i + 1, i + 2));
+                }
+                mesh.trimToSize();
+                assertEquals(100, mesh.getPointCount());
+                assertEquals(98, mesh.getTriangleCount());
+                assertEquals(99.0, mesh.getX(99));
+                assertEquals(198.0, mesh.getY(99));
+                assertEquals(297.0, mesh.getZ(99));
+                assertEquals(97, mesh.getVertex(97, 0));
+                assertEquals(99, mesh.getVertex(97, 2));
+                assertEquals(-1, mesh.getNeighbour(97, 1));
+                assertFalse(mesh.isConstrained(97, 1));
+        }
+
+        /**
+         * The neighbours and the constraint flags of two adjacent triangles.
+         */
+        public void testNeighbours() {
+                IndexedMesh mesh = new IndexedMesh();
+                mesh.addPoint(0, 0, 0);
+                mesh.addPoint(1, 0, 0);
+                mesh.addPoint(1, 1, 0);
+                mesh.addPoint(0, 1, 0);
+                mesh.addConstraint(0, 2);
+                assertEquals(1, mesh.getConstraintCount());
+                assertEquals(2, mesh.getConstraintPoint(0, 1));
+                mesh.addTriangle(0, 1, 2);
+                mesh.addTriangle(0, 2, 3);
+                mesh.setNeighbour(0, 1, 1);
+                mesh.setNeighbour(1, 2, 0);
+                mesh.setConstrained(0, 1, true);
+                mesh.setConstrained(1, 2, true);
+                assertEquals(1, mesh.getNeighbourIndex(0, 1));
+                assertEquals(2, mesh.getNeighbourIndex(1, 0));
+                assertEquals(-1, mesh.getNeighbourIndex(1, 1));
+                assertTrue(mesh.isConstrained(0, 1));
+                assertFalse(mesh.isConstrained(0, 0));
+                assertFalse(mesh.isConstrained(0, 2));
+                assertEquals(5, mesh.getEdgeCount());
+                mesh.setConstrained(0, 1, false);
+                assertFalse(mesh.isConstrained(0, 1));
+                assertTrue(mesh.isConstrained(1, 2));
+        }
+}
@@ -0,0 +1,381 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.indexed;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jdelaunay.delaunay.BaseUtility;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.Workloads;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+
+/**
+ * Tests the triangulation of IndexedMesh instances.
+ */
+public class TestIndexedTriangulator extends BaseUtility {
+
+        /**
+         * Build a mesh with the given points.
+         */
+        private IndexedMesh getMesh(List<DPoint> pts) {
+                IndexedMesh mesh = new IndexedMesh();
+                for(DPoint pt : pts){
+                        mesh.addPoint(pt.getX(), pt.getY(), pt.getZ());
+                }
+                return mesh;
+        }
+
+        private double orient(IndexedMesh mesh, int a, int b, int c) {
+                return (mesh.getX(b) - mesh.getX(a)) * (mesh.getY(c) - mesh.getY(a))
+                        - (mesh.getY(b) - mesh.getY(a)) * (mesh.getX(c) - mesh.getX(a));
+        }
+
+        /**
+         * Checks the topology of the mesh, and that its unconstrained edges are
+         * locally Delaunay.
+         * @return
+         *      The number of edges on the convex hull.
+         */
+        private int assertValid(IndexedMesh mesh) {
+                int hull = 0;
+                for(int t = 0; t < mesh.getTriangleCount(); t++){
+                        int a = mesh.getVertex(t, 0);
+                        int b = mesh.getVertex(t, 1);
+                        int c = mesh.getVertex(t, 2);
+                        assertTrue(orient(mesh, a, b, c) > 0);
+                        for(int k = 0; k < 3; k++){
+                                int o = mesh.getNeighbour(t, k);
+                                if(o < 0){
+                                        hull++;
+                                        continue;
+                                }
+                                int j = mesh.getNeighbourIndex(o, t);
+                                assertTrue(j >= 0);
+                                assertEquals(mesh.getVertex(t, (k + 1) % 3), mesh.getVertex(o, (j + 2) % 3));
+                                assertEquals(mesh.getVertex(t, (k + 2) % 3), mesh.getVertex(o, (j + 1) % 3));
+                                assertEquals(mesh.isConstrained(t, k), mesh.isConstrained(o, j));
+                                if(!mesh.isConstrained(t, k)){
+                                        DPoint center = circumCenter(mesh, a, b, c);
+                                        int w = mesh.getVertex(o, j);
+                                        double r = Math.hypot(mesh.getX(a) - center.getX(), mesh.getY(a) - center.getY());
+                                        double d = Math.hypot(mesh.getX(w) - center.getX(), mesh.getY(w) - center.getY());
+                                        assertTrue(d >= r * (1 - 1e-9));
+                                }
+                        }
+                }
+                return hull;
+        }
+
+        private DPoint circumCenter(IndexedMesh mesh, int a, int b, int c) {
+                double ax = mesh.getX(a);
+                double ay = mesh.getY(a);
+                double bx = mesh.getX(b) - ax;
+                double by = mesh.getY(b) - ay;
+                double cx = mesh.getX(c) - ax;
+                double cy = mesh.getY(c) - ay;
+                double d = 2 * (bx * cy - by * cx);
+                double b2 = bx * bx + by * by;
+                double c2 = cx * cx + cy * cy;
+                try {
+                        return new DPoint(ax + (cy * b2 - by * c2) / d, ay + (bx * c2 - cx * b2) / d, 0);
+                } catch (DelaunayError d1){
+                        throw new IllegalStateException(d1);
+                }
+        }
+
+        /**
+         * Random points : the mesh is the same as the one of processDelaunay.
+         * @throws DelaunayError
+         */
+        public void testRandomPoints() throws DelaunayError {
+                List<DPoint> pts = Workloads.poissonDisc(5000, 3);
+                IndexedMesh mesh = getMesh(pts);
+                new IndexedTriangulator(mesh).triangulate();
+                int hull = assertValid(mesh);
+                assertEquals(2 * pts.size() - hull - 2, mesh.getTriangleCount());
+                assertEquals(3 * pts.size() - hull - 3, mesh.getEdgeCount());
+                ConstrainedMesh ref = new ConstrainedMesh();
+                ref.setPoints(pts);
+                ref.processDelaunay();
+                assertEquals(ref.getTriangleList().size(), mesh.getTriangleCount());
+                assertEquals(ref.getEdges().size(), mesh.getEdgeCount());
+        }
+
+        /**
+         * A grid has many cocircular and collinear points, on its hull too.
+         * @throws DelaunayError
+         */
+        public void testGrid() throws DelaunayError {
+                IndexedMesh mesh = new IndexedMesh();
+                for(int i = 0; i < 30; i++){
+                        for(int j = 0; j < 30; j++){
+                                mesh.addPoint(i, j, 0);
+                        }
+                }
+                new IndexedTriangulator(mesh).triangulate();
+                int hull = assertValid(mesh);
+                assertEquals(4 * 29, hull);
+                assertEquals(2 * 29 * 29, mesh.getTriangleCount());
+        }
+
+        /**
+         * The duplicated points are merged.
+         * @throws DelaunayError
+         */
+        public void testDuplicates() throws DelaunayError {
+                IndexedMesh mesh = new IndexedMesh();
+                mesh.addPoint(0, 0, 0);
+                mesh.addPoint(10, 0, 0);
+                mesh.addPoint(0, 0, 1);
+                mesh.addPoint(0, 10, 0);
+                mesh.addPoint(10, 10, 0);
+                mesh.addPoint(10, 10, 0);
+                mesh.addConstraint(2, 5);
+                new IndexedTriangulator(mesh).triangulate();
+                assertValid(mesh);
+                assertEquals(2, mesh.getTriangleCount());
+                int constrained = 0;
+                for(int t = 0; t < 2; t++){
+                        for(int k = 0; k < 3; k++){
+                                constrained += mesh.isConstrained(t, k) ? 1 : 0;
+                        }
+                }
+                assertEquals(2, constrained);
+        }
+
+        /**
+         * The triangulation can't be done twice, or with collinear points.
+         * @throws DelaunayError
+         */
+        public void testErrors() throws DelaunayError {
+                IndexedMesh mesh = new IndexedMesh();
+                for(int i = 0; i < 10; i++){
+                        mesh.addPoint(i, 2 * i, 0);
+                }
+                try {
+                        new IndexedTriangulator(mesh).triangulate();
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_NOT_ENOUGH_POINTS_FOUND, d.getCode());
+                }
+                mesh.addPoint(0, 5, 0);
+                new IndexedTriangulator(mesh).triangulate();
+                assertValid(mesh);
+                try {
+                        new IndexedTriangulator(mesh).triangulate();
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_GENERATED, d.getCode());
+                }
+        }
+
+        /**
+         * The constraints are edges of the mesh, and are split by the points they
+         * contain.
+         * @throws DelaunayError
+         */
+        public void testConstraints() throws DelaunayError {
+                ArrayList<DEdge> lines = Workloads.contourLines(8, 300, 5);
+                Random rand = new Random(5);
+                List<DPoint> pts = new ArrayList<DPoint>();
+                for(int i = 0; i < 3000; i++){
+                        pts.add(new DPoint(rand.nextDouble() * 300, rand.nextDouble() * 180, 0));
+                }
+                IndexedMesh mesh = getMesh(pts);
+                for(DEdge ed : lines){
+                        int s = mesh.addPoint(ed.getStartPoint().getX(), ed.getStartPoint().getY(), ed.getStartPoint().getZ());
+                        int e = mesh.addPoint(ed.getEndPoint().getX(), ed.getEndPoint().getY(), ed.getEndPoint().getZ());
+                        mesh.addConstraint(s, e);
+                }
+                //A constraint that goes through two points.
+                int a = mesh.addPoint(-10, -10, 0);
+                mesh.addPoint(-5, -5, 0);
+                mesh.addPoint(0, 0, 0);
+                int b = mesh.addPoint(5, 5, 0);
+                mesh.addConstraint(a, b);
+                new IndexedTriangulator(mesh).triangulate();
+                assertValid(mesh);
+                int constrained = 0;
+                for(int t = 0; t < mesh.getTriangleCount(); t++){
+                        for(int k = 0; k < 3; k++){
+                                if(mesh.isConstrained(t, k) && (mesh.getNeighbour(t, k) < 0 || mesh.getNeighbour(t, k) > t)){
+                                        constrained++;
+                                }
+                        }
+                }
+                assertEquals(lines.size() + 3, constrained);
+        }
+
+        /**
+         * Add the triangles of part to mesh, whose points begin with the ones of
+         * part at offset.
+         */
+        private void append(IndexedMesh mesh, IndexedMesh part, int offset) {
+                int first = mesh.getTriangleCount();
+                for(int t = 0; t < part.getTriangleCount(); t++){
+                        mesh.addTriangle(part.getVertex(t, 0) + offset, part.getVertex(t, 1) + offset,
+                                part.getVertex(t, 2) + offset);
+                }
+                for(int t = 0; t < part.getTriangleCount(); t++){
+                        for(int k = 0; k < 3; k++){
+                                int o = part.getNeighbour(t, k);
+                                mesh.setNeighbour(first + t, k, o < 0 ? -1 : first + o);
+                        }
+                }
+        }
+
+        /**
+         * Triangulations side by side are stitched in the Delaunay triangulation
+         * of all their points, with a constraint that crosses all of them.
+         * @throws DelaunayError
+         */
+        public void testStitch() throws DelaunayError {
+                Random rand = new Random(11);
+                IndexedMesh mesh = new IndexedMesh();
+                IndexedMesh ref = new IndexedMesh();
+                for(int s = 0; s < 5; s++){
+                        IndexedMesh part = new IndexedMesh();
+                        if(s == 0 || s == 4){
+                                double x = s == 0 ? -10 : 400;
+                                part.addPoint(x, 50, 0);
+                                part.addPoint(x + 5, 40, 0);
+                                part.addPoint(x + 5, 60, 0);
+                        } else {
+                                for(int i = 0; i < 1000; i++){
+                                        part.addPoint(100 * (s - 1) + rand.nextDouble() * 90,
+                                                rand.nextDouble() * (s == 2 ? 300 : 100), 0);
+                                }
+                        }
+                        int offset = mesh.getPointCount();
+                        for(int i = 0; i < part.getPointCount(); i++){
+                                mesh.addPoint(part.getX(i), part.getY(i), 0);
+                                ref.addPoint(part.getX(i), part.getY(i), 0);
+                        }
+                        new IndexedTriangulator(part).triangulate();
+                        append(mesh, part, offset);
+                }
+                int last = mesh.getPointCount() - 3;
+                mesh.addConstraint(0, last);
+                ref.addConstraint(0, last);
+                new IndexedTriangulator(mesh).stitch();
+                new IndexedTriangulator(ref).triangulate();
+                int hull = assertValid(mesh);
+                assertEquals(assertValid(ref), hull);
+                assertEquals(ref.getTriangleCount(), mesh.getTriangleCount());
+                assertEquals(2 * mesh.getPointCount() - hull - 2, mesh.getTriangleCount());
+                int constrained = 0;
+                for(int t = 0; t < mesh.getTriangleCount(); t++){
+                        for(int k = 0; k < 3; k++){
+                                constrained += mesh.isConstrained(t, k) ? 1 : 0;
+                        }
+                }
+                assertTrue(constrained >= 2);
+        }
+
+        /**
+         * The triangulations can't be stitched if they overlap along x, if there
+         * is none, or if a point is not used.
+         * @throws DelaunayError
+         */
+        public void testStitchOverlap() throws DelaunayError {
+                IndexedMesh mesh = new IndexedMesh();
+                mesh.addPoint(0, 0, 0);
+                mesh.addPoint(10, 0, 0);
+                mesh.addPoint(0, 10, 0);
+                mesh.addPoint(5, 20, 0);
+                mesh.addPoint(15, 20, 0);
+                mesh.addPoint(5, 30, 0);
+                mesh.addTriangle(0, 1, 2);
+                mesh.addTriangle(3, 4, 5);
+                for(int t = 0; t < 2; t++){
+                        for(int k = 0; k < 3; k++){
+                                mesh.setNeighbour(t, k, -1);
+                        }
+                }
+                try {
+                        new IndexedTriangulator(mesh).stitch();
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_INCORRECT_TOPOLOGY, d.getCode());
+                }
+                try {
+                        new IndexedTriangulator(new IndexedMesh()).stitch();
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED, d.getCode());
+                }
+                IndexedMesh unused = new IndexedMesh();
+                unused.addPoint(0, 0, 0);
+                unused.addPoint(10, 0, 0);
+                unused.addPoint(0, 10, 0);
+                unused.addPoint(20, 20, 0);
+                unused.addTriangle(0, 1, 2);
+                for(int k = 0; k < 3; k++){
+                        unused.setNeighbour(0, k, -1);
+                }
+                try {
+                        new IndexedTriangulator(unused).stitch();
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_NON_INSERTED_POINT, d.getCode());
+                }
+        }
+
+        /**
+         * The stitch fails, instead of looping, when the hull of a triangulation
+         * goes twice through the same point.
+         * @throws DelaunayError
+         */
+        public void testStitchNotSimple() throws DelaunayError {
+                IndexedMesh mesh = new IndexedMesh();
+                mesh.addPoint(0, 0, 0);
+                mesh.addPoint(10, 0, 0);
+                mesh.addPoint(5, 5, 0);
+                mesh.addPoint(10, 10, 0);
+                mesh.addPoint(0, 10, 0);
+                mesh.addTriangle(0, 1, 2);
+                mesh.addTriangle(2, 3, 4);
+                for(int t = 0; t < 2; t++){
+                        for(int k = 0; k < 3; k++){
+                                mesh.setNeighbour(t, k, -1);
+                        }
+                }
+                try {
+                        new IndexedTriangulator(mesh).stitch();
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_INTERNAL_ERROR, d.getCode());
+                }
+        }
+}
@@ -0,0 +1,187 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.indexed;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import org.jdelaunay.delaunay.BaseUtility;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+
+/**
+ * Tests the meshes stored in mapped files.
+ */
+public class TestMappedMesh extends BaseUtility {
+
+        private File getFile() throws IOException {
+                File f = File.createTempFile("jdelaunay", ".mesh");
+                f.deleteOnExit();
+                return f;
+        }
+
+        /**
+         * Build a triangulated mesh, whose z values are on the plane z = 2x - y + 3.
+         */
+        private IndexedMesh getMesh(int size, long seed) throws DelaunayError {
+                Random rand = new Random(seed);
+                IndexedMesh mesh = new IndexedMesh();
+                for(int i = 0; i < size; i++){
+                        double x = rand.nextDouble() * 1000;
+                        double y = rand.nextDouble() * 500;
+                        mesh.addPoint(x, y, 2 * x - y + 3);
+                }
+                mesh.addConstraint(0, 1);
+                new IndexedTriangulator(mesh).triangulate();
+                return mesh;
+        }
+
+        private void assertContains(MappedMesh mesh, int t, double x, double y) {
+                for(int k = 0; k < 3; k++){
+                        int a = mesh.getVertex(t, (k + 1) % 3);
+                        int b = mesh.getVertex(t, (k + 2) % 3);
+                        double o = (mesh.getX(b) - mesh.getX(a)) * (y - mesh.getY(a))
+                                - (mesh.getY(b) - mesh.getY(a)) * (x - mesh.getX(a));
+                        assertTrue(o >= 0);
+                }
+        }
+
+        /**
+         * The file contains the same mesh, even when it is split in small chunks.
+         * @throws DelaunayError
+         * @throws IOException
+         */
+        public void testContent() throws DelaunayError, IOException {
+                IndexedMesh mesh = getMesh(3000, 1);
+                File f = getFile();
+                MappedMesh.write(mesh, f, 12).close();
+                MappedMesh mapped = MappedMesh.open(f, 12);
+                assertEquals(mesh.getPointCount(), mapped.getPointCount());
+                assertEquals(mesh.getTriangleCount(), mapped.getTriangleCount());
+                for(int i = 0; i < mesh.getPointCount(); i++){
+                        assertEquals(mesh.getX(i), mapped.getX(i));
+                        assertEquals(mesh.getY(i), mapped.getY(i));
+                        assertEquals(mesh.getZ(i), mapped.getZ(i));
+                }
+                int constrained = 0;
+                for(int t = 0; t < mesh.getTriangleCount(); t++){
+                        for(int k = 0; k < 3; k++){
+                                assertEquals(mesh.getVertex(t, k), mapped.getVertex(t, k));
+                                assertEquals(mesh.getNeighbour(t, k), mapped.getNeighbour(t, k));
+                                assertEquals(mesh.isConstrained(t, k), mapped.isConstrained(t, k));
+                                constrained += mapped.isConstrained(t, k) ? 1 : 0;
+                        }
+                        int n = mapped.getNeighbour(t, 0);
+                        if(n >= 0){
+                                assertEquals(0, mapped.getNeighbourIndex(t, n));
+                        }
+                }
+                assertTrue(constrained >= 1);
+                mapped.close();
+        }
+
+        /**
+         * Locate points and interpolate their z value.
+         * @throws DelaunayError
+         * @throws IOException
+         */
+        public void testLocate() throws DelaunayError, IOException {
+                IndexedMesh mesh = getMesh(5000, 2);
+                MappedMesh mapped = MappedMesh.write(mesh, getFile(), 16);
+                Random rand = new Random(3);
+                for(int i = 0; i < 2000; i++){
+                        double x = 10 + rand.nextDouble() * 980;
+                        double y = 5 + rand.nextDouble() * 490;
+                        int t = mapped.locate(x, y);
+                        assertTrue(t >= 0);
+                        assertContains(mapped, t, x, y);
+                        assertEquals(2 * x - y + 3, mapped.interpolateZ(x, y), 1e-6);
+                }
+                for(int i = 0; i < mesh.getPointCount(); i += 7){
+                        int t = mapped.locate(mesh.getX(i), mesh.getY(i));
+                        assertTrue(t >= 0);
+                        assertEquals(mesh.getZ(i), mapped.interpolateZ(mesh.getX(i), mesh.getY(i)), 1e-6);
+                }
+                assertEquals(-1, mapped.locate(-1, 250));
+                assertEquals(-1, mapped.locate(500, 1e4));
+                assertTrue(Double.isNaN(mapped.interpolateZ(2000, -3)));
+                mapped.close();
+        }
+
+        /**
+         * A ConstrainedMesh can be written in a file.
+         * @throws DelaunayError
+         * @throws IOException
+         */
+        public void testConstrainedMesh() throws DelaunayError, IOException {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(getRandomPoints(1000));
+                mesh.addConstraintEdge(new DEdge(0, 0, 0, 90, 90, 0));
+                mesh.forceConstraintIntegrity();
+                mesh.processDelaunay();
+                File f = getFile();
+                MappedMesh.write(mesh, f).close();
+                MappedMesh mapped = MappedMesh.open(f);
+                assertEquals(mesh.getTriangleList().size(), mapped.getTriangleCount());
+                DPoint pt = new DPoint(45, 45, 0);
+                int t = mapped.locate(pt.getX(), pt.getY());
+                assertTrue(t >= 0);
+                assertContains(mapped, t, pt.getX(), pt.getY());
+                assertEquals(mesh.getTriangleList().get(t).interpolateZ(pt), mapped.interpolateZ(pt.getX(), pt.getY()), 1e-9);
+                mapped.close();
+        }
+
+        /**
+         * Only the triangulated meshes and the mesh files can be used.
+         * @throws IOException
+         */
+        public void testErrors() throws IOException {
+                try {
+                        MappedMesh.write(new IndexedMesh(), getFile());
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED, d.getCode());
+                }
+                File f = getFile();
+                FileOutputStream out = new FileOutputStream(f);
+                out.write(new byte[100]);
+                out.close();
+                try {
+                        MappedMesh.open(f);
+                        fail();
+                } catch (IOException e){
+                        assertTrue(e.getMessage().startsWith("not a mesh file"));
+                }
+        }
+}
@@ -0,0 +1,114 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.indexed;
+
+import org.jdelaunay.delaunay.BaseUtility;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.evaluator.SkinnyEvaluator;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DTriangle;
+
+/**
+ * Tests the conversions between ConstrainedMesh and IndexedMesh.
+ */
+public class TestMeshConverter extends BaseUtility {
+
+        /**
+         * A computed mesh is converted, then converted back.
+         * @throws DelaunayError
+         */
+        public void testRoundTrip() throws DelaunayError {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(getRandomPoints(2000));
+                mesh.addConstraintEdge(new DEdge(1, 1, 0, 99, 2, 0));
+                mesh.addConstraintEdge(new DEdge(1, 99, 0, 50, 98, 0));
+                mesh.forceConstraintIntegrity();
+                mesh.processDelaunay();
+                IndexedMesh indexed = MeshConverter.toIndexedMesh(mesh);
+                assertEquals(mesh.getPoints().size(), indexed.getPointCount());
+                assertEquals(mesh.getTriangleList().size(), indexed.getTriangleCount());
+                assertEquals(mesh.getEdges().size(), indexed.getEdgeCount());
+                assertEquals(mesh.getConstraintEdges().size(), indexed.getConstraintCount());
+                for(int t = 0; t < indexed.getTriangleCount(); t++){
+                        DTriangle tri = mesh.getTriangleList().get(t);
+                        assertEquals(tri.getPoint(0).getZ(), indexed.getZ(indexed.getVertex(t, 0)), 0);
+                }
+                ConstrainedMesh back = MeshConverter.toConstrainedMesh(indexed);
+                assertTrue(back.isMeshComputed());
+                assertEquals(mesh.getPoints().size(), back.getPoints().size());
+                assertEquals(mesh.getEdges().size(), back.getEdges().size());
+                assertEquals(mesh.getTriangleList().size(), back.getTriangleList().size());
+                assertEquals(mesh.getConstraintEdges().size(), back.getConstraintEdges().size());
+                assertCoherence(back);
+                assertGIDUnicity(back);
+                assertConstraintsAreLocked(back);
+        }
+
+        /**
+         * The mesh computed by the IndexedTriangulator can be used as a ConstrainedMesh.
+         * @throws DelaunayError
+         */
+        public void testFromTriangulator() throws DelaunayError {
+                IndexedMesh indexed = new IndexedMesh();
+                for(int i = 0; i < 1000; i++){
+                        indexed.addPoint(Math.random() * 100, Math.random() * 100, Math.random());
+                }
+                indexed.addConstraint(0, 1);
+                new IndexedTriangulator(indexed).triangulate();
+                ConstrainedMesh mesh = MeshConverter.toConstrainedMesh(indexed);
+                assertEquals(indexed.getTriangleCount(), mesh.getTriangleList().size());
+                assertEquals(1, mesh.getConstraintEdges().size());
+                assertCoherence(mesh);
+                assertTrianglesTopology(mesh);
+                mesh.refineMesh(0.5, new SkinnyEvaluator(20));
+                assertCoherence(mesh);
+        }
+
+        /**
+         * Only computed meshes can be converted.
+         * @throws DelaunayError
+         */
+        public void testNotComputed() throws DelaunayError {
+                try {
+                        MeshConverter.toIndexedMesh(new ConstrainedMesh());
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED, d.getCode());
+                }
+                try {
+                        MeshConverter.toConstrainedMesh(new IndexedMesh());
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED, d.getCode());
+                }
+        }
+}
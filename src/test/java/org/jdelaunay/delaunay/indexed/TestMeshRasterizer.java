@@ -0,0 +1,189 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.indexed;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jdelaunay.delaunay.BaseUtility;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DPoint;
+import org.jdelaunay.delaunay.geometries.DTriangle;
+
+/**
+ * Tests the conversion of the meshes to DEM grids.
+ */
+public class TestMeshRasterizer extends BaseUtility {
+
+        private File getFile() throws IOException {
+                File f = File.createTempFile("jdelaunay", ".flt");
+                f.deleteOnExit();
+                String name = f.getName();
+                new File(f.getParentFile(), name.substring(0, name.length() - 4) + ".hdr").deleteOnExit();
+                return f;
+        }
+
+        private float[] read(File f) throws IOException {
+                RandomAccessFile raf = new RandomAccessFile(f, "r");
+                try {
+                        byte[] bytes = new byte[(int) raf.length()];
+                        raf.readFully(bytes);
+                        ByteBuffer buf = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+                        float[] ret = new float[bytes.length / 4];
+                        buf.asFloatBuffer().get(ret);
+                        return ret;
+                } finally {
+                        raf.close();
+                }
+        }
+
+        /**
+         * Build a mesh of the given corners and random points inside the square
+         * [0, 100]x[0, 100], whose z values are on the plane z = 2x - y + 3.
+         */
+        private ConstrainedMesh getMesh(double[][] corners, int size, long seed) throws DelaunayError {
+                Random rand = new Random(seed);
+                List<DPoint> pts = new ArrayList<DPoint>();
+                for(double[] c : corners){
+                        pts.add(new DPoint(c[0], c[1], 2 * c[0] - c[1] + 3));
+                }
+                for(int i = 0; i < size; i++){
+                        double x = 1 + rand.nextDouble() * 98;
+                        double y = 1 + rand.nextDouble() * (98 - (corners.length == 3 ? x : 0));
+                        pts.add(new DPoint(x, y, 2 * x - y + 3));
+                }
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(pts);
+                mesh.processDelaunay();
+                return mesh;
+        }
+
+        /**
+         * The cells receive the z value of the plane, even when the files are
+         * split in small chunks, and the header describes the grid.
+         * @throws DelaunayError
+         * @throws IOException
+         */
+        public void testPlane() throws DelaunayError, IOException {
+                ConstrainedMesh mesh = getMesh(new double[][]{{0, 0}, {100, 0}, {0, 100}, {100, 100}}, 2000, 3);
+                MeshRasterizer raster = new MeshRasterizer(mesh, 0.5);
+                raster.setParallelism(3);
+                assertEquals(200, raster.getColumnCount());
+                assertEquals(200, raster.getRowCount());
+                File zf = getFile();
+                File slope = getFile();
+                File aspect = getFile();
+                raster.write(zf, slope, aspect, 12);
+                float[] z = read(zf);
+                float[] s = read(slope);
+                float[] a = read(aspect);
+                assertEquals(200 * 200, z.length);
+                DTriangle tri = mesh.getTriangleList().get(0);
+                for(int row = 0; row < 200; row++){
+                        double y = 100 - (row + 0.5) * 0.5;
+                        for(int col = 0; col < 200; col++){
+                                double x = (col + 0.5) * 0.5;
+                                int i = row * 200 + col;
+                                assertEquals(2 * x - y + 3, z[i], 1e-3);
+                                assertEquals(tri.getSlopeInDegree(), s[i], 1e-3);
+                                assertEquals(tri.getSlopeAspect(), a[i], 1e-3);
+                        }
+                }
+                String name = zf.getName();
+                File hdr = new File(zf.getParentFile(), name.substring(0, name.length() - 4) + ".hdr");
+                BufferedReader in = new BufferedReader(new FileReader(hdr));
+                try {
+                        assertEquals("ncols 200", in.readLine());
+                        assertEquals("nrows 200", in.readLine());
+                        assertEquals("xllcorner 0.0", in.readLine());
+                        assertEquals("yllcorner 0.0", in.readLine());
+                        assertEquals("cellsize 0.5", in.readLine());
+                        assertEquals("NODATA_value -9999.0", in.readLine());
+                        assertEquals("byteorder LSBFIRST", in.readLine());
+                } finally {
+                        in.close();
+                }
+        }
+
+        /**
+         * The cells outside the mesh, or outside the given grid, are NODATA.
+         * @throws DelaunayError
+         * @throws IOException
+         */
+        public void testOutside() throws DelaunayError, IOException {
+                ConstrainedMesh mesh = getMesh(new double[][]{{0, 0}, {100, 0}, {0, 100}}, 500, 5);
+                MeshRasterizer raster = new MeshRasterizer(mesh, -10, -10, 1, 120, 130);
+                File zf = getFile();
+                raster.write(zf);
+                float[] z = read(zf);
+                assertEquals(120 * 130, z.length);
+                for(int row = 0; row < 130; row++){
+                        double y = -10 + 130 - row - 0.5;
+                        for(int col = 0; col < 120; col++){
+                                double x = -10 + col + 0.5;
+                                float v = z[row * 120 + col];
+                                if(x < 0 || y < 0 || x + y > 100){
+                                        assertEquals(MeshRasterizer.NODATA, v);
+                                } else {
+                                        assertEquals(2 * x - y + 3, v, 1e-3);
+                                }
+                        }
+                }
+        }
+
+        /**
+         * The mesh must be computed, and the grid must not be empty.
+         * @throws DelaunayError
+         */
+        public void testErrors() throws DelaunayError {
+                try {
+                        new MeshRasterizer(new ConstrainedMesh(), 1);
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_NOT_GENERATED, d.getCode());
+                }
+                ConstrainedMesh mesh = getMesh(new double[][]{{0, 0}, {100, 0}, {0, 100}}, 10, 7);
+                try {
+                        new MeshRasterizer(mesh, 0, 0, 0, 10, 10);
+                        fail();
+                } catch (IllegalArgumentException e){
+                        assertNotNull(e.getMessage());
+                }
+        }
+}
@@ -0,0 +1,155 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jdelaunay.delaunay.BaseUtility;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.evaluator.SkinnyEvaluator;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+
+/**
+ * Tests the values reported to a MeshListener by a ConstrainedMesh.
+ */
+public class TestMeshStatistics extends BaseUtility {
+
+        /**
+         * The phases and counters of a simple triangulation.
+         * @throws DelaunayError
+         */
+        public void testTriangulation() throws DelaunayError {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                MeshStatistics stats = new MeshStatistics();
+                mesh.setMeshListener(stats);
+                assertTrue(mesh.getMeshListener() == stats);
+                mesh.setPoints(getRandomPoints(1000));
+                mesh.processDelaunay();
+                assertEquals(1, stats.getCalls(MeshPhase.SORTING));
+                assertEquals(1, stats.getCalls(MeshPhase.SWEEP));
+                assertEquals(1, stats.getCalls(MeshPhase.FLIPS));
+                assertEquals(0, stats.getCalls(MeshPhase.REFINEMENT));
+                assertEquals(mesh.getTriangleList().size(), stats.getCount(MeshCounter.TRIANGLES_CREATED));
+                assertTrue(stats.getCount(MeshCounter.FLIPS) > 0);
+                assertTrue(stats.getCount(MeshCounter.IN_CIRCLE_TESTS) >= stats.getCount(MeshCounter.FLIPS));
+                assertTrue(stats.getCount(MeshCounter.BOUNDARY_PARTS) >= mesh.getPoints().size() - 2);
+                assertEquals(0, stats.getCount(MeshCounter.POINTS_CREATED));
+                assertEquals(0, stats.getCount(MeshCounter.REVERTED_INSERTIONS));
+                assertTrue(stats.getTime(MeshPhase.SWEEP, TimeUnit.NANOSECONDS) > 0);
+                stats.reset();
+                assertEquals(0, stats.getCount(MeshCounter.FLIPS));
+                assertEquals(0, stats.getCalls(MeshPhase.SWEEP));
+        }
+
+        /**
+         * The intersection points are counted while forcing the integrity of
+         * the constraints.
+         * @throws DelaunayError
+         */
+        public void testConstraintIntegrity() throws DelaunayError {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                MeshStatistics stats = new MeshStatistics();
+                mesh.setMeshListener(stats);
+                mesh.addConstraintEdge(new DEdge(0, 0, 0, 10, 10, 0));
+                mesh.addConstraintEdge(new DEdge(0, 10, 0, 10, 0, 0));
+                mesh.addConstraintEdge(new DEdge(0, 5, 0, 10, 5, 0));
+                int before = mesh.getPoints().size();
+                mesh.forceConstraintIntegrity();
+                assertEquals(1, stats.getCalls(MeshPhase.CONSTRAINT_INTEGRITY));
+                assertEquals(mesh.getPoints().size() - before, stats.getCount(MeshCounter.POINTS_CREATED));
+                assertEquals(1, stats.getCount(MeshCounter.POINTS_CREATED));
+        }
+
+        /**
+         * The Steiner points are counted during the refinement.
+         * @throws DelaunayError
+         */
+        public void testRefinement() throws DelaunayError {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(getRandomPoints(500));
+                mesh.addConstraintEdge(new DEdge(1, 1, 0, 99, 2, 0));
+                mesh.processDelaunay();
+                int before = mesh.getPoints().size();
+                MeshStatistics stats = new MeshStatistics();
+                mesh.setMeshListener(stats);
+                mesh.refineMesh(0.5, new SkinnyEvaluator(25));
+                assertEquals(1, stats.getCalls(MeshPhase.REFINEMENT));
+                assertEquals(0, stats.getCalls(MeshPhase.SWEEP));
+                //The points of the reverted insertions have been created, then removed.
+                assertEquals(mesh.getPoints().size() - before, stats.getCount(MeshCounter.POINTS_CREATED)
+                        - stats.getCount(MeshCounter.REVERTED_INSERTIONS));
+                assertTrue(stats.getCount(MeshCounter.POINTS_CREATED) > 0);
+                assertCoherence(mesh);
+        }
+
+        /**
+         * The removal of flat triangles contains a new triangulation.
+         * @throws DelaunayError
+         */
+        public void testFlatRemoval() throws DelaunayError {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.addConstraintEdge(new DEdge(0, 0, 10, 10, 0, 10));
+                mesh.addConstraintEdge(new DEdge(10, 0, 10, 10, 10, 10));
+                mesh.addConstraintEdge(new DEdge(10, 10, 10, 0, 10, 10));
+                mesh.addConstraintEdge(new DEdge(0, 10, 10, 0, 0, 10));
+                mesh.addPoint(new DPoint(5, 5, 20));
+                mesh.processDelaunay();
+                MeshStatistics stats = new MeshStatistics();
+                mesh.setMeshListener(stats);
+                mesh.removeFlatTriangles();
+                assertEquals(1, stats.getCalls(MeshPhase.FLAT_REMOVAL));
+                assertEquals(1, stats.getCalls(MeshPhase.SWEEP));
+        }
+
+        /**
+         * The points merged by dataQualification are counted.
+         * @throws DelaunayError
+         */
+        public void testDataQualification() throws DelaunayError {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                List<DPoint> pts = new ArrayList<DPoint>();
+                pts.add(new DPoint(0, 0, 0));
+                pts.add(new DPoint(0.000001, 0, 0));
+                pts.add(new DPoint(1, 0, 0));
+                pts.add(new DPoint(1, 1, 0));
+                pts.add(new DPoint(0, 1, 0));
+                mesh.setPoints(pts);
+                MeshStatistics stats = new MeshStatistics();
+                mesh.setMeshListener(stats);
+                mesh.dataQualification(1.0e-3);
+                assertEquals(1, stats.getCalls(MeshPhase.DATA_QUALIFICATION));
+                assertEquals(1, stats.getCount(MeshCounter.POINTS_MERGED));
+                assertEquals(4, mesh.getPoints().size());
+        }
+}
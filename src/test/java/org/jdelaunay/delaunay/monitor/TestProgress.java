@@ -0,0 +1,273 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jdelaunay.delaunay.BaseUtility;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.TriangulationEngine;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.evaluator.SkinnyEvaluator;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+
+/**
+ * Tests the progress reports and the cancellation of the long running operations
+ * of a ConstrainedMesh.
+ */
+public class TestProgress extends BaseUtility {
+
+        /**
+         * A monitor that records the last report, and cancels its token when
+         * it has received a given number of reports.
+         */
+        private static class CancellingMonitor implements ProgressMonitor {
+
+                private CancellationToken token = new CancellationToken();
+                private int cancelAt;
+                private int calls = 0;
+                private MeshPhase lastPhase = null;
+                private long lastDone = -1;
+                private long lastTotal = -1;
+
+                CancellingMonitor(int cancelAt){
+                        this.cancelAt = cancelAt;
+                }
+
+                @Override
+                public void progress(MeshPhase phase, long done, long total) {
+                        calls++;
+                        lastPhase = phase;
+                        lastDone = done;
+                        lastTotal = total;
+                        if(calls == cancelAt){
+                                token.cancel();
+                        }
+                }
+        }
+
+        /**
+         * A listener that counts, for each phase, the calls to phaseStarted
+         * that have not been followed by phaseFinished yet.
+         */
+        private static class OpenPhases implements MeshListener {
+
+                private int[] open = new int[MeshPhase.values().length];
+                private int started = 0;
+
+                @Override
+                public void phaseStarted(MeshPhase phase) {
+                        open[phase.ordinal()]++;
+                        started++;
+                }
+
+                @Override
+                public void phaseFinished(MeshPhase phase, long nanos) {
+                        open[phase.ordinal()]--;
+                }
+
+                @Override
+                public void count(MeshCounter counter, long amount) {
+                }
+        }
+
+        /**
+         * Builds a mesh that will report its progress to mon.
+         */
+        private ConstrainedMesh getMesh(CancellingMonitor mon) {
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setProgressMonitor(mon);
+                mesh.setCancellationToken(mon.token);
+                assertTrue(mesh.getProgressMonitor() == mon);
+                assertTrue(mesh.getCancellationToken() == mon.token);
+                return mesh;
+        }
+
+        /**
+         * Builds some random crossing constraints.
+         */
+        private ArrayList<DEdge> getCrossingEdges(int number) throws DelaunayError {
+                Random rand = new Random(7);
+                ArrayList<DEdge> ret = new ArrayList<DEdge>();
+                for(int i = 0; i < number; i++){
+                        ret.add(new DEdge(rand.nextDouble() * 1000, rand.nextDouble() * 1000, 0,
+                                rand.nextDouble() * 1000, rand.nextDouble() * 1000, 0));
+                }
+                return ret;
+        }
+
+        /**
+         * The sweep reports its progress until all the points are inserted.
+         * @throws DelaunayError
+         */
+        public void testSweepProgress() throws DelaunayError {
+                CancellingMonitor mon = new CancellingMonitor(-1);
+                ConstrainedMesh mesh = getMesh(mon);
+                mesh.setPoints(getRandomPoints(5000));
+                mesh.processDelaunay();
+                assertTrue(mon.calls > 4);
+                assertEquals(MeshPhase.SWEEP, mon.lastPhase);
+                assertEquals(mesh.getPoints().size(), mon.lastDone);
+                assertEquals(mesh.getPoints().size(), mon.lastTotal);
+        }
+
+        /**
+         * A cancelled triangulation can be computed again.
+         * @throws DelaunayError
+         */
+        public void testCancelSweep() throws DelaunayError {
+                CancellingMonitor mon = new CancellingMonitor(2);
+                ConstrainedMesh mesh = getMesh(mon);
+                mesh.setPoints(getRandomPoints(5000));
+                mesh.addConstraintEdge(new DEdge(2, 3, 0, 95, 80, 0));
+                try{
+                        mesh.processDelaunay();
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_CANCELLED, d.getCode());
+                }
+                assertFalse(mesh.isMeshComputed());
+                assertTrue(mesh.getTriangleList().isEmpty());
+                assertTrue(mesh.getEdges().isEmpty());
+                mesh.setCancellationToken(null);
+                mesh.processDelaunay();
+                assertTrue(mesh.isMeshComputed());
+                assertCoherence(mesh);
+                assertUseEachPoint(mesh);
+        }
+
+        /**
+         * The phases started by a cancelled triangulation are finished.
+         * @throws DelaunayError
+         */
+        public void testCancelFinishesPhases() throws DelaunayError {
+                for(TriangulationEngine engine : new TriangulationEngine[]{TriangulationEngine.SWEEP, TriangulationEngine.INCREMENTAL}){
+                        CancellingMonitor mon = new CancellingMonitor(2);
+                        OpenPhases phases = new OpenPhases();
+                        ConstrainedMesh mesh = getMesh(mon);
+                        mesh.setEngine(engine);
+                        mesh.setPoints(getRandomPoints(5000));
+                        mesh.setMeshListener(phases);
+                        try{
+                                mesh.processDelaunay();
+                                fail();
+                        } catch (DelaunayError d){
+                                assertEquals(DelaunayError.DELAUNAY_ERROR_CANCELLED, d.getCode());
+                        }
+                        assertTrue(phases.started > 0);
+                        for(MeshPhase phase : MeshPhase.values()){
+                                assertEquals(phase.toString(), 0, phases.open[phase.ordinal()]);
+                        }
+                }
+        }
+
+        /**
+         * A cancelled constraint processing can be done again.
+         * @throws DelaunayError
+         */
+        public void testCancelConstraintIntegrity() throws DelaunayError {
+                CancellingMonitor mon = new CancellingMonitor(2);
+                ConstrainedMesh mesh = getMesh(mon);
+                mesh.setConstraintEdges(getCrossingEdges(100));
+                try{
+                        mesh.forceConstraintIntegrity();
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_CANCELLED, d.getCode());
+                }
+                assertEquals(MeshPhase.CONSTRAINT_INTEGRITY, mon.lastPhase);
+                mesh.setCancellationToken(null);
+                mesh.forceConstraintIntegrity();
+                ConstrainedMesh ref = new ConstrainedMesh();
+                ref.setConstraintEdges(getCrossingEdges(100));
+                ref.forceConstraintIntegrity();
+                assertEquals(ref.getConstraintEdges().size(), mesh.getConstraintEdges().size());
+                assertEquals(ref.getPoints().size(), mesh.getPoints().size());
+                mesh.processDelaunay();
+                assertCoherence(mesh);
+                assertConstraintsAreLocked(mesh);
+        }
+
+        /**
+         * A cancelled refinement leaves a valid mesh.
+         * @throws DelaunayError
+         */
+        public void testCancelRefinement() throws DelaunayError {
+                CancellingMonitor mon = new CancellingMonitor(-1);
+                ConstrainedMesh mesh = getMesh(mon);
+                mesh.setPoints(getRandomPoints(3000));
+                mesh.addConstraintEdge(new DEdge(1, 1, 0, 99, 2, 0));
+                mesh.processDelaunay();
+                mon.cancelAt = mon.calls + 2;
+                try{
+                        mesh.refineMesh(0.5, new SkinnyEvaluator(25));
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_CANCELLED, d.getCode());
+                }
+                assertEquals(MeshPhase.REFINEMENT, mon.lastPhase);
+                assertTrue(mesh.isMeshComputed());
+                assertCoherence(mesh);
+                assertTrianglesTopology(mesh);
+        }
+
+        /**
+         * A flat removal cancelled before the new triangulation doesn't change
+         * the mesh.
+         * @throws DelaunayError
+         */
+        public void testCancelFlatRemoval() throws DelaunayError {
+                CancellingMonitor mon = new CancellingMonitor(-1);
+                ConstrainedMesh mesh = getMesh(mon);
+                mesh.setPrecision(1.0e-3);
+                mesh.setPoints(getPoints());
+                mesh.processDelaunay();
+                List<DPoint> pts = new ArrayList<DPoint>(mesh.getPoints());
+                int triangles = mesh.getTriangleList().size();
+                mon.token.cancel();
+                try{
+                        mesh.removeFlatTriangles();
+                        fail();
+                } catch (DelaunayError d){
+                        assertEquals(DelaunayError.DELAUNAY_ERROR_CANCELLED, d.getCode());
+                }
+                assertEquals(MeshPhase.FLAT_REMOVAL, mon.lastPhase);
+                assertTrue(mesh.isMeshComputed());
+                assertEquals(pts, mesh.getPoints());
+                assertEquals(triangles, mesh.getTriangleList().size());
+                mesh.setCancellationToken(null);
+                mesh.removeFlatTriangles();
+                assertTrue(mesh.getPoints().size() > pts.size());
+                assertCoherence(mesh);
+        }
+}
@@ -0,0 +1,167 @@
+/**
+ *
+ * jDelaunay is a library dedicated to the processing of Delaunay and constrained
+ * Delaunay triangulations from PSLG inputs.
+ *
+ * This library is developed at French IRSTV institute as part of the AvuPur and Eval-PDU project,
+ * funded by the French Agence Nationale de la Recherche (ANR) under contract
+ * ANR-07-VULN-01 and ANR-08-VILL-0005-01 .
+ *
+ * jDelaunay is distributed under GPL 3 license. It is produced by the "Atelier SIG" team of
+ * the IRSTV Institute <http://www.irstv.fr/> CNRS FR 2488.
+ *
+ * Copyright (C) 2010-2012 IRSTV FR CNRS 2488
+ *
+ * jDelaunay is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * jDelaunay is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * jDelaunay. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * For more information, please consult: <http://www.orbisgis.org/>
+ * or contact directly:
+ * info_at_ orbisgis.org
+ */
+package org.jdelaunay.delaunay.tools;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jdelaunay.delaunay.BaseUtility;
+import org.jdelaunay.delaunay.ConstrainedMesh;
+import org.jdelaunay.delaunay.error.DelaunayError;
+import org.jdelaunay.delaunay.geometries.DEdge;
+import org.jdelaunay.delaunay.geometries.DPoint;
+
+/**
+ * Tests the robust predicates against a BigDecimal computation.
+ */
+public class TestPredicates extends BaseUtility {
+
+        private static BigDecimal big(double d) {
+                return new BigDecimal(d);
+        }
+
+        private static int orientSign(double ax, double ay, double bx, double by, double cx, double cy) {
+                BigDecimal l = big(ax).subtract(big(cx)).multiply(big(by).subtract(big(cy)));
+                BigDecimal r = big(ay).subtract(big(cy)).multiply(big(bx).subtract(big(cx)));
+                return l.subtract(r).signum();
+        }
+
+        private static int inCircleSign(double ax, double ay, double bx, double by,
+                        double cx, double cy, double dx, double dy) {
+                BigDecimal adx = big(ax).subtract(big(dx));
+                BigDecimal ady = big(ay).subtract(big(dy));
+                BigDecimal bdx = big(bx).subtract(big(dx));
+                BigDecimal bdy = big(by).subtract(big(dy));
+                BigDecimal cdx = big(cx).subtract(big(dx));
+                BigDecimal cdy = big(cy).subtract(big(dy));
+                BigDecimal a = adx.multiply(adx).add(ady.multiply(ady));
+                BigDecimal b = bdx.multiply(bdx).add(bdy.multiply(bdy));
+                BigDecimal c = cdx.multiply(cdx).add(cdy.multiply(cdy));
+                BigDecimal det = a.multiply(bdx.multiply(cdy).subtract(cdx.multiply(bdy)))
+                        .add(b.multiply(cdx.multiply(ady).subtract(adx.multiply(cdy))))
+                        .add(c.multiply(adx.multiply(bdy).subtract(bdx.multiply(ady))));
+                return det.signum();
+        }
+
+        private static int sign(double d) {
+                return d > 0 ? 1 : (d < 0 ? -1 : 0);
+        }
+
+        /**
+         * The points close to the diagonal of a small grid of doubles. The plain
+         * floating point computation gives wrong signs for many of them.
+         */
+        public void testOrientNearCollinear() {
+                double step = Math.ulp(0.5);
+                int zeros = 0;
+                for(int i = 0; i < 64; i++){
+                        for(int j = 0; j < 64; j++){
+                                double ax = 0.5 + i * step;
+                                double ay = 0.5 + j * step;
+                                int expected = orientSign(ax, ay, 12, 12, 24, 24);
+                                assertEquals(expected, sign(Predicates.orient2d(ax, ay, 12, 12, 24, 24)));
+                                zeros += expected == 0 ? 1 : 0;
+                        }
+                }
+                assertEquals(64, zeros);
+        }
+
+        /**
+         * Points almost collinear, with large coordinates.
+         */
+        public void testOrientLargeCoordinates() {
+                Random rand = new Random(11);
+                for(int i = 0; i < 20000; i++){
+                        double ax = 1e6 + rand.nextDouble() * 1000;
+                        double ay = 5e6 + rand.nextDouble() * 1000;
+                        double bx = 1e6 + rand.nextDouble() * 1000;
+                        double by = 5e6 + rand.nextDouble() * 1000;
+                        double t = rand.nextDouble();
+                        double cx = ax + t * (bx - ax) + (rand.nextInt(5) - 2) * Math.ulp(ax);
+                        double cy = ay + t * (by - ay);
+                        assertEquals(orientSign(ax, ay, bx, by, cx, cy),
+                                sign(Predicates.orient2d(ax, ay, bx, by, cx, cy)));
+                        assertEquals(orientSign(ax, ay, bx, by, cx, cy),
+                                sign(Predicates.orient2dExact(ax, ay, bx, by, cx, cy)));
+                }
+        }
+
+        /**
+         * Points almost cocircular, with large coordinates, and exactly cocircular
+         * points.
+         */
+        public void testInCircle() {
+                Random rand = new Random(12);
+                for(int i = 0; i < 5000; i++){
+                        double ox = 1e6 + rand.nextDouble() * 1000;
+                        double oy = 5e6 + rand.nextDouble() * 1000;
+                        double r = 1 + rand.nextDouble() * 100;
+                        double[] c = new double[8];
+                        for(int k = 0; k < 4; k++){
+                                double angle = rand.nextDouble() * 2 * Math.PI;
+                                c[2 * k] = ox + r * Math.cos(angle);
+                                c[2 * k + 1] = oy + r * Math.sin(angle);
+                        }
+                        int expected = inCircleSign(c[0], c[1], c[2], c[3], c[4], c[5], c[6], c[7]);
+                        assertEquals(expected, sign(Predicates.inCircle(c[0], c[1], c[2], c[3], c[4], c[5], c[6], c[7])));
+                        assertEquals(expected, sign(Predicates.inCircleExact(c[0], c[1], c[2], c[3], c[4], c[5], c[6], c[7])));
+                }
+                assertEquals(0.0, Predicates.inCircle(1e6, 5e6, 1e6 + 3, 5e6, 1e6 + 3, 5e6 + 4, 1e6, 5e6 + 4));
+                assertTrue(Predicates.inCircle(0, 0, 1, 0, 0, 1, 0.5, 0.5) > 0);
+                assertTrue(Predicates.inCircle(0, 0, 1, 0, 0, 1, 2, 2) < 0);
+                assertTrue(Predicates.inCircle(0, 0, 0, 1, 1, 0, 0.5, 0.5) < 0);
+        }
+
+        /**
+         * The edges of a mesh computed far from the origin are all Delaunay.
+         * @throws DelaunayError
+         */
+        public void testMeshLargeCoordinates() throws DelaunayError {
+                Random rand = new Random(13);
+                List<DPoint> pts = new ArrayList<DPoint>();
+                for(int i = 0; i < 3000; i++){
+                        //A lattice of half-metres, so that many points are cocircular.
+                        pts.add(new DPoint(7e5 + rand.nextInt(400) * 0.5, 6.5e6 + rand.nextInt(400) * 0.5, 0));
+                }
+                ConstrainedMesh mesh = new ConstrainedMesh();
+                mesh.setPoints(pts);
+                mesh.processDelaunay();
+                assertCoherence(mesh);
+                for(DEdge ed : mesh.getEdges()){
+                        if(ed.getLeft() != null && ed.getRight() != null){
+                                DPoint p3 = ed.getLeft().getAlterPoint(ed.getStartPoint(), ed.getEndPoint());
+                                DPoint p4 = ed.getRight().getAlterPoint(ed.getStartPoint(), ed.getEndPoint());
+                                assertTrue(Predicates.inCircle(ed.getStartPoint(), ed.getEndPoint(), p3, p4) <= 0);
+                        }
+                }
+        }
+}